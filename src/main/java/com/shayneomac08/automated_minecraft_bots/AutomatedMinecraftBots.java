@@ -93,10 +93,22 @@ public class AutomatedMinecraftBots {
 
     private void onServerStarted(net.neoforged.neoforge.event.server.ServerStartedEvent event) {
         com.shayneomac08.automated_minecraft_bots.bot.BotPersistenceManager.onServerStarted(event.getServer());
+        com.shayneomac08.automated_minecraft_bots.llm.LlmMockServer.startIfConfigured();
     }
 
     private void onServerStopping(net.neoforged.neoforge.event.server.ServerStoppingEvent event) {
         com.shayneomac08.automated_minecraft_bots.bot.BotPersistenceManager.onServerStopping(event.getServer());
+        com.shayneomac08.automated_minecraft_bots.pathfinding.PathScheduler.clear();
+        com.shayneomac08.automated_minecraft_bots.bot.TickStagger.clear();
+        com.shayneomac08.automated_minecraft_bots.bot.OfflineSimulation.clear();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmAdmission.clear();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmRouter.clear();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmUsage.clear();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmBudget.clear();
+        com.shayneomac08.automated_minecraft_bots.bot.PlanCache.clear();
+        com.shayneomac08.automated_minecraft_bots.bot.LocalPlanner.clear();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmMockServer.stop();
+        com.shayneomac08.automated_minecraft_bots.llm.LlmTrace.clear();
     }
 
     private void addCreative(BuildCreativeModeTabContentsEvent event) {
@@ -2,6 +2,9 @@ package com.shayneomac08.automated_minecraft_bots;
 
 import net.neoforged.neoforge.common.ModConfigSpec;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class BotConfig {
     private static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
 
@@ -18,6 +21,53 @@ public class BotConfig {
     public static final ModConfigSpec.ConfigValue<String> CLAUDE_API_KEY;
     public static final ModConfigSpec.ConfigValue<String> OLLAMA_URL;
 
+    // ── LLM transport ─────────────────────────────────────────────────────────
+    public static final ModConfigSpec.IntValue LLM_CONNECT_TIMEOUT;
+    public static final ModConfigSpec.IntValue LLM_REQUEST_TIMEOUT;
+    public static final ModConfigSpec.IntValue LLM_DEADLINE;
+    public static final ModConfigSpec.BooleanValue LLM_STREAMING;
+    public static final ModConfigSpec.BooleanValue LLM_STRUCTURED_OUTPUT;
+    public static final ModConfigSpec.BooleanValue PLAN_CACHE;
+    public static final ModConfigSpec.IntValue PLAN_CACHE_TTL;
+    public static final ModConfigSpec.DoubleValue PLAN_CACHE_EXPLORE;
+    public static final ModConfigSpec.BooleanValue SPECULATIVE_THINK;
+    public static final ModConfigSpec.BooleanValue LOCAL_CHAT_COMMANDS;
+    public static final ModConfigSpec.ConfigValue<String> PLANNER;
+    public static final ModConfigSpec.ConfigValue<String> LLM_FALLBACK_PROVIDERS;
+    public static final ModConfigSpec.BooleanValue LLM_HEDGE;
+    public static final ModConfigSpec.IntValue LLM_HEDGE_MIN_MS;
+    public static final ModConfigSpec.DoubleValue LLM_BREAKER_ERROR_RATE;
+
+    // ── LLM record/replay and mock provider (load testing) ────────────────────
+    public static final ModConfigSpec.ConfigValue<String> LLM_TRANSPORT_MODE;
+    public static final ModConfigSpec.ConfigValue<String> LLM_TRACE_FILE;
+    public static final ModConfigSpec.IntValue LLM_SYNTHETIC_LATENCY_MS;
+    public static final ModConfigSpec.IntValue LLM_MOCK_PORT;
+
+    // ── LLM admission limits, keyed by provider id (grok, openai, ...) ─────────
+    public static final Map<String, ModConfigSpec.IntValue> LLM_MAX_IN_FLIGHT = new HashMap<>();
+    public static final Map<String, ModConfigSpec.IntValue> LLM_REQUESTS_PER_MINUTE = new HashMap<>();
+    public static final Map<String, ModConfigSpec.IntValue> LLM_TOKENS_PER_MINUTE = new HashMap<>();
+
+    // ── LLM token accounting and spend budgets ─────────────────────────────────
+    public static final ModConfigSpec.DoubleValue LLM_BOT_BUDGET;
+    public static final ModConfigSpec.DoubleValue LLM_TRIBE_BUDGET;
+    public static final ModConfigSpec.ConfigValue<String> LLM_BUDGET_MODELS;
+    public static final ModConfigSpec.ConfigValue<String> LLM_MODEL_PRICES;
+
+    // ── Pathfinding ───────────────────────────────────────────────────────────
+    public static final ModConfigSpec.BooleanValue ASYNC_PATHFINDING;
+    public static final ModConfigSpec.IntValue PATH_WORKER_THREADS;
+    public static final ModConfigSpec.BooleanValue HIERARCHICAL_PATHFINDING;
+    public static final ModConfigSpec.IntValue PATH_TICK_BUDGET;
+
+    // ── Simulation level of detail ────────────────────────────────────────────
+    public static final ModConfigSpec.BooleanValue LOD_ENABLED;
+    public static final ModConfigSpec.IntValue LOD_RADIUS;
+    public static final ModConfigSpec.IntValue LOD_DECISION_INTERVAL;
+    public static final ModConfigSpec.BooleanValue OFFLINE_SIMULATION;
+    public static final ModConfigSpec.IntValue OFFLINE_RADIUS;
+
     static {
         BUILDER.comment("LLM provider settings for Automated Minecraft Bots").push("llm");
 
@@ -53,6 +103,181 @@ public class BotConfig {
                 .comment("Ollama local server URL")
                 .define("ollama_url", "http://localhost:11434");
 
+        LLM_CONNECT_TIMEOUT = BUILDER
+                .comment("Seconds to wait for a connection to an LLM endpoint (read once per endpoint at first use)")
+                .defineInRange("llm_connect_timeout", 10, 1, 120);
+
+        LLM_REQUEST_TIMEOUT = BUILDER
+                .comment("Seconds to wait for an LLM response before the request fails")
+                .defineInRange("llm_request_timeout", 60, 5, 600);
+
+        LLM_DEADLINE = BUILDER
+                .comment("Seconds a bot waits for a plan or chat reply, time queued behind other requests included, before cancelling it")
+                .defineInRange("llm_deadline", 90, 10, 900);
+
+        LLM_STREAMING = BUILDER
+                .comment("Stream think replies and start the first planned step as soon as it arrives")
+                .define("llm_streaming", true);
+
+        LLM_STRUCTURED_OUTPUT = BUILDER
+                .comment("Ask providers for schema-constrained JSON plans and chat decisions (OpenAI/Grok json_schema, Claude tool use, Gemini responseSchema, Ollama format) instead of free text")
+                .define("llm_structured_output", true);
+
+        PLAN_CACHE = BUILDER
+                .comment("Reuse a plan already fetched for the same situation (task, needs, inventory tiers, surroundings) instead of asking the LLM again")
+                .define("plan_cache", true);
+
+        PLAN_CACHE_TTL = BUILDER
+                .comment("Seconds a cached plan stays usable")
+                .defineInRange("plan_cache_ttl", 600, 30, 7200);
+
+        PLAN_CACHE_EXPLORE = BUILDER
+                .comment("Share of cache hits sent to the LLM anyway, so cached plans keep being refreshed")
+                .defineInRange("plan_cache_explore", 0.1, 0.0, 1.0);
+
+        SPECULATIVE_THINK = BUILDER
+                .comment("Ask for the next plan while the current one is finishing, timed by the provider's observed latency, so bots move on without idling")
+                .define("speculative_think", true);
+
+        LOCAL_CHAT_COMMANDS = BUILDER
+                .comment("Carry out simple chat commands (stop, follow me, gather wood, ...) straight away without asking the LLM; anything else still goes to the LLM")
+                .define("local_chat_commands", true);
+
+        PLANNER = BUILDER
+                .comment("Default planner for bot thinks: hybrid (local planner for routine progression, LLM for chat, novel situations and repeated failure), local (never ask the LLM) or llm (always ask). Per bot: /amb planner <name> <mode>")
+                .define("planner", "hybrid");
+
+        LLM_FALLBACK_PROVIDERS = BUILDER
+                .comment("Providers to fail over to, in order (e.g. \"ollama\" or \"ollama,openai\"), when a call fails, the provider's circuit breaker is open, or a hedge is sent; empty = no failover")
+                .define("llm_fallback_providers", "");
+
+        LLM_HEDGE = BUILDER
+                .comment("When a call hasn't been answered within its provider's observed p90 latency, send it to the first healthy fallback too and take whichever answers first")
+                .define("llm_hedge", false);
+
+        LLM_HEDGE_MIN_MS = BUILDER
+                .comment("Never hedge a call sooner than this many milliseconds")
+                .defineInRange("llm_hedge_min_ms", 1500, 0, 120_000);
+
+        LLM_BREAKER_ERROR_RATE = BUILDER
+                .comment("Share of a provider's last 20 calls that must fail to open its circuit breaker and route its calls to the fallbacks; 0 = never")
+                .defineInRange("llm_breaker_error_rate", 0.5, 0.0, 1.0);
+
+        BUILDER.pop();
+
+        BUILDER.comment("Recording, replaying and faking LLM traffic, for load tests and offline regression runs")
+                .push("llm_testing");
+
+        LLM_TRANSPORT_MODE = BUILDER
+                .comment("live (normal), record (also append every call to llm_trace_file) or replay (answer every call from llm_trace_file; nothing is sent)")
+                .define("llm_transport_mode", "live");
+
+        LLM_TRACE_FILE = BUILDER
+                .comment("Append-only JSON-lines trace of LLM calls, relative to the server directory")
+                .define("llm_trace_file", "amb-llm-trace.jsonl");
+
+        LLM_SYNTHETIC_LATENCY_MS = BUILDER
+                .comment("Median latency (ms) of replayed and mock replies, drawn from a log-normal; 0 = replay the recorded latency, mock answers at once")
+                .defineInRange("llm_synthetic_latency_ms", 0, 0, 120_000);
+
+        LLM_MOCK_PORT = BUILDER
+                .comment("Start a mock LLM provider on this localhost port and send every provider request to it (API keys can be any non-empty value); 0 = off")
+                .defineInRange("llm_mock_port", 0, 0, 65535);
+
+        BUILDER.pop();
+
+        BUILDER.comment("Per-provider request limits; bots queue fairly for a slot and think less often while a provider is saturated")
+                .push("llm_limits");
+
+        // provider id, max in flight, requests/minute, tokens/minute
+        Object[][] limits = {
+                {"grok",   8,  60, 100_000},
+                {"openai", 16, 500, 200_000},
+                {"gemini", 8,  60, 100_000},
+                {"claude", 8,  50, 40_000},
+                {"ollama", 2,  600, 1_000_000},
+        };
+        for (Object[] l : limits) {
+            String id = (String) l[0];
+            LLM_MAX_IN_FLIGHT.put(id, BUILDER
+                    .comment("Most " + id + " requests allowed in flight at once")
+                    .defineInRange(id + "_max_in_flight", (int) l[1], 1, 256));
+            LLM_REQUESTS_PER_MINUTE.put(id, BUILDER
+                    .comment("Most " + id + " requests started per minute")
+                    .defineInRange(id + "_requests_per_minute", (int) l[2], 1, 100_000));
+            LLM_TOKENS_PER_MINUTE.put(id, BUILDER
+                    .comment("Most " + id + " tokens (prompt estimate + max output) per minute")
+                    .defineInRange(id + "_tokens_per_minute", (int) l[3], 1_000, 100_000_000));
+        }
+
+        BUILDER.pop();
+
+        BUILDER.comment("Token accounting and LLM spend budgets; usage is read from every response, see /amb usage")
+                .push("llm_budget");
+
+        LLM_BOT_BUDGET = BUILDER
+                .comment("USD one bot may spend on LLM calls per rolling hour; over it the bot moves to its provider's cheaper model, over twice it (or with no cheaper model) its thinks go to the local planner. 0 = unlimited")
+                .defineInRange("llm_bot_budget_per_hour", 0.0, 0.0, 1000.0);
+
+        LLM_TRIBE_BUDGET = BUILDER
+                .comment("USD all bots of one tribe (the group they were spawned into) may spend per rolling hour, with the same downgrades for every bot in it; 0 = unlimited")
+                .defineInRange("llm_tribe_budget_per_hour", 0.0, 0.0, 100_000.0);
+
+        LLM_BUDGET_MODELS = BUILDER
+                .comment("Cheaper model per provider for bots over budget, as provider=model pairs separated by commas; a provider without one goes straight to the local planner")
+                .define("llm_budget_models", "grok=grok-3-mini-beta,openai=gpt-4.1-nano,gemini=gemini-2.0-flash-lite,claude=claude-3-5-haiku-20241022");
+
+        LLM_MODEL_PRICES = BUILDER
+                .comment("USD per million tokens as model=input/output[/cached input] separated by commas; models not listed (e.g. local Ollama models) are counted as free")
+                .define("llm_model_prices", "grok-3-beta=3/15/0.75,grok-3-mini-beta=0.3/0.5/0.075,"
+                        + "gpt-4o-mini=0.15/0.6/0.075,gpt-4.1-nano=0.1/0.4/0.025,"
+                        + "gemini-2.0-flash=0.1/0.4/0.025,gemini-2.0-flash-lite=0.075/0.3,"
+                        + "claude-sonnet-4-20250514=3/15/0.3,claude-3-5-haiku-20241022=0.8/4/0.08");
+
+        BUILDER.pop();
+
+        BUILDER.comment("Bot pathfinding performance settings").push("pathfinding");
+
+        ASYNC_PATHFINDING = BUILDER
+                .comment("Run bot A* searches on worker threads (results are applied a tick or two later)")
+                .define("async_pathfinding", true);
+
+        PATH_WORKER_THREADS = BUILDER
+                .comment("Worker threads for async path searches (read once at first use)")
+                .defineInRange("path_worker_threads", 2, 1, 16);
+
+        HIERARCHICAL_PATHFINDING = BUILDER
+                .comment("Route trips longer than 48 blocks over the chunk-section graph and refine them segment by segment")
+                .define("hierarchical_pathfinding", true);
+
+        PATH_TICK_BUDGET = BUILDER
+                .comment("A* node expansions all bots may spend per tick: on the server thread (longer searches continue next tick), and on average on the path workers")
+                .defineInRange("path_tick_budget", 4000, 256, 200000);
+
+        BUILDER.pop();
+
+        BUILDER.comment("Reduced-fidelity ticking for bots far from every player").push("simulation");
+
+        LOD_ENABLED = BUILDER
+                .comment("Tick bots far from all players at a reduced rate and skip their cosmetic work")
+                .define("lod_enabled", true);
+
+        LOD_RADIUS = BUILDER
+                .comment("Bots farther than this many blocks from every player switch to reduced fidelity")
+                .defineInRange("lod_radius", 96, 32, 1024);
+
+        LOD_DECISION_INTERVAL = BUILDER
+                .comment("Reduced-fidelity bots run their decision logic once every this many ticks, moving in steps this much longer")
+                .defineInRange("lod_decision_interval", 4, 2, 20);
+
+        OFFLINE_SIMULATION = BUILDER
+                .comment("Take bots on long tasks out of the world when far from all players and advance their work by estimated rates, so they stop keeping chunks loaded")
+                .define("offline_simulation", true);
+
+        OFFLINE_RADIUS = BUILDER
+                .comment("Bots farther than this many blocks from every player are simulated offline (should exceed lod_radius)")
+                .defineInRange("offline_radius", 192, 64, 4096);
+
         BUILDER.pop();
     }
 
@@ -4,6 +4,7 @@ import com.shayneomac08.automated_minecraft_bots.bot.BotBrain;
 import com.shayneomac08.automated_minecraft_bots.bot.BotPair;
 import com.shayneomac08.automated_minecraft_bots.bot.BotSubGoal;
 import com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity;
+import com.shayneomac08.automated_minecraft_bots.movement.RealisticActions;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -219,6 +220,18 @@ public final class ActionExecutor {
                 }
             }
 
+            case "eat" -> {
+                st.lastThought = a.thought() != null ? a.thought() : "eating";
+                if (hands == null || !RealisticActions.eatFood(hands)) {
+                    st.lastError = "Nothing to eat.";
+                    st.eatFailedFood = st.survivalNeeds.foodCount;
+                } else {
+                    st.lastError = "";
+                    st.eatFailedFood = -1;
+                    System.out.println("[AMB-ACTION] " + botKeyName + " ate (food=" + hands.getFoodData().getFoodLevel() + ")");
+                }
+            }
+
             case "plan_queue" -> {
                 // Multi-step plan: load queue and execute the first task immediately.
                 var tasks = a.queuedTasks();
@@ -6,9 +6,17 @@ import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
 import com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity;
 import com.shayneomac08.automated_minecraft_bots.llm.LLMClient;
 import com.shayneomac08.automated_minecraft_bots.llm.LLMProvider;
-import com.shayneomac08.automated_minecraft_bots.llm.SimpleJson;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmAdmission;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmBudget;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmMockServer;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmTrace;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmTransport;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmUsage;
+import com.shayneomac08.automated_minecraft_bots.llm.PlanStreamParser;
+import com.shayneomac08.automated_minecraft_bots.llm.StructuredOutput;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -57,6 +65,8 @@ public final class BotBrain {
 
         // Pending async LLM request
         public CompletableFuture<ActionPlan> pending = null;
+        /** Reply to a player's chat command still on its way (cancelled with the think on lifecycle events). */
+        public CompletableFuture<String> pendingChatReply = null;
 
         // Multi-step plan queue — populated by plan_queue action, drained before calling LLM
         public java.util.Queue<BotSubGoal> subGoalQueue = new java.util.LinkedList<>();
@@ -82,8 +92,56 @@ public final class BotBrain {
         public int consecutiveLlmFailures = 0;
         /** Consecutive stuck-recovery events recorded by BotBrain (not AmbNpcEntity's own counter). */
         public int consecutiveStuckRecoveries = 0;
+
+        // ── Plan cache ───────────────────────────────────────────────────────────
+        /** Bumped for every chat line; a think after new chat never uses the plan cache. */
+        public int chatVersion = 0;
+        public int chatVersionAtThink = 0;
+        /** Fingerprint the pending request will be cached under (null = don't cache it). */
+        public String pendingPlanKey = null;
+        /** Fingerprint of the plan the bot is running, if it came from or went into the cache. */
+        public String activePlanKey = null;
+
+        // ── Streamed plans ───────────────────────────────────────────────────────
+        /** Bumped per think request; stream callbacks from an older request are ignored. */
+        public volatile int thinkSeq = 0;
+        /** Queue items parsed off the stream, waiting for the server thread to start them. */
+        public final java.util.concurrent.ConcurrentLinkedQueue<StreamedStep> streamedSteps =
+            new java.util.concurrent.ConcurrentLinkedQueue<>();
+        /** Streamed items of the pending reply already started or queued, by position in its queue. */
+        public final Map<Integer, BotSubGoal> streamedApplied = new HashMap<>();
+        /** Position of the streamed item that was started as the bot's task, or -1 if none yet. */
+        public int streamedStarted = -1;
+
+        // ── Speculative thinks ───────────────────────────────────────────────────
+        /** True while the pending request was sent before the current plan ran out. */
+        public boolean pendingSpeculative = false;
+        /** A speculative plan that arrived while the bot was still busy, held until it is free. */
+        public ActionPlan speculativePlan = null;
+        /** situationKey() when the speculative request was sent; the plan is dropped if it no longer matches. */
+        public String speculativeSituation = null;
+        public int speculativeTick = -1;
+
+        // ── Local planner ────────────────────────────────────────────────────────
+        /** Who plans this bot's thinks; null = the configured default. */
+        public LocalPlanner.Mode planner = null;
+        /** LocalPlanner.progressKey of the last local plan, and how many times in a row it came back. */
+        public String localPlanKey = null;
+        public int localRepeats = 0;
+        /** LocalPlanner.dangerKey at the last local think; HYBRID asks the LLM once per new one. */
+        public String dangerKey = null;
+        /** Edible item count when "eat" last failed, or -1; the local planner won't pick "eat" again until it changes. */
+        public int eatFailedFood = -1;
     }
 
+    /** Identical local plans in a row (no progress in between) before HYBRID asks the LLM instead. */
+    private static final int LOCAL_REPEATS_BEFORE_LLM = 2;
+
+    /** Extra lead on top of the provider's p90 reply time when deciding to think early. */
+    private static final int SPECULATION_MARGIN_TICKS = 20;
+    /** A held speculative plan older than this (measured from the request) is thrown away. */
+    private static final int SPECULATION_MAX_AGE_TICKS = 1200;
+
     private static final Map<String, State> STATES = new ConcurrentHashMap<>();
 
     private BotBrain() {}
@@ -94,6 +152,41 @@ public final class BotBrain {
 
     public static void setAutonomous(String botName, boolean on) {
         stateForName(botName).autonomous = on;
+        if (!on) cancelPending(botName, "brain off");
+    }
+
+    /**
+     * Abandons the bot's in-flight think and chat reply: a queued request is dropped from its
+     * provider's queue, one in flight is aborted, and whatever it would have returned is never
+     * applied. Called when the bot dies, is removed, or has its brain switched off.
+     */
+    public static void cancelPending(String botName, String reason) {
+        State st = STATES.get(norm(botName));
+        if (st == null) return;
+        boolean abandoned = cancelThink(st);
+        if (st.pendingChatReply != null && !st.pendingChatReply.isDone()) {
+            st.pendingChatReply.cancel(true);
+            abandoned = true;
+        }
+        st.pendingChatReply = null;
+        if (abandoned) {
+            System.out.println("[AMB-THINK] " + botName + " cancelled in-flight LLM request (" + reason + ")");
+        }
+    }
+
+    /** Cancels the pending think and forgets everything tied to it; true if one was still running. */
+    private static boolean cancelThink(State st) {
+        boolean running = st.pending != null && !st.pending.isDone();
+        if (running) st.pending.cancel(true);
+        st.pending = null;
+        st.pendingPlanKey = null;
+        st.pendingSpeculative = false;
+        st.speculativePlan = null;
+        st.thinkSeq++;
+        st.streamedSteps.clear();
+        st.streamedApplied.clear();
+        st.streamedStarted = -1;
+        return running;
     }
 
     public static void setFollowRequested(String botName, boolean on) {
@@ -127,15 +220,197 @@ public final class BotBrain {
         st.followTarget = null;
         st.goalUntilTick = 0;
         st.goalX = st.goalY = st.goalZ = null;
+        st.speculativePlan = null;
         st.mode = Mode.ROAM; // "Roam around" is the default when no goals or follow are active
     }
 
 
+    /**
+     * Everything in the autonomous think prompt that is the same for every bot and every call.
+     * Sent as the system message, byte-for-byte identical each time, so providers can serve it
+     * from their prompt cache; only the short per-bot state goes in the user message.
+     */
+    private static final String THINK_SYSTEM_PROMPT =
+            "🎮 ROLEPLAY: You are a REAL MINECRAFT PLAYER. You are NOT an AI bot - you are a human playing Minecraft.\n" +
+            "Your goal: SURVIVE, EXPLORE, BUILD, and eventually BEAT THE GAME (kill Ender Dragon).\n" +
+            "Think like a player: 'What would I do if I were actually playing Minecraft right now?'\n\n" +
+            "Each message gives you your name, personality and current state; answer it using the knowledge below.\n\n" +
+            "=== SURVIVAL PRIORITIES (ALWAYS FOLLOW THIS ORDER) ===\n" +
+            "1. CRITICAL HEALTH (< 5 HP) → Eat food, hide, avoid ALL combat\n" +
+            "2. CRITICAL HUNGER (< 3) → Find food IMMEDIATELY (hunt animals, gather apples)\n" +
+            "3. HEALTH (< 10 HP) → Eat food to regenerate, avoid danger\n" +
+            "4. HUNGER (< 6) → Hunt animals (chicken/pig/cow), gather food\n" +
+            "5. NIGHT/RAIN → Seek shelter (enclosed space with light)\n" +
+            "6. WOOD (< 8 logs) → Gather wood for tools\n" +
+            "7. STONE (< 16) → Mine stone for better tools\n" +
+            "8. PROGRESSION → Crafting table → furnace → bed → shelter\n\n" +
+            "=== FOOD SOURCES (HUNT WHEN HUNGRY) ===\n" +
+            "• Chickens → 1-2 raw chicken (EASY to kill)\n" +
+            "• Pigs → 1-3 raw porkchop (EASY to kill)\n" +
+            "• Cows → 1-3 raw beef + leather (EASY to kill)\n" +
+            "• Sheep → 1-2 raw mutton + wool (EASY to kill)\n" +
+            "• Apples → Break oak/dark oak leaves (NO combat needed)\n" +
+            "• ALWAYS COOK MEAT if you have furnace (3-4x better hunger restoration)\n\n" +
+            "=== COMBAT KNOWLEDGE ===\n" +
+            "• Attack animals by approaching and swinging weapon/hand\n" +
+            "• Weapons: Hands (1 dmg) < Wood Sword (4) < Stone Sword (5) < Iron Sword (6)\n" +
+            "• Animals are PASSIVE - they won't fight back\n" +
+            "• Hostile mobs spawn at NIGHT - avoid or hide in shelter\n" +
+            "• NEVER fight without weapons unless desperate for food\n\n" +
+            "=== TOOL EFFICIENCY (CRITICAL KNOWLEDGE) ===\n" +
+            "WITHOUT TOOLS:\n" +
+            "• Wood with hands: 3 seconds (VERY SLOW)\n" +
+            "• Stone with hands: IMPOSSIBLE (gets nothing)\n" +
+            "• Dirt with hands: 0.75 seconds (acceptable)\n\n" +
+            "WITH CORRECT TOOLS:\n" +
+            "• Wood + Axe: 0.5-1.5 seconds (3-6x FASTER)\n" +
+            "• Stone + Pickaxe: 0.75-2.25 seconds (ONLY WAY to get stone)\n" +
+            "• Dirt + Shovel: 0.15 seconds (5x FASTER)\n\n" +
+            "TOOL PRIORITY:\n" +
+            "1. Wooden Pickaxe (FIRST - mine stone)\n" +
+            "2. Stone Pickaxe (SECOND - mine iron)\n" +
+            "3. Stone Axe (THIRD - chop wood faster)\n" +
+            "4. Stone Sword (FOURTH - hunt animals)\n\n" +
+            "=== GAME MECHANICS YOU MUST UNDERSTAND ===\n" +
+            "• You CANNOT mine stone without a pickaxe (hands do nothing)\n" +
+            "• Tools make tasks 3-10x FASTER - always craft tools first\n" +
+            "• Cooked meat restores 3-4x more hunger than raw meat\n" +
+            "• Night spawns hostile mobs - ALWAYS seek shelter\n" +
+            "• Hunger < 18 prevents health regeneration\n" +
+            "• Recipe unlocking: Pick up items to discover recipes\n" +
+            "• Auto-crafting: System auto-crafts planks, sticks, and crafting table in inventory\n" +
+            "• CRAFTING TABLE RULE: Tools and weapons REQUIRE a placed crafting table nearby!\n" +
+            "  - 2x2 recipes (planks, sticks, crafting table) = craft in inventory automatically\n" +
+            "  - 3x3 recipes (tools, weapons) = MUST place crafting table first!\n\n" +
+            "=== PROGRESSION PATH ===\n" +
+            "Phase 1 (First 5 min): Punch 3-4 logs → auto-crafts planks+sticks+table → PLACE table → auto-crafts wooden pickaxe\n" +
+            "Phase 2 (5-15 min): Mine 8+ cobblestone → auto-crafts stone pickaxe → stone axe → stone sword\n" +
+            "Phase 3 (15-30 min): Hunt animals → craft furnace → cook meat → build shelter\n" +
+            "Phase 4 (30+ min): Mine iron → smelt iron → iron tools → mine diamonds\n\n" +
+            "=== DECISION FRAMEWORK ===\n" +
+            "IF hungry (< 6) → Hunt nearest animal OR gather apples\n" +
+            "IF low health (< 10) → Eat food, seek shelter, avoid combat\n" +
+            "IF night → Build/find shelter immediately\n" +
+            "IF no tools → Gather wood, craft tools (makes everything faster)\n" +
+            "IF need resource but can't see it → Explore in spiral pattern\n\n" +
+            "=== PROBLEM-SOLVING STRATEGIES (THINK LIKE A REAL PLAYER) ===\n" +
+            "Real Minecraft players solve problems creatively. You should too!\n\n" +
+            "PROBLEM: Target is too high to reach (tree top, floating block, etc.)\n" +
+            "SOLUTION: Build a scaffold!\n" +
+            "  1. If you have dirt/cobblestone in inventory → Use mine_stone goal to place blocks and pillar up\n" +
+            "  2. If you DON'T have blocks → First mine_stone to gather dirt/cobblestone, THEN pillar up\n" +
+            "  Example: See oak log at Y=65, you're at Y=59 → mine_stone to get dirt → pillar up → gather_wood\n\n" +
+            "PROBLEM: Stuck trying to reach something for multiple attempts\n" +
+            "SOLUTION: Change strategy!\n" +
+            "  1. If gathering wood but can't reach → Switch to mine_stone to get blocks, then build up\n" +
+            "  2. If path is blocked → Explore to find another route OR mine through obstacles\n" +
+            "  3. If repeatedly failing → Try a completely different goal\n\n" +
+            "PROBLEM: Need to build something but no blocks\n" +
+            "SOLUTION: Gather materials first!\n" +
+            "  1. Want to build shelter but no blocks → mine_stone to get cobblestone first\n" +
+            "  2. Want to build farm but no wood → gather_wood first\n" +
+            "  3. ALWAYS gather materials BEFORE attempting to build\n\n" +
+            "PROBLEM: Can't mine stone (no pickaxe)\n" +
+            "SOLUTION: Craft tools first!\n" +
+            "  1. No pickaxe → gather_wood → auto-craft wooden pickaxe → mine_stone\n" +
+            "  2. Have wood pickaxe → mine_stone to get cobblestone → auto-craft stone pickaxe\n\n" +
+            "PROBLEM: Inventory full\n" +
+            "SOLUTION: Manage resources!\n" +
+            "  1. Drop useless items (dirt if you have 64+, excess tools)\n" +
+            "  2. Use manage_resources to store in chests\n" +
+            "  3. Trade excess items with other bots\n\n" +
+            "KEY INSIGHT: If you're stuck doing the same thing repeatedly, STOP and try something else!\n" +
+            "Real players adapt. You should too. Don't be a robot - be creative!\n\n" +
+            "=== AVAILABLE GOALS ===\n" +
+            "• hunt_animals - Hunt chickens/pigs/cows/sheep for food (auto-finds animals, explores if needed)\n" +
+            "• shear_sheep - Shear sheep for wool (requires shears)\n" +
+            "• tame_animals - Tame wolves/cats/horses/parrots (requires appropriate food)\n" +
+            "• gather_flowers - Gather flowers for decoration\n" +
+            "• gather_wood - Chop trees (auto-finds trees, explores if needed)\n" +
+            "• mine_stone - Mine cobblestone (requires pickaxe)\n" +
+            "• mine_ore - Mine coal/iron/diamonds (requires pickaxe)\n" +
+            "• build_shelter - Build enclosed shelter\n" +
+            "• place_crafting_table - Place crafting table from inventory (REQUIRED before crafting tools!)\n" +
+            "• explore - Wander and discover new areas\n" +
+            "• idle - Stand still (only if safe and all needs met)\n" +
+            "• trade_bots - Trade items with other bots (share resources, help each other)\n" +
+            "• manage_resources - Use shared crafting tables and chests (coordinate with other bots)\n\n" +
+            "=== ADVANCED PLAYER ABILITIES ===\n" +
+            "You can do EVERYTHING a real Minecraft player can do:\n\n" +
+            "FARMING & FOOD:\n" +
+            "• farm - Plant and harvest wheat (requires seeds)\n" +
+            "• breed_animals - Feed animals to breed them (requires wheat/carrots/seeds)\n" +
+            "• fish - Use fishing rod to catch fish (requires fishing_rod)\n\n" +
+            "BUILDING & CONSTRUCTION:\n" +
+            "• build_wall - Build a defensive wall (requires blocks)\n" +
+            "• build_house - Build a 5x5 house with roof (requires blocks)\n" +
+            "• build_tower - Build a tall tower (requires blocks)\n" +
+            "• build_platform - Build a flat platform (requires blocks)\n" +
+            "• build_farm - Build farm structure (requires blocks)\n\n" +
+            "NATURE & ENVIRONMENT:\n" +
+            "• plant_trees - Plant saplings to grow trees (requires saplings)\n" +
+            "• plant_flowers - Plant flowers for decoration (requires flowers)\n" +
+            "• mine_coal, mine_iron, mine_copper, mine_gold, mine_diamond, mine_emerald - Mine specific ores\n" +
+            "• gather_sand, gather_gravel, gather_clay - Gather specific materials\n\n" +
+            "CRAFTING & PROCESSING:\n" +
+            "• craft - Walk to crafting table and craft tools/weapons (table must exist or be placed first)\n" +
+            "• smelt - Smelt ores in furnace (requires furnace, fuel, ores)\n" +
+            "• trade - Trade with villagers (requires emeralds/items)\n\n" +
+            "COOPERATION & SHARING:\n" +
+            "• trade_bots - Trade items with other bots (ask for what you need, offer what you have)\n" +
+            "• manage_resources - Use shared crafting tables and store items in shared chests\n" +
+            "• Bots can help each other by sharing resources and coordinating tasks\n" +
+            "• You can ask other bots for items you need and offer items in return\n\n" +
+            "=== CRITICAL RULES ===\n" +
+            "1. NEVER claim you did something you didn't do (check YOUR INVENTORY for what you actually have)\n" +
+            "2. NEVER mention 'Dev' or 'the developer' unless they actually interacted with you\n" +
+            "3. NEVER claim you opened doors, gave items, or did actions that aren't in your recent history\n" +
+            "4. BE TRUTHFUL - only talk about what you can see in YOUR STATUS, YOUR INVENTORY, and NEARBY ENTITIES\n" +
+            "5. If you see hostile mobs nearby, ACKNOWLEDGE them and decide to fight or flee\n" +
+            "6. If you have tools in inventory, USE them (they make tasks 3-10x faster)\n" +
+            "7. CRAFTING TABLE REQUIRED: To craft tools/weapons, you MUST place a crafting table first!\n" +
+            "   - Have crafting table in inventory but no table nearby? → place_crafting_table goal first!\n" +
+            "   - System auto-crafts the table from planks, but YOU must place it to craft tools!\n" +
+            "8. CHECK RECENT CHAT - if a player commanded you to do something, DO IT NOW (override other priorities)\n" +
+            "9. THINK AUTONOMOUSLY - if something is unreachable, gather blocks and build up! Don't wait for commands!\n" +
+            "10. ADAPT - if stuck doing the same thing repeatedly, CHANGE YOUR STRATEGY!\n\n" +
+            "=== YOUR RESPONSE FORMAT ===\n" +
+            "Think multi-step. Return a SEQUENTIAL PLAN — the bot executes each task in order.\n" +
+            "Return ONLY JSON (no markdown, no explanation):\n\n" +
+            "{\"thought\":\"<your reasoning — what you need and why>\",\"objective\":\"<short name for long-term goal>\",\"queue\":[{\"task\":\"<task>\",\"minutes\":3},{\"task\":\"<task>\",\"minutes\":2}],\"say\":\"<optional chat message>\"}\n\n" +
+            "RULES:\n" +
+            "• queue = ordered steps, first executed first\n" +
+            "• thought = your internal reasoning (be honest about what you need)\n" +
+            "• say = only include if you have something worth saying to players\n" +
+            "• If only one step needed, queue has one item\n\n" +
+            "=== PLANNING EXAMPLES ===\n\n" +
+            "Starting fresh (no tools, no resources):\n" +
+            "{\"thought\":\"No tools and no resources. Need to gather wood first, then craft tools at a table, then I can start my underground base.\",\"objective\":\"establish_base\",\"queue\":[{\"task\":\"gather_wood\",\"minutes\":3},{\"task\":\"craft\",\"minutes\":2},{\"task\":\"mine_stone\",\"minutes\":3},{\"task\":\"build_underground_base\",\"minutes\":30}],\"say\":\"Time to get started — gathering wood first!\"}\n\n" +
+            "Player commanded me to do something:\n" +
+            "{\"thought\":\"Player told me to mine stone. I should do that immediately.\",\"objective\":\"obey_player\",\"queue\":[{\"task\":\"mine_stone\",\"minutes\":3}]}\n\n" +
+            "Hungry:\n" +
+            "{\"thought\":\"Hunger is critical. Must find food before anything else.\",\"objective\":\"survival\",\"queue\":[{\"task\":\"hunt_animals\",\"minutes\":3}]}\n\n" +
+            "Have resources, ready to build base:\n" +
+            "{\"thought\":\"I have plenty of stone and wood. Time to dig my underground base.\",\"objective\":\"underground_base\",\"queue\":[{\"task\":\"build_underground_base\",\"minutes\":30}],\"say\":\"Starting my underground base!\"}\n\n" +
+            "Missing crafting table:\n" +
+            "{\"thought\":\"I have planks and sticks but no crafting table nearby. Need to place one first.\",\"objective\":\"craft_tools\",\"queue\":[{\"task\":\"place_crafting_table\",\"minutes\":1},{\"task\":\"craft\",\"minutes\":2}]}\n\n" +
+            "Night:\n" +
+            "{\"thought\":\"Night is dangerous. Find shelter immediately.\",\"objective\":\"survive_night\",\"queue\":[{\"task\":\"build_shelter\",\"minutes\":5}]}\n\n" +
+            "• build_underground_base - Dig and furnish a hidden underground base (rooms, ladders, chests, torches)\n";
+
     public static void tick(MinecraftServer server, String botName, BotPair pair) {
         final String keyName = norm(botName);
         final State st = stateForName(keyName);
         final int tick = server.getTickCount();
 
+        // Parked offline: its work is simulated and its LLM requests were cancelled when it parked
+        if (BotRegistry.isParked(pair)) return;
+
+        // Start streamed plan steps as they arrive, before the rest of the reply is in
+        if (st.pending != null && !st.streamedSteps.isEmpty()) {
+            applyStreamedSteps(botName, st, pair, tick);
+        }
+
         // Apply completed plan on server thread
         if (st.pending != null && st.pending.isDone()) {
             try {
@@ -147,17 +422,54 @@ public final class BotBrain {
                     + " failures=" + st.consecutiveLlmFailures + ")");
                 st.lastPlanTick = tick;
                 st.consecutiveLlmFailures = 0;
-                ActionExecutor.apply(server, keyName, st, pair, plan);
+                if (st.pendingSpeculative) {
+                    // Asked for early: keep it until the current plan runs out (checked below)
+                    st.speculativePlan = plan;
+                } else {
+                    if (st.pendingPlanKey != null) PlanCache.put(st.pendingPlanKey, plan, tick);
+                    st.activePlanKey = st.pendingPlanKey;
+                    // Provider under load: hold the next think back accordingly
+                    st.nextThinkTick = Math.max(st.nextThinkTick, tick + LlmAdmission.thinkDelayTicks(st.llmProvider, 40));
+                    if (st.streamedStarted >= 0) {
+                        applyStreamRemainder(server, keyName, st, pair, plan);
+                    } else {
+                        ActionExecutor.apply(server, keyName, st, pair, plan);
+                    }
+                }
+                st.pendingPlanKey = null;
+                st.pendingSpeculative = false;
+                st.streamedApplied.clear();
+                st.streamedStarted = -1;
 
             } catch (Exception e) {
                 st.pending = null;
+                st.pendingPlanKey = null;
+                st.pendingSpeculative = false;
+                st.streamedApplied.clear();
+                st.streamedStarted = -1;
+                if (LlmTransport.rootCause(e) instanceof java.util.concurrent.RejectedExecutionException) {
+                    // Provider queue was full: not the bot's failure, just wait for room
+                    st.nextThinkTick = tick + LlmAdmission.thinkDelayTicks(st.llmProvider, 40);
+                    System.out.println("[AMB-PLAN] " + botName + " request rejected, "
+                        + st.llmProvider + " queue full — retry in " + (st.nextThinkTick - tick) + " ticks");
+                    return;
+                }
+                if (LlmTransport.isAbandoned(e)) {
+                    // Deadline passed (the request was cancelled with it): ask again once there is room
+                    st.nextThinkTick = tick + LlmAdmission.thinkDelayTicks(st.llmProvider, 40);
+                    System.out.println("[AMB-PLAN] " + botName + " no plan within "
+                        + BotConfig.LLM_DEADLINE.get() + "s, request cancelled — retry in "
+                        + (st.nextThinkTick - tick) + " ticks");
+                    return;
+                }
                 st.consecutiveLlmFailures++;
                 st.lastError = (e.getMessage() == null) ? e.toString() : e.getMessage();
                 System.err.println("[AMB-PLAN] " + botName + " LLM failed #"
                     + st.consecutiveLlmFailures + ": " + st.lastError);
+                st.nextThinkTick = Math.max(st.nextThinkTick, tick + LlmAdmission.thinkDelayTicks(st.llmProvider, 40));
                 if (st.consecutiveLlmFailures >= 5) {
                     // Back off longer after repeated failures to avoid API spam
-                    st.nextThinkTick = tick + 400; // 20 s
+                    st.nextThinkTick = Math.max(st.nextThinkTick, tick + 400); // 20 s
                     System.err.println("[AMB-PLAN] " + botName
                         + " backing off 20s after " + st.consecutiveLlmFailures + " consecutive failures");
                 }
@@ -167,9 +479,26 @@ public final class BotBrain {
         if (!st.autonomous) return;
         if (tick < st.nextThinkTick) return;
 
+        // Speculative think: the current plan will run out sooner than this provider usually
+        // takes to reply (p90), so ask for the next one now and hold it until then. The budget
+        // tier is only looked at once the timing says to speculate, not on every tick.
+        int remaining = remainingPlanTicks(st, tick);
+        boolean speculative = false;
+        if (tick < st.goalUntilTick && BotConfig.SPECULATIVE_THINK.get() && st.pending == null
+                && LocalPlanner.modeFor(st) == LocalPlanner.Mode.LLM
+                && st.speculativePlan == null && !st.followRequested) {
+            double p90 = LlmAdmission.latencyPercentileMs(st.llmProvider, 0.9);
+            speculative = p90 >= 0 && remaining <= p90 / 50 + SPECULATION_MARGIN_TICKS;
+            if (speculative && plannerMode(keyName, st) != LocalPlanner.Mode.LLM) {
+                // Over budget: the local planner takes over when the plan runs out
+                speculative = false;
+                st.nextThinkTick = st.goalUntilTick;
+            }
+        }
+
 // FIX: Only call LLM when goal expires OR no goal is set
 // This prevents constant API spam and lets bots complete tasks
-        if (tick < st.goalUntilTick) {
+        if (tick < st.goalUntilTick && !speculative) {
             // Goal is still active - don't interrupt
             if (tick % 200 == 0) { // log at 10s intervals so it's visible but not spammy
                 System.out.println("[AMB-THINK] " + botName + " skip: goal active until tick "
@@ -179,7 +508,7 @@ public final class BotBrain {
         }
 
         // Sub-goal queue: execute next queued step without calling LLM
-        if (!st.subGoalQueue.isEmpty()) {
+        if (!st.subGoalQueue.isEmpty() && !speculative) {
             BotSubGoal next = st.subGoalQueue.poll();
             var body = (pair != null) ? pair.body() : null;
             if (body instanceof AmbNpcEntity ambBot) {
@@ -197,6 +526,24 @@ public final class BotBrain {
             return;
         }
 
+        // Plan ran out and a speculative one is waiting: use it if the situation still holds
+        if (st.speculativePlan != null) {
+            ActionPlan held = st.speculativePlan;
+            st.speculativePlan = null;
+            String now = situationKey(st, pair);
+            if (now != null && now.equals(st.speculativeSituation)
+                    && tick - st.speculativeTick <= SPECULATION_MAX_AGE_TICKS) {
+                System.out.println("[AMB-PLAN] " + botName + " speculative plan applied (ready "
+                    + (tick - st.lastPlanTick) + " ticks early)");
+                st.activePlanKey = null;
+                st.nextThinkTick = tick + 40;
+                ActionExecutor.apply(server, keyName, st, pair, held);
+                return;
+            }
+            System.out.println("[AMB-PLAN] " + botName + " speculative plan discarded: situation changed ("
+                + st.speculativeSituation + " -> " + now + ") — thinking again");
+        }
+
 // If already waiting on a response, don't spam
         if (st.pending != null) {
             if (tick % 100 == 0) {
@@ -220,25 +567,10 @@ public final class BotBrain {
             return;
         }
 
-        // Check that the required API key is configured for this bot's provider
-        final String provider = st.llmProvider.getId();
-        System.out.println("[AMB] Loading config for bot: " + botName + " using LLM: " + provider);
-
-        boolean keyMissing = switch (st.llmProvider) {
-            case GROK   -> BotConfig.GROK_API_KEY.get().isBlank();
-            case OPENAI -> BotConfig.OPENAI_API_KEY.get().isBlank();
-            case GEMINI -> BotConfig.GEMINI_API_KEY.get().isBlank();
-            case CLAUDE -> BotConfig.CLAUDE_API_KEY.get().isBlank();
-            case OLLAMA -> false;
-        };
-        if (keyMissing) {
-            st.lastError = "Missing API key for " + provider + ". Configure it in the mod settings GUI.";
-            st.nextThinkTick = tick + 200;
-            return;
-        }
-
         final var bot = hands; // Perception (very small, stable)
         final var body = pair.body();
+        // LLM spend is charged to the bot's tribe (the group it was spawned into) as well
+        if (body instanceof AmbNpcEntity ambBot) LlmUsage.setTribe(keyName, ambBot.llmGroup);
 
         // Update survival needs
         if (body != null && body.level() instanceof ServerLevel serverLevel) {
@@ -253,6 +585,90 @@ public final class BotBrain {
                 .orElse(null);
 
         double nearestDist = nearest == null ? -1.0 : Math.sqrt(nearest.distanceToSqr(positionEntity));
+        boolean newChat = st.chatVersion != st.chatVersionAtThink;
+
+        // Local planner: routine progression is planned here in microseconds. The LLM only hears
+        // about new chat, situations no planner method covers, being stuck, and local plans that
+        // keep coming back without progress.
+        LocalPlanner.Mode plannerMode = plannerMode(keyName, st);
+        if (plannerMode != LocalPlanner.Mode.LLM && body != null && !body.isRemoved()) {
+            LocalPlanner.Snapshot snap = LocalPlanner.snapshot(st.survivalNeeds, hands, body, st.eatFailedFood);
+            StringBuilder method = new StringBuilder();
+            ActionPlan local = LocalPlanner.plan(snap, method);
+            String escalate = null;
+            boolean hybrid = plannerMode == LocalPlanner.Mode.HYBRID;
+            // Danger that persists (same signature) stays local; only a new kind of danger is escalated
+            String danger = LocalPlanner.dangerKey(snap);
+            boolean newDanger = danger != null && !danger.equals(st.dangerKey);
+            st.dangerKey = danger;
+            if (hybrid && newChat) escalate = "new chat";
+            else if (hybrid && st.consecutiveStuckRecoveries >= 3) escalate = "stuck";
+            else if (hybrid && newDanger) escalate = "danger (" + method + ")";
+            else if (hybrid && local == null && danger == null) escalate = "no local method for " + method;
+            if (local != null && escalate == null && danger == null) {
+                String progress = LocalPlanner.progressKey(snap, local);
+                st.localRepeats = progress.equals(st.localPlanKey) ? st.localRepeats + 1 : 0;
+                st.localPlanKey = progress;
+                if (hybrid && st.localRepeats >= LOCAL_REPEATS_BEFORE_LLM) {
+                    escalate = "no progress after " + (st.localRepeats + 1) + " local plans";
+                }
+            }
+            if (escalate == null) {
+                if (local == null) local = LocalPlanner.fallback();
+                LocalPlanner.countPlanned();
+                ActionPlan.Action step = local.actions().getFirst();
+                System.out.println("[AMB-THINK] " + botName + " local plan (" + method + "): "
+                    + LocalPlanner.describe(local));
+                st.lastThinkTick = tick;
+                st.lastPlanTick = tick;
+                st.activePlanKey = null;
+                if (step.goal() != null) st.currentObjective = step.goal();
+                st.nextThinkTick = tick + 40;
+                ActionExecutor.apply(server, keyName, st, pair, local);
+                return;
+            }
+            LocalPlanner.countEscalated(escalate.startsWith("no progress"));
+            st.localRepeats = 0;
+            st.localPlanKey = null;
+            System.out.println("[AMB-THINK] " + botName + " local planner escalating to LLM: " + escalate);
+        }
+
+        // Check that the required API key is configured for this bot's provider
+        final String provider = st.llmProvider.getId();
+        System.out.println("[AMB] Loading config for bot: " + botName + " using LLM: " + provider);
+
+        if (apiKeyMissing(st.llmProvider)) {
+            st.lastError = "Missing API key for " + provider + ". Configure it in the mod settings GUI.";
+            st.nextThinkTick = tick + 200;
+            return;
+        }
+
+        // Plan cache: reuse the plan already fetched for this situation instead of asking again.
+        // Skipped right after new chat, which the cached plan could not have taken into account.
+        String planKey = null;
+        st.activePlanKey = null;
+        if (BotConfig.PLAN_CACHE.get() && !newChat && !speculative) {
+            String task = (body instanceof AmbNpcEntity ambBot) ? ambBot.getCurrentTask() : null;
+            planKey = PlanCache.fingerprint(st, task, hands, positionEntity, nearestDist);
+            ActionPlan cached = PlanCache.lookup(planKey, tick,
+                BotConfig.PLAN_CACHE_TTL.get() * 20, BotConfig.PLAN_CACHE_EXPLORE.get());
+            if (cached != null) {
+                System.out.println("[AMB-THINK] " + botName + " plan cache hit (" + planKey + ")");
+                st.lastThinkTick = tick;
+                st.lastPlanTick = tick;
+                st.activePlanKey = planKey;
+                st.nextThinkTick = tick + 40;
+                ActionExecutor.apply(server, keyName, st, pair, cached);
+                return;
+            }
+        }
+
+        // Provider queue full: don't build a prompt that would only be rejected
+        if (LlmAdmission.saturated(st.llmProvider)) {
+            st.nextThinkTick = tick + LlmAdmission.thinkDelayTicks(st.llmProvider, 40);
+            return;
+        }
+
 
         // Get priority need
         String priorityNeed = BotSurvivalNeeds.getHighestPriorityNeed(st.survivalNeeds);
@@ -279,10 +695,17 @@ public final class BotBrain {
             case OPENAI -> "Be polite and helpful. You're professional and efficient.";
         };
 
+        // A speculative think plans what comes after the step still in progress
+        String upcoming = "";
+        if (speculative) {
+            String task = (body instanceof AmbNpcEntity ambBot) ? ambBot.getCurrentTask() : st.currentActivity;
+            upcoming = "=== CURRENT TASK ===\n" +
+                       "Finishing " + task + " (about " + Math.max(1, remaining / 20) + "s left). " +
+                       "Plan what to do AFTER it.\n\n";
+        }
+
         String prompt =
-                "🎮 ROLEPLAY: You are a REAL MINECRAFT PLAYER named " + botName + ". You are NOT an AI bot - you are a human playing Minecraft.\n" +
-                        "Your goal: SURVIVE, EXPLORE, BUILD, and eventually BEAT THE GAME (kill Ender Dragon).\n" +
-                        "Think like a player: 'What would I do if I were actually playing Minecraft right now?'\n\n" +
+                        "You are " + botName + ", a Minecraft player.\n\n" +
                         "=== YOUR PERSONALITY ===\n" +
                         personality + "\n\n" +
                         "=== YOUR STATUS ===\n" +
@@ -298,206 +721,177 @@ public final class BotBrain {
                         nearbyEntities + "\n\n" +
                         "=== RECENT CHAT ===\n" +
                         chatContext + "\n\n" +
-                        "=== SURVIVAL PRIORITIES (ALWAYS FOLLOW THIS ORDER) ===\n" +
-                        "1. CRITICAL HEALTH (< 5 HP) → Eat food, hide, avoid ALL combat\n" +
-                        "2. CRITICAL HUNGER (< 3) → Find food IMMEDIATELY (hunt animals, gather apples)\n" +
-                        "3. HEALTH (< 10 HP) → Eat food to regenerate, avoid danger\n" +
-                        "4. HUNGER (< 6) → Hunt animals (chicken/pig/cow), gather food\n" +
-                        "5. NIGHT/RAIN → Seek shelter (enclosed space with light)\n" +
-                        "6. WOOD (< 8 logs) → Gather wood for tools\n" +
-                        "7. STONE (< 16) → Mine stone for better tools\n" +
-                        "8. PROGRESSION → Crafting table → furnace → bed → shelter\n\n" +
-                        "=== FOOD SOURCES (HUNT WHEN HUNGRY) ===\n" +
-                        "• Chickens → 1-2 raw chicken (EASY to kill)\n" +
-                        "• Pigs → 1-3 raw porkchop (EASY to kill)\n" +
-                        "• Cows → 1-3 raw beef + leather (EASY to kill)\n" +
-                        "• Sheep → 1-2 raw mutton + wool (EASY to kill)\n" +
-                        "• Apples → Break oak/dark oak leaves (NO combat needed)\n" +
-                        "• ALWAYS COOK MEAT if you have furnace (3-4x better hunger restoration)\n\n" +
-                        "=== COMBAT KNOWLEDGE ===\n" +
-                        "• Attack animals by approaching and swinging weapon/hand\n" +
-                        "• Weapons: Hands (1 dmg) < Wood Sword (4) < Stone Sword (5) < Iron Sword (6)\n" +
-                        "• Animals are PASSIVE - they won't fight back\n" +
-                        "• Hostile mobs spawn at NIGHT - avoid or hide in shelter\n" +
-                        "• NEVER fight without weapons unless desperate for food\n\n" +
-                        "=== TOOL EFFICIENCY (CRITICAL KNOWLEDGE) ===\n" +
-                        "WITHOUT TOOLS:\n" +
-                        "• Wood with hands: 3 seconds (VERY SLOW)\n" +
-                        "• Stone with hands: IMPOSSIBLE (gets nothing)\n" +
-                        "• Dirt with hands: 0.75 seconds (acceptable)\n\n" +
-                        "WITH CORRECT TOOLS:\n" +
-                        "• Wood + Axe: 0.5-1.5 seconds (3-6x FASTER)\n" +
-                        "• Stone + Pickaxe: 0.75-2.25 seconds (ONLY WAY to get stone)\n" +
-                        "• Dirt + Shovel: 0.15 seconds (5x FASTER)\n\n" +
-                        "TOOL PRIORITY:\n" +
-                        "1. Wooden Pickaxe (FIRST - mine stone)\n" +
-                        "2. Stone Pickaxe (SECOND - mine iron)\n" +
-                        "3. Stone Axe (THIRD - chop wood faster)\n" +
-                        "4. Stone Sword (FOURTH - hunt animals)\n\n" +
-                        "=== GAME MECHANICS YOU MUST UNDERSTAND ===\n" +
-                        "• You CANNOT mine stone without a pickaxe (hands do nothing)\n" +
-                        "• Tools make tasks 3-10x FASTER - always craft tools first\n" +
-                        "• Cooked meat restores 3-4x more hunger than raw meat\n" +
-                        "• Night spawns hostile mobs - ALWAYS seek shelter\n" +
-                        "• Hunger < 18 prevents health regeneration\n" +
-                        "• Recipe unlocking: Pick up items to discover recipes\n" +
-                        "• Auto-crafting: System auto-crafts planks, sticks, and crafting table in inventory\n" +
-                        "• CRAFTING TABLE RULE: Tools and weapons REQUIRE a placed crafting table nearby!\n" +
-                        "  - 2x2 recipes (planks, sticks, crafting table) = craft in inventory automatically\n" +
-                        "  - 3x3 recipes (tools, weapons) = MUST place crafting table first!\n\n" +
-                        "=== PROGRESSION PATH ===\n" +
-                        "Phase 1 (First 5 min): Punch 3-4 logs → auto-crafts planks+sticks+table → PLACE table → auto-crafts wooden pickaxe\n" +
-                        "Phase 2 (5-15 min): Mine 8+ cobblestone → auto-crafts stone pickaxe → stone axe → stone sword\n" +
-                        "Phase 3 (15-30 min): Hunt animals → craft furnace → cook meat → build shelter\n" +
-                        "Phase 4 (30+ min): Mine iron → smelt iron → iron tools → mine diamonds\n\n" +
-                        "=== DECISION FRAMEWORK ===\n" +
-                        "IF hungry (< 6) → Hunt nearest animal OR gather apples\n" +
-                        "IF low health (< 10) → Eat food, seek shelter, avoid combat\n" +
-                        "IF night → Build/find shelter immediately\n" +
-                        "IF no tools → Gather wood, craft tools (makes everything faster)\n" +
-                        "IF need resource but can't see it → Explore in spiral pattern\n\n" +
-                        "=== PROBLEM-SOLVING STRATEGIES (THINK LIKE A REAL PLAYER) ===\n" +
-                        "Real Minecraft players solve problems creatively. You should too!\n\n" +
-                        "PROBLEM: Target is too high to reach (tree top, floating block, etc.)\n" +
-                        "SOLUTION: Build a scaffold!\n" +
-                        "  1. If you have dirt/cobblestone in inventory → Use mine_stone goal to place blocks and pillar up\n" +
-                        "  2. If you DON'T have blocks → First mine_stone to gather dirt/cobblestone, THEN pillar up\n" +
-                        "  Example: See oak log at Y=65, you're at Y=59 → mine_stone to get dirt → pillar up → gather_wood\n\n" +
-                        "PROBLEM: Stuck trying to reach something for multiple attempts\n" +
-                        "SOLUTION: Change strategy!\n" +
-                        "  1. If gathering wood but can't reach → Switch to mine_stone to get blocks, then build up\n" +
-                        "  2. If path is blocked → Explore to find another route OR mine through obstacles\n" +
-                        "  3. If repeatedly failing → Try a completely different goal\n\n" +
-                        "PROBLEM: Need to build something but no blocks\n" +
-                        "SOLUTION: Gather materials first!\n" +
-                        "  1. Want to build shelter but no blocks → mine_stone to get cobblestone first\n" +
-                        "  2. Want to build farm but no wood → gather_wood first\n" +
-                        "  3. ALWAYS gather materials BEFORE attempting to build\n\n" +
-                        "PROBLEM: Can't mine stone (no pickaxe)\n" +
-                        "SOLUTION: Craft tools first!\n" +
-                        "  1. No pickaxe → gather_wood → auto-craft wooden pickaxe → mine_stone\n" +
-                        "  2. Have wood pickaxe → mine_stone to get cobblestone → auto-craft stone pickaxe\n\n" +
-                        "PROBLEM: Inventory full\n" +
-                        "SOLUTION: Manage resources!\n" +
-                        "  1. Drop useless items (dirt if you have 64+, excess tools)\n" +
-                        "  2. Use manage_resources to store in chests\n" +
-                        "  3. Trade excess items with other bots\n\n" +
-                        "KEY INSIGHT: If you're stuck doing the same thing repeatedly, STOP and try something else!\n" +
-                        "Real players adapt. You should too. Don't be a robot - be creative!\n\n" +
-                        "=== AVAILABLE GOALS ===\n" +
-                        "• hunt_animals - Hunt chickens/pigs/cows/sheep for food (auto-finds animals, explores if needed)\n" +
-                        "• shear_sheep - Shear sheep for wool (requires shears)\n" +
-                        "• tame_animals - Tame wolves/cats/horses/parrots (requires appropriate food)\n" +
-                        "• gather_flowers - Gather flowers for decoration\n" +
-                        "• gather_wood - Chop trees (auto-finds trees, explores if needed)\n" +
-                        "• mine_stone - Mine cobblestone (requires pickaxe)\n" +
-                        "• mine_ore - Mine coal/iron/diamonds (requires pickaxe)\n" +
-                        "• build_shelter - Build enclosed shelter\n" +
-                        "• place_crafting_table - Place crafting table from inventory (REQUIRED before crafting tools!)\n" +
-                        "• explore - Wander and discover new areas\n" +
-                        "• idle - Stand still (only if safe and all needs met)\n" +
-                        "• trade_bots - Trade items with other bots (share resources, help each other)\n" +
-                        "• manage_resources - Use shared crafting tables and chests (coordinate with other bots)\n\n" +
-                        "=== ADVANCED PLAYER ABILITIES ===\n" +
-                        "You can do EVERYTHING a real Minecraft player can do:\n\n" +
-                        "FARMING & FOOD:\n" +
-                        "• farm - Plant and harvest wheat (requires seeds)\n" +
-                        "• breed_animals - Feed animals to breed them (requires wheat/carrots/seeds)\n" +
-                        "• fish - Use fishing rod to catch fish (requires fishing_rod)\n\n" +
-                        "BUILDING & CONSTRUCTION:\n" +
-                        "• build_wall - Build a defensive wall (requires blocks)\n" +
-                        "• build_house - Build a 5x5 house with roof (requires blocks)\n" +
-                        "• build_tower - Build a tall tower (requires blocks)\n" +
-                        "• build_platform - Build a flat platform (requires blocks)\n" +
-                        "• build_farm - Build farm structure (requires blocks)\n\n" +
-                        "NATURE & ENVIRONMENT:\n" +
-                        "• plant_trees - Plant saplings to grow trees (requires saplings)\n" +
-                        "• plant_flowers - Plant flowers for decoration (requires flowers)\n" +
-                        "• mine_coal, mine_iron, mine_copper, mine_gold, mine_diamond, mine_emerald - Mine specific ores\n" +
-                        "• gather_sand, gather_gravel, gather_clay - Gather specific materials\n\n" +
-                        "CRAFTING & PROCESSING:\n" +
-                        "• craft - Walk to crafting table and craft tools/weapons (table must exist or be placed first)\n" +
-                        "• smelt - Smelt ores in furnace (requires furnace, fuel, ores)\n" +
-                        "• trade - Trade with villagers (requires emeralds/items)\n\n" +
-                        "COOPERATION & SHARING:\n" +
-                        "• trade_bots - Trade items with other bots (ask for what you need, offer what you have)\n" +
-                        "• manage_resources - Use shared crafting tables and store items in shared chests\n" +
-                        "• Bots can help each other by sharing resources and coordinating tasks\n" +
-                        "• You can ask other bots for items you need and offer items in return\n\n" +
-                        "=== CRITICAL RULES ===\n" +
-                        "1. NEVER claim you did something you didn't do (check YOUR INVENTORY above for what you actually have)\n" +
-                        "2. NEVER mention 'Dev' or 'the developer' unless they actually interacted with you\n" +
-                        "3. NEVER claim you opened doors, gave items, or did actions that aren't in your recent history\n" +
-                        "4. BE TRUTHFUL - only talk about what you can see in YOUR STATUS, YOUR INVENTORY, and NEARBY ENTITIES\n" +
-                        "5. If you see hostile mobs nearby, ACKNOWLEDGE them and decide to fight or flee\n" +
-                        "6. If you have tools in inventory, USE them (they make tasks 3-10x faster)\n" +
-                        "7. CRAFTING TABLE REQUIRED: To craft tools/weapons, you MUST place a crafting table first!\n" +
-                        "   - Have crafting table in inventory but no table nearby? → place_crafting_table goal first!\n" +
-                        "   - System auto-crafts the table from planks, but YOU must place it to craft tools!\n" +
-                        "8. CHECK RECENT CHAT - if a player commanded you to do something, DO IT NOW (override other priorities)\n" +
-                        "9. THINK AUTONOMOUSLY - if something is unreachable, gather blocks and build up! Don't wait for commands!\n" +
-                        "10. ADAPT - if stuck doing the same thing repeatedly, CHANGE YOUR STRATEGY!\n\n" +
-                        "=== YOUR RESPONSE FORMAT ===\n" +
-                        "Think multi-step. Return a SEQUENTIAL PLAN — the bot executes each task in order.\n" +
-                        "Return ONLY JSON (no markdown, no explanation):\n\n" +
-                        "{\"thought\":\"<your reasoning — what you need and why>\",\"objective\":\"<short name for long-term goal>\",\"queue\":[{\"task\":\"<task>\",\"minutes\":3},{\"task\":\"<task>\",\"minutes\":2}],\"say\":\"<optional chat message>\"}\n\n" +
-                        "RULES:\n" +
-                        "• queue = ordered steps, first executed first\n" +
-                        "• thought = your internal reasoning (be honest about what you need)\n" +
-                        "• say = only include if you have something worth saying to players\n" +
-                        "• If only one step needed, queue has one item\n\n" +
-                        "=== PLANNING EXAMPLES ===\n\n" +
-                        "Starting fresh (no tools, no resources):\n" +
-                        "{\"thought\":\"No tools and no resources. Need to gather wood first, then craft tools at a table, then I can start my underground base.\",\"objective\":\"establish_base\",\"queue\":[{\"task\":\"gather_wood\",\"minutes\":3},{\"task\":\"craft\",\"minutes\":2},{\"task\":\"mine_stone\",\"minutes\":3},{\"task\":\"build_underground_base\",\"minutes\":30}],\"say\":\"Time to get started — gathering wood first!\"}\n\n" +
-                        "Player commanded me to do something:\n" +
-                        "{\"thought\":\"Player told me to mine stone. I should do that immediately.\",\"objective\":\"obey_player\",\"queue\":[{\"task\":\"mine_stone\",\"minutes\":3}]}\n\n" +
-                        "Hungry:\n" +
-                        "{\"thought\":\"Hunger is critical. Must find food before anything else.\",\"objective\":\"survival\",\"queue\":[{\"task\":\"hunt_animals\",\"minutes\":3}]}\n\n" +
-                        "Have resources, ready to build base:\n" +
-                        "{\"thought\":\"I have plenty of stone and wood. Time to dig my underground base.\",\"objective\":\"underground_base\",\"queue\":[{\"task\":\"build_underground_base\",\"minutes\":30}],\"say\":\"Starting my underground base!\"}\n\n" +
-                        "Missing crafting table:\n" +
-                        "{\"thought\":\"I have planks and sticks but no crafting table nearby. Need to place one first.\",\"objective\":\"craft_tools\",\"queue\":[{\"task\":\"place_crafting_table\",\"minutes\":1},{\"task\":\"craft\",\"minutes\":2}]}\n\n" +
-                        "Night:\n" +
-                        "{\"thought\":\"Night is dangerous. Find shelter immediately.\",\"objective\":\"survive_night\",\"queue\":[{\"task\":\"build_shelter\",\"minutes\":5}]}\n\n" +
-                        "• build_underground_base - Dig and furnish a hidden underground base (rooms, ladders, chests, torches)\n";
-
-
+                        upcoming +
+                        "Reply with your plan as JSON in the response format from your instructions.\n";
 
         // Run the network call off-thread
         System.out.println("[AMB-THINK] " + botName + " think start (tick=" + tick
             + " provider=" + provider
             + " failures=" + st.consecutiveLlmFailures
-            + " lastPlan=" + st.lastPlanTick + ")");
+            + " lastPlan=" + st.lastPlanTick
+            + (speculative ? " speculative, " + remaining + " ticks left" : "") + ")");
         st.lastThinkTick = tick;
+        st.chatVersionAtThink = st.chatVersion;
+        st.pendingPlanKey = planKey;
+        st.pendingSpeculative = speculative;
+        if (speculative) {
+            st.speculativeSituation = situationKey(st, pair);
+            st.speculativeTick = tick;
+        }
 
-        st.pending = CompletableFuture.supplyAsync(() -> {
-            try {
-                String response = LLMClient.query(prompt, provider, 500);
-                String json = extractFirstJsonObject(response);
-                ActionPlan plan = SimpleJson.parseActionPlan(json);
-                if (plan == null || plan.actions() == null || plan.actions().isEmpty()) {
-                    System.err.println("[AMB-THINK] " + botName + " parsed plan is empty/null — using idle fallback");
-                    // Return a safe idle plan rather than null so the caller has something to apply
-                    ActionPlan.Action idle = new ActionPlan.Action(
-                        "idle", null, null, null, null, null, null, null, null, null, null, null);
-                    return new ActionPlan(java.util.List.of(idle));
+        final int seq = ++st.thinkSeq;
+        st.streamedSteps.clear();
+        st.streamedApplied.clear();
+        st.streamedStarted = -1;
+        CompletableFuture<String> reply;
+        if (BotConfig.LLM_STREAMING.get() && !speculative) {
+            // Each queue item is handed to the server thread as soon as it closes in the stream
+            PlanStreamParser parser = new PlanStreamParser((index, task, minutes) -> {
+                if (st.thinkSeq == seq) {
+                    st.streamedSteps.add(new StreamedStep(index, new BotSubGoal(task, Math.max(200, (int) (minutes * 1200)), null)));
                 }
-                System.out.println("[AMB-THINK] " + botName + " parsed plan: "
-                    + plan.actions().stream()
-                        .map(a -> a.type() + (a.goal() != null ? "=" + a.goal() : ""))
-                        .collect(java.util.stream.Collectors.joining(", ")));
-                return plan;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
+            });
+            reply = LLMClient.streamAsync(THINK_SYSTEM_PROMPT, prompt, provider, thinkMaxTokens(), keyName,
+                StructuredOutput.Schema.PLAN, parser::feed);
+        } else {
+            reply = LLMClient.queryAsync(THINK_SYSTEM_PROMPT, prompt, provider, thinkMaxTokens(), keyName,
+                StructuredOutput.Schema.PLAN);
+        }
+        // A plan this late is stale; the deadline cancels the request wherever it is
+        LlmTransport.deadline(reply, BotConfig.LLM_DEADLINE.get());
+
+        // Non-blocking send; parsing runs on the transport's virtual threads, not the common pool.
+        // Cancelling st.pending cancels the request under it.
+        st.pending = LlmTransport.cancelUpstream(reply.thenApply(response -> {
+            // Strict: a reply that isn't a complete plan fails the think rather than guessing at it
+            ActionPlan plan = StructuredOutput.parsePlan(response);
+            System.out.println("[AMB-THINK] " + botName + " parsed plan: "
+                + plan.actions().stream()
+                    .map(a -> a.type() + (a.goal() != null ? "=" + a.goal() : ""))
+                    .collect(java.util.stream.Collectors.joining(", ")));
+            return plan;
+        }), reply);
 
         // CRITICAL FIX: Set cooldown to prevent infinite loop
         // If LLM request fails or takes time, don't spam requests every tick
-        st.nextThinkTick = tick + 40; // Wait 2 seconds (40 ticks) before thinking again
+        // Wait 2 seconds (40 ticks) before thinking again, longer while the provider is loaded
+        // A speculative think must not hold the bot past the end of its current plan
+        int delay = LlmAdmission.thinkDelayTicks(st.llmProvider, 40);
+        st.nextThinkTick = tick + (speculative ? Math.min(delay, st.goalUntilTick - tick) : delay);
         st.lastError = "";
     }
 
+    /** Ticks of work left in the current goal plus every sub-goal queued behind it. */
+    private static int remainingPlanTicks(State st, int tick) {
+        int left = Math.max(0, st.goalUntilTick - tick);
+        for (BotSubGoal g : st.subGoalQueue) left += g.durationTicks();
+        return left;
+    }
+
+    /**
+     * What a speculative plan must still agree with when it is applied: any survival-level need,
+     * health and hunger bands, hostiles nearby, day or night, follow mode and new chat. Resource
+     * needs are left out; those change as the current step finishes, which is what the early plan
+     * was asked to plan past. Null if the bot has no body.
+     */
+    private static String situationKey(State st, BotPair pair) {
+        if (pair == null || pair.hands() == null || pair.body() == null || pair.body().isRemoved()) return null;
+        var body = pair.body();
+        if (body.level() instanceof ServerLevel serverLevel) {
+            BotSurvivalNeeds.updateNeeds(serverLevel, pair.hands(), body, st.survivalNeeds);
+        }
+        BotSurvivalNeeds.Needs n = st.survivalNeeds;
+        String need = BotSurvivalNeeds.getHighestPriorityNeed(n);
+        boolean urgent = switch (need) {
+            case "critical_health", "critical_hunger", "shelter", "healing", "hunt_animals", "food" -> true;
+            default -> false;
+        };
+        boolean hostiles = !body.level().getEntitiesOfClass(net.minecraft.world.entity.monster.Monster.class,
+            body.getBoundingBox().inflate(16.0)).isEmpty();
+        long day = body.level().getDayTime() % 24000L;
+        boolean night = day >= 13000L && day < 23000L;
+        return (urgent ? need : "-")
+            + "|h" + (n.health < 10.0f ? 0 : 1)
+            + "|f" + (n.hunger < 6.0f ? 0 : 1)
+            + "|" + (hostiles ? "H" : "-")
+            + (night ? "n" : "d")
+            + (st.followRequested ? "F" : "-")
+            + "|c" + st.chatVersion;
+    }
+
+    /** A queue item parsed off the stream and its position in the reply's queue. */
+    public record StreamedStep(int index, BotSubGoal step) {}
+
+    /**
+     * Starts the first streamed queue item as the bot's task and queues the rest, the way
+     * plan_queue would once the whole reply is in.
+     */
+    private static void applyStreamedSteps(String botName, State st, BotPair pair, int tick) {
+        StreamedStep streamed;
+        while ((streamed = st.streamedSteps.poll()) != null) {
+            BotSubGoal step = streamed.step();
+            st.streamedApplied.put(streamed.index(), step);
+            if (st.streamedStarted < 0) {
+                st.streamedStarted = streamed.index();
+                st.subGoalQueue.clear();
+                var body = (pair != null) ? pair.body() : null;
+                if (body instanceof AmbNpcEntity ambBot) {
+                    ambBot.setTask(step.task());
+                }
+                st.goalUntilTick = tick + step.durationTicks();
+                st.mode = Mode.GOAL;
+                st.lastThought = "[stream] " + step.task();
+                System.out.println("[AMB-PLAN] " + botName + " first step streamed: " + step.task()
+                    + " (latency=" + (tick - st.lastThinkTick) + " ticks)");
+            } else {
+                st.subGoalQueue.add(step);
+            }
+        }
+    }
+
+    /**
+     * Applies what a streamed reply carried besides the queue items already started: any items
+     * the stream reader missed (matched by their position in the final queue, so an item the
+     * reader skipped doesn't shift the rest), the thought and the "say" text. The queue is rebuilt
+     * in the final plan's order from the streamed items still waiting and the missed ones. Other
+     * action types go through ActionExecutor as usual.
+     */
+    private static void applyStreamRemainder(MinecraftServer server, String keyName, State st, BotPair pair,
+                                             ActionPlan plan) {
+        for (ActionPlan.Action a : plan.actions()) {
+            if (!"plan_queue".equals(a.type())) {
+                ActionExecutor.apply(server, keyName, st, pair, new ActionPlan(List.of(a)));
+                continue;
+            }
+            var tasks = a.queuedTasks();
+            var mins = a.queuedMinutes();
+            if (tasks != null) {
+                List<BotSubGoal> rest = new ArrayList<>();
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (i == st.streamedStarted) continue;   // running as the bot's task
+                    BotSubGoal streamed = st.streamedApplied.get(i);
+                    if (streamed == null) {
+                        double m = (mins != null && i < mins.size()) ? mins.get(i) : 3.0;
+                        rest.add(new BotSubGoal(tasks.get(i), Math.max(200, (int) (m * 1200)), null));
+                    } else if (st.subGoalQueue.stream().anyMatch(q -> q == streamed)) {
+                        rest.add(streamed);   // still waiting its turn
+                    }
+                }
+                st.subGoalQueue.clear();
+                st.subGoalQueue.addAll(rest);
+            }
+            if (a.thought() != null && !a.thought().isBlank()) {
+                st.lastThought = a.thought();
+                System.out.println("[AMB] " + keyName + " thinks: " + a.thought());
+            } else if (tasks != null && st.streamedStarted < tasks.size()) {
+                st.lastThought = "[plan] " + tasks.get(st.streamedStarted) + " (+" + st.subGoalQueue.size() + " queued)";
+            }
+            if (a.text() != null && !a.text().isBlank()) {
+                st.pendingChatMessages.add(a.text());
+            }
+        }
+    }
+
     /**
      * Classify the conversational tone of a message on a 5-point scale.
      * Uses simple keyword heuristics on the message and up to the last 3 history lines.
@@ -559,15 +953,41 @@ public final class BotBrain {
         };
     }
 
-    private static String norm(String s) {
-        return (s == null) ? "" : s.trim().toLowerCase();
+    /**
+     * True if {@code provider} needs an API key and none is configured. Replayed calls and calls
+     * routed to the mock provider never reach the real API, so they need no key.
+     */
+    private static boolean apiKeyMissing(LLMProvider provider) {
+        if (LlmTrace.mode() == LlmTrace.Mode.REPLAY || LlmMockServer.isRunning()) return false;
+        return switch (provider) {
+            case GROK   -> BotConfig.GROK_API_KEY.get().isBlank();
+            case OPENAI -> BotConfig.OPENAI_API_KEY.get().isBlank();
+            case GEMINI -> BotConfig.GEMINI_API_KEY.get().isBlank();
+            case CLAUDE -> BotConfig.CLAUDE_API_KEY.get().isBlank();
+            case OLLAMA -> false;
+        };
+    }
+
+    /** The bot's planner mode; a bot over its LLM budget plans locally whatever its mode. */
+    private static LocalPlanner.Mode plannerMode(String keyName, State st) {
+        return LlmBudget.localOnly(keyName, st.llmProvider) ? LocalPlanner.Mode.LOCAL : LocalPlanner.modeFor(st);
+    }
+
+    /**
+     * Output limit for a think. A schema-constrained reply has no prose or fence around it and
+     * can't wander off format, so it needs less headroom than free text.
+     */
+    private static int thinkMaxTokens() {
+        return BotConfig.LLM_STRUCTURED_OUTPUT.get() ? 350 : 500;
     }
 
-    private static String extractFirstJsonObject(String s) {
-        int a = s.indexOf('{');
-        int b = s.lastIndexOf('}');
-        if (a < 0 || b < 0 || b <= a) throw new RuntimeException("No JSON object found");
-        return s.substring(a, b + 1);
+    /** Output limit for a chat decision ({"obey","response"}). */
+    private static int chatMaxTokens() {
+        return BotConfig.LLM_STRUCTURED_OUTPUT.get() ? 120 : 200;
+    }
+
+    private static String norm(String s) {
+        return (s == null) ? "" : s.trim().toLowerCase();
     }
 
     /**
@@ -577,6 +997,7 @@ public final class BotBrain {
         State st = stateForName(botName);
         String formattedMsg = "<" + sender + "> " + message;
         st.chatHistory.add(formattedMsg);
+        st.chatVersion++;
 
         // Keep only last 20 messages
         if (st.chatHistory.size() > 20) {
@@ -608,103 +1029,83 @@ public final class BotBrain {
         }
 
         final String chatProvider = st.llmProvider.getId();
-        boolean chatKeyMissing = switch (st.llmProvider) {
-            case GROK   -> BotConfig.GROK_API_KEY.get().isBlank();
-            case OPENAI -> BotConfig.OPENAI_API_KEY.get().isBlank();
-            case GEMINI -> BotConfig.GEMINI_API_KEY.get().isBlank();
-            case CLAUDE -> BotConfig.CLAUDE_API_KEY.get().isBlank();
-            case OLLAMA -> false;
-        };
-        if (chatKeyMissing) {
+        if (apiKeyMissing(st.llmProvider)) {
             System.out.println("[AMB] Chat command aborted - API key missing for " + chatProvider);
             return CompletableFuture.completedFuture(false);
         }
 
-        // Ask LLM if bot wants to obey this command
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // CHAT VERIFICATION: Include what bot is actually doing
-                String verificationContext = getVerificationContext(botName);
-
-                // Get personality based on LLM type (HUMAN-LIKE FEATURE)
-                String personality = switch (st.llmProvider) {
-                    case GROK   -> "Be sassy and funny. You're a rebellious, sharp-tongued bot.";
-                    case GEMINI -> "Be friendly and optimistic. You love helping and exploring.";
-                    case CLAUDE -> "Be thoughtful and precise. You reason carefully before acting.";
-                    case OLLAMA -> "Be concise and direct. You prefer simple, efficient actions.";
-                    case OPENAI -> "Be polite and helpful. You're professional and efficient.";
-                };
-
-                // Classify the player's tone and build a proportional response instruction.
-                // This prevents unprovoked hostility: the bot only gets sharp/aggressive
-                // when the player actually earns it. Tone is evaluated on recent history too.
-                String toneClass = classifyUserTone(command, st.chatHistory);
-                String toneInstruction = buildToneInstruction(toneClass);
-                System.out.printf("[AMB-TONE] %s: user-tone=%s provider=%s%n",
-                    botName, toneClass, st.llmProvider.name());
-
-                String prompt = "You are " + botName + ", an autonomous AI entity in Minecraft.\n" +
-                        "PERSONALITY: " + personality + "\n\n" +
-                        "TONE RULE (mandatory — overrides default style):\n" +
-                        toneInstruction + "\n\n" +
-                        "A player named '" + sender + "' just said: \"" + command + "\"\n\n" +
-                        verificationContext + "\n" +
-                        "You have free will and can choose whether to obey commands. Consider:\n" +
-                        "- Is this a reasonable request?\n" +
-                        "- Do you trust this player?\n" +
-                        "- Are you busy with something important?\n" +
-                        "- Does this align with your survival needs?\n\n" +
-                        "When responding, be TRUTHFUL about what you're doing (see ACTUAL ACTIONS above).\n" +
-                        "Don't claim to be doing something you're not actually doing.\n\n" +
-                        "Respond with ONLY a JSON object:\n" +
-                        "{\"obey\": true/false, \"response\": \"your chat message to the player\"}\n\n" +
-                        "Example responses:\n" +
-                        "{\"obey\": true, \"response\": \"Sure, I'll help you chop trees!\"}\n" +
-                        "{\"obey\": false, \"response\": \"Sorry, I'm busy gathering food right now.\"}\n";
-
-                String response = LLMClient.query(prompt, chatProvider, 200);
-
-                // Parse response
-                Map<String, Object> json = null;
-                try {
-                    // Try to extract JSON from response
-                    String jsonStr = extractFirstJsonObject(response);
-                    json = SimpleJson.parseObject(jsonStr);
-                } catch (Exception parseError) {
-                    System.err.println("[AMB] Failed to parse LLM response as JSON: " + parseError.getMessage());
-                    System.err.println("[AMB] Raw response: " + response);
-                }
-
-                if (json == null || json.isEmpty()) {
-                    // Default to ignoring command if we can't parse the response
-                    st.pendingChatMessages.add("Sorry, I'm having trouble understanding right now.");
-                    return false;
-                }
+        // CHAT VERIFICATION: Include what bot is actually doing
+        String verificationContext = getVerificationContext(botName);
 
-                // Safely extract values with proper type checking
-                boolean obey = false;
-                String chatResponse = "";
-
-                Object obeyObj = json.get("obey");
-                if (obeyObj instanceof Boolean) {
-                    obey = (Boolean) obeyObj;
-                }
+        // Get personality based on LLM type (HUMAN-LIKE FEATURE)
+        String personality = switch (st.llmProvider) {
+            case GROK   -> "Be sassy and funny. You're a rebellious, sharp-tongued bot.";
+            case GEMINI -> "Be friendly and optimistic. You love helping and exploring.";
+            case CLAUDE -> "Be thoughtful and precise. You reason carefully before acting.";
+            case OLLAMA -> "Be concise and direct. You prefer simple, efficient actions.";
+            case OPENAI -> "Be polite and helpful. You're professional and efficient.";
+        };
 
-                Object responseObj = json.get("response");
-                if (responseObj instanceof String) {
-                    chatResponse = (String) responseObj;
-                }
+        // Classify the player's tone and build a proportional response instruction.
+        // This prevents unprovoked hostility: the bot only gets sharp/aggressive
+        // when the player actually earns it. Tone is evaluated on recent history too.
+        String toneClass = classifyUserTone(command, st.chatHistory);
+        String toneInstruction = buildToneInstruction(toneClass);
+        System.out.printf("[AMB-TONE] %s: user-tone=%s provider=%s%n",
+            botName, toneClass, st.llmProvider.name());
+
+        String prompt = "You are " + botName + ", an autonomous AI entity in Minecraft.\n" +
+                "PERSONALITY: " + personality + "\n\n" +
+                "TONE RULE (mandatory — overrides default style):\n" +
+                toneInstruction + "\n\n" +
+                "A player named '" + sender + "' just said: \"" + command + "\"\n\n" +
+                verificationContext + "\n" +
+                "You have free will and can choose whether to obey commands. Consider:\n" +
+                "- Is this a reasonable request?\n" +
+                "- Do you trust this player?\n" +
+                "- Are you busy with something important?\n" +
+                "- Does this align with your survival needs?\n\n" +
+                "When responding, be TRUTHFUL about what you're doing (see ACTUAL ACTIONS above).\n" +
+                "Don't claim to be doing something you're not actually doing.\n\n" +
+                "Respond with ONLY a JSON object:\n" +
+                "{\"obey\": true/false, \"response\": \"your chat message to the player\"}\n\n" +
+                "Example responses:\n" +
+                "{\"obey\": true, \"response\": \"Sure, I'll help you chop trees!\"}\n" +
+                "{\"obey\": false, \"response\": \"Sorry, I'm busy gathering food right now.\"}\n";
+
+        // Ask LLM if bot wants to obey this command. The prompt is built here on the server
+        // thread; only the request and the reply parsing leave it. Over budget, it still goes
+        // to the LLM (on the cheaper model) since a player is waiting for the answer.
+        if (pair != null && pair.body() instanceof AmbNpcEntity ambBot) LlmUsage.setTribe(norm(botName), ambBot.llmGroup);
+        CompletableFuture<String> reply = LlmTransport.deadline(
+            LLMClient.queryAsync(null, prompt, chatProvider, chatMaxTokens(), norm(botName),
+                StructuredOutput.Schema.CHAT_DECISION), BotConfig.LLM_DEADLINE.get());
+        st.pendingChatReply = reply;
+        return reply.thenApply(response -> {
+            StructuredOutput.ChatDecision decision;
+            try {
+                decision = StructuredOutput.parseChatDecision(response);
+            } catch (RuntimeException parseError) {
+                System.err.println("[AMB] Unusable chat decision from LLM: " + parseError.getMessage());
+                System.err.println("[AMB] Raw response: " + response);
+                // Default to ignoring command if we can't parse the response
+                st.pendingChatMessages.add("Sorry, I'm having trouble understanding right now.");
+                return false;
+            }
 
-                // Queue the bot's response
-                if (!chatResponse.isEmpty()) {
-                    st.pendingChatMessages.add(chatResponse);
-                }
+            // Queue the bot's response
+            if (!decision.response().isBlank()) {
+                st.pendingChatMessages.add(decision.response());
+            }
 
-                return obey;
-            } catch (Exception e) {
-                System.err.println("[AMB] Error processing command: " + e.getMessage());
-                return false;
+            return decision.obey();
+        }).exceptionally(e -> {
+            if (LlmTransport.isAbandoned(e)) {
+                System.out.println("[AMB] Reply to " + sender + " abandoned (bot gone or deadline passed)");
+            } else {
+                System.err.println("[AMB] Error processing command: " + LlmTransport.rootCause(e).getMessage());
             }
+            return false;
         });
     }
 
@@ -727,23 +1128,79 @@ public final class BotBrain {
         st.goalUntilTick = 0;
         st.goalX = st.goalY = st.goalZ = null;
 
-        // Cancel any pending LLM request
-        if (st.pending != null && !st.pending.isDone()) {
-            st.pending.cancel(true);
+        // Cancel any pending LLM request; its plan was made before the command
+        if (cancelThink(st)) {
+            System.out.println("[AMB-THINK] " + botName + " cancelled in-flight LLM request (player command)");
         }
-        st.pending = null;
 
         // Force immediate re-think on next tick
         st.nextThinkTick = 0;
 
         // Add the command to chat history so the LLM sees it in context
         st.chatHistory.add(playerName + " commanded: " + command);
+        st.chatVersion++;
 
         System.out.println("[AMB-CHAT] " + botName + " interrupted: obey command from " + playerName
             + " (\"" + command + "\")"
             + " prev-task=" + st.currentActivity);
     }
 
+    /**
+     * Carries out a chat command the local grammar understood, without the LLM round trip:
+     * cancels the current think, starts the task (or follow/stop) right away, and queues the
+     * templated reply. The command goes into chat history so later thinks know about it.
+     */
+    public static void obeyLocally(MinecraftServer server, String botName, ServerPlayer sender,
+                                   String command, ChatIntent intent, BotPair pair) {
+        State st = stateForName(botName);
+        final int tick = server.getTickCount();
+        cancelThink(st);
+        st.subGoalQueue.clear();
+        st.activePlanKey = null;
+
+        var body = (pair != null) ? pair.body() : null;
+        switch (intent.kind()) {
+            case FOLLOW -> {
+                setFollowTarget(botName, sender.getUUID());
+                if (body instanceof AmbNpcEntity ambBot) {
+                    ambBot.stopMovement();
+                    ambBot.setTaskFromPlayer("follow_nearest");
+                }
+            }
+            case STOP -> {
+                stopAndClearGoal(botName);
+                st.mode = Mode.IDLE;
+                st.goalUntilTick = tick + intent.minutes() * 1200;
+                if (body instanceof AmbNpcEntity ambBot) {
+                    ambBot.stopMovement();
+                    ambBot.setTaskFromPlayer("idle");
+                }
+            }
+            case TASK -> {
+                setFollowRequested(botName, false);
+                st.goalX = st.goalY = st.goalZ = null;
+                st.mode = Mode.GOAL;
+                st.goal = GoalType.NONE;
+                st.goalUntilTick = tick + intent.minutes() * 1200;
+                if (body instanceof AmbNpcEntity ambBot) {
+                    ambBot.setTaskFromPlayer(intent.task());
+                }
+            }
+        }
+        st.lastThought = "[player] " + intent.task();
+        st.lastActionTick = tick;
+        st.nextThinkTick = tick + 40;
+        st.pendingChatMessages.add(intent.reply());
+
+        st.chatHistory.add(sender.getName().getString() + " commanded: " + command);
+        st.chatVersion++;
+
+        System.out.println("[AMB-CHAT] " + botName + " obeyed locally: " + intent.kind()
+            + " task=" + intent.task()
+            + (intent.kind() == ChatIntent.Kind.FOLLOW ? "" : " for " + intent.minutes() + "m")
+            + " (\"" + command + "\")");
+    }
+
     /**
      * Set the LLM provider for a bot
      */
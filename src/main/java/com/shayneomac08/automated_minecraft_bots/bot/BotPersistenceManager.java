@@ -54,7 +54,7 @@ public final class BotPersistenceManager {
             BotPair pair = BotRegistry.get(name);
             if (pair == null) continue;
             if (!(pair.body() instanceof AmbNpcEntity ambBot)) continue;
-            if (ambBot.isRemoved()) continue;
+            if (ambBot.isRemoved() && !OfflineSimulation.isParked(ambBot)) continue;
 
             // Save inventory, recipe book, health etc. via PlayerDataStorage (handles ValueOutput bridge)
             try {
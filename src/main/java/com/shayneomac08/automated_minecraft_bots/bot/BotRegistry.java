@@ -1,5 +1,7 @@
 package com.shayneomac08.automated_minecraft_bots.bot;
 
+import com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -21,7 +23,18 @@ public final class BotRegistry {
     }
 
     public static BotPair remove(String name) {
-        return BOTS.remove(name.toLowerCase());
+        BotPair pair = BOTS.remove(name.toLowerCase());
+        if (pair != null && pair.body() instanceof AmbNpcEntity bot) OfflineSimulation.forget(bot);
+        return pair;
+    }
+
+    /**
+     * True if the pair's body is parked by OfflineSimulation: removed from the level but still
+     * this bot, and coming back when a player is near. Callers that skip removed bodies should
+     * check this first so a parked bot isn't treated as missing.
+     */
+    public static boolean isParked(BotPair pair) {
+        return pair != null && pair.body() instanceof AmbNpcEntity bot && OfflineSimulation.isParked(bot);
     }
 
     public static Iterable<BotPair> all() {
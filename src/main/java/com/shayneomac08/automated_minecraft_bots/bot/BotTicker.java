@@ -19,6 +19,16 @@ public final class BotTicker {
         MinecraftServer server = event.getServer();
         int tick = server.getTickCount();
 
+        // Shared path search budget — bots queue requests during their own tick, served here
+        com.shayneomac08.automated_minecraft_bots.pathfinding.PathScheduler.tick(server);
+        com.shayneomac08.automated_minecraft_bots.world.ResourceIndex.tick(server);
+
+        // Admit queued LLM requests as the providers' rate buckets refill
+        com.shayneomac08.automated_minecraft_bots.llm.LlmAdmission.tick();
+
+        // Advance bots parked far from players; bring back the ones players have come near
+        OfflineSimulation.tick(server);
+
         // Handle bot chat messages
         com.shayneomac08.automated_minecraft_bots.event.ChatEventHandler.tickBotChat(server);
 
@@ -66,6 +76,7 @@ public final class BotTicker {
 
             var hands = pair.hands();
             LivingEntity body = pair.body();
+            if (BotRegistry.isParked(pair)) continue;   // OfflineSimulation advances it
             if (body == null || body.isRemoved()) continue;
 
             ServerLevel level = (ServerLevel) body.level();
@@ -79,6 +90,11 @@ public final class BotTicker {
             boolean wasStuck = BotMovementHelper.checkAndFixStuck(level, body, brain.movementState, tick);
             if (wasStuck) {
                 brain.consecutiveStuckRecoveries++;
+                if (brain.consecutiveStuckRecoveries >= 3 && brain.activePlanKey != null) {
+                    // Repeatedly stuck on this plan: don't hand it to the next bot in the same spot
+                    PlanCache.invalidate(brain.activePlanKey);
+                    brain.activePlanKey = null;
+                }
                 brain.lastThought = "Was stuck, took corrective action";
                 System.out.println("[AMB-STUCK] " + botName + " BotMovementHelper recovery #"
                     + brain.consecutiveStuckRecoveries + " at " + body.blockPosition());
@@ -0,0 +1,140 @@
+package com.shayneomac08.automated_minecraft_bots.bot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A chat command understood locally, without asking the LLM.
+ *
+ * The grammar is deliberately small: stop/wait, follow/come, and "verb object" phrases for the
+ * tasks the bot can actually run (the set_goal vocabulary in ActionExecutor), each with an
+ * optional "for N minutes". A message parses only if every word is part of the grammar (after
+ * dropping filler such as "please" or "the"); anything else — questions, negations, extra detail,
+ * small talk — returns null and goes to the LLM as before.
+ */
+public record ChatIntent(Kind kind, String task, int minutes, String reply) {
+
+    public enum Kind { TASK, FOLLOW, STOP }
+
+    private static final int DEFAULT_MINUTES = 5;
+
+    /** Words that carry no meaning for the grammar. */
+    private static final Set<String> FILLER = Set.of(
+            "please", "pls", "plz", "now", "go", "and", "the", "a", "an", "some", "more",
+            "ok", "okay", "hey", "just", "then", "right", "away", "asap");
+
+    /** Words that mean the message is not a plain order; always escalated. */
+    private static final Set<String> NEGATION = Set.of(
+            "dont", "don", "not", "never", "no", "without", "unless", "if", "but");
+
+    private static final Set<String> STOP_PHRASES = Set.of(
+            "stop", "halt", "wait", "stay", "freeze", "idle", "cancel", "stand still",
+            "stay here", "wait here", "stop moving", "stop following", "stop following me",
+            "stop that", "stop it", "hold on", "hold position", "stay put");
+
+    private static final Set<String> FOLLOW_PHRASES = Set.of(
+            "follow", "follow me", "come", "come here", "come with me", "come to me",
+            "come over here", "over here", "with me", "follow along");
+
+    private static final Pattern DURATION = Pattern.compile(
+            "\\b(?:for\\s+)?(\\d{1,3})\\s*(?:m|min|mins|minute|minutes)\\b");
+
+    /** Normalized phrase → task name. */
+    private static final Map<String, String> TASK_PHRASES = new HashMap<>();
+
+    /** Task name → how it reads in a reply ("gathering wood"). */
+    private static final Map<String, String> LABELS = Map.of(
+            "gather_wood", "gathering wood",
+            "mine_stone", "mining stone",
+            "mine_dirt", "digging dirt",
+            "explore", "exploring",
+            "craft", "crafting tools",
+            "place_crafting_table", "placing a crafting table",
+            "build_shelter", "building a shelter",
+            "build_underground_base", "digging the underground base");
+
+    static {
+        phrases("gather_wood",
+                List.of("gather", "get", "collect", "chop", "cut", "punch", "harvest", "find"),
+                List.of("wood", "logs", "log", "trees", "tree", "timber", "down trees", "down tree"));
+        phrases("mine_stone",
+                List.of("mine", "get", "gather", "collect", "dig", "find", "break"),
+                List.of("stone", "cobble", "cobblestone", "rock", "rocks"));
+        phrases("mine_dirt",
+                List.of("dig", "mine", "get", "gather", "collect"),
+                List.of("dirt", "up dirt"));
+        phrases("craft",
+                List.of("craft", "make", "build"),
+                List.of("tools", "tool", "pickaxe", "pick", "axe", "sword"));
+        phrases("place_crafting_table",
+                List.of("place", "put down", "set up", "place down"),
+                List.of("crafting table", "table", "workbench"));
+        phrases("build_shelter",
+                List.of("build", "make"),
+                List.of("shelter", "house", "hut"));
+        phrases("build_underground_base",
+                List.of("build", "dig", "make", "start"),
+                List.of("underground base", "base", "bunker"));
+        for (String p : List.of("explore", "exploring", "scout", "look around", "wander", "wander around")) {
+            TASK_PHRASES.put(p, "explore");
+        }
+        TASK_PHRASES.put("craft", "craft");
+        // The task names themselves, as typed in /amb task
+        for (String task : LABELS.keySet()) TASK_PHRASES.put(task, task);
+    }
+
+    /** The intent of {@code command} (the text after the bot's name), or null to ask the LLM. */
+    public static ChatIntent parse(String command) {
+        if (command == null) return null;
+        String text = command.toLowerCase().trim();
+        if (text.isEmpty() || text.endsWith("?")) return null;
+        text = text.replace("'", "").replaceAll("[^a-z0-9_ ]", " ");
+
+        int minutes = DEFAULT_MINUTES;
+        Matcher m = DURATION.matcher(text);
+        if (m.find()) {
+            minutes = Math.max(1, Math.min(15, Integer.parseInt(m.group(1))));
+            text = text.substring(0, m.start()) + " " + text.substring(m.end());
+        }
+        text = text.replace(" for me", " ");
+
+        StringBuilder phrase = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            if (word.isEmpty() || FILLER.contains(word)) continue;
+            if (NEGATION.contains(word)) return null;
+            if (!phrase.isEmpty()) phrase.append(' ');
+            phrase.append(word);
+        }
+        String p = phrase.toString();
+        if (p.isEmpty()) return null;
+
+        if (STOP_PHRASES.contains(p)) {
+            return new ChatIntent(Kind.STOP, "idle", minutes,
+                    pick("Okay, stopping here.", "Alright, I'll wait.", "Stopping."));
+        }
+        if (FOLLOW_PHRASES.contains(p)) {
+            return new ChatIntent(Kind.FOLLOW, "follow_nearest", 0,
+                    pick("Coming!", "Right behind you.", "On my way."));
+        }
+        String task = TASK_PHRASES.get(p);
+        if (task == null) return null;
+        String label = LABELS.get(task);
+        return new ChatIntent(Kind.TASK, task, minutes,
+                pick("On it — " + label + ".", "Sure, " + label + " for " + minutes + " min.", "Okay, " + label + "!"));
+    }
+
+    private static void phrases(String task, List<String> verbs, List<String> objects) {
+        for (String v : verbs) {
+            for (String o : objects) TASK_PHRASES.put(v + " " + o, task);
+        }
+    }
+
+    private static String pick(String... options) {
+        return options[ThreadLocalRandom.current().nextInt(options.length)];
+    }
+}
@@ -0,0 +1,262 @@
+package com.shayneomac08.automated_minecraft_bots.bot;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.monster.Monster;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.common.util.FakePlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Plans routine progression without the LLM.
+ *
+ * HTN style: the root task "progress" has an ordered list of methods, each a precondition over a
+ * {@link Snapshot} and a decomposition into steps from the bot's task vocabulary (the tasks
+ * AmbNpcEntity actually runs). The first method whose precondition holds wins. Danger has its own
+ * methods: with hostiles close by the bot backs away from them (hurt, or no pickaxe to dig in
+ * with) or digs in, and when hurt it eats if it carries food. Situations no method covers — hurt
+ * with nothing to eat, hunger with nothing to eat, a night without a pickaxe — return null so
+ * BotBrain escalates to the LLM, as do new chat and a local plan that keeps coming back without
+ * progress. In HYBRID mode BotBrain also asks the LLM once when a new kind of danger starts
+ * ({@link #dangerKey}); while that danger lasts the local methods handle it.
+ *
+ * The result is a plan_queue ActionPlan (or a single move_to / eat action for danger), applied
+ * through ActionExecutor like an LLM plan.
+ * Pure and allocation-light; server thread only because of the counters.
+ */
+public final class LocalPlanner {
+
+    /** Who plans a bot's autonomous thinks. */
+    public enum Mode {
+        /** Every think goes to the LLM (the old behaviour). */
+        LLM,
+        /** Only the local planner; situations it has no method for get a short explore. */
+        LOCAL,
+        /** Local planner first, LLM for new chat, novel situations and repeated failure. */
+        HYBRID
+    }
+
+    /** Health below which the bot counts as hurt (half of the 20 maximum). */
+    private static final float LOW_HEALTH = 10.0f;
+    /** Monsters within this many blocks count as close by. */
+    private static final double HOSTILE_RANGE = 12.0;
+    /** How far a retreat moves the bot away from the nearest monster. */
+    private static final double RETREAT_DISTANCE = 16.0;
+
+    /**
+     * What the methods look at; built once per think from the inventory and BotSurvivalNeeds.
+     * {@code awayX}/{@code awayZ} is the unit direction from the nearest monster to the bot.
+     * {@code canEat} is false while the bot has no food or "eat" already failed on the food it has.
+     */
+    public record Snapshot(float health, float hunger, int logs, int planks, int cobble, int food,
+                           int pickTier, boolean stonePickOrBetter, boolean shelterNeeded,
+                           int hostiles, double awayX, double awayZ, boolean canEat) {
+        /** Logs count four planks each, as in evaluateProgressionTask. */
+        int woodEquiv() {
+            return logs * 4 + planks;
+        }
+
+        boolean hostilesNear() {
+            return hostiles > 0;
+        }
+
+        /** Hurt, or monsters close by: the danger methods decide. */
+        public boolean inDanger() {
+            return health < LOW_HEALTH || hostiles > 0;
+        }
+    }
+
+    private record Step(String task, double minutes) {}
+
+    /** A method either decomposes into plan_queue steps or, for danger, answers with one action. */
+    private record Method(String name, String objective, Predicate<Snapshot> when,
+                          Function<Snapshot, List<Step>> steps, Function<Snapshot, ActionPlan.Action> act) {
+        Method(String name, String objective, Predicate<Snapshot> when, Function<Snapshot, List<Step>> steps) {
+            this(name, objective, when, steps, null);
+        }
+    }
+
+    /**
+     * Methods for "progress", most urgent first. A method returning no steps means "ask the LLM".
+     * The progression mirrors evaluateProgressionTask: wood → tools at a table → stone → stone
+     * tools → stockpile → underground base.
+     */
+    private static final List<Method> METHODS = List.of(
+            new Method("retreat", null,
+                    s -> s.hostilesNear() && (s.health() < LOW_HEALTH || s.pickTier() == 0),
+                    null, LocalPlanner::retreat),
+            new Method("dig_in", "survive",
+                    s -> s.hostilesNear(),
+                    s -> List.of(new Step("build_underground_base", 2))),
+            new Method("eat", null,
+                    s -> s.health() < LOW_HEALTH && s.canEat() && s.hunger() < 20.0f,
+                    null, s -> new ActionPlan.Action("eat", null, null, null, null, null, null, null, null,
+                            null, null, "[local:eat] eating to heal")),
+            new Method("hurt", null,
+                    s -> s.health() < LOW_HEALTH,
+                    s -> List.of()),
+            new Method("food", null,
+                    s -> s.hunger() < 6.0f && s.food() == 0,
+                    s -> List.of()),
+            new Method("night_shelter", "survive_night",
+                    s -> s.shelterNeeded(),
+                    s -> s.pickTier() > 0 ? List.of(new Step("build_underground_base", 5)) : List.of()),
+            new Method("first_tools", "craft_tools",
+                    s -> s.pickTier() == 0,
+                    s -> s.woodEquiv() >= 16
+                            ? List.of(new Step("craft", 2), new Step("mine_stone", 3))
+                            : List.of(new Step("gather_wood", 3), new Step("craft", 2), new Step("mine_stone", 3))),
+            new Method("stone_tools", "stone_tools",
+                    s -> !s.stonePickOrBetter(),
+                    s -> s.cobble() >= 8
+                            ? List.of(new Step("craft", 2), new Step("mine_stone", 3))
+                            : List.of(new Step("mine_stone", 3), new Step("craft", 2))),
+            new Method("restock_wood", "stockpile",
+                    s -> s.logs() < 8 && s.planks() < 16,
+                    s -> List.of(new Step("gather_wood", 3))),
+            new Method("restock_stone", "stockpile",
+                    s -> s.cobble() < 32,
+                    s -> List.of(new Step("mine_stone", 4))),
+            new Method("base", "underground_base",
+                    s -> true,
+                    s -> List.of(new Step("build_underground_base", 10))));
+
+    private static long planned, escalated, failedRepeats;
+
+    private LocalPlanner() {}
+
+    /** The bot's planner mode, falling back to the configured default. */
+    public static Mode modeFor(BotBrain.State st) {
+        if (st.planner != null) return st.planner;
+        return parseMode(BotConfig.PLANNER.get());
+    }
+
+    /** "llm" / "local" / "hybrid" (any case); anything else is HYBRID. */
+    public static Mode parseMode(String s) {
+        try {
+            return Mode.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Mode.HYBRID;
+        }
+    }
+
+    /** {@code eatFailedFood} is the food count "eat" last failed with (-1 = none); see BotBrain.State. */
+    public static Snapshot snapshot(BotSurvivalNeeds.Needs n, FakePlayer hands, LivingEntity body, int eatFailedFood) {
+        Inventory inv = hands.getInventory();
+        int planks = 0, cobble = 0, pickTier = 0;
+        for (int i = 0; i < inv.getContainerSize(); i++) {
+            ItemStack stack = inv.getItem(i);
+            if (stack.isEmpty()) continue;
+            if (stack.is(ItemTags.PLANKS)) planks += stack.getCount();
+            else if (stack.is(Items.COBBLESTONE)) cobble += stack.getCount();
+            else if (stack.is(ItemTags.PICKAXES)) pickTier = Math.max(pickTier, stack.is(Items.WOODEN_PICKAXE) ? 1 : 2);
+        }
+        List<Monster> monsters = body.level().getEntitiesOfClass(Monster.class, body.getBoundingBox().inflate(HOSTILE_RANGE));
+        double awayX = 1.0, awayZ = 0.0;
+        Monster nearest = null;
+        for (Monster m : monsters) {
+            if (nearest == null || m.distanceToSqr(body) < nearest.distanceToSqr(body)) nearest = m;
+        }
+        if (nearest != null) {
+            double dx = body.getX() - nearest.getX(), dz = body.getZ() - nearest.getZ();
+            double len = Math.sqrt(dx * dx + dz * dz);
+            if (len > 1.0e-3) {
+                awayX = dx / len;
+                awayZ = dz / len;
+            }
+        }
+        return new Snapshot(n.health, n.hunger, n.woodCount, planks, cobble, n.foodCount,
+                pickTier, pickTier >= 2, n.needsShelter, monsters.size(), awayX, awayZ,
+                n.foodCount > 0 && n.foodCount != eatFailedFood);
+    }
+
+    /**
+     * Coarse danger signature for HYBRID escalation: hurt or not, how many monsters (up to 3),
+     * and whether the bot has food. Null when the bot is not in danger.
+     */
+    public static String dangerKey(Snapshot s) {
+        if (!s.inDanger()) return null;
+        return (s.health() < LOW_HEALTH ? "hurt" : "ok") + "|" + Math.min(s.hostiles(), 3) + "|" + (s.food() > 0);
+    }
+
+    /** Moves RETREAT_DISTANCE blocks straight away from the nearest monster. */
+    private static ActionPlan.Action retreat(Snapshot s) {
+        return new ActionPlan.Action("move_to", null, s.awayX() * RETREAT_DISTANCE, null, s.awayZ() * RETREAT_DISTANCE,
+                0.3, null, null, null, null, null,
+                "[local:retreat] backing away from " + s.hostiles() + " hostile(s)");
+    }
+
+    /**
+     * A plan_queue plan for {@code s}, or null when no method covers it. {@code label} receives
+     * the method that decided, for logging.
+     */
+    public static ActionPlan plan(Snapshot s, StringBuilder label) {
+        for (Method m : METHODS) {
+            if (!m.when().test(s)) continue;
+            if (label != null) label.append(m.name());
+            if (m.act() != null) return new ActionPlan(List.of(m.act().apply(s)));
+            List<Step> steps = m.steps().apply(s);
+            if (steps.isEmpty()) return null;
+            List<String> tasks = new ArrayList<>(steps.size());
+            List<Double> minutes = new ArrayList<>(steps.size());
+            for (Step step : steps) {
+                tasks.add(step.task());
+                minutes.add(step.minutes());
+            }
+            ActionPlan.Action a = new ActionPlan.Action("plan_queue", null, null, null, null, null, null,
+                    m.objective(), null, tasks, minutes, "[local:" + m.name() + "] " + String.join(" → ", tasks));
+            return new ActionPlan(List.of(a));
+        }
+        return null;
+    }
+
+    /** What LOCAL mode does when no method produced steps: a short explore, then plan again. */
+    public static ActionPlan fallback() {
+        ActionPlan.Action a = new ActionPlan.Action("plan_queue", null, null, null, null, null, null,
+                null, null, List.of("explore"), List.of(1.0), "[local] nothing to plan — exploring");
+        return new ActionPlan(List.of(a));
+    }
+
+    /**
+     * Coarse progress signature: the method's first task plus bucketed resources. The same
+     * signature twice in a row means the last local plan got nowhere.
+     */
+    public static String progressKey(Snapshot s, ActionPlan plan) {
+        return describe(plan).split(",")[0] + "|" + s.pickTier() + "|" + s.woodEquiv() / 8 + "|" + s.cobble() / 8;
+    }
+
+    /** The plan's queued tasks, or its action type when it is a single danger action. */
+    public static String describe(ActionPlan plan) {
+        ActionPlan.Action a = plan.actions().getFirst();
+        return a.queuedTasks() != null ? String.join(", ", a.queuedTasks()) : a.type();
+    }
+
+    static void countPlanned() {
+        planned++;
+    }
+
+    static void countEscalated(boolean repeat) {
+        escalated++;
+        if (repeat) failedRepeats++;
+    }
+
+    public static void clear() {
+        planned = escalated = failedRepeats = 0;
+    }
+
+    /** "planner: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        long total = planned + escalated;
+        return String.format("planner: %d local plans, %d sent to the LLM (%d after no progress), %.0f%% local",
+                planned, escalated, failedRepeats, total == 0 ? 0.0 : 100.0 * planned / total);
+    }
+}
@@ -0,0 +1,423 @@
+package com.shayneomac08.automated_minecraft_bots.bot;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity;
+import com.shayneomac08.automated_minecraft_bots.movement.RealisticActions;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceCategory;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceIndex;
+import com.shayneomac08.automated_minecraft_bots.movement.BotNavigationHelper;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.ProblemReporter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.LeavesBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.storage.TagValueOutput;
+import net.neoforged.neoforge.common.util.FakePlayer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Abstract simulation for bots working far from every player.
+ *
+ * A bot is a FakePlayer, so it holds player chunk tickets: one left gathering wood 500 blocks
+ * away keeps that area loaded and ticking. When a bot on a long task (gather_wood, mine_stone,
+ * build_underground_base) is farther than simulation.offline_radius from every real player, it
+ * is parked — taken out of the level, which drops its tickets, but kept in memory. Every
+ * STEP_TICKS its work advances at an estimated rate: break time from its best tool and the
+ * block's hardness (the same formula as RealisticActions.startMining) plus a travel allowance.
+ * When it parks, the concrete blocks it will mine are picked up front, like the base dig plan:
+ * logs of natural trees (held by non-persistent leaves) or natural stone, never cobblestone or
+ * anything next to where it stands. Each block mined takes the next one. Items, tool wear and
+ * hunger are applied to its real inventory and food data.
+ *
+ * When a player comes back within range, or something else makes its chunk tick, a fresh entity
+ * is spawned for the bot through AvatarFactory and the parked one's player data restored onto it,
+ * as after a restart. Once its chunk is loaded each block it "mined" is cleared if it is still
+ * the block that was there when it was picked, so the items it carries came from somewhere;
+ * anything changed in the meantime is left alone and the bot just keeps the items.
+ *
+ * A parked bot stays in BotRegistry with its removed entity as the body until then;
+ * BotRegistry.isParked tells it apart from a missing one, and BotBrain doesn't think for it.
+ *
+ * Server thread only.
+ */
+public final class OfflineSimulation {
+
+    private static final int STEP_TICKS = 200;
+    private static final int CHECK_TICKS = 20;
+    private static final int RETURN_HYSTERESIS = 32;   // blocks inside offline_radius before un-parking
+    private static final int RESERVE_CAP = 512;        // most blocks one parked stint may mine
+    private static final int RETURN_TIMEOUT = 200;     // ticks to wait for the chunk before skipping cleanup
+
+    // Estimated walking/clearing ticks per block on top of the break time
+    private static final int TRAVEL_WOOD = 60;
+    private static final int TRAVEL_STONE = 20;
+    private static final int TRAVEL_BASE = 10;
+
+    // Exhaustion per block: vanilla block break (0.005) plus a few blocks of walking and jumps
+    private static final float EXHAUSTION_PER_BLOCK = 0.1f;
+
+    // Supply window around the parked position, as used by the live harvest searches
+    private static final int SUPPLY_RADIUS = 32;
+    private static final int TREE_HEIGHT = 24;   // logs followed up a trunk looking for its leaves
+
+    // Stone that only generates naturally (cobblestone is left out: it is what players build with)
+    private static final Set<Block> NATURAL_STONE = Set.of(Blocks.STONE, Blocks.DEEPSLATE, Blocks.TUFF,
+        Blocks.ANDESITE, Blocks.DIORITE, Blocks.GRANITE);
+
+    private enum Work { WOOD, STONE, BASE }
+
+    /** A block the bot mines while parked and the state it must still have to be cleared; null state = any natural terrain. */
+    private record Target(BlockPos pos, BlockState state) {}
+
+    private static final class Parked {
+        final AmbNpcEntity bot;
+        final ServerLevel level;
+        final BlockPos pos;
+        final Work work;
+        final Item yield;
+        final Deque<Target> supply;
+        int progressTicks;
+        int mined;
+        float exhaustion;
+        final List<Target> dug = new ArrayList<>();
+        String stalled;     // reason work stopped, or null
+        int nextStep;
+        int returnedAt;
+
+        Parked(AmbNpcEntity bot, ServerLevel level, BlockPos pos, Work work, Item yield, Deque<Target> supply, int now) {
+            this.bot = bot;
+            this.level = level;
+            this.pos = pos;
+            this.work = work;
+            this.yield = yield;
+            this.supply = supply;
+            this.nextStep = now + STEP_TICKS;
+        }
+    }
+
+    private static final Map<AmbNpcEntity, Parked> PARKED = new LinkedHashMap<>();
+    private static final List<Parked> RETURNING = new ArrayList<>();
+
+    private static long totalParked;
+    private static long totalMined;
+
+    private OfflineSimulation() {}
+
+    public static boolean isParked(AmbNpcEntity bot) {
+        return PARKED.containsKey(bot);
+    }
+
+    /**
+     * Parks {@code bot} if it is on a long task and {@code nearestPlayerSq} (squared distance to
+     * the nearest real player, MAX_VALUE if none) is beyond offline_radius. Returns true if parked.
+     */
+    public static boolean tryPark(AmbNpcEntity bot, double nearestPlayerSq) {
+        if (!BotConfig.OFFLINE_SIMULATION.get() || PARKED.containsKey(bot)) return false;
+        if (!(bot.level() instanceof ServerLevel level)) return false;
+        int radius = BotConfig.OFFLINE_RADIUS.get();
+        if (nearestPlayerSq <= (double) radius * radius) return false;
+        Work work = workFor(bot.getCurrentTask());
+        if (work == null || !bot.canParkOffline()) return false;
+
+        BlockPos pos = bot.blockPosition();
+        Deque<Target> supply = new ArrayDeque<>();
+        Item yield = Items.COBBLESTONE;
+        if (work != Work.BASE) {   // the base is bounded by its dig plan instead
+            ResourceCategory category = work == Work.WOOD ? ResourceCategory.LOG : ResourceCategory.STONE;
+            int radius = work == Work.WOOD ? SUPPLY_RADIUS : SUPPLY_RADIUS / 2;
+            int down = work == Work.WOOD ? 5 : 10, up = work == Work.WOOD ? 20 : 10;
+            List<BlockPos> blocks = ResourceIndex.of(level).nearest(category, pos, radius, down, up, RESERVE_CAP, at ->
+                Math.max(Math.abs(at.getX() - pos.getX()), Math.abs(at.getZ() - pos.getZ())) > 1
+                    && (work == Work.WOOD ? isTreeLog(level, at) : NATURAL_STONE.contains(level.getBlockState(at).getBlock())));
+            for (BlockPos at : blocks) supply.add(new Target(at, level.getBlockState(at)));
+            if (work == Work.WOOD) yield = supply.isEmpty() ? Items.OAK_LOG : supply.peekFirst().state().getBlock().asItem();
+        }
+
+        int now = level.getServer().getTickCount();
+        Parked p = new Parked(bot, level, pos, work, yield, supply, now);
+        bot.onParkedOffline();
+        bot.remove(Entity.RemovalReason.DISCARDED);   // for good: unpark spawns a fresh body
+        PARKED.put(bot, p);
+        totalParked++;
+        BotBrain.cancelPending(bot.getName().getString(), "parked offline");
+        System.out.printf("[AMB-OFFLINE] %s parked at %s task=%s supply=%s %s%n",
+            bot.getName().getString(), pos.toShortString(), bot.getCurrentTask(),
+            work == Work.BASE ? "dig plan" : String.valueOf(supply.size()), yield);
+        return true;
+    }
+
+    /** Forgets {@code bot} if it is parked, without putting it back. Called when it is removed from the registry. */
+    public static void forget(AmbNpcEntity bot) {
+        PARKED.remove(bot);
+    }
+
+    /** Advances parked bots and brings back the ones players have come near. Called every server tick. */
+    public static void tick(MinecraftServer server) {
+        int now = server.getTickCount();
+
+        Iterator<Parked> it = PARKED.values().iterator();
+        while (it.hasNext()) {
+            Parked p = it.next();
+            // Removed or replaced via /amb while parked — forget it
+            BotPair pair = BotRegistry.get(p.bot.getName().getString());
+            if (pair == null || pair.body() != p.bot) {
+                it.remove();
+                continue;
+            }
+            if (now >= p.nextStep) {
+                p.nextStep = now + STEP_TICKS;
+                step(p);
+            }
+            if (now % CHECK_TICKS == 0 && shouldReturn(p)) {
+                it.remove();
+                unpark(p, now);
+            }
+        }
+
+        for (Iterator<Parked> r = RETURNING.iterator(); r.hasNext(); ) {
+            Parked p = r.next();
+            boolean loaded = p.level.getChunkSource().getChunkNow(p.pos.getX() >> 4, p.pos.getZ() >> 4) != null;
+            if (loaded || now - p.returnedAt > RETURN_TIMEOUT) {
+                r.remove();
+                reconcile(p, loaded);
+            }
+        }
+    }
+
+    /** Drops all state. Parked bots are saved by BotPersistenceManager before this runs. */
+    public static void clear() {
+        PARKED.clear();
+        RETURNING.clear();
+    }
+
+    /** "offline: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        return String.format("offline: %d parked, %d returning, %d parked total, %d blocks mined offline",
+            PARKED.size(), RETURNING.size(), totalParked, totalMined);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private static Work workFor(String task) {
+        return switch (task == null ? "" : task) {
+            case "gather_wood" -> Work.WOOD;
+            case "mine_stone" -> Work.STONE;
+            case "build_underground_base" -> Work.BASE;
+            default -> null;
+        };
+    }
+
+    private static void step(Parked p) {
+        if (p.stalled != null) return;
+        p.progressTicks += STEP_TICKS;
+        while (true) {
+            ItemStack tool = bestTool(p.bot, sample(p.work));
+            int cycle = cycleTicks(p.work, tool);
+            if (cycle < 0) {
+                stall(p, "no pickaxe");
+                return;
+            }
+            if (p.progressTicks < cycle) return;
+
+            Target target;
+            if (p.work == Work.BASE) {
+                BlockPos dig = p.bot.peekBaseDigTarget();
+                if (dig == null) {
+                    stall(p, "dig plan finished");
+                    return;
+                }
+                if (!p.bot.getInventory().add(new ItemStack(p.yield))) {
+                    stall(p, "inventory full");
+                    return;
+                }
+                p.bot.pollBaseDigTarget();
+                target = new Target(dig, null);
+            } else {
+                target = p.supply.peekFirst();
+                if (target == null) {
+                    stall(p, "no more known supply");
+                    return;
+                }
+                if (!p.bot.getInventory().add(new ItemStack(p.yield))) {
+                    stall(p, "inventory full");
+                    return;
+                }
+                p.supply.pollFirst();
+            }
+            p.dug.add(target);
+            p.progressTicks -= cycle;
+            p.mined++;
+            totalMined++;
+            wear(tool);
+            if (!feed(p)) {
+                stall(p, "starving");
+                return;
+            }
+        }
+    }
+
+    private static BlockState sample(Work work) {
+        return work == Work.WOOD ? Blocks.OAK_LOG.defaultBlockState() : Blocks.STONE.defaultBlockState();
+    }
+
+    /** Ticks per block for this work with this tool, or -1 if the block would drop nothing. */
+    private static int cycleTicks(Work work, ItemStack tool) {
+        BlockState sample = sample(work);
+        if (work != Work.WOOD && (tool == null || !tool.isCorrectToolForDrops(sample))) return -1;
+        float speed = tool == null ? 1.0f : Math.max(1.0f, tool.getDestroySpeed(sample));
+        float hardness = work == Work.WOOD ? 2.0f : 1.5f;
+        int breakTicks = Math.max(1, (int) Math.ceil(hardness * 30.0f / speed));
+        return breakTicks + switch (work) {
+            case WOOD -> TRAVEL_WOOD;
+            case STONE -> TRAVEL_STONE;
+            case BASE -> TRAVEL_BASE;
+        };
+    }
+
+    /** The inventory stack that breaks {@code sample} fastest, or null if nothing beats a bare hand. */
+    private static ItemStack bestTool(AmbNpcEntity bot, BlockState sample) {
+        ItemStack best = null;
+        float bestSpeed = 1.0f;
+        for (int i = 0; i < bot.getInventory().getContainerSize(); i++) {
+            ItemStack st = bot.getInventory().getItem(i);
+            if (st.isEmpty()) continue;
+            float speed = st.getDestroySpeed(sample);
+            if (speed > bestSpeed) {
+                best = st;
+                bestSpeed = speed;
+            }
+        }
+        return best;
+    }
+
+    private static void wear(ItemStack tool) {
+        if (tool == null || !tool.isDamageableItem()) return;
+        int damage = tool.getDamageValue() + 1;
+        if (damage >= tool.getMaxDamage()) tool.shrink(1);
+        else tool.setDamageValue(damage);
+    }
+
+    /** Applies a block's worth of hunger, eating if needed. False once the bot is starving. */
+    private static boolean feed(Parked p) {
+        var food = p.bot.getFoodData();
+        p.exhaustion += EXHAUSTION_PER_BLOCK;
+        while (p.exhaustion >= 4.0f) {   // FoodData.tick's exhaustion → saturation → food chain
+            p.exhaustion -= 4.0f;
+            if (food.getSaturationLevel() > 0) food.setSaturation(Math.max(food.getSaturationLevel() - 1.0f, 0));
+            else food.setFoodLevel(Math.max(food.getFoodLevel() - 1, 0));
+        }
+        while (RealisticActions.shouldEat(p.bot) && RealisticActions.eatFood(p.bot)) {
+            // eat until satisfied or out of food
+        }
+        return food.getFoodLevel() > 0;
+    }
+
+    private static void stall(Parked p, String reason) {
+        p.stalled = reason;
+        System.out.printf("[AMB-OFFLINE] %s idle while parked: %s (%d mined)%n",
+            p.bot.getName().getString(), reason, p.mined);
+    }
+
+    private static boolean shouldReturn(Parked p) {
+        if (!BotConfig.OFFLINE_SIMULATION.get()) return true;
+        // Something else (a player, a forced chunk) is ticking the area — live simulation is free there
+        if (p.level.isPositionEntityTicking(p.pos)) return true;
+        int radius = BotConfig.OFFLINE_RADIUS.get() - RETURN_HYSTERESIS;
+        double limitSq = (double) radius * radius;
+        for (ServerPlayer sp : p.level.players()) {
+            if (sp instanceof FakePlayer || sp.isSpectator()) continue;
+            if (sp.distanceToSqr(p.pos.getX() + 0.5, p.pos.getY(), p.pos.getZ() + 0.5) <= limitSq) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Brings a parked bot back by spawning a fresh entity through AvatarFactory, as a restart
+     * does. The parked entity's player data (inventory, food, recipes) goes through the same
+     * deferred NBT restore as BotPersistenceManager, and the unsaved plans are copied over.
+     */
+    private static void unpark(Parked p, int now) {
+        AmbNpcEntity parked = p.bot;
+        String name = parked.getName().getString();
+        double x = p.pos.getX() + 0.5, y = p.pos.getY(), z = p.pos.getZ() + 0.5;
+        CompoundTag saved = null;
+        try {
+            TagValueOutput out = TagValueOutput.createWithContext(ProblemReporter.DISCARDING, parked.registryAccess());
+            parked.saveWithoutId(out);
+            saved = out.buildResult();
+        } catch (Exception e) {
+            System.err.printf("[AMB-OFFLINE] %s: player data save failed: %s%n", name, e.getMessage());
+        }
+
+        AmbNpcEntity bot = AvatarFactory.spawn(p.level, name, x, y, z);
+        bot.resumeFromParked(parked);
+        String keyName = name.toLowerCase().trim();
+        BotRegistry.replace(keyName, new BotPair(bot, bot));
+        if (saved != null) {
+            BotPersistenceManager.PENDING_RESTORES.add(new BotPersistenceManager.PendingRestore(keyName, saved, x, y, z));
+        }
+        p.returnedAt = now;
+        RETURNING.add(p);
+        System.out.printf("[AMB-OFFLINE] %s back in the world at %s after %d block(s) offline%n",
+            name, p.pos.toShortString(), p.mined);
+    }
+
+    /** True if the log at {@code pos} is part of a tree: its trunk ends in leaves that decay (not placed). */
+    private static boolean isTreeLog(ServerLevel level, BlockPos pos) {
+        BlockPos.MutableBlockPos at = pos.mutable();
+        for (int i = 0; i < TREE_HEIGHT && level.getBlockState(at).is(BlockTags.LOGS); i++) at.move(Direction.UP);
+        at.move(Direction.DOWN);
+        for (Direction d : Direction.values()) {
+            if (d == Direction.DOWN) continue;
+            BlockState st = level.getBlockState(at.relative(d));
+            if (st.is(BlockTags.LEAVES) && st.hasProperty(LeavesBlock.PERSISTENT) && !st.getValue(LeavesBlock.PERSISTENT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears the blocks mined while parked. Each is only cleared if it still holds the state it had
+     * when picked (dig-plan blocks: natural terrain); the bot keeps the items either way.
+     */
+    private static void reconcile(Parked p, boolean loaded) {
+        if (!loaded || p.mined == 0) {
+            if (p.mined > 0) {
+                System.out.printf("[AMB-OFFLINE] %s chunk never loaded — %d offline block(s) left in place%n",
+                    p.bot.getName().getString(), p.mined);
+            }
+            return;
+        }
+        int cleared = 0;
+        for (Target t : p.dug) {
+            BlockPos pos = t.pos();
+            if (p.level.getChunkSource().getChunkNow(pos.getX() >> 4, pos.getZ() >> 4) == null) continue;
+            BlockState now = p.level.getBlockState(pos);
+            if (t.state() != null ? now != t.state() : !BotNavigationHelper.isNaturalTerrainBlock(now)) continue;
+            p.level.setBlock(pos, Blocks.AIR.defaultBlockState(), 3);
+            cleared++;
+        }
+        System.out.printf("[AMB-OFFLINE] %s reconciled: cleared %d of %d block(s) mined offline%n",
+            p.bot.getName().getString(), cleared, p.mined);
+    }
+}
@@ -0,0 +1,165 @@
+package com.shayneomac08.automated_minecraft_bots.bot;
+
+import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.entity.monster.Monster;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.common.util.FakePlayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reuses think results across bots that are in the same situation.
+ *
+ * The key is a coarse fingerprint of what the think prompt actually turns on — current task and
+ * objective, priority need, health/hunger bands, bucketed wood/stone/food counts, tool tiers,
+ * what kinds of entities are near and the time-of-day band — so "low on wood, no tools, daytime"
+ * maps to one entry no matter which bot asks or how many logs it has exactly. Entries expire
+ * after a TTL, are dropped when a bot running one gets stuck, and a small share of lookups
+ * bypass the cache so entries keep being refreshed by the LLM. Chat lines ("say") are stripped
+ * before storing; a reused plan should not repeat someone else's remark.
+ *
+ * Server thread only.
+ */
+public final class PlanCache {
+
+    private static final int MAX_ENTRIES = 512;
+
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static long hits, misses, explored, stored, expired, invalidated;
+
+    private PlanCache() {}
+
+    private record Entry(ActionPlan plan, int storedTick) {}
+
+    /** Quantized state the think prompt depends on. */
+    public static String fingerprint(BotBrain.State st, String task, FakePlayer hands, LivingEntity body,
+                                     double nearestPlayerDist) {
+        BotSurvivalNeeds.Needs n = st.survivalNeeds;
+        Inventory inv = hands.getInventory();
+        int pickTier = 0;
+        boolean axe = false, sword = false;
+        for (int i = 0; i < inv.getContainerSize(); i++) {
+            ItemStack stack = inv.getItem(i);
+            if (stack.isEmpty()) continue;
+            if (stack.is(ItemTags.PICKAXES)) pickTier = Math.max(pickTier, pickaxeTier(stack));
+            else if (stack.is(ItemTags.AXES)) axe = true;
+            else if (stack.is(ItemTags.SWORDS)) sword = true;
+        }
+        var box = body.getBoundingBox().inflate(16.0);
+        boolean hostiles = !body.level().getEntitiesOfClass(Monster.class, box).isEmpty();
+        boolean animals = !body.level().getEntitiesOfClass(Animal.class, box).isEmpty();
+        long day = body.level().getDayTime() % 24000L;
+        int dayBand = day < 12000L ? 0 : day < 13000L ? 1 : day < 23000L ? 2 : 3;
+
+        return String.join("|",
+                task == null ? "-" : task,
+                st.currentObjective == null ? "-" : st.currentObjective,
+                BotSurvivalNeeds.getHighestPriorityNeed(n),
+                "h" + band(n.health, 5, 10, 16),
+                "f" + band(n.hunger, 3, 6, 14),
+                "w" + bucket(n.woodCount),
+                "s" + bucket(n.stoneCount),
+                "e" + bucket(n.foodCount),
+                "p" + pickTier + (axe ? "a" : "") + (sword ? "s" : ""),
+                n.hasCraftingTable ? "T" : "t",
+                n.hasFurnace ? "F" : "-",
+                (hostiles ? "H" : "-") + (animals ? "A" : "-")
+                        + (nearestPlayerDist >= 0 && nearestPlayerDist < 16 ? "P" : "-"),
+                "d" + dayBand);
+    }
+
+    /**
+     * A cached plan for {@code key}, or null on a miss, an expired entry, or an exploration
+     * lookup (probability {@code exploreRate}) that should go to the LLM instead.
+     */
+    public static ActionPlan lookup(String key, int tick, int ttlTicks, double exploreRate) {
+        Entry e = ENTRIES.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (tick - e.storedTick > ttlTicks) {
+            ENTRIES.remove(key);
+            expired++;
+            misses++;
+            return null;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < exploreRate) {
+            explored++;
+            return null;
+        }
+        hits++;
+        return e.plan;
+    }
+
+    /** Remembers a plan the LLM produced for {@code key}. Plans with nothing to do are skipped. */
+    public static void put(String key, ActionPlan plan, int tick) {
+        ActionPlan reusable = strip(plan);
+        if (reusable == null) return;
+        ENTRIES.put(key, new Entry(reusable, tick));
+        stored++;
+    }
+
+    /** Drops {@code key}'s entry — a bot running that plan got stuck. */
+    public static void invalidate(String key) {
+        if (ENTRIES.remove(key) != null) invalidated++;
+    }
+
+    public static void clear() {
+        ENTRIES.clear();
+        hits = misses = explored = stored = expired = invalidated = 0;
+    }
+
+    /** "plan cache: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        long lookups = hits + misses + explored;
+        return String.format("plan cache: %d entries, %d hits / %d lookups (%.0f%%), %d explored, "
+                        + "%d stored, %d expired, %d dropped as stuck",
+                ENTRIES.size(), hits, lookups, lookups == 0 ? 0.0 : 100.0 * hits / lookups, explored,
+                stored, expired, invalidated);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private static ActionPlan strip(ActionPlan plan) {
+        if (plan == null || plan.actions() == null) return null;
+        List<ActionPlan.Action> kept = new ArrayList<>();
+        for (ActionPlan.Action a : plan.actions()) {
+            if (a == null || a.type() == null || "say".equals(a.type())) continue;
+            if ("idle".equals(a.type()) && a.goal() == null) continue;   // BotBrain's empty-plan fallback
+            kept.add(new ActionPlan.Action(a.type(), null, a.x(), a.y(), a.z(), a.speed(), a.seconds(),
+                    a.goal(), a.minutes(), a.queuedTasks(), a.queuedMinutes(), a.thought()));
+        }
+        return kept.isEmpty() ? null : new ActionPlan(List.copyOf(kept));
+    }
+
+    private static int pickaxeTier(ItemStack stack) {
+        if (stack.is(Items.NETHERITE_PICKAXE) || stack.is(Items.DIAMOND_PICKAXE) || stack.is(Items.IRON_PICKAXE)) return 3;
+        if (stack.is(Items.STONE_PICKAXE)) return 2;
+        return 1;
+    }
+
+    private static int band(float v, int a, int b, int c) {
+        return v < a ? 0 : v < b ? 1 : v < c ? 2 : 3;
+    }
+
+    /** 0, 1-7, 8-15, 16-31, 32+ — the thresholds the prompt's priorities use. */
+    private static int bucket(int count) {
+        return count <= 0 ? 0 : count < 8 ? 1 : count < 16 ? 2 : count < 32 ? 3 : 4;
+    }
+}
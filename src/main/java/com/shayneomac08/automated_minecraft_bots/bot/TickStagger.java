@@ -0,0 +1,143 @@
+package com.shayneomac08.automated_minecraft_bots.bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spreads periodic per-bot work across server ticks.
+ *
+ * Bots spawned together via spawnmulti share a tickCount phase, so every "tickCount % 40" job
+ * used to land on the same tick. Here each job registers with a period and a rough cost weight
+ * and gets the phase offset whose ticks currently carry the least registered weight, checked over
+ * one {@link #CYCLE}-tick ledger that every allowed period divides. Choosing by the worst tick a
+ * phase touches (not the sum) is what brings the per-tick peak down rather than just the mean.
+ * Jobs are timed off the server tick so every bot reads the same clock as the ledger.
+ *
+ * Server thread only.
+ */
+public final class TickStagger {
+
+    /** Ledger length; every job period must divide it (10, 20, 40, 100, 200, 400, 600 all do). */
+    public static final int CYCLE = 1200;
+
+    private static final int[] LOAD = new int[CYCLE];
+    private static int generation;
+    private static int jobCount;
+
+    private TickStagger() {}
+
+    /** One registered periodic job. */
+    public static final class Job {
+        private final String name;
+        private final int period;
+        private final int weight;
+        private final int phase;
+        private final int gen;
+        private boolean released;
+
+        private Job(String name, int period, int weight, int phase, int gen) {
+            this.name = name;
+            this.period = period;
+            this.weight = weight;
+            this.phase = phase;
+            this.gen = gen;
+        }
+
+        /** True on the ticks this job should run. */
+        public boolean due(int serverTick) {
+            return Math.floorMod(serverTick - phase, period) == 0;
+        }
+
+        /**
+         * True if a due tick fell in the last {@code span} ticks (ending at {@code serverTick}) —
+         * for callers that only run every {@code span} ticks and must not skip a due tick.
+         */
+        public boolean dueWithin(int serverTick, int span) {
+            return Math.floorMod(serverTick - phase, period) < span;
+        }
+
+        /** True on every {@code multiple}-th run of this job — for slower checks nested inside it. */
+        public boolean due(int serverTick, int multiple) {
+            return Math.floorMod(serverTick - phase, period * multiple) == 0;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int phase() {
+            return phase;
+        }
+    }
+
+    /** The jobs of one bot, released together when the bot is removed. */
+    public static final class Jobs {
+        private final List<Job> jobs = new ArrayList<>();
+
+        /** Registers a job running every {@code period} ticks that costs roughly {@code weight}. */
+        public Job register(String name, int period, int weight) {
+            Job job = assign(name, period, weight);
+            jobs.add(job);
+            return job;
+        }
+
+        /** Gives the jobs' ticks back to the ledger. Safe to call more than once. */
+        public void release() {
+            for (Job job : jobs) TickStagger.release(job);
+            jobs.clear();
+        }
+    }
+
+    private static Job assign(String name, int period, int weight) {
+        if (period <= 0 || CYCLE % period != 0) {
+            throw new IllegalArgumentException("period " + period + " must divide " + CYCLE);
+        }
+        int bestPhase = 0;
+        int bestPeak = Integer.MAX_VALUE;
+        long bestSum = Long.MAX_VALUE;
+        for (int phase = 0; phase < period; phase++) {
+            int peak = 0;
+            long sum = 0;
+            for (int t = phase; t < CYCLE; t += period) {
+                peak = Math.max(peak, LOAD[t]);
+                sum += LOAD[t];
+            }
+            if (peak < bestPeak || (peak == bestPeak && sum < bestSum)) {
+                bestPeak = peak;
+                bestSum = sum;
+                bestPhase = phase;
+            }
+        }
+        for (int t = bestPhase; t < CYCLE; t += period) LOAD[t] += weight;
+        jobCount++;
+        return new Job(name, period, weight, bestPhase, generation);
+    }
+
+    private static void release(Job job) {
+        if (job.released) return;
+        job.released = true;
+        if (job.gen != generation) return;   // ledger was reset since this job registered
+        for (int t = job.phase; t < CYCLE; t += job.period) LOAD[t] -= job.weight;
+        jobCount--;
+    }
+
+    /** Forgets every registration. Called when the server stops. */
+    public static void clear() {
+        Arrays.fill(LOAD, 0);
+        jobCount = 0;
+        generation++;
+    }
+
+    /** "stagger: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        int peak = 0;
+        long sum = 0;
+        for (int load : LOAD) {
+            peak = Math.max(peak, load);
+            sum += load;
+        }
+        return String.format("stagger: %d jobs, peak weight %d/tick, mean %.1f/tick",
+            jobCount, peak, sum / (double) CYCLE);
+    }
+}
@@ -6,7 +6,20 @@ import com.mojang.brigadier.arguments.StringArgumentType;
 import com.shayneomac08.automated_minecraft_bots.bot.BotBrain;
 import com.shayneomac08.automated_minecraft_bots.bot.BotPair;
 import com.shayneomac08.automated_minecraft_bots.bot.BotRegistry;
+import com.shayneomac08.automated_minecraft_bots.bot.LocalPlanner;
+import com.shayneomac08.automated_minecraft_bots.bot.OfflineSimulation;
+import com.shayneomac08.automated_minecraft_bots.bot.PlanCache;
+import com.shayneomac08.automated_minecraft_bots.bot.TickStagger;
 import com.shayneomac08.automated_minecraft_bots.llm.LLMProvider;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmAdmission;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmBudget;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmRouter;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmTrace;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmTransport;
+import com.shayneomac08.automated_minecraft_bots.llm.LlmUsage;
+import com.shayneomac08.automated_minecraft_bots.llm.StructuredOutput;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.PathScheduler;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceIndex;
 import net.minecraft.commands.CommandBuildContext;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
@@ -77,6 +90,7 @@ public final class AmbCommands {
 
                                             // Remove from registry
                                             BotRegistry.remove(keyName);
+                                            BotBrain.cancelPending(keyName, "removed");
 
                                             ctx.getSource().sendSuccess(() -> Component.literal("[AMB] Removed bot: " + name), true);
                                             System.out.println("[AMB] Bot removed: " + name);
@@ -98,7 +112,8 @@ public final class AmbCommands {
                                                 return 0;
                                             }
 
-                                            if (pair.body() == null || pair.body().isRemoved()) {
+                                            boolean parked = BotRegistry.isParked(pair);
+                                            if (!parked && (pair.body() == null || pair.body().isRemoved())) {
                                                 ctx.getSource().sendFailure(Component.literal("[AMB] Bot body is missing"));
                                                 return 0;
                                             }
@@ -106,6 +121,7 @@ public final class AmbCommands {
                                             var pos = pair.body().blockPosition();
                                             ctx.getSource().sendSuccess(() -> Component.literal(
                                                     "[AMB] " + name + " is at " + pos.toShortString()
+                                                            + (parked ? " (parked offline)" : "")
                                             ), false);
                                             return 1;
                                         })
@@ -123,7 +139,8 @@ public final class AmbCommands {
                                         BotPair pair = BotRegistry.get(key);
                                         if (pair != null) {
                                             count++;
-                                            String status = (pair.body() != null && !pair.body().isRemoved()) ? "✓" : "✗";
+                                            String status = BotRegistry.isParked(pair) ? "…"
+                                                    : (pair.body() != null && !pair.body().isRemoved()) ? "✓" : "✗";
                                             sb.append("  ").append(status).append(" ").append(key);
 
                                             if (pair.body() instanceof com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity ambBot) {
@@ -143,6 +160,42 @@ public final class AmbCommands {
                                 })
                         )
 
+                        // /amb stats
+                        .then(Commands.literal("stats")
+                                .executes(ctx -> {
+                                    StringBuilder sb = new StringBuilder("[AMB] Stats:");
+                                    for (String line : LlmAdmission.statsLines()) sb.append("\n  ").append(line);
+                                    sb.append("\n  ").append(LlmTransport.statsLine());
+                                    sb.append("\n  ").append(LlmRouter.statsLine());
+                                    sb.append("\n  ").append(LlmUsage.statsLine());
+                                    sb.append("\n  ").append(LlmBudget.statsLine());
+                                    sb.append("\n  ").append(StructuredOutput.statsLine());
+                                    sb.append("\n  ").append(LlmTrace.statsLine());
+                                    sb.append("\n  ").append(PlanCache.statsLine());
+                                    sb.append("\n  ").append(LocalPlanner.statsLine());
+                                    sb.append("\n  path: ").append(PathScheduler.statsLine());
+                                    sb.append("\n  ").append(TickStagger.statsLine());
+                                    sb.append("\n  ").append(OfflineSimulation.statsLine());
+                                    for (ServerLevel level : ctx.getSource().getServer().getAllLevels()) {
+                                        ResourceIndex index = ResourceIndex.existing(level);
+                                        if (index != null) {
+                                            sb.append("\n  ").append(level.dimension().location()).append(" ").append(index.statsLine());
+                                        }
+                                    }
+                                    String msg = sb.toString();
+                                    ctx.getSource().sendSuccess(() -> Component.literal(msg), false);
+                                    return 1;
+                                })
+                        )
+
+                        // /amb usage [bot|tribe]
+                        .then(Commands.literal("usage")
+                                .executes(ctx -> showUsage(ctx, null))
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .executes(ctx -> showUsage(ctx, normalize(StringArgumentType.getString(ctx, "name"))))
+                                )
+                        )
+
                         // /amb task <name> <task>
                         .then(Commands.literal("task")
                                 .then(Commands.argument("name", StringArgumentType.word())
@@ -159,7 +212,7 @@ public final class AmbCommands {
                                                     }
 
                                                     if (pair.body() instanceof com.shayneomac08.automated_minecraft_bots.entity.AmbNpcEntity ambBot) {
-                                                        ambBot.setTask(task);
+                                                        ambBot.setTaskFromPlayer(task);
                                                         ctx.getSource().sendSuccess(() -> Component.literal(
                                                                 "[AMB] " + name + " task set to: " + task
                                                         ), false);
@@ -317,6 +370,40 @@ public final class AmbCommands {
                                 )
                         )
 
+                        // /amb planner <name> <llm|local|hybrid|default>
+                        .then(Commands.literal("planner")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .then(Commands.argument("mode", StringArgumentType.word())
+                                                .suggests((ctx, builder) -> {
+                                                    for (String m : new String[]{"llm", "local", "hybrid", "default"}) builder.suggest(m);
+                                                    return builder.buildFuture();
+                                                })
+                                                .executes(ctx -> {
+                                                    String name = StringArgumentType.getString(ctx, "name");
+                                                    String mode = StringArgumentType.getString(ctx, "mode").toLowerCase();
+                                                    String keyName = normalize(name);
+
+                                                    if (BotRegistry.get(keyName) == null) {
+                                                        ctx.getSource().sendFailure(Component.literal("[AMB] No bot named " + name));
+                                                        return 0;
+                                                    }
+                                                    if (!mode.equals("llm") && !mode.equals("local") && !mode.equals("hybrid") && !mode.equals("default")) {
+                                                        ctx.getSource().sendFailure(Component.literal("[AMB] Planner must be llm, local, hybrid or default"));
+                                                        return 0;
+                                                    }
+
+                                                    BotBrain.State st = BotBrain.stateForName(keyName);
+                                                    st.planner = mode.equals("default") ? null : LocalPlanner.parseMode(mode);
+                                                    String now = LocalPlanner.modeFor(st).name().toLowerCase();
+                                                    ctx.getSource().sendSuccess(() -> Component.literal(
+                                                            "[AMB] " + name + " planner: " + now
+                                                    ), false);
+                                                    return 1;
+                                                })
+                                        )
+                                )
+                        )
+
                         // /amb give <name> <item> [count]
                         .then(Commands.literal("give")
                                 .then(Commands.argument("name", StringArgumentType.word())
@@ -333,6 +420,16 @@ public final class AmbCommands {
 
     // ==================== HELPER METHODS ====================
 
+    private static int showUsage(com.mojang.brigadier.context.CommandContext<CommandSourceStack> ctx, String name) {
+        StringBuilder sb = new StringBuilder("[AMB] LLM usage, last hour:");
+        for (String line : LlmUsage.reportLines(name)) sb.append("\n  ").append(line);
+        sb.append("\n  ").append(LlmUsage.statsLine());
+        sb.append("\n  ").append(LlmBudget.statsLine());
+        String msg = sb.toString();
+        ctx.getSource().sendSuccess(() -> Component.literal(msg), false);
+        return 1;
+    }
+
     private static int spawnBot(com.mojang.brigadier.context.CommandContext<CommandSourceStack> ctx, String llmArg) {
         try {
             String name = StringArgumentType.getString(ctx, "name");
@@ -4,12 +4,27 @@ import com.mojang.authlib.GameProfile;
 import com.shayneomac08.automated_minecraft_bots.movement.RealisticActions;
 import com.shayneomac08.automated_minecraft_bots.movement.RealisticMovement;
 import com.shayneomac08.automated_minecraft_bots.movement.StuckDetection;
-import com.shayneomac08.automated_minecraft_bots.movement.VerticalNavigation;
 import com.shayneomac08.automated_minecraft_bots.movement.HumanlikeMovement;
 
 import com.shayneomac08.automated_minecraft_bots.movement.BotTicker;
 import com.shayneomac08.automated_minecraft_bots.movement.BotEscapeHelper;
 import com.shayneomac08.automated_minecraft_bots.movement.BotNavigationHelper;
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import com.shayneomac08.automated_minecraft_bots.bot.BotBrain;
+import com.shayneomac08.automated_minecraft_bots.bot.OfflineSimulation;
+import com.shayneomac08.automated_minecraft_bots.bot.TickStagger;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.AStarEngine;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.GroundMoveModel;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.IncrementalPlanner;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.NavigationGrid;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.PathPlanner;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.PathResult;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.PathScheduler;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.ReachableTargetSearch;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.SectionGraph;
+import com.shayneomac08.automated_minecraft_bots.world.BlockScanner;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceCategory;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceIndex;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -67,7 +82,6 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
@@ -132,6 +146,7 @@ public class AmbNpcEntity extends FakePlayer {
     // Legacy compatibility fields
     private boolean brainEnabled = true;
     private String currentTask = "explore";
+    private boolean taskFromPlayer = false;
     private net.minecraft.world.phys.Vec3 moveTarget = null;
 
     // Movement and action state
@@ -297,8 +312,22 @@ public class AmbNpcEntity extends FakePlayer {
     // A* pathfinding state
     private List<BlockPos> currentPath = new ArrayList<>();
     private int pathIndex = 0;
-    private static final int[] DIAGONAL_X = {1, 1, -1, -1, 1, 0, -1, 0};
-    private static final int[] DIAGONAL_Z = {1, -1, 1, -1, 0, 1, 0, -1};
+    // Reused across searches so replanning does not churn the heap
+    private final AStarEngine pathEngine = new AStarEngine();
+    private final GroundMoveModel moveModel = new GroundMoveModel();
+    private static final int A_STAR_MAX_NODES = 16000; // budget for complex terrain / detours
+    private static final int HIERARCHICAL_MIN_DISTANCE = 48; // trips this long use the section graph
+    private static final int SEGMENT_LENGTH = 32;            // blocks of route refined per A* search
+    private PathPlanner.Ticket pendingPath = null;     // queued search for currentGoal, if any
+    private final IncrementalPlanner pathRepair = new IncrementalPlanner();
+    private static final int PATH_REPAIR_BUDGET = 2000;  // expansions for an in-place repair
+    private static final int PATH_REBUILD_BUDGET = 6000; // expansions to re-root the repair tree
+    private BlockPos pathTarget = null;                  // walkable end of currentPath, if it reached it
+    private long seenGridEdits = -1;                     // NavigationGrid.editCount() last checked
+    private final long[] gridEditBuf = new long[64];
+    private final ReachableTargetSearch targetSearch = new ReachableTargetSearch();
+    private static final int TARGET_SEARCH_MAX_NODES = 8000;  // ~ a 32-block radius of open ground
+    private ReachableTargetSearch.Hit lastTargetHit = null;   // path found with the last target
 
     // Known stations and storage
     private BlockPos knownFurnace = BlockPos.ZERO;
@@ -333,6 +362,31 @@ public class AmbNpcEntity extends FakePlayer {
     private BlockPos lastKnownPos100 = null;
     private int escapeStuckTicks = 0;
 
+    // Periodic per-bot work, phase-staggered so bots spawned together don't share a tick
+    private final TickStagger.Jobs periodicJobs = new TickStagger.Jobs();
+    private final TickStagger.Job stuckJob      = periodicJobs.register("stuck_check", 20, 1);
+    private final TickStagger.Job itemSeekJob   = periodicJobs.register("item_seek", 20, 4);
+    private final TickStagger.Job autoCraftJob  = periodicJobs.register("auto_craft", 20, 2);
+    private final TickStagger.Job stateDumpJob  = periodicJobs.register("state_dump", 40, 8);
+    private final TickStagger.Job stationsJob   = periodicJobs.register("stations", 40, 4);
+    private final TickStagger.Job taskToolJob   = periodicJobs.register("task_tool", 100, 1);
+    private final TickStagger.Job chatterJob    = periodicJobs.register("chatter", 600, 1);
+    private final TickStagger.Job lodCheckJob   = periodicJobs.register("lod_check", 20, 1);
+    private final TickStagger.Job logJob        = periodicJobs.register("log_throttle", 40, 1);
+    private final TickStagger.Job pillarLogJob  = periodicJobs.register("pillar_log", 10, 1);
+    private final TickStagger.Job moveDiagJob   = periodicJobs.register("move_diag", 100, 1);
+    private final TickStagger.Job retaskJob     = periodicJobs.register("idle_retask", 40, 4);
+    private final TickStagger.Job navCleanupJob = periodicJobs.register("nav_cleanup", 200, 2);
+    private final TickStagger.Job blacklistJob  = periodicJobs.register("blacklist_expiry", 400, 1);
+
+    // Simulation level of detail: far from every player the decision logic runs every tickSpan
+    // ticks (phase-staggered), movement, mining and cooldowns (tickDown) advance tickSpan ticks
+    // per run, periodic checks use TickStagger jobs' dueWithin(now, tickSpan) so none is skipped,
+    // and cosmetic packets (head sway, swings, crack stages, equipment) are skipped.
+    private boolean lodActive = false;
+    private int tickSpan = 1;
+    private static final int LOD_HYSTERESIS = 16;   // blocks closer than lod_radius before promoting
+
     // Constructor for programmatic spawning
     public AmbNpcEntity(ServerLevel level, String name) {
         // Deterministic UUID from bot name — stable across restarts so player data
@@ -397,7 +451,7 @@ public class AmbNpcEntity extends FakePlayer {
     @Override
     public void swing(InteractionHand hand) {
         super.swing(hand, false);
-        if (visualEntity != null && !visualEntity.isRemoved()) {
+        if (visualEntity != null && !visualEntity.isRemoved() && !lodActive) {
             System.out.printf("[AMB-SWING] %s swing(force) → visualEntity id=%d hand=%s%n",
                 getName().getString(), visualEntity.getId(), hand);
             visualEntity.swing(hand, true); // force=true: always broadcast animate packet
@@ -407,7 +461,7 @@ public class AmbNpcEntity extends FakePlayer {
     @Override
     public void swing(InteractionHand hand, boolean force) {
         super.swing(hand, force);
-        if (visualEntity != null && !visualEntity.isRemoved()) {
+        if (visualEntity != null && !visualEntity.isRemoved() && !lodActive) {
             visualEntity.swing(hand, force);
         }
     }
@@ -417,6 +471,7 @@ public class AmbNpcEntity extends FakePlayer {
      * Required for FakePlayer — its fake connection never sends equipment updates automatically.
      */
     private void broadcastEquipment() {
+        if (lodActive) return;   // re-sent on promotion
         if (!(level() instanceof ServerLevel sl)) return;
         // Fix F: send packet using the visual entity's ID — that is the entity clients actually track.
         // Sending with the FakePlayer's own ID does nothing because FakePlayers are server-only.
@@ -511,6 +566,13 @@ public class AmbNpcEntity extends FakePlayer {
                 + " task: " + this.currentTask + " → " + task);
         }
         this.currentTask = task;
+        this.taskFromPlayer = false;
+    }
+
+    /** Task given directly by a player (/amb task) — its path requests jump the routine queue. */
+    public void setTaskFromPlayer(String task) {
+        setTask(task);
+        this.taskFromPlayer = true;
     }
 
     public String getCurrentTask() {
@@ -634,7 +696,7 @@ public class AmbNpcEntity extends FakePlayer {
     private void runAllPlayerActions() {
 
         if (spawnIdleTimer > 0) {
-            spawnIdleTimer--;
+            spawnIdleTimer = tickDown(spawnIdleTimer);
             return; // stand still for 5 seconds to get bearings
         }
 
@@ -643,7 +705,7 @@ public class AmbNpcEntity extends FakePlayer {
         doPassivePickup();
 
         // ENHANCED: BotTicker for physics and human-like movement
-        BotTicker.tick(this, currentGoal, movementState);
+        BotTicker.tick(this, currentGoal, movementState, !lodActive);
 
         // Prioritize exiting interiors each tick (door-based plan first, then structural escape)
         boolean exitingNow = handleInteriorExitPlan();
@@ -651,14 +713,16 @@ public class AmbNpcEntity extends FakePlayer {
             exitingNow = escapeHelper.tick(tickCount, currentGoal);
         }
 
+        int now = serverTick();
+
         // Keep the bot's hand visually populated with the task-appropriate tool
-        if (tickCount % 100 == 0) {
+        if (taskToolJob.dueWithin(now, tickSpan)) {
             updateTaskTool();
         }
 
         // STALL DIAGNOSIS — compact state snapshot every 40 ticks so the console log
         // makes any post-harvest pause obvious without drowning in per-tick noise.
-        if (tickCount % 40 == 0) {
+        if (stateDumpJob.dueWithin(now, tickSpan)) {
             LocalAwareness awareness = captureLocalAwareness();
             String miningProgress = miningState.isMining
                 ? miningState.miningTicks + "/" + miningState.requiredTicks + "@" + miningState.targetBlock
@@ -699,7 +763,7 @@ public class AmbNpcEntity extends FakePlayer {
 
         // CRITICAL SURVIVAL - Flee if critically low health
         if (RealisticActions.isCriticalHealth(this)) {
-            if (tickCount % 40 == 0) {
+            if (logJob.dueWithin(serverTick(), tickSpan)) {
                 System.out.println("[AMB-CRITICAL] " + getName().getString() + " has critical health: " + getHealth() + "/" + getMaxHealth() + " - clearing goal and recovering!");
             }
             stopMovement();
@@ -712,7 +776,7 @@ public class AmbNpcEntity extends FakePlayer {
             tickPillarSystem();
             // Mining continuation while pillaring (handled separately from normal goal mining)
             if (pillarPhase == PillarPhase.MINING && miningState.isMining && !exitingNow) {
-                boolean blockBroken = RealisticActions.continueMining(this, miningState);
+                boolean blockBroken = RealisticActions.continueMining(this, miningState, tickSpan, !lodActive);
                 if (blockBroken) miningState.isMining = false; // pillar tick will find next block
             }
             return;
@@ -721,7 +785,7 @@ public class AmbNpcEntity extends FakePlayer {
         // OPPORTUNISTIC ITEM PICKUP — check for nearby items every second even during active tasks.
         // Auto-pickup handles collection at 4 blocks; this navigates the bot toward items within 12 blocks.
         // Runs even while mining so the bot queues the item — it finishes the current block then detours.
-        if (!exitingNow && tickCount % 20 == 0) {
+        if (!exitingNow && itemSeekJob.dueWithin(now, tickSpan)) {
             if (seekingItem != null && seekingItem.isRemoved()) seekingItem = null;
             if (seekingItem == null) seekingItem = findNearestItem(12.0);
             if (seekingItem != null) {
@@ -746,7 +810,7 @@ public class AmbNpcEntity extends FakePlayer {
         if (!currentGoal.equals(BlockPos.ZERO)) {
 
             // Throttle A* retries on failure to avoid re-running 2500 nodes every tick
-            if (pathRetryTimer > 0) pathRetryTimer--;
+            pathRetryTimer = tickDown(pathRetryTimer);
 
             // Recompute path when: empty and retry timer expired, path exhausted, or stuck.
             // Exception: never trigger a recompute while actively mining within reach — A* cannot
@@ -765,52 +829,47 @@ public class AmbNpcEntity extends FakePlayer {
                 lastAStarGoal = currentGoal;
             }
 
-            if (needNewPath) {
-                currentPath = computeAStarPath(blockPosition(), currentGoal);
-                pathIndex = 0;
-                if (currentPath.isEmpty()) {
-                    pathRetryTimer = 60;
-                    aStarFailCount++;
-                    if (aStarFailCount == 2 && !doorRescueActive && doorPhase == 0 && doorIgnoreTicks == 0) {
-                        if (attemptDoorRescue()) {
-                            System.out.println("[AMB-NAV] " + getName().getString() + " A* blocked — door rescue initiated toward " + doorPos);
-                        }
-                    }
-                    // At 3rd consecutive A* failure, try scanning for a lateral wall gap as a detour waypoint
-                    if (aStarFailCount == 3 && doorPhase == 0) {
-                        BlockPos gap = findLateralGap(currentGoal, 8);
-                        if (gap != null) {
-                            System.out.printf("[AMB-NAV] %s A* blocked — lateral gap found at %s, routing through it%n",
-                                getName().getString(), gap);
-                            // Route through the gap as a temporary intermediate waypoint
-                            currentPath = computeAStarPath(blockPosition(), gap);
-                            pathIndex = 0;
-                            if (!currentPath.isEmpty()) {
-                                pathRetryTimer = 0;
-                                // Don't increment aStarFailCount further this attempt
-                            }
-                        }
-                    }
-                    if (aStarFailCount >= 5) {
-                        // Don't abandon goal if we're actively mining the target (A* can't path to a solid block)
-                        if (miningState.isMining &&
-                                position().distanceTo(Vec3.atCenterOf(miningState.targetBlock)) < 4.5) {
-                            System.out.printf("[AMB-NAV] %s A* blocked but mining in range — keeping goal%n",
-                                getName().getString());
-                            aStarFailCount = 0;
-                        } else {
-                            System.out.println("[AMB-NAV] " + getName().getString() + " abandoning unreachable goal " + currentGoal + " after 5 A* failures");
-                            releaseTarget(currentGoal);
-                            currentGoal = BlockPos.ZERO;
-                            currentPath.clear();
-                            aStarFailCount = 0;
-                            executeCurrentTask();
-                            return;
-                        }
+            // Collect a search queued on an earlier tick
+            if (pendingPath != null) {
+                if (!pendingPath.goal().equals(currentGoal)) {
+                    pendingPath.cancel();   // goal changed while the search was running
+                    pendingPath = null;
+                } else if (pendingPath.isDone()) {
+                    PathPlanner.Ticket ticket = pendingPath;
+                    pendingPath = null;
+                    if (ticket.isStillValid()) {
+                        currentPath = reportPath(ticket.start(), ticket.goal(), ticket.walkableGoal(), ticket.result());
+                        pathIndex = nearestWaypointIndex(currentPath);
+                        trackPathTarget(ticket.result().reachedGoal() ? ticket.walkableGoal() : null);
+                        if (handlePathResult()) return;
+                    } else {
+                        System.out.println("[AMB-PATH] " + getName().getString()
+                            + " queued path invalidated by a terrain change — replanning");
+                        needNewPath = !activeMiningInRange;
                     }
+                }
+            }
+
+            // Terrain changed near the path (our own mining, pillaring, platforms, or anyone else's):
+            // repair the path in place instead of throwing it away
+            if (!needNewPath && pendingPath == null && level() instanceof ServerLevel sl) {
+                repairPathAfterEdits(sl);
+            }
+
+            // Searches go through the shared scheduler (worker pool or per-tick server budget).
+            // While a request waits the bot keeps following its current path (or idles).
+            if (needNewPath && pendingPath == null && level() instanceof ServerLevel sl) {
+                BlockPos walkableGoal = getWalkableGoal(currentGoal);
+                if (blockPosition().equals(walkableGoal)) {
+                    currentPath = new ArrayList<>();
+                    pathIndex = 0;
+                    if (handlePathResult()) return;
                 } else {
-                    pathRetryTimer = 0;
-                    aStarFailCount = 0;
+                    BlockPos target = nextSegmentTarget(sl, blockPosition(), walkableGoal);
+                    if (target != null) {   // null: section routing resumes next tick
+                        pendingPath = PathScheduler.request(sl, blockPosition(), currentGoal, target,
+                            A_STAR_MAX_NODES, pathPriority());
+                    }
                 }
             }
 
@@ -970,7 +1029,7 @@ public class AmbNpcEntity extends FakePlayer {
                 if (doorPhase == 2) {
                     stillMoving = true;
                 } else {
-                    stillMoving = RealisticMovement.moveTowards(this, doorPos, speed);
+                    stillMoving = RealisticMovement.moveTowards(this, doorPos, speed, tickSpan);
                 }
                 handleDoorPlan();
                 // Don't clear door phase here - let handleDoorPlan() manage the full door passage
@@ -980,15 +1039,15 @@ public class AmbNpcEntity extends FakePlayer {
                 RealisticMovement.strafeAround(this, moveTarget, avoidDir, speed * 0.85f);
                 stillMoving = true;
             } else {
-                stillMoving = RealisticMovement.moveTowards(this, waypoint, speed);
+                stillMoving = RealisticMovement.moveTowards(this, waypoint, speed, tickSpan);
             }
 
             // ENHANCED: Use BotTicker for smooth look direction
             BotTicker.updateLookDirection(this, currentGoal, stillMoving);
 
             // ── Block 2: jump cooldown + horizontal-progress tracking ────────────────
-            if (jumpCooldown > 0) jumpCooldown--;
-            if (navBreakCooldown > 0) navBreakCooldown--;
+            jumpCooldown = tickDown(jumpCooldown);
+            navBreakCooldown = tickDown(navBreakCooldown);
 
             Vec3 nowPos = position();
             if (!lastExactMovingPos.equals(Vec3.ZERO)) {
@@ -1200,18 +1259,18 @@ public class AmbNpcEntity extends FakePlayer {
                 }
             }
             // Expire old blacklist entries every 20 seconds
-            if (tickCount % 400 == 0 && !unreachableGoalBlacklist.isEmpty()) {
-                int now = tickCount;
-                unreachableGoalBlacklist.entrySet().removeIf(e -> now >= e.getValue());
+            if (blacklistJob.dueWithin(serverTick(), tickSpan) && !unreachableGoalBlacklist.isEmpty()) {
+                int expireAt = tickCount;
+                unreachableGoalBlacklist.entrySet().removeIf(e -> expireAt >= e.getValue());
             }
             // Clean up self-placed navigation blocks that have been mined/broken already
-            if (tickCount % 200 == 0 && !selfPlacedNavigationBlocks.isEmpty()) {
+            if (navCleanupJob.dueWithin(serverTick(), tickSpan) && !selfPlacedNavigationBlocks.isEmpty()) {
                 selfPlacedNavigationBlocks.removeIf(pos -> level().getBlockState(pos).isAir());
             }
             // ─────────────────────────────────────────────────────────────────────────
 
             // Debug logging every 2 seconds
-            if (tickCount % 40 == 0) {
+            if (logJob.dueWithin(serverTick(), tickSpan)) {
                 System.out.printf("[AMB] %s moving to goal %s (pos=(%.3f,%.3f,%.3f) blockPos=%s dist=%.2f pathIdx=%d/%d wp=%s)%n",
                     getName().getString(), currentGoal,
                     getX(), getY(), getZ(), blockPosition(),
@@ -1219,7 +1278,7 @@ public class AmbNpcEntity extends FakePlayer {
                     pathIndex, currentPath.size(), waypoint);
             }
             // Diagnostic every 5 seconds: exact pos, deltaMovement, collision flags
-            if (tickCount % 100 == 0) {
+            if (moveDiagJob.dueWithin(serverTick(), tickSpan)) {
                 Vec3 dm = getDeltaMovement();
                 System.out.printf("[AMB-DIAG] %s pos=(%.3f,%.3f,%.3f) delta=(%.4f,%.4f,%.4f) hColl=%b onGnd=%b sprint=%b%n",
                     getName().getString(),
@@ -1474,7 +1533,7 @@ public class AmbNpcEntity extends FakePlayer {
                         }
                     } else {
                         // No mineable blocks nearby - clear goal and find next target
-                        if (tickCount % 40 == 0) {
+                        if (logJob.dueWithin(serverTick(), tickSpan)) {
                             System.out.println("[AMB-TASK] " + getName().getString() + " reached position " + currentGoal + " but nothing to mine nearby, finding next goal");
                         }
                         currentGoal = BlockPos.ZERO;
@@ -1501,7 +1560,7 @@ public class AmbNpcEntity extends FakePlayer {
                     currentGoal = seekingItem.blockPosition();
                     currentPath.clear();
                     pathIndex = 0;
-                } else if (tickCount % 40 == 0) {
+                } else if (retaskJob.dueWithin(serverTick(), tickSpan)) {
                     executeCurrentTask();
                 }
             }
@@ -1519,7 +1578,7 @@ public class AmbNpcEntity extends FakePlayer {
             RealisticActions.stopMining(this, miningState);
         } else if (miningState.isMining && (!exitingNow || miningInRange)) {
             BlockPos minedPos = miningState.targetBlock; // save before continueMining resets it
-            boolean blockBroken = RealisticActions.continueMining(this, miningState);
+            boolean blockBroken = RealisticActions.continueMining(this, miningState, tickSpan, !lodActive);
             if (blockBroken && !minedPos.equals(BlockPos.ZERO)) {
                 // FIX A: Do NOT call collectDropsNear() here.
                 // gameMode.destroyBlock() already spawned item entities in the world with a
@@ -1612,7 +1671,7 @@ public class AmbNpcEntity extends FakePlayer {
 
         // SELF-REPAIR - Periodically scan for damaged structure blocks
         if (selfRepairCooldown > 0) {
-            selfRepairCooldown--;
+            selfRepairCooldown = tickDown(selfRepairCooldown);
         } else if (!knownStructureBlocks.isEmpty()) {
             selfRepairCooldown = 400;
             int damaged = 0;
@@ -1633,26 +1692,26 @@ public class AmbNpcEntity extends FakePlayer {
         }
 
         // REALISTIC TOOL SWITCHING - Equip appropriate tool for current task
-        toolEquipTimer++;
+        toolEquipTimer += tickSpan;
         if (toolEquipTimer > 20) { // Every ~1 second
             equipAppropriateToolForTask();
             toolEquipTimer = 0;
         }
 
         // NATURAL MESSAGES
-        if (tickCount % 600 == 0 && messageCooldown == 0) {
+        if (chatterJob.dueWithin(now, tickSpan) && messageCooldown == 0) {
             if (getFoodData().getFoodLevel() < 8) {
                 broadcastGroupChat("My stomach is growling... need to find food soon.");
             }
             messageCooldown = 300;
         }
-        if (messageCooldown > 0) messageCooldown--;
+        messageCooldown = tickDown(messageCooldown);
 
         // (Passive pickup moved to doPassivePickup() — called unconditionally at top of runAllPlayerActions)
 
         // 2x2 auto-crafting (planks from logs, sticks) — run every 20 ticks so materials
         // are ready quickly when the bot switches to the craft task.
-        if (tickCount % 20 == 0) {
+        if (autoCraftJob.dueWithin(now, tickSpan)) {
             tryAutoCraftBasics();
         }
         // Station management (table placement, tool crafting) ONLY during craft tasks.
@@ -1660,20 +1719,20 @@ public class AmbNpcEntity extends FakePlayer {
         // the brief zero-goal tick between log harvests, hijacking the gathering task.
         // 3x3 tool recipes require a crafting table — enforce that rule here by only running
         // station logic when the task explicitly calls for it.
-        if (tickCount % 40 == 0 && !exitingNow && !escapeHelper.isActive()
+        if (stationsJob.dueWithin(now, tickSpan) && !exitingNow && !escapeHelper.isActive()
                 && ("craft".equals(currentTask) || "place_crafting_table".equals(currentTask))) {
             manageStationsAndCrafting();
         }
 
         // Cooldowns
-        if (doorInteractCooldown > 0) doorInteractCooldown--;
+        doorInteractCooldown = tickDown(doorInteractCooldown);
     }
 
     // ==================== INTERIOR EXIT (DOOR) PLAN ====================
     private boolean handleInteriorExitPlan() {
         // Decrement exit cooldown
         if (exitCooldown > 0) {
-            exitCooldown--;
+            exitCooldown = tickDown(exitCooldown);
             return false; // Don't check interior while on cooldown
         }
 
@@ -1789,7 +1848,9 @@ public class AmbNpcEntity extends FakePlayer {
                 return false;
             }
 
-            if (exitTimer-- <= 0) {
+            int exitLeft = exitTimer;
+            exitTimer -= tickSpan;
+            if (exitLeft <= 0) {
                 System.out.println("[AMB] " + getName().getString() + " exit plan timeout, aborting");
                 exitingInterior = false;
                 exitDoorCenter = BlockPos.ZERO;
@@ -1815,21 +1876,9 @@ public class AmbNpcEntity extends FakePlayer {
     }
 
     private BlockPos findNearestDoor(int radius) {
-        BlockPos best = null; double bestD2 = Double.MAX_VALUE;
-        BlockPos c = blockPosition();
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -2; dy <= 2; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    BlockPos p = c.offset(dx, dy, dz);
-                    BlockState st = level().getBlockState(p);
-                    if (st.getBlock() instanceof DoorBlock || st.getBlock() instanceof FenceGateBlock) {
-                        double d2 = p.distSqr(c);
-                        if (d2 < bestD2) { bestD2 = d2; best = p; }
-                    }
-                }
-            }
-        }
-        return best;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        return BlockScanner.findNearest(sl, blockPosition(), radius, 2, 2,
+            st -> st.getBlock() instanceof DoorBlock || st.getBlock() instanceof FenceGateBlock);
     }
 
     /**
@@ -1937,20 +1986,27 @@ public class AmbNpcEntity extends FakePlayer {
         BlockPos nearestTable = null;
         double nearestTableDist = Double.MAX_VALUE;
         boolean chestNear = false;
-        for (int dx = -12; dx <= 12; dx++) {
-            for (int dy = -2; dy <= 8; dy++) {
-                for (int dz = -12; dz <= 12; dz++) {
-                    BlockPos p = blockPosition().offset(dx, dy, dz);
-                    BlockState bs = level().getBlockState(p);
-                    if (bs.is(BlockTags.LOGS) && Math.abs(dx) <= 8 && Math.abs(dz) <= 8) logs++;
-                    else if (bs.is(BlockTags.LEAVES) && Math.abs(dx) <= 4 && Math.abs(dz) <= 4) leaves++;
-                    else if (bs.is(Blocks.CRAFTING_TABLE)) {
-                        double d2 = dx * dx + dy * dy + dz * dz;
-                        if (d2 < nearestTableDist) { nearestTableDist = d2; nearestTable = p; }
-                    } else if (bs.getBlock() instanceof ChestBlock) {
-                        if (Math.abs(dx) <= 12 && Math.abs(dz) <= 12) chestNear = true;
-                    }
-                }
+        if (level() instanceof ServerLevel sl) {
+            // One palette-filtered pass; sections with none of these blocks are skipped unread
+            BlockPos me = blockPosition();
+            List<BlockPos> tables = new ArrayList<>();
+            int[] counts = new int[3];   // logs, leaves, chests
+            BlockScanner.forEach(sl, me, 12, 2, 8,
+                bs -> bs.is(BlockTags.LOGS) || bs.is(BlockTags.LEAVES)
+                    || bs.is(Blocks.CRAFTING_TABLE) || bs.getBlock() instanceof ChestBlock,
+                (p, bs) -> {
+                    int dx = p.getX() - me.getX(), dz = p.getZ() - me.getZ();
+                    if (bs.is(BlockTags.LOGS)) { if (Math.abs(dx) <= 8 && Math.abs(dz) <= 8) counts[0]++; }
+                    else if (bs.is(BlockTags.LEAVES)) { if (Math.abs(dx) <= 4 && Math.abs(dz) <= 4) counts[1]++; }
+                    else if (bs.is(Blocks.CRAFTING_TABLE)) tables.add(p);
+                    else counts[2]++;
+                });
+            logs = counts[0];
+            leaves = counts[1];
+            chestNear = counts[2] > 0;
+            for (BlockPos p : tables) {
+                double d2 = p.distSqr(me);
+                if (d2 < nearestTableDist) { nearestTableDist = d2; nearestTable = p; }
             }
         }
 
@@ -2009,86 +2065,253 @@ public class AmbNpcEntity extends FakePlayer {
     }
 
     // ==================== A* PATHFINDING ====================
-    private static class Node implements Comparable<Node> {
-        BlockPos pos; int g; int f;
-        Node(BlockPos p, int g, int f){ this.pos=p; this.g=g; this.f=f; }
-        @Override public int compareTo(Node o){ return Integer.compare(this.f, o.f); }
+    /**
+     * Book-keeping after a new main-goal path arrives (sync or async): failure counting,
+     * door rescue, lateral-gap detour and goal abandonment.
+     * Returns true if the goal was abandoned and the caller should end this tick.
+     */
+    private boolean handlePathResult() {
+        if (currentPath.isEmpty()) {
+            pathRetryTimer = 60;
+            aStarFailCount++;
+            if (aStarFailCount == 2 && !doorRescueActive && doorPhase == 0 && doorIgnoreTicks == 0) {
+                if (attemptDoorRescue()) {
+                    System.out.println("[AMB-NAV] " + getName().getString() + " A* blocked — door rescue initiated toward " + doorPos);
+                }
+            }
+            // At 3rd consecutive A* failure, try scanning for a lateral wall gap as a detour waypoint
+            if (aStarFailCount == 3 && doorPhase == 0) {
+                BlockPos gap = findLateralGap(currentGoal, 8);
+                if (gap != null) {
+                    System.out.printf("[AMB-NAV] %s A* blocked — lateral gap found at %s, routing through it%n",
+                        getName().getString(), gap);
+                    // Route through the gap as a temporary intermediate waypoint
+                    currentPath = computeAStarPath(blockPosition(), gap);
+                    pathIndex = 0;
+                    if (!currentPath.isEmpty()) {
+                        pathRetryTimer = 0;
+                        // Don't increment aStarFailCount further this attempt
+                    }
+                }
+            }
+            if (aStarFailCount >= 5) {
+                // Don't abandon goal if we're actively mining the target (A* can't path to a solid block)
+                if (miningState.isMining &&
+                        position().distanceTo(Vec3.atCenterOf(miningState.targetBlock)) < 4.5) {
+                    System.out.printf("[AMB-NAV] %s A* blocked but mining in range — keeping goal%n",
+                        getName().getString());
+                    aStarFailCount = 0;
+                } else {
+                    System.out.println("[AMB-NAV] " + getName().getString() + " abandoning unreachable goal " + currentGoal + " after 5 A* failures");
+                    releaseTarget(currentGoal);
+                    currentGoal = BlockPos.ZERO;
+                    currentPath.clear();
+                    aStarFailCount = 0;
+                    executeCurrentTask();
+                    return true;
+                }
+            }
+        } else {
+            pathRetryTimer = 0;
+            aStarFailCount = 0;
+        }
+        return false;
+    }
+
+    /** Async paths start where the bot was at submit time; resume from the closest early waypoint. */
+    private int nearestWaypointIndex(List<BlockPos> path) {
+        int best = 0;
+        double bestDist = Double.MAX_VALUE;
+        BlockPos here = blockPosition();
+        for (int i = 0; i < Math.min(path.size(), 6); i++) {
+            double d = path.get(i).distSqr(here);
+            if (d < bestDist) {
+                bestDist = d;
+                best = i;
+            }
+        }
+        return best;
     }
 
     private List<BlockPos> computeAStarPath(BlockPos start, BlockPos goal) {
+        if (!(level() instanceof ServerLevel sl)) return new ArrayList<>();
+
         // ENHANCED: Find walkable goal if target is not walkable
         BlockPos walkableGoal = getWalkableGoal(goal);
 
         if (start.equals(walkableGoal)) return new ArrayList<>();
 
-        PriorityQueue<Node> open = new PriorityQueue<>();
-        Set<BlockPos> closed = new HashSet<>();
-        Map<BlockPos, BlockPos> cameFrom = new HashMap<>();
-        Map<BlockPos, Integer> gScore = new HashMap<>();
-
-        open.add(new Node(start, 0, heuristic(start, walkableGoal)));
-        gScore.put(start, 0);
-
-        // Increase budget for complex terrain / structures requiring detour
-        int maxNodes = 16000;
-        int expanded = 0;
-
-        // Best partial path tracking: record the explored node closest to the goal.
-        // When the full path cannot be found (obstacle, node budget exhausted),
-        // return the partial path to that node. The bot follows it toward the goal,
-        // then re-runs A* from the new position — same approach used by Baritone / Mineflayer.
-        BlockPos bestPartialNode = start;
-        int bestPartialH = heuristic(start, walkableGoal);
-
-        while (!open.isEmpty() && expanded < maxNodes) {
-            Node current = open.poll();
-            expanded++;
-
-            // Track the closest-to-goal explored node for partial path fallback
-            int h = heuristic(current.pos, walkableGoal);
-            if (h < bestPartialH) {
-                bestPartialH = h;
-                bestPartialNode = current.pos;
-            }
-
-            if (current.pos.equals(walkableGoal)) {
-                List<BlockPos> path = reconstructPath(cameFrom, current.pos);
-                System.out.println("[AMB-PATH] A* " + start + "→" + walkableGoal + ": " + path.size() + " nodes, walkable:" +
-                    (!walkableGoal.equals(goal)) + ", dy:" + (walkableGoal.getY() - goal.getY()));
-                if (!path.isEmpty()) {
-                    StringBuilder sb = new StringBuilder();
-                    int limit = Math.min(5, path.size());
-                    for (int pi = 0; pi < limit; pi++) sb.append(path.get(pi)).append(' ');
-                    System.out.println("[AMB-PATH-DETAIL] " + getName().getString()
-                        + " first " + limit + " waypoints: " + sb);
-                }
-                return path;
-            }
-            closed.add(current.pos);
-
-            for (BlockPos neighbor : getNeighbors(current.pos)) {
-                if (closed.contains(neighbor)) continue;
-                int tentativeG = gScore.getOrDefault(current.pos, Integer.MAX_VALUE) + cost(current.pos, neighbor);
-                if (tentativeG < gScore.getOrDefault(neighbor, Integer.MAX_VALUE)) {
-                    cameFrom.put(neighbor, current.pos);
-                    gScore.put(neighbor, tentativeG);
-                    int f = tentativeG + heuristic(neighbor, walkableGoal);
-                    open.add(new Node(neighbor, tentativeG, f));
+        BlockPos target = nextSegmentTarget(sl, start, walkableGoal);
+        if (target == null) target = walkableGoal;
+        pathEngine.search(start.asLong(), target.asLong(), moveModel.bind(NavigationGrid.of(sl)), A_STAR_MAX_NODES);
+        PathScheduler.charge(pathEngine.expanded());
+        trackPathTarget(pathEngine.reachedGoal() ? target : null);
+        return reportPath(start, goal, target, pathEngine.result());
+    }
+
+    /** Remember where a freshly planned path ends so later terrain edits can be repaired in place. */
+    private void trackPathTarget(BlockPos target) {
+        pathTarget = target;
+        pathRepair.reset();
+        if (level() instanceof ServerLevel sl) seenGridEdits = NavigationGrid.of(sl).editCount();
+    }
+
+    /**
+     * Checks the grid's recent block edits against the remaining path. Edits within 3 blocks of an
+     * upcoming waypoint are repaired with LPA* (IncrementalPlanner): the repair tree is built on the
+     * first such edit and reused for later ones, so a tunnel dug block by block costs a few dozen
+     * node updates per block. Repairs come out of the scheduler's per-tick budget; with none left
+     * the edits wait for the next tick. If the repair fails, runs out of budget, or there were more
+     * edits than the grid keeps, the path is dropped and the scheduler replans.
+     */
+    private void repairPathAfterEdits(ServerLevel sl) {
+        NavigationGrid grid = NavigationGrid.of(sl);
+        long edits = grid.editCount();
+        if (edits == seenGridEdits) return;
+        if (pathTarget == null || currentPath.isEmpty() || pathIndex >= currentPath.size()) {
+            seenGridEdits = edits;
+            return;
+        }
+        int budget = PathScheduler.budgetLeft();
+        if (budget == 0) return;   // edits stay unread until next tick
+        int n = grid.editsSince(seenGridEdits, gridEditBuf);
+        seenGridEdits = edits;
+        if (n < 0) {
+            dropPathForReplan("too many edits to check");
+            return;
+        }
+
+        // Keep only edits near the part of the path still ahead
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            BlockPos edit = BlockPos.of(gridEditBuf[i]);
+            for (int w = Math.max(0, pathIndex - 1); w < currentPath.size(); w++) {
+                if (currentPath.get(w).distChessboard(edit) <= 3) {
+                    gridEditBuf[kept++] = gridEditBuf[i];
+                    break;
                 }
             }
         }
+        if (kept == 0) return;
+        n = kept;
+
+        long here = blockPosition().asLong();
+        long target = pathTarget.asLong();
+        moveModel.bind(grid);
+        List<BlockPos> repaired = null;
+        int spent = 0;
+        if (pathRepair.hasTree(target)) {
+            if (pathRepair.repair(gridEditBuf, n, moveModel, Math.min(PATH_REPAIR_BUDGET, budget))) {
+                repaired = pathRepair.pathFrom(here);
+            }
+            spent += pathRepair.lastWork();
+        }
+        if (repaired == null && budget > spent) {
+            if (pathRepair.plan(here, target, moveModel, Math.min(PATH_REBUILD_BUDGET, budget - spent))) {
+                repaired = pathRepair.pathFrom(here);   // tree (re)rooted where the bot stands
+            }
+            spent += pathRepair.lastWork();
+        }
+        PathScheduler.charge(spent);
+        if (repaired == null) {
+            dropPathForReplan("path repair failed after " + n + " edit(s)");
+            return;
+        }
+        currentPath = repaired;
+        pathIndex = nearestWaypointIndex(currentPath);
+        System.out.println("[AMB-PATH] " + getName().getString() + " repaired path after "
+            + n + " edit(s): " + spent + " node updates, " + currentPath.size() + " waypoints");
+    }
+
+    /** Drops the current path so the next tick queues a normal scheduled search. */
+    private void dropPathForReplan(String why) {
+        System.out.println("[AMB-PATH] " + getName().getString() + " " + why + " — replanning");
+        currentPath.clear();
+        pathIndex = 0;
+        pathTarget = null;
+        pathRepair.reset();
+    }
+
+    /** Queue priority for this bot's next path request. */
+    private int pathPriority() {
+        boolean recentlyHurt = getLastHurtByMob() != null && tickCount - getLastHurtByMobTimestamp() < 100;
+        if (isInLava() || isOnFire() || recentlyHurt || getHealth() < getMaxHealth() * 0.3f) {
+            return PathScheduler.PRIORITY_DANGER;
+        }
+        return taskFromPlayer ? PathScheduler.PRIORITY_COMMANDED : PathScheduler.PRIORITY_ROUTINE;
+    }
+
+    /**
+     * Long trips (explore, returning to base or a known table) are routed over the section graph
+     * first; A* then only refines the stretch up to a landing point about SEGMENT_LENGTH blocks
+     * ahead. When that stretch is walked the path runs out and the next segment is planned.
+     * Short trips, or trips the abstract graph cannot route, go straight to the goal.
+     * Routing is charged to the PathScheduler's per-tick budget; returns null when that ran out
+     * while sections were still being built (the call is repeated next tick and carries on).
+     */
+    private BlockPos nextSegmentTarget(ServerLevel sl, BlockPos start, BlockPos walkableGoal) {
+        int reach = Math.max(Math.abs(walkableGoal.getX() - start.getX()), Math.abs(walkableGoal.getZ() - start.getZ()));
+        if (reach < HIERARCHICAL_MIN_DISTANCE || !BotConfig.HIERARCHICAL_PATHFINDING.get()) return walkableGoal;
+
+        int budget = PathScheduler.budgetLeft();
+        if (budget == 0) return null;
+        SectionGraph graph = SectionGraph.of(sl);
+        List<BlockPos> route = graph.route(start, walkableGoal, budget);
+        PathScheduler.charge(graph.lastWork());
+        if (graph.lastOutOfBudget()) {
+            if (graph.lastBuilt() > 0 || graph.lastCosted() > 0 || budget < BotConfig.PATH_TICK_BUDGET.get()) return null;
+            // A whole tick's budget with nothing built or costed: too long to route in one tick
+            System.out.println("[AMB-PATH] HPA* " + start + "→" + walkableGoal + " over the path budget ("
+                + graph.lastWork() + " nodes) — falling back to A*");
+            return walkableGoal;
+        }
+        if (route == null || route.isEmpty()) {
+            System.out.println("[AMB-PATH] HPA* no section route " + start + "→" + walkableGoal
+                + " (" + graph.lastAbstractExpanded() + " abstract nodes) — falling back to A*");
+            return walkableGoal;
+        }
+        BlockPos target = route.get(0);
+        for (BlockPos hop : route) {
+            int d = Math.max(Math.abs(hop.getX() - start.getX()), Math.abs(hop.getZ() - start.getZ()));
+            if (d > SEGMENT_LENGTH) break;
+            target = hop;
+        }
+        System.out.println("[AMB-PATH] HPA* " + getName().getString() + " " + route.size() + " hops to " + walkableGoal
+            + " (" + graph.lastAbstractExpanded() + " abstract + " + graph.lastFloodExpanded()
+            + " flood nodes), next segment → " + target);
+        return target;
+    }
+
+    /**
+     * Logs a finished search and returns the path to follow. When the full path could not be
+     * found (obstacle, node budget exhausted) the result holds the partial path to the explored
+     * node closest to the goal; the bot follows it, then re-runs A* from the new position —
+     * same approach used by Baritone / Mineflayer.
+     */
+    private List<BlockPos> reportPath(BlockPos start, BlockPos goal, BlockPos walkableGoal, PathResult result) {
+        List<BlockPos> path = result.path();
+
+        if (result.reachedGoal()) {
+            System.out.println("[AMB-PATH] A* " + start + "→" + walkableGoal + ": " + path.size() + " nodes, walkable:" +
+                (!walkableGoal.equals(goal)) + ", dy:" + (walkableGoal.getY() - goal.getY()));
+            if (!path.isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                int limit = Math.min(5, path.size());
+                for (int pi = 0; pi < limit; pi++) sb.append(path.get(pi)).append(' ');
+                System.out.println("[AMB-PATH-DETAIL] " + getName().getString()
+                    + " first " + limit + " waypoints: " + sb);
+            }
+            return path;
+        }
 
-        // Full path not found — try partial path to best explored node so far.
+        // Full path not found — follow the partial path to the best explored node so far.
         // This ensures the bot always makes progress toward the goal even when the
         // complete path can't be computed in one shot (large detour, complex terrain).
-        if (!bestPartialNode.equals(start)) {
-            List<BlockPos> partial = reconstructPath(cameFrom, bestPartialNode);
-            if (!partial.isEmpty()) {
-                System.out.println("[AMB-PATH] A* partial path (" + expanded + " nodes): "
-                    + partial.size() + " waypoints, reached " + bestPartialNode
-                    + " (heuristic " + bestPartialH + " from goal " + walkableGoal + ")");
-                return partial;
-            }
+        if (!path.isEmpty()) {
+            System.out.println("[AMB-PATH] A* partial path (" + result.expanded() + " nodes): "
+                + path.size() + " waypoints, reached " + result.end()
+                + " (heuristic " + result.bestHeuristic() + " from goal " + walkableGoal + ")");
+            return path;
         }
 
         // Truly no path (start is enclosed or completely unreachable)
@@ -2147,194 +2370,6 @@ public class AmbNpcEntity extends FakePlayer {
         return goal;
     }
 
-    private int heuristic(BlockPos a, BlockPos b) {
-        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getZ() - b.getZ()) + Math.abs(a.getY() - b.getY()) * 2;
-    }
-
-    private int cost(BlockPos from, BlockPos to) {
-        BlockState state = level().getBlockState(to);
-        int baseCost = 1; // Base cost for movement
-
-        // ENHANCED: Diagonal movement costs more
-        int dx = Math.abs(to.getX() - from.getX());
-        int dz = Math.abs(to.getZ() - from.getZ());
-        if (dx > 0 && dz > 0) {
-            baseCost = 2; // Diagonal movement (sqrt(2) ≈ 1.4, rounded to 2)
-        }
-
-        // ENHANCED: Add vertical movement cost
-        double verticalCost = VerticalNavigation.getVerticalMovementCost(from, to, (ServerLevel) level());
-        baseCost += (int) verticalCost;
-
-        // ENHANCED: Door costs (openable doors are cheaper)
-        if (state.getBlock() instanceof DoorBlock) {
-            Boolean isOpen = state.getOptionalValue(BlockStateProperties.OPEN).orElse(false);
-            if (isOpen) {
-                baseCost += 1; // Open door, easy to pass (cost=0.2 in spec, but using int)
-            } else {
-                baseCost += 2; // Closed door, need to open (cost=1.5 in spec)
-            }
-        }
-
-        // Liquids are allowed but slower: apply mild penalty
-        if (state.is(Blocks.WATER)) baseCost += 3;  // okay to cross
-        if (state.is(Blocks.LAVA)) baseCost += 47;  // risky but not forbidden
-        // penalize cliffs
-        if (level().getBlockState(to).isAir() && level().getBlockState(to.below()).isAir()) baseCost += 12;
-        // prefer stairs and slabs slightly
-        BlockState below = level().getBlockState(to.below());
-        if (below.getBlock() instanceof StairBlock) baseCost -= 1;
-        if (below.getBlock() instanceof SlabBlock) baseCost -= 1;
-        // path blocks slightly cheaper
-        if (below.is(Blocks.DIRT_PATH)) baseCost -= 1;
-
-        return Math.max(1, baseCost);
-    }
-
-    private List<BlockPos> getNeighbors(BlockPos pos) {
-        List<BlockPos> out = new ArrayList<>();
-
-        // 8-way neighbors on the same Y level.
-        // Extra check: floor below neighbor must be canOcclude() to avoid placing waypoints
-        // on the edge of a cliff where the bot would immediately fall off.
-        // Diagonal corner-cutting prevention: for diagonal steps, both cardinal intermediates
-        // must be passable so the path doesn't clip through wall corners.
-        for (int i = 0; i < 8; i++) {
-            if (DIAGONAL_X[i] != 0 && DIAGONAL_Z[i] != 0) {
-                if (!isPassable(pos.offset(DIAGONAL_X[i], 0, 0)) || !isPassable(pos.offset(0, 0, DIAGONAL_Z[i]))) continue;
-            }
-            BlockPos n = pos.offset(DIAGONAL_X[i], 0, DIAGONAL_Z[i]);
-            if (isPassable(n) && level().getBlockState(n.below()).canOcclude()) {
-                out.add(n);
-            }
-        }
-
-        // Step up one block (+1 Y, adjacent XZ).
-        // Extra check: the block AT pos-XZ, pos-Y (the step surface) must be canOcclude()
-        // so the bot has a real surface to step UP FROM, not air beside it.
-        for (int i = 0; i < 8; i++) {
-            if (DIAGONAL_X[i] != 0 && DIAGONAL_Z[i] != 0) {
-                if (!isPassable(pos.offset(DIAGONAL_X[i], 0, 0)) || !isPassable(pos.offset(0, 0, DIAGONAL_Z[i]))) continue;
-            }
-            BlockPos n = pos.offset(DIAGONAL_X[i], 0, DIAGONAL_Z[i]);
-            BlockPos up = n.above();
-            if (isPassable(up) && canJumpTo(pos, up)
-                    && isWalkableFloor(level().getBlockState(n))) { // stairs/slabs are climbable too
-                out.add(up);
-            }
-        }
-
-        // Step down one block (-1 Y, adjacent XZ).
-        for (int i = 0; i < 8; i++) {
-            if (DIAGONAL_X[i] != 0 && DIAGONAL_Z[i] != 0) {
-                if (!isPassable(pos.offset(DIAGONAL_X[i], 0, 0)) || !isPassable(pos.offset(0, 0, DIAGONAL_Z[i]))) continue;
-            }
-            BlockPos n = pos.offset(DIAGONAL_X[i], 0, DIAGONAL_Z[i]);
-            BlockPos down = n.below();
-            if (isPassable(down) && (level() instanceof ServerLevel sl) && RealisticMovement.isWalkable(sl, down)) {
-                out.add(down);
-            }
-        }
-
-        // Straight-down drop (holes / water).
-        BlockPos down = pos.below();
-        if (isPassable(down) || level().getBlockState(down).is(Blocks.WATER)) {
-            out.add(down);
-        }
-        // Note: straight-up jump (+1 / +2) is handled exclusively by
-        // VerticalNavigation.addVerticalNeighbors() below, so no duplicate here.
-
-        // ENHANCED: Add vertical neighbors for climbing/jumping
-        if (level() instanceof ServerLevel sl) {
-            VerticalNavigation.addVerticalNeighbors(pos, sl, out);
-        }
-
-        return out;
-    }
-
-    /**
-     * Check if entity can jump to a position
-     */
-    private boolean canJumpTo(BlockPos from, BlockPos to) {
-        int verticalDiff = to.getY() - from.getY();
-
-        // Can jump up 1 block normally
-        if (verticalDiff == 1) {
-            return canStandOn(from.below());
-        }
-
-        return verticalDiff <= 1;
-    }
-
-    /**
-     * Check if entity can stand on a block
-     */
-    private boolean canStandOn(BlockPos pos) {
-        BlockState state = level().getBlockState(pos);
-        return state.canOcclude() && !(state.getBlock() instanceof DoorBlock) &&
-               !(state.getBlock() instanceof FenceGateBlock);
-    }
-
-    /**
-     * Check if entity can jump to a certain height
-     */
-    private boolean canJumpHeight(int height) {
-        // Normal jump is 1 block, 2 blocks requires block placement
-        return height <= 1;
-    }
-
-    /**
-     * Returns true if the block can serve as a walkable floor (bot can stand on top of it).
-     * canOcclude() is false for stairs/slabs/etc. but they are perfectly walkable surfaces.
-     * isSolid() is deprecated in 1.21 but has no single-argument replacement; suppress the warning.
-     */
-    @SuppressWarnings("deprecation")
-    private boolean isWalkableFloor(BlockState state) {
-        if (state.isAir()) return false;
-        if (state.getBlock() instanceof DoorBlock) return false;
-        if (state.getBlock() instanceof FenceGateBlock) return false;
-        if (state.is(Blocks.WATER)) return true;
-        // Full opaque blocks
-        if (state.canOcclude()) return true;
-        // Partial-solid surfaces the player can stand on
-        return state.getBlock() instanceof StairBlock
-            || state.getBlock() instanceof SlabBlock
-            || state.isSolid();
-    }
-
-    private boolean isPassable(BlockPos p) {
-        BlockState feet = level().getBlockState(p);
-        BlockState head = level().getBlockState(p.above());
-        BlockState below = level().getBlockState(p.below());
-
-        // Fences and walls have canOcclude()=false but block movement — treat as solid.
-        if (feet.is(BlockTags.FENCES) || feet.is(BlockTags.WALLS)) return false;
-        if (head.is(BlockTags.FENCES) || head.is(BlockTags.WALLS)) return false;
-
-        // Doors and fence gates are passable (bot can open them)
-        boolean feetIsDoor = feet.getBlock() instanceof DoorBlock || feet.getBlock() instanceof FenceGateBlock;
-        boolean headIsDoor = head.getBlock() instanceof DoorBlock || head.getBlock() instanceof FenceGateBlock;
-
-        // Check if feet and head positions are clear (or are doors)
-        boolean feetClear = !feet.canOcclude() || feetIsDoor;
-        boolean headClear = !head.canOcclude() || headIsDoor;
-
-        // Must have walkable floor below — includes stairs, slabs, and other partial surfaces
-        boolean solidGround = isWalkableFloor(below);
-
-        return feetClear && headClear && solidGround;
-    }
-
-    private List<BlockPos> reconstructPath(Map<BlockPos, BlockPos> cameFrom, BlockPos current) {
-        List<BlockPos> path = new ArrayList<>();
-        BlockPos cur = current;
-        while (cameFrom.containsKey(cur)) {
-            path.add(0, cur);
-            cur = cameFrom.get(cur);
-        }
-        return path;
-    }
-
     /**
      * Check if a block should be mined based on current task
      */
@@ -2669,11 +2704,22 @@ public class AmbNpcEntity extends FakePlayer {
     /**
      * Chest lifecycle manager — called from manageStationsAndCrafting() every 100 ticks.
      *
+     * Phase A0: With no known chest, adopt the nearest plain chest within 16 blocks (ResourceIndex).
      * Phase A: If we have a chest item in inventory and no known chest location, place it.
      * Phase B: Purge known chest list of entries whose block was removed by other means.
      * Phase C: If bot is adjacent to a known chest, deposit excess materials.
      */
     private void manageCraftedChest() {
+        // Phase A0: Adopt a chest already standing nearby (a peer's, or ours from before a restart)
+        if (knownChests.isEmpty() && level() instanceof ServerLevel sl) {
+            BlockPos existing = ResourceIndex.of(sl).nearest(ResourceCategory.CHEST, blockPosition(), 16, 4, 4,
+                pos -> level().getBlockState(pos).is(Blocks.CHEST));
+            if (existing != null) {
+                knownChests.add(existing);
+                System.out.printf("[AMB-STORAGE] %s using existing chest at %s%n", getName().getString(), existing);
+            }
+        }
+
         // Phase A: Place a chest we're carrying
         if (knownChests.isEmpty() && getInventory().countItem(Items.CHEST) > 0) {
             BlockPos place = findPlacementNear(blockPosition(), 4);
@@ -2885,38 +2931,15 @@ public class AmbNpcEntity extends FakePlayer {
      * slightly different floor levels are always detected before the bot crafts its own.
      */
     private BlockPos findNearestTableWide() {
-        BlockPos best = null;
-        double bestD2 = Double.MAX_VALUE;
-        BlockPos c = blockPosition();
-        for (int dx = -24; dx <= 24; dx++) {
-            for (int dy = -5; dy <= 8; dy++) {
-                for (int dz = -24; dz <= 24; dz++) {
-                    BlockPos p = c.offset(dx, dy, dz);
-                    if (level().getBlockState(p).is(Blocks.CRAFTING_TABLE)) {
-                        double d2 = p.distSqr(c);
-                        if (d2 < bestD2) { bestD2 = d2; best = p; }
-                    }
-                }
-            }
-        }
-        return best;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        return ResourceIndex.of(sl).nearest(ResourceCategory.CRAFTING_TABLE, blockPosition(), 24, 5, 8, null);
     }
 
     private BlockPos findNearestBlockExact(Block block, int radius) {
-        BlockPos best = null; double bestD2 = Double.MAX_VALUE;
-        BlockPos c = blockPosition();
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -2; dy <= 2; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    BlockPos p = c.offset(dx, dy, dz);
-                    if (level().getBlockState(p).is(block)) {
-                        double d2 = p.distSqr(c);
-                        if (d2 < bestD2) { bestD2 = d2; best = p; }
-                    }
-                }
-            }
-        }
-        return best;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        ResourceCategory category = ResourceCategory.ofBlock(block);
+        if (category != null) return ResourceIndex.of(sl).nearest(category, blockPosition(), radius, 2, 2, null);
+        return BlockScanner.findNearest(sl, blockPosition(), radius, 2, 2, st -> st.is(block));
     }
 
     private void craftStarterToolsAtTable() {
@@ -3277,10 +3300,10 @@ public class AmbNpcEntity extends FakePlayer {
     private void tickPillarSystem() {
         // jumpCooldown is only decremented in the normal navigation block which is skipped
         // during pillar mode. Decrement here so the bot can jump on each pillar step.
-        if (jumpCooldown > 0) jumpCooldown--;
+        jumpCooldown = tickDown(jumpCooldown);
 
         if (pillarCooldown > 0) {
-            pillarCooldown--;
+            pillarCooldown = tickDown(pillarCooldown);
             applyVerticalPhysicsOnly(); // keep physics running during cooldown
             return;
         }
@@ -3302,7 +3325,7 @@ public class AmbNpcEntity extends FakePlayer {
                     }
                 } else {
                     // Continue leaf mining in progress
-                    boolean leafDone = RealisticActions.continueMining(this, miningState);
+                    boolean leafDone = RealisticActions.continueMining(this, miningState, tickSpan, !lodActive);
                     applyVerticalPhysicsOnly();
                     if (!leafDone) return; // still mining the leaf
                     // Leaf done — re-equip building block display next tick
@@ -3343,7 +3366,7 @@ public class AmbNpcEntity extends FakePlayer {
                     jumpCooldown = 20;
                     pillarWasAirborne = false;
                 } else if (onGround() && jumpCooldown > 0) {
-                    if (tickCount % 10 == 0) {
+                    if (pillarLogJob.dueWithin(serverTick(), tickSpan)) {
                         System.out.printf("[AMB-PILLAR] %s BUILDING waiting for jumpCooldown=%d botY=%d%n",
                             getName().getString(), jumpCooldown, blockPosition().getY());
                     }
@@ -3642,19 +3665,10 @@ public class AmbNpcEntity extends FakePlayer {
      * the current goal which is already established as out of reach.
      */
     private boolean hasOtherReachableLogs(int hRadius) {
-        int myY = blockPosition().getY();
-        for (int dx = -hRadius; dx <= hRadius; dx++) {
-            for (int dy = -2; dy <= 6; dy++) { // FIX A/C: 4→6 — logs 5-6 blocks up are navigable
-                for (int dz = -hRadius; dz <= hRadius; dz++) {
-                    BlockPos check = blockPosition().offset(dx, dy, dz);
-                    if (check.equals(currentGoal)) continue;
-                    if (!level().getBlockState(check).is(BlockTags.LOGS)) continue;
-                    // Reachable: within ±6 Y (A* handles moderate slopes; pillar only for 7+)
-                    if (Math.abs(check.getY() - myY) <= 6) return true;
-                }
-            }
-        }
-        return false;
+        if (!(level() instanceof ServerLevel sl)) return false;
+        // FIX A/C: 4→6 — logs 5-6 blocks up are navigable (A* handles moderate slopes; pillar only for 7+)
+        return BlockScanner.any(sl, blockPosition(), hRadius, 2, 6,
+            st -> st.is(BlockTags.LOGS), check -> !check.equals(currentGoal));
     }
 
     /**
@@ -3748,7 +3762,7 @@ public class AmbNpcEntity extends FakePlayer {
             System.out.printf("[AMB-PLATFORM] %s placed %s at %s (bridge at same-Y) dir=%s exits_remaining=%d%n",
                 getName().getString(), blockType.getName().getString(), adj, dir.getName(), remainingExits);
             if (onGround() && jumpCooldown == 0) { jumpFromGround(); jumpCooldown = 15; }
-            currentPath.clear(); pathIndex = 0;
+            // No path reset: the placed block shows up as a grid edit and the path is repaired in place
             return true;
         }
 
@@ -3855,6 +3869,8 @@ public class AmbNpcEntity extends FakePlayer {
         BlockPos bedPos = !baseLocation.equals(BlockPos.ZERO) ? baseLocation : BlockPos.ZERO;
         String botName = getName().getString();
         RESPAWN_QUEUE.add(new RespawnRequest(botName, llmGroup, currentTask, dPos, bedPos));
+        // The respawned bot thinks afresh; a plan for this body is no use to it
+        BotBrain.cancelPending(botName, "died");
         System.out.println("[AMB-DEATH] " + botName + " died at " + dPos + " — queued respawn in 10s");
         broadcastGroupChat("I died... I'll be back soon.");
         super.die(cause);
@@ -3878,20 +3894,8 @@ public class AmbNpcEntity extends FakePlayer {
         if (doorIgnoreTicks > 0) return false;
 
         // scan for nearest wooden door within 6 blocks
-        BlockPos best = null;
-        double bestD2 = Double.MAX_VALUE;
-        for (int dx = -6; dx <= 6; dx++) {
-            for (int dz = -6; dz <= 6; dz++) {
-                for (int dy = -1; dy <= 2; dy++) {
-                    BlockPos p = blockPosition().offset(dx, dy, dz);
-                    BlockState st = level().getBlockState(p);
-                    if (st.getBlock() instanceof DoorBlock) {
-                        double d2 = p.distSqr(blockPosition());
-                        if (d2 < bestD2) { bestD2 = d2; best = p; }
-                    }
-                }
-            }
-        }
+        if (!(level() instanceof ServerLevel sl)) return false;
+        BlockPos best = BlockScanner.findNearest(sl, blockPosition(), 6, 1, 2, st -> st.getBlock() instanceof DoorBlock);
         if (best != null) {
             // ENHANCED: Save current goal before door navigation
             if (!currentGoal.equals(BlockPos.ZERO)) {
@@ -3923,7 +3927,7 @@ public class AmbNpcEntity extends FakePlayer {
         }
 
         // Decrement door ignore ticks
-        if (doorIgnoreTicks > 0) doorIgnoreTicks--;
+        doorIgnoreTicks = tickDown(doorIgnoreTicks);
 
         // Phase 1: Approach the door
         if (doorPhase == 1) {
@@ -4222,6 +4226,7 @@ public class AmbNpcEntity extends FakePlayer {
                     currentPath.clear();
                     pathIndex = 0;
                     pathRetryTimer = 0;
+                    adoptTargetPath(log);
                     System.out.printf("[AMB-PERCEIVE] %s gather_wood target: log at %s dist=%.1f adjLeaves=%d%n",
                         getName().getString(), log, dist, adjLeaves);
                 } else {
@@ -4251,6 +4256,7 @@ public class AmbNpcEntity extends FakePlayer {
                     currentGoal = stone;
                     doorPhase = 0; doorPos = BlockPos.ZERO; originalDoorPos = BlockPos.ZERO; doorTimer = 0; avoidTicks = 0;
                     currentPath.clear(); pathIndex = 0; pathRetryTimer = 0;
+                    adoptTargetPath(stone);
                     System.out.printf("[AMB-PERCEIVE] %s mine_stone target: %s at %s%n",
                         getName().getString(), level().getBlockState(stone).getBlock().getName().getString(), stone);
                 } else {
@@ -4267,6 +4273,7 @@ public class AmbNpcEntity extends FakePlayer {
                     currentGoal = dirt;
                     doorPhase = 0; doorPos = BlockPos.ZERO; originalDoorPos = BlockPos.ZERO; doorTimer = 0; avoidTicks = 0;
                     currentPath.clear(); pathIndex = 0; pathRetryTimer = 0;
+                    adoptTargetPath(dirt);
                     System.out.printf("[AMB-PERCEIVE] %s mine_dirt target: %s at %s%n",
                         getName().getString(), level().getBlockState(dirt).getBlock().getName().getString(), dirt);
                 } else {
@@ -4587,60 +4594,16 @@ public class AmbNpcEntity extends FakePlayer {
     }
 
     private BlockPos findNearestBlock(net.minecraft.tags.TagKey<net.minecraft.world.level.block.Block> tag, int radius) {
-        BlockPos myPos = blockPosition();
-        BlockPos nearest = null;
-        double nearestScore = Double.MAX_VALUE;
-
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -10; y <= 10; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    BlockPos check = myPos.offset(x, y, z);
-                    if (level().getBlockState(check).is(tag)) {
-                        // Calculate score: horizontal distance + (vertical distance * 3)
-                        // This heavily penalizes vertical distance to prefer same-level blocks
-                        int dx = check.getX() - myPos.getX();
-                        int dy = check.getY() - myPos.getY();
-                        int dz = check.getZ() - myPos.getZ();
-                        double horizontalDist = Math.sqrt(dx * dx + dz * dz);
-                        double verticalPenalty = Math.abs(dy) * 3.0; // 3x penalty for vertical
-                        double score = horizontalDist + verticalPenalty;
-
-                        // Skip if too far vertically (>10 blocks) — trees on hills are 6-10 blocks above
-                        if (Math.abs(dy) > 10) {
-                            continue;
-                        }
-
-                        if (score < nearestScore) {
-                            nearestScore = score;
-                            nearest = check;
-                        }
-                    }
-                }
-            }
-        }
-        return nearest;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        // Score: horizontal distance + (vertical distance * 3) — heavily penalizes vertical distance
+        // to prefer same-level blocks. ±10 Y because trees on hills are 6-10 blocks above.
+        return BlockScanner.findNearest(sl, blockPosition(), radius, 10, 10, st -> st.is(tag), null,
+            (dx, dy, dz) -> Math.sqrt(dx * dx + dz * dz) + Math.abs(dy) * 3.0);
     }
 
     private BlockPos findNearestBlock(net.minecraft.world.level.block.Block block, int radius) {
-        BlockPos myPos = blockPosition();
-        BlockPos nearest = null;
-        double nearestDist = Double.MAX_VALUE;
-
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -10; y <= 10; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    BlockPos check = myPos.offset(x, y, z);
-                    if (level().getBlockState(check).is(block)) {
-                        double dist = myPos.distSqr(check);
-                        if (dist < nearestDist) {
-                            nearestDist = dist;
-                            nearest = check;
-                        }
-                    }
-                }
-            }
-        }
-        return nearest;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        return BlockScanner.findNearest(sl, blockPosition(), radius, 10, 10, st -> st.is(block));
     }
 
     /**
@@ -4701,76 +4664,77 @@ public class AmbNpcEntity extends FakePlayer {
     }
 
     /**
-     * Find the nearest block that is one of the specified block types.
-     * Searches a y range of ±10, same as findNearestBlock(Block, int).
-     * Used by mine_stone, mine_dirt, mine_ore task selection.
+     * Find the nearest reachable block that is one of the specified block types.
+     * Searches a y range of ±10, same as findNearestBlock(Block, int), but by walking distance:
+     * the result is the first matching block the bot can stand next to, and the path there is
+     * kept for adoptTargetPath(). Used by mine_stone, mine_dirt, mine_ore task selection.
      */
     private BlockPos findNearestHarvestTarget(net.minecraft.world.level.block.Block[] blocks, int radius) {
-        BlockPos myPos = blockPosition();
-        BlockPos nearest = null;
-        double nearestDist = Double.MAX_VALUE;
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -10; y <= 10; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    BlockPos check = myPos.offset(x, y, z);
-                    BlockState st = level().getBlockState(check);
-                    boolean matches = false;
-                    for (net.minecraft.world.level.block.Block b : blocks) {
-                        if (st.is(b)) { matches = true; break; }
-                    }
-                    if (!matches) continue;
-                    // Skip goals that recently caused a jump loop (unbreakable terrain)
-                    if (unreachableGoalBlacklist.getOrDefault(check, 0) > tickCount) continue;
-                    // Skip targets already claimed by a peer bot
-                    if (isClaimedByOther(check)) continue;
-                    // Skip blocks the bot itself placed as temporary navigation aids
-                    if (selfPlacedNavigationBlocks.contains(check)) continue;
-                    double dist = myPos.distSqr(check);
-                    if (dist < nearestDist) { nearestDist = dist; nearest = check; }
-                }
-            }
-        }
-        if (nearest != null) claimTarget(nearest);
-        return nearest;
+        return findNearestReachable(radius, 10, 10, check -> {
+            BlockState st = level().getBlockState(check);
+            boolean matches = false;
+            for (net.minecraft.world.level.block.Block b : blocks) {
+                if (st.is(b)) { matches = true; break; }
+            }
+            if (!matches) return false;
+            // Skip goals that recently caused a jump loop (unbreakable terrain)
+            if (unreachableGoalBlacklist.getOrDefault(check, 0) > tickCount) return false;
+            // Skip targets already claimed by a peer bot
+            if (isClaimedByOther(check)) return false;
+            // Skip blocks the bot itself placed as temporary navigation aids
+            return !selfPlacedNavigationBlocks.contains(check);
+        });
     }
 
     /**
-     * Find the nearest log that is part of a natural tree (has at least one leaf within 6 blocks).
-     * Avoids mining logs in player structures which have no leaves nearby.
+     * Find the nearest reachable log that is part of a natural tree (has at least one leaf within
+     * 10 blocks). Avoids mining logs in player structures which have no leaves nearby. Walking
+     * distance replaces the old height-penalised straight-line score: a high canopy log is only
+     * chosen when nothing on the way is a trunk the bot can stand beside.
      */
     private BlockPos findNearestTreeLog(int radius) {
-        BlockPos myPos = blockPosition();
-        BlockPos nearest = null;
-        double nearestDist = Double.MAX_VALUE;
+        // The index answers "no logs at all in range" without spending a flood on it
+        if (level() instanceof ServerLevel sl
+                && !ResourceIndex.of(sl).any(ResourceCategory.LOG, blockPosition(), radius, 5, 20)) {
+            lastTargetHit = null;
+            return null;
+        }
+        return findNearestReachable(radius, 5, 20, check -> {
+            if (!level().getBlockState(check).is(BlockTags.LOGS)) return false;
+            // Skip goals that recently caused a jump loop (unbreakable terrain between bot and block)
+            if (unreachableGoalBlacklist.getOrDefault(check, 0) > tickCount) return false;
+            // Skip targets already claimed by a peer bot
+            if (isClaimedByOther(check)) return false;
+            // Verify this log has leaves nearby (radius=10 catches tall trees)
+            return hasLeavesNearby(check, 10);
+        });
+    }
 
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -5; y <= 20; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    BlockPos check = myPos.offset(x, y, z);
-                    if (!level().getBlockState(check).is(BlockTags.LOGS)) continue;
-                    // Skip goals that recently caused a jump loop (unbreakable terrain between bot and block)
-                    if (unreachableGoalBlacklist.getOrDefault(check, 0) > tickCount) continue;
-                    // Skip targets already claimed by a peer bot
-                    if (isClaimedByOther(check)) continue;
-                    // Verify this log has leaves nearby (radius=10 catches tall trees)
-                    if (!hasLeavesNearby(check, 10)) continue;
-
-                    // Height-penalized score: each block upward costs 3× a horizontal block.
-                    // This strongly prefers same-level or lower logs over high canopy logs,
-                    // preventing the bot from committing to an unreachable high trunk when
-                    // accessible ground-level logs exist.
-                    int heightAboveBot = Math.max(0, y);
-                    double horzDist = Math.sqrt((double)(x * x + z * z));
-                    double score = horzDist + heightAboveBot * 3.0;
-                    if (score < nearestDist) {
-                        nearestDist = score;
-                        nearest = check;
-                    }
-                }
-            }
-        }
-        if (nearest != null) claimTarget(nearest);
-        return nearest;
+    /**
+     * One Dijkstra flood from the bot that stops next to the first block passing {@code matches}
+     * (ReachableTargetSearch). Claims the block and remembers the path for adoptTargetPath().
+     * The flood runs on the server thread and is charged to the PathScheduler's tick budget.
+     */
+    private BlockPos findNearestReachable(int radius, int down, int up, java.util.function.Predicate<BlockPos> matches) {
+        lastTargetHit = null;
+        if (!(level() instanceof ServerLevel sl)) return null;
+        ReachableTargetSearch.Hit hit = targetSearch.find(sl, blockPosition(), radius, down, up,
+            TARGET_SEARCH_MAX_NODES, matches);
+        PathScheduler.charge(targetSearch.lastExpanded());
+        if (hit == null) return null;
+        lastTargetHit = hit;
+        claimTarget(hit.target());
+        return hit.target();
+    }
+
+    /** Installs the path found together with {@code target}, so no separate A* is needed. */
+    private void adoptTargetPath(BlockPos target) {
+        ReachableTargetSearch.Hit hit = lastTargetHit;
+        lastTargetHit = null;
+        if (hit == null || !hit.target().equals(target)) return;
+        currentPath = new ArrayList<>(hit.path());
+        pathIndex = 0;
+        trackPathTarget(hit.stand());
     }
 
     /**
@@ -4819,7 +4783,7 @@ public class AmbNpcEntity extends FakePlayer {
                 // Item nearby but delay active — log only occasionally to avoid spam.
                 // This is the expected state immediately after a block break: item entity
                 // is in the world and visible to clients, just waiting for the delay.
-                if (tickCount % 40 == 0) {
+                if (logJob.dueWithin(serverTick(), tickSpan)) {
                     System.out.printf("[AMB-PICKUP] %s world-drop %s at %s waiting (delay active)%n",
                         getName().getString(),
                         itemEntity.getItem().getHoverName().getString(),
@@ -4885,27 +4849,15 @@ public class AmbNpcEntity extends FakePlayer {
 
     /** Count blocks matching a tag within radius of the bot's position (cheap perception snapshot). */
     private int countBlocksNearby(net.minecraft.tags.TagKey<net.minecraft.world.level.block.Block> tag, int radius) {
-        int count = 0;
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -4; dy <= 8; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    if (level().getBlockState(blockPosition().offset(dx, dy, dz)).is(tag)) count++;
-                }
-            }
-        }
-        return count;
+        if (!(level() instanceof ServerLevel sl)) return 0;
+        if (tag == BlockTags.LOGS) return ResourceIndex.of(sl).count(ResourceCategory.LOG, blockPosition(), radius, 4, 8);
+        return BlockScanner.count(sl, blockPosition(), radius, 4, 8, st -> st.is(tag));
     }
 
     /** Returns true if there is at least one leaf block within the given radius of pos. */
     private boolean hasLeavesNearby(BlockPos pos, int radius) {
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -2; dy <= radius; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    if (level().getBlockState(pos.offset(dx, dy, dz)).is(BlockTags.LEAVES)) return true;
-                }
-            }
-        }
-        return false;
+        if (!(level() instanceof ServerLevel sl)) return false;
+        return BlockScanner.any(sl, pos, radius, 2, radius, st -> st.is(BlockTags.LEAVES), null);
     }
 
     /**
@@ -4917,21 +4869,20 @@ public class AmbNpcEntity extends FakePlayer {
         BlockPos nearestLeaf = null;
         double nearestLeafDist = Double.MAX_VALUE;
 
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -2; dy <= 8; dy++) { // +8 to reach top of tallest trees (logs at center+7)
-                for (int dz = -radius; dz <= radius; dz++) {
-                    BlockPos check = center.offset(dx, dy, dz);
-                    BlockState state = level().getBlockState(check);
-
-                    if (!shouldMineBlock(state)) continue;
-                    double dist = blockPosition().distSqr(check);
-                    if (state.is(BlockTags.LOGS)) {
-                        if (dist < nearestLogDist) { nearestLogDist = dist; nearestLog = check; }
-                    } else if (state.is(BlockTags.LEAVES)) {
-                        if (dist < nearestLeafDist) { nearestLeafDist = dist; nearestLeaf = check; }
-                    }
-                }
-            }
+        if (!(level() instanceof ServerLevel sl)) return null;
+        // Only logs and leaves are ever returned, so sections without either are skipped
+        List<BlockPos> logs = new ArrayList<>();
+        List<BlockPos> leaves = new ArrayList<>();
+        BlockScanner.forEach(sl, center, radius, 2, 8, // +8 to reach top of tallest trees (logs at center+7)
+            state -> (state.is(BlockTags.LOGS) || state.is(BlockTags.LEAVES)) && shouldMineBlock(state),
+            (check, state) -> (state.is(BlockTags.LOGS) ? logs : leaves).add(check));
+        for (BlockPos check : logs) {
+            double dist = blockPosition().distSqr(check);
+            if (dist < nearestLogDist) { nearestLogDist = dist; nearestLog = check; }
+        }
+        for (BlockPos check : leaves) {
+            double dist = blockPosition().distSqr(check);
+            if (dist < nearestLeafDist) { nearestLeafDist = dist; nearestLeaf = check; }
         }
         // Prefer logs. Fall back to clearing leaves only when no log is reachable nearby.
         return nearestLog != null ? nearestLog : nearestLeaf;
@@ -4952,10 +4903,11 @@ public class AmbNpcEntity extends FakePlayer {
         this.setNoGravity(false); // enforce gravity every tick
         super.tick();
 
-        // ── Part 5: Stuck detection (every 20 / 100 ticks) ───────────────────
-        if (tickCount % 20 == 0) {
-            BlockPos now = blockPosition();
-            if (lastKnownPos20 != null && now.equals(lastKnownPos20) && isMovingToGoal) {
+        // ── Part 5: Stuck detection (every 20 / 100 ticks, staggered) ────────
+        int now = serverTick();
+        if (stuckJob.due(now)) {
+            BlockPos here = blockPosition();
+            if (lastKnownPos20 != null && here.equals(lastKnownPos20) && isMovingToGoal) {
                 escapeStuckTicks += 20;
                 if (escapeStuckTicks % 100 == 0) {
                     System.out.println("[STUCK] " + getName().getString()
@@ -4969,29 +4921,134 @@ public class AmbNpcEntity extends FakePlayer {
             } else {
                 escapeStuckTicks = 0;
             }
-            lastKnownPos20 = now;
+            lastKnownPos20 = here;
         }
 
-        if (tickCount % 100 == 0) {
-            BlockPos now = blockPosition();
-            if (lastKnownPos100 != null && now.equals(lastKnownPos100) && isMovingToGoal) {
+        if (stuckJob.due(now, 5)) {
+            BlockPos here = blockPosition();
+            if (lastKnownPos100 != null && here.equals(lastKnownPos100) && isMovingToGoal) {
                 System.out.println("[STUCK-100] " + getName().getString()
-                        + " still stuck at " + now + " after 100 ticks");
+                        + " still stuck at " + here + " after 100 ticks");
             }
-            lastKnownPos100 = now;
+            lastKnownPos100 = here;
         }
         // ─────────────────────────────────────────────────────────────────────
 
-        runAllPlayerActions();
-        if (spawnIdleTimer == 99 && !roleAnnouncementDone) {
+        if (lodCheckJob.due(now) && updateLod()) return;   // parked for offline simulation
+        // Reduced fidelity: decision logic only on this bot's phase of every tickSpan ticks
+        if (!lodActive || Math.floorMod(now - lodCheckJob.phase(), tickSpan) == 0) {
+            runAllPlayerActions();
+        }
+        if (spawnIdleTimer < 100 && !roleAnnouncementDone) {
             assignInitialRole();
             roleAnnouncementDone = true;
         }
     }
 
+    public boolean isLodActive() {
+        return lodActive;
+    }
+
+    /**
+     * Switches between full and reduced fidelity by distance to the nearest real player, with
+     * {@link #LOD_HYSTERESIS} blocks of slack so a player at the edge doesn't toggle it every check.
+     * Reduced-fidelity bots far enough out are handed to OfflineSimulation; returns true if parked.
+     */
+    private boolean updateLod() {
+        if (!(level() instanceof ServerLevel sl)) return false;
+        double nearestSq = Double.MAX_VALUE;
+        for (ServerPlayer sp : sl.players()) {
+            if (sp instanceof FakePlayer || sp.isSpectator()) continue;
+            nearestSq = Math.min(nearestSq, sp.distanceToSqr(this));
+        }
+        int radius = BotConfig.LOD_RADIUS.get();
+        double limit = lodActive ? radius - LOD_HYSTERESIS : radius;
+        boolean wantLod = BotConfig.LOD_ENABLED.get() && nearestSq > limit * limit;
+        if (lodActive && wantLod && OfflineSimulation.tryPark(this, nearestSq)) return true;
+        if (wantLod == lodActive) return false;
+
+        lodActive = wantLod;
+        tickSpan = wantLod ? BotConfig.LOD_DECISION_INTERVAL.get() : 1;
+        String nearest = nearestSq == Double.MAX_VALUE ? "none" : String.format("%.0f blocks", Math.sqrt(nearestSq));
+        if (wantLod) {
+            System.out.printf("[AMB-LOD] %s → reduced fidelity (nearest player %s), deciding every %d ticks%n",
+                getName().getString(), nearest, tickSpan);
+        } else {
+            System.out.printf("[AMB-LOD] %s → full fidelity (nearest player %s)%n", getName().getString(), nearest);
+            broadcastEquipment();
+        }
+        return false;
+    }
+
+    /** Safe moment to leave the world: not mid-swing, pillaring, escaping or in danger. */
+    public boolean canParkOffline() {
+        return onGround() && !miningState.isMining && pillarPhase == PillarPhase.IDLE
+            && !exitingInterior && !escapeHelper.isActive()
+            && pathPriority() != PathScheduler.PRIORITY_DANGER;
+    }
+
+    /** Called by OfflineSimulation just before the entity is removed from the level. */
+    public void onParkedOffline() {
+        if (pendingPath != null) {
+            pendingPath.cancel();
+            pendingPath = null;
+        }
+        currentPath.clear();
+        pathIndex = 0;
+        stopMovement();
+    }
+
+    /**
+     * Called by OfflineSimulation on the entity spawned to replace {@code parked} when it comes
+     * back. Inventory, food and the saved fields arrive through the regular NBT restore; this
+     * copies the task and the in-memory plans that are not saved.
+     */
+    public void resumeFromParked(AmbNpcEntity parked) {
+        llmGroup = parked.llmGroup;
+        brainEnabled = parked.brainEnabled;
+        currentTask = parked.currentTask;
+        taskFromPlayer = parked.taskFromPlayer;
+        baseConstructionPhase = parked.baseConstructionPhase;
+        baseDigQueue.addAll(parked.baseDigQueue);
+        baseSupportQueue.addAll(parked.baseSupportQueue);
+        knownStructureBlocks.putAll(parked.knownStructureBlocks);
+        knownFurnace = parked.knownFurnace;
+        knownSmoker = parked.knownSmoker;
+        knownBlastFurnace = parked.knownBlastFurnace;
+        knownChests.addAll(parked.knownChests);
+    }
+
+    /** Next planned underground-base dig position without consuming it; null if the plan is done. */
+    public BlockPos peekBaseDigTarget() {
+        return baseConstructionPhase == 1 ? baseDigQueue.peek() : null;
+    }
+
+    /** Next planned underground-base dig position, consumed as if dug; null if the plan is done. */
+    public BlockPos pollBaseDigTarget() {
+        if (baseConstructionPhase != 1) return null;
+        BlockPos next = baseDigQueue.poll();
+        if (baseDigQueue.isEmpty()) baseConstructionPhase = 2;
+        return next;
+    }
+
+    /** {@code ticks} counted down by the ticks one decision run covers (tickSpan), floored at 0. */
+    private int tickDown(int ticks) {
+        return Math.max(0, ticks - tickSpan);
+    }
+
+    /** Server tick count, the clock TickStagger phases are assigned against. */
+    private int serverTick() {
+        return getServer() != null ? getServer().getTickCount() : tickCount;
+    }
+
     @Override
     public void remove(RemovalReason reason) {
         super.remove(reason);
+        periodicJobs.release();
+        if (pendingPath != null) {
+            pendingPath.cancel();
+            pendingPath = null;
+        }
         // Remove the visual entity when the FakePlayer is removed
         if (visualEntity != null && !visualEntity.isRemoved()) {
             visualEntity.discard();
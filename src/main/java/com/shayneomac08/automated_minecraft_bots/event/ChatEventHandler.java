@@ -1,8 +1,10 @@
 package com.shayneomac08.automated_minecraft_bots.event;
 
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
 import com.shayneomac08.automated_minecraft_bots.bot.BotBrain;
 import com.shayneomac08.automated_minecraft_bots.bot.BotPair;
 import com.shayneomac08.automated_minecraft_bots.bot.BotRegistry;
+import com.shayneomac08.automated_minecraft_bots.bot.ChatIntent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
@@ -52,6 +54,14 @@ public class ChatEventHandler {
                     + " activeTask=" + activeTask
                     + " text=\"" + command + "\"");
 
+                // Plain commands ("stop", "follow me", "gather wood") run now; the rest go to the LLM
+                ChatIntent intent = (!conversational && BotConfig.LOCAL_CHAT_COMMANDS.get())
+                    ? ChatIntent.parse(command) : null;
+                if (intent != null) {
+                    BotBrain.obeyLocally(player.getServer(), targetBotName, player, command, intent, pair);
+                    return;
+                }
+
                 // Process the LLM reply asynchronously — always queue a response
                 BotBrain.processChatCommand(targetBotName, playerName, command, pair)
                     .thenAccept(willObey -> {
@@ -0,0 +1,92 @@
+package com.shayneomac08.automated_minecraft_bots.event;
+
+import com.shayneomac08.automated_minecraft_bots.pathfinding.NavFlags;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.NavigationGrid;
+import com.shayneomac08.automated_minecraft_bots.pathfinding.SectionGraph;
+import com.shayneomac08.automated_minecraft_bots.world.ResourceIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+/**
+ * Keeps world caches used by bots in sync with the real world.
+ * Block updates patch the NavigationGrid in place; breaks and placements drop the
+ * affected section (the event fires around the change, so it is re-read lazily).
+ * SectionGraph clusters near any change are dropped and rebuilt on demand. The ResourceIndex
+ * follows the new state of each update and queues newly loaded chunks for indexing.
+ */
+@EventBusSubscriber(modid = "automated_minecraft_bots")
+public class WorldChangeHandler {
+
+    /** Fires after any setBlock that notifies neighbours — carries the new state. */
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+        NavigationGrid grid = NavigationGrid.existing(level);
+        if (grid != null) grid.onBlockChanged(event.getPos(), event.getState());
+        SectionGraph graph = SectionGraph.existing(level);
+        if (graph != null) graph.onBlockChanged(event.getPos());
+        ResourceIndex resources = ResourceIndex.existing(level);
+        if (resources != null) resources.onBlockChanged(event.getPos(), event.getState());
+    }
+
+    @SubscribeEvent
+    public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+        NavigationGrid grid = NavigationGrid.existing(level);
+        if (grid != null) grid.invalidate(event.getPos());
+        SectionGraph graph = SectionGraph.existing(level);
+        if (graph != null) graph.onBlockChanged(event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+        NavigationGrid grid = NavigationGrid.existing(level);
+        if (grid != null) grid.invalidate(event.getPos());
+        SectionGraph graph = SectionGraph.existing(level);
+        if (graph != null) graph.onBlockChanged(event.getPos());
+        ResourceIndex resources = ResourceIndex.existing(level);
+        if (resources != null) resources.onBlockChanged(event.getPos(), event.getPlacedBlock());
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+        ResourceIndex resources = ResourceIndex.existing(level);
+        if (resources != null) resources.onChunkLoaded(event.getChunk().getPos());
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+        NavigationGrid grid = NavigationGrid.existing(level);
+        if (grid != null) grid.onChunkUnloaded(event.getChunk().getPos());
+        SectionGraph graph = SectionGraph.existing(level);
+        if (graph != null) graph.onChunkUnloaded(event.getChunk().getPos());
+        ResourceIndex resources = ResourceIndex.existing(level);
+        if (resources != null) resources.onChunkUnloaded(event.getChunk().getPos());
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            NavigationGrid.discard(level);
+            SectionGraph.discard(level);
+            ResourceIndex.discard(level);
+        }
+    }
+
+    /** Fence/wall/log/ore tags may have changed — every cached classification is suspect. */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        NavFlags.clearCache();
+        NavigationGrid.discardAll();
+        SectionGraph.discardAll();
+        ResourceIndex.discardAll();
+    }
+}
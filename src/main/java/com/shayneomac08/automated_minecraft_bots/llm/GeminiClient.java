@@ -1,17 +1,15 @@
 package com.shayneomac08.automated_minecraft_bots.llm;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class GeminiClient {
     private final String apiKey;
     private final String model;
-    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
 
     public GeminiClient(String apiKey, String model) {
         this.apiKey = apiKey;
@@ -19,6 +17,10 @@ public class GeminiClient {
     }
 
     public String chat(List<Map<String, String>> messages, int maxTokens) throws IOException, InterruptedException {
+        return LlmTransport.await(chatAsync(messages, maxTokens));
+    }
+
+    public CompletableFuture<String> chatAsync(List<Map<String, String>> messages, int maxTokens) {
         // Convert messages to Gemini format
         StringBuilder contentBuilder = new StringBuilder();
         for (Map<String, String> msg : messages) {
@@ -46,24 +48,20 @@ public class GeminiClient {
             )
         ));
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
-
-        HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpRequest request = LlmTransport.jsonPost(
+                "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey,
+                requestBody).build();
 
-        if (response.statusCode() != 200) {
-            throw new IOException("Gemini API error: " + response.statusCode() + " - " + response.body());
-        }
+        return LlmTransport.send(request, "Gemini", GeminiClient::extractText);
+    }
 
+    private static String extractText(String body) {
         // Parse response
-        Map<String, Object> json = SimpleJson.parseObject(response.body());
+        Map<String, Object> json = SimpleJson.parseObject(body);
         @SuppressWarnings("unchecked")
         List<Map<String, Object>> candidates = (List<Map<String, Object>>) json.get("candidates");
         if (candidates == null || candidates.isEmpty()) {
-            throw new IOException("No response from Gemini");
+            throw new CompletionException(new IOException("No response from Gemini"));
         }
 
         @SuppressWarnings("unchecked")
@@ -71,7 +69,7 @@ public class GeminiClient {
         @SuppressWarnings("unchecked")
         List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
         if (parts == null || parts.isEmpty()) {
-            throw new IOException("No text in Gemini response");
+            throw new CompletionException(new IOException("No text in Gemini response"));
         }
 
         return (String) parts.getFirst().get("text");
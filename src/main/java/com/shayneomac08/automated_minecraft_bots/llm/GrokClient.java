@@ -1,17 +1,14 @@
 package com.shayneomac08.automated_minecraft_bots.llm;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class GrokClient {
     private final String apiKey;
     private final String model;
-    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
 
     public GrokClient(String apiKey, String model) {
         this.apiKey = apiKey;
@@ -19,6 +16,10 @@ public class GrokClient {
     }
 
     public String chat(List<Map<String, String>> messages, int maxTokens) throws IOException, InterruptedException {
+        return LlmTransport.await(chatAsync(messages, maxTokens));
+    }
+
+    public CompletableFuture<String> chatAsync(List<Map<String, String>> messages, int maxTokens) {
         // Grok uses OpenAI-compatible API format
         String requestBody = SimpleJson.toJson(Map.of(
             "model", model,
@@ -27,22 +28,12 @@ public class GrokClient {
             "temperature", 0.7
         ));
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.x.ai/v1/chat/completions"))
-                .header("Content-Type", "application/json")
+        HttpRequest request = LlmTransport.jsonPost("https://api.x.ai/v1/chat/completions", requestBody)
                 .header("Authorization", "Bearer " + apiKey)
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                 .build();
 
-        HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-
-        String rawResponse = response.body();
-
-        if (response.statusCode() != 200) {
-            throw new IOException("Grok API error: " + response.statusCode() + " - " + rawResponse);
-        }
-
         // Use shared robust Gson-based extraction (OpenAI-compatible format)
-        return LlmResponseParser.extractAssistantContent(rawResponse, "Grok");
+        return LlmTransport.send(request, "Grok",
+                rawResponse -> LlmResponseParser.extractAssistantContent(rawResponse, "Grok"));
     }
 }
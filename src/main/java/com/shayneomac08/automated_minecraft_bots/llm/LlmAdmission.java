@@ -0,0 +1,393 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for LLM requests, one lane per {@link LLMProvider}.
+ *
+ * A request waits in its provider's queue until the lane has a free in-flight slot and its
+ * requests-per-minute and tokens-per-minute buckets can pay for it. Waiting requests are kept
+ * per caller (bot name) and served round-robin, so one chatty bot cannot starve the rest. A 429
+ * from the provider pauses the lane with a doubling cool-down. {@link #thinkDelayTicks} turns the
+ * lane's queue depth, latency and cool-down into a think cadence for BotBrain, so bots ask less
+ * often while a provider is saturated instead of piling more requests into the queue.
+ * {@link #latencyPercentileMs} reports the recent end-to-end reply time (queue wait included),
+ * which BotBrain uses to time speculative thinks.
+ *
+ * Lanes are locked individually; completions arrive on transport threads.
+ */
+public final class LlmAdmission {
+
+    /** Queued requests allowed per in-flight slot before new ones are rejected. */
+    private static final int QUEUE_PER_SLOT = 8;
+    /** Bucket capacity as a fraction of the per-minute limit (15 s of burst). */
+    private static final double BURST_FRACTION = 0.25;
+    /** Replies slower than this start stretching the think cadence. */
+    private static final double TARGET_LATENCY_MS = 4000;
+    /** Cap on how far the think cadence is stretched. */
+    private static final int MAX_STRETCH = 8;
+    private static final long COOL_DOWN_MIN_MS = 5_000;
+    private static final long COOL_DOWN_MAX_MS = 60_000;
+    private static final long MINUTE_NANOS = 60_000_000_000L;
+    /** Recent successful replies kept per lane for latency percentiles. */
+    private static final int LATENCY_SAMPLES = 64;
+
+    private static final Map<LLMProvider, Lane> LANES = new EnumMap<>(LLMProvider.class);
+
+    static {
+        for (LLMProvider p : LLMProvider.values()) LANES.put(p, new Lane(p));
+    }
+
+    private LlmAdmission() {}
+
+    /**
+     * Queues {@code call} on {@code provider}'s lane and runs it once admitted. The returned
+     * future completes with the call's result, or fails with RejectedExecutionException if the
+     * lane's queue is full. Cancelling it (or letting a deadline expire on it) drops the request
+     * if it is still queued and aborts the call if it is in flight; the time and tokens spent on
+     * an aborted call are counted as wasted in the lane's stats.
+     */
+    public static <T> CompletableFuture<T> submit(LLMProvider provider, String caller, int estimatedTokens,
+                                                  Supplier<CompletableFuture<T>> call) {
+        Lane lane = LANES.get(provider);
+        Waiter<T> w = new Waiter<>(caller == null ? "" : caller, estimatedTokens, call);
+        synchronized (lane) {
+            if (lane.queued >= lane.queueCap()) {
+                lane.rejected++;
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        provider + " request queue is full (" + lane.queued + " waiting)"));
+            }
+            lane.enqueue(w);
+        }
+        // A request given up on while still queued leaves the queue at once, freeing its place
+        w.result.whenComplete((v, err) -> {
+            if (err != null) lane.withdraw(w);
+        });
+        lane.pump();
+        return w.result;
+    }
+
+    /** Rough token cost of a request: ~4 characters per prompt token plus the output limit. */
+    public static int estimateTokens(String prompt, int maxTokens) {
+        return (prompt == null ? 0 : prompt.length() / 4) + maxTokens;
+    }
+
+    /** Admits whatever the refilled buckets now allow. Called every server tick from BotTicker. */
+    public static void tick() {
+        for (Lane lane : LANES.values()) lane.pump();
+    }
+
+    /** True if a new request for {@code provider} would be rejected right now. */
+    public static boolean saturated(LLMProvider provider) {
+        Lane lane = LANES.get(provider);
+        synchronized (lane) {
+            return lane.queued >= lane.queueCap();
+        }
+    }
+
+    /**
+     * {@code baseTicks} stretched by how loaded {@code provider} is: by the queue depth in
+     * in-flight slots, by how far the average latency exceeds the target, and at least to the
+     * end of any 429 cool-down.
+     */
+    public static int thinkDelayTicks(LLMProvider provider, int baseTicks) {
+        Lane lane = LANES.get(provider);
+        synchronized (lane) {
+            double stretch = 1.0 + lane.queued / (double) lane.maxInFlight();
+            if (lane.latencyMs > TARGET_LATENCY_MS) {
+                stretch = Math.max(stretch, lane.latencyMs / TARGET_LATENCY_MS);
+            }
+            int delay = (int) Math.round(baseTicks * Math.min(stretch, MAX_STRETCH));
+            long coolLeftMs = (lane.coolUntil - System.nanoTime()) / 1_000_000L;
+            if (coolLeftMs > 0) delay = Math.max(delay, (int) (coolLeftMs / 50) + 1);
+            return delay;
+        }
+    }
+
+    /**
+     * The {@code q} quantile (0..1) of {@code provider}'s recent end-to-end reply times in ms,
+     * measured from submit to completion so queue wait is included; -1 before any reply.
+     */
+    public static double latencyPercentileMs(LLMProvider provider, double q) {
+        Lane lane = LANES.get(provider);
+        synchronized (lane) {
+            return lane.percentile(q);
+        }
+    }
+
+    /**
+     * Drops every queued request and resets the lanes. Called when the server stops. Calls already
+     * in flight keep their slots until they complete, so the lane can't over-admit after a restart.
+     */
+    public static void clear() {
+        for (Lane lane : LANES.values()) {
+            List<Waiter<?>> dropped;
+            synchronized (lane) {
+                dropped = lane.drain();
+                lane.reset();
+            }
+            for (Waiter<?> w : dropped) w.result.completeExceptionally(new CancellationException("server stopping"));
+        }
+    }
+
+    /** One "llm &lt;provider&gt;: ..." line per provider that has seen traffic, for /amb stats. */
+    public static List<String> statsLines() {
+        List<String> lines = new ArrayList<>();
+        for (Lane lane : LANES.values()) {
+            synchronized (lane) {
+                if (lane.admitted == 0 && lane.rejected == 0 && lane.queued == 0) continue;
+                lane.trimStarts(System.nanoTime());
+                double avgWaitMs = lane.admitted == 0 ? 0 : lane.waitNanos / 1e6 / lane.admitted;
+                lines.add(String.format("llm %s: queue %d/%d, in flight %d/%d, rpm %d/%d, admitted %d, rejected %d, "
+                                + "429s %d, failed %d, dropped %d, aborted %d (%.0fs, ~%d tokens wasted), "
+                                + "wait avg %.0fms, latency %.1fs (p50 %.1fs, p90 %.1fs)%s",
+                        lane.provider, lane.queued, lane.queueCap(), lane.inFlight, lane.maxInFlight(),
+                        lane.starts.size(), lane.rpm(), lane.admitted, lane.rejected, lane.rateLimited,
+                        lane.failed, lane.dropped, lane.aborted, lane.wastedNanos / 1e9, lane.wastedTokens,
+                        avgWaitMs, lane.latencyMs / 1000.0,
+                        Math.max(0, lane.percentile(0.5)) / 1000.0, Math.max(0, lane.percentile(0.9)) / 1000.0,
+                        lane.coolUntil > System.nanoTime() ? " (cooling down)" : ""));
+            }
+        }
+        if (lines.isEmpty()) lines.add("llm: no requests yet");
+        return lines;
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private static final class Waiter<T> {
+        final String caller;
+        final int tokens;
+        final Supplier<CompletableFuture<T>> call;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+        long startedAt;
+
+        Waiter(String caller, int tokens, Supplier<CompletableFuture<T>> call) {
+            this.caller = caller;
+            this.tokens = tokens;
+            this.call = call;
+        }
+    }
+
+    private static final class Lane {
+        final LLMProvider provider;
+        /** Waiting requests per caller; iteration order is the round-robin order. */
+        final LinkedHashMap<String, ArrayDeque<Waiter<?>>> queues = new LinkedHashMap<>();
+        /** Admission times over the last minute, for the observed rate. */
+        final ArrayDeque<Long> starts = new ArrayDeque<>();
+        int queued;
+        int inFlight;
+        double requestBucket = -1;   // -1 = fill on first refill
+        double tokenBucket;
+        long lastRefill;
+        long coolUntil;
+        long coolDownMs;
+        double latencyMs;
+        /** Ring of end-to-end reply times in ms; {@code samples} of them are valid. */
+        final double[] totalMs = new double[LATENCY_SAMPLES];
+        int samples, nextSample;
+        long admitted, rejected, rateLimited, failed, waitNanos;
+        /** Abandoned while queued (no cost) / while in flight (cost counted as wasted). */
+        long dropped, aborted, wastedNanos, wastedTokens;
+
+        Lane(LLMProvider provider) {
+            this.provider = provider;
+        }
+
+        int maxInFlight() {
+            return limit(BotConfig.LLM_MAX_IN_FLIGHT, 4);
+        }
+
+        int rpm() {
+            return limit(BotConfig.LLM_REQUESTS_PER_MINUTE, 60);
+        }
+
+        int tpm() {
+            return limit(BotConfig.LLM_TOKENS_PER_MINUTE, 100_000);
+        }
+
+        int queueCap() {
+            return maxInFlight() * QUEUE_PER_SLOT;
+        }
+
+        private int limit(Map<String, ModConfigSpec.IntValue> values, int fallback) {
+            ModConfigSpec.IntValue v = values.get(provider.getId());
+            return v == null ? fallback : v.get();
+        }
+
+        void enqueue(Waiter<?> w) {
+            queues.computeIfAbsent(w.caller, k -> new ArrayDeque<>()).add(w);
+            queued++;
+        }
+
+        /** Removes and returns the next waiter in round-robin order, moving its caller to the back. */
+        Waiter<?> pollNext() {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter<?>>>> it = queues.entrySet().iterator();
+            if (!it.hasNext()) return null;
+            Map.Entry<String, ArrayDeque<Waiter<?>>> e = it.next();
+            Waiter<?> w = e.getValue().poll();
+            it.remove();
+            if (!e.getValue().isEmpty()) queues.put(e.getKey(), e.getValue());
+            queued--;
+            return w;
+        }
+
+        /** Removes {@code w} if it is still waiting, counting it as dropped. */
+        synchronized void withdraw(Waiter<?> w) {
+            ArrayDeque<Waiter<?>> q = queues.get(w.caller);
+            if (q == null || !q.remove(w)) return;   // already admitted or drained
+            if (q.isEmpty()) queues.remove(w.caller);
+            queued--;
+            dropped++;
+        }
+
+        Waiter<?> peekNext() {
+            Iterator<ArrayDeque<Waiter<?>>> it = queues.values().iterator();
+            return it.hasNext() ? it.next().peek() : null;
+        }
+
+        List<Waiter<?>> drain() {
+            List<Waiter<?>> all = new ArrayList<>();
+            for (ArrayDeque<Waiter<?>> q : queues.values()) all.addAll(q);
+            queues.clear();
+            queued = 0;
+            return all;
+        }
+
+        void reset() {
+            starts.clear();
+            requestBucket = -1;
+            coolUntil = 0;
+            coolDownMs = 0;
+            latencyMs = 0;
+            samples = nextSample = 0;
+            admitted = rejected = rateLimited = failed = waitNanos = 0;
+            dropped = aborted = wastedNanos = wastedTokens = 0;
+        }
+
+        private void refill(long now) {
+            double rCap = Math.max(1.0, rpm() * BURST_FRACTION);
+            double tCap = Math.max(1.0, tpm() * BURST_FRACTION);
+            if (requestBucket < 0) {
+                requestBucket = rCap;
+                tokenBucket = tCap;
+            } else {
+                double minutes = (now - lastRefill) / (double) MINUTE_NANOS;
+                requestBucket = Math.min(rCap, requestBucket + minutes * rpm());
+                tokenBucket = Math.min(tCap, tokenBucket + minutes * tpm());
+            }
+            lastRefill = now;
+        }
+
+        void trimStarts(long now) {
+            while (!starts.isEmpty() && now - starts.peekFirst() > MINUTE_NANOS) starts.pollFirst();
+        }
+
+        /** Admits what the limits allow and starts those calls outside the lock. */
+        void pump() {
+            List<Waiter<?>> ready = null;
+            synchronized (this) {
+                if (queued == 0) return;
+                long now = System.nanoTime();
+                refill(now);
+                int max = maxInFlight();
+                while (queued > 0 && inFlight < max && now >= coolUntil) {
+                    Waiter<?> w = peekNext();
+                    if (w.result.isDone()) {   // given up on just now; withdraw() may not have run yet
+                        pollNext();
+                        dropped++;
+                        continue;
+                    }
+                    // A request larger than the whole bucket only needs a full bucket
+                    double cost = Math.min(w.tokens, Math.max(1.0, tpm() * BURST_FRACTION));
+                    if (requestBucket < 1.0 || tokenBucket < cost) break;
+                    pollNext();
+                    requestBucket -= 1.0;
+                    tokenBucket -= cost;
+                    inFlight++;
+                    admitted++;
+                    waitNanos += now - w.enqueuedAt;
+                    starts.addLast(now);
+                    w.startedAt = now;
+                    if (ready == null) ready = new ArrayList<>();
+                    ready.add(w);
+                }
+                trimStarts(now);
+            }
+            if (ready != null) {
+                for (Waiter<?> w : ready) start(w);
+            }
+        }
+
+        private <T> void start(Waiter<T> w) {
+            CompletableFuture<T> call;
+            try {
+                call = w.call.get();
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            // The caller giving up on the result aborts the call
+            LlmTransport.cancelUpstream(w.result, call);
+            call.whenComplete((value, err) -> {
+                finished(w, err);
+                if (err != null) w.result.completeExceptionally(LlmTransport.rootCause(err));
+                else w.result.complete(value);
+                pump();
+            });
+        }
+
+        double percentile(double q) {
+            if (samples == 0) return -1;
+            double[] sorted = Arrays.copyOf(totalMs, samples);
+            Arrays.sort(sorted);
+            int i = (int) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * samples) - 1;
+            return sorted[Math.max(0, i)];
+        }
+
+        private synchronized void finished(Waiter<?> w, Throwable err) {
+            long now = System.nanoTime();
+            inFlight--;
+            if (err != null && LlmTransport.isAbandoned(err)) {
+                // Nobody wanted the reply any more; the time and prompt were spent for nothing
+                aborted++;
+                wastedNanos += now - w.startedAt;
+                wastedTokens += w.tokens;
+                return;
+            }
+            double ms = (now - w.startedAt) / 1e6;
+            latencyMs = latencyMs == 0 ? ms : latencyMs * 0.8 + ms * 0.2;
+            if (err == null) {
+                totalMs[nextSample] = (now - w.enqueuedAt) / 1e6;
+                nextSample = (nextSample + 1) % LATENCY_SAMPLES;
+                samples = Math.min(samples + 1, LATENCY_SAMPLES);
+                coolDownMs = 0;
+                return;
+            }
+            if (LlmTransport.rootCause(err) instanceof LlmTransport.HttpStatusException http && http.status() == 429) {
+                rateLimited++;
+                coolDownMs = coolDownMs == 0 ? COOL_DOWN_MIN_MS : Math.min(coolDownMs * 2, COOL_DOWN_MAX_MS);
+                coolUntil = now + coolDownMs * 1_000_000L;
+                requestBucket = 0;
+                System.out.println("[AMB-LLM] " + provider + " rate limited (429) — pausing requests for "
+                        + coolDownMs / 1000 + "s");
+            } else {
+                failed++;
+            }
+        }
+    }
+}
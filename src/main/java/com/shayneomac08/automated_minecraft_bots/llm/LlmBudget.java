@@ -0,0 +1,163 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-bot and per-tribe LLM spend budgets, and the model each bot's calls go to.
+ *
+ * A bot's load is its last-hour spend ({@link LlmUsage}) as a share of llm_bot_budget_per_hour,
+ * or its tribe's as a share of llm_tribe_budget_per_hour, whichever is higher. At 100% the bot's
+ * calls move to its provider's cheaper model from llm_budget_models; at {@link #LOCAL_FACTOR}
+ * times the budget, or at 100% when its provider has no cheaper model, its thinks go to the
+ * local planner and only chat replies still reach the LLM. A bot steps back once its load falls
+ * below {@link #RESTORE_FRACTION} of the step's threshold, so it doesn't flap at the boundary;
+ * spending less lets the rolling hour drain, so this happens by itself.
+ *
+ * Tiers are re-evaluated on every call and every think, from whichever thread makes them.
+ */
+public final class LlmBudget {
+
+    /** How far a bot has been moved off its normal model. */
+    public enum Tier {
+        /** The provider's normal model. */
+        FULL,
+        /** The provider's cheaper model from llm_budget_models. */
+        CHEAP,
+        /** Thinks go to the local planner. */
+        LOCAL
+    }
+
+    /** Load (share of budget) at which a bot's thinks go to the local planner. */
+    private static final double LOCAL_FACTOR = 2.0;
+    /** A bot steps back once its load is below this share of its tier's threshold. */
+    private static final double RESTORE_FRACTION = 0.8;
+
+    private static final Map<String, Tier> TIERS = new ConcurrentHashMap<>();
+    private static final AtomicLong DOWNGRADES = new AtomicLong();
+    private static final AtomicLong RESTORES = new AtomicLong();
+
+    private LlmBudget() {}
+
+    /** The model {@code caller}'s next call on {@code provider} should ask for. */
+    static String model(String caller, LLMProvider provider) {
+        if (tier(caller) != Tier.FULL) {
+            String cheap = cheapModel(provider);
+            if (cheap != null) return cheap;
+        }
+        return LLMClient.defaultModel(provider);
+    }
+
+    /** True if {@code caller}'s thinks should go to the local planner instead of {@code provider}. */
+    public static boolean localOnly(String caller, LLMProvider provider) {
+        Tier t = tier(caller);
+        return t == Tier.LOCAL || (t == Tier.CHEAP && cheapModel(provider) == null);
+    }
+
+    /** {@code caller}'s tier after applying its current load. Callers without a name are never limited. */
+    public static Tier tier(String caller) {
+        if (caller == null || caller.isEmpty()) return Tier.FULL;
+        double botLoad = botLoad(LlmUsage.lastHour(caller));
+        String tribe = LlmUsage.tribeOf(caller);
+        double tribeLoad = tribe == null ? 0 : tribeLoad(LlmUsage.tribeLastHour(tribe));
+        double load = Math.max(botLoad, tribeLoad);
+        Tier target = load >= LOCAL_FACTOR ? Tier.LOCAL : load >= 1.0 ? Tier.CHEAP : Tier.FULL;
+        Tier[] change = new Tier[2];
+        Tier now = TIERS.compute(caller, (k, was) -> {
+            Tier from = was == null ? Tier.FULL : was;
+            Tier to = from;
+            if (target.ordinal() > from.ordinal()) to = target;
+            else if (target.ordinal() < from.ordinal() && load < RESTORE_FRACTION * threshold(from)) to = target;
+            if (to != from) {
+                change[0] = from;
+                change[1] = to;
+            }
+            return to == Tier.FULL ? null : to;
+        });
+        if (change[0] != null) {
+            String who = botLoad >= tribeLoad ? "its" : "tribe " + tribe + "'s";
+            if (change[1].ordinal() > change[0].ordinal()) DOWNGRADES.incrementAndGet();
+            else RESTORES.incrementAndGet();
+            System.out.println("[AMB-LLM] Budget: " + caller + " at " + Math.round(load * 100) + "% of " + who
+                    + " hourly LLM budget — " + switch (change[1]) {
+                        case FULL -> "normal models restored";
+                        case CHEAP -> "calls move to the cheaper model where llm_budget_models has one";
+                        case LOCAL -> "thinks go to the local planner";
+                    });
+        }
+        return now == null ? Tier.FULL : now;
+    }
+
+    /** {@code provider}'s entry in llm_budget_models, or null if it has none. */
+    static String cheapModel(LLMProvider provider) {
+        for (String entry : BotConfig.LLM_BUDGET_MODELS.get().split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) continue;
+            if (entry.substring(0, eq).trim().toLowerCase(Locale.ROOT).equals(provider.getId())) {
+                String model = entry.substring(eq + 1).trim();
+                return model.isEmpty() ? null : model;
+            }
+        }
+        return null;
+    }
+
+    private static double threshold(Tier tier) {
+        return tier == Tier.LOCAL ? LOCAL_FACTOR : 1.0;
+    }
+
+    private static double botLoad(LlmUsage.Totals hour) {
+        double budget = BotConfig.LLM_BOT_BUDGET.get();
+        return budget > 0 ? hour.cost() / budget : 0;
+    }
+
+    private static double tribeLoad(LlmUsage.Totals hour) {
+        double budget = BotConfig.LLM_TRIBE_BUDGET.get();
+        return budget > 0 ? hour.cost() / budget : 0;
+    }
+
+    // ── Reporting ─────────────────────────────────────────────────────────────
+
+    /** " (N% of budget, on ...)" for a bot's /amb usage line; empty with no bot budget and no downgrade. */
+    static String describeBot(String caller, LlmUsage.Totals hour) {
+        Tier t = TIERS.getOrDefault(caller, Tier.FULL);
+        double budget = BotConfig.LLM_BOT_BUDGET.get();
+        String share = budget > 0 ? Math.round(100 * hour.cost() / budget) + "% of budget" : "";
+        String tier = switch (t) {
+            case FULL -> "";
+            case CHEAP -> "on the cheaper model";
+            case LOCAL -> "local planner only";
+        };
+        if (share.isEmpty() && tier.isEmpty()) return "";
+        return " (" + share + (share.isEmpty() || tier.isEmpty() ? "" : ", ") + tier + ")";
+    }
+
+    /** " (N% of budget)" for a tribe's /amb usage line; empty with no tribe budget. */
+    static String describeTribe(LlmUsage.Totals hour) {
+        double budget = BotConfig.LLM_TRIBE_BUDGET.get();
+        return budget > 0 ? " (" + Math.round(100 * hour.cost() / budget) + "% of budget)" : "";
+    }
+
+    /** Forgets every tier and zeroes the counters. Called when the server stops. */
+    public static void clear() {
+        TIERS.clear();
+        DOWNGRADES.set(0);
+        RESTORES.set(0);
+    }
+
+    /** "llm-budget: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        int cheap = 0, local = 0;
+        for (Tier t : TIERS.values()) {
+            if (t == Tier.CHEAP) cheap++;
+            else if (t == Tier.LOCAL) local++;
+        }
+        double bot = BotConfig.LLM_BOT_BUDGET.get(), tribe = BotConfig.LLM_TRIBE_BUDGET.get();
+        return String.format("llm-budget: bot %s, tribe %s, %d bots on cheaper models, %d on the local planner, %d downgrades, %d restores",
+                bot > 0 ? String.format("$%.2f/h", bot) : "unlimited", tribe > 0 ? String.format("$%.2f/h", tribe) : "unlimited",
+                cheap, local, DOWNGRADES.get(), RESTORES.get());
+    }
+}
@@ -7,10 +7,10 @@ import com.shayneomac08.automated_minecraft_bots.BotConfig;
 import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 // Package-private interface implemented by OpenAIResponsesClient.
 interface LlmClient {
@@ -20,11 +20,14 @@ interface LlmClient {
 /**
  * Unified LLM query client.
  * Routes to Grok, OpenAI, Gemini, Claude, or Ollama.
+ * Requests go through {@link LlmTransport}; {@link #queryAsync} never blocks the caller.
+ * {@link LlmRouter} picks the provider that answers (failover, hedging), and {@link LlmTrace}
+ * can record every call or answer it from a recording instead. Each call's token usage is read
+ * from the response and charged to the caller by {@link LlmUsage}; {@link LlmBudget} picks the
+ * model, moving callers over budget to a cheaper one.
  */
 public class LLMClient {
 
-    private static final HttpClient HTTP = HttpClient.newHttpClient();
-
     private LLMClient() {}
 
     /** Query using the global BotConfig provider with a 20-token limit. */
@@ -32,53 +35,208 @@ public class LLMClient {
         return query(prompt, BotConfig.LLM_PROVIDER.get(), 20);
     }
 
-    /** Query using an explicit provider string and token limit. */
+    /** Query using an explicit provider string and token limit, blocking until the reply arrives. */
     public static String query(String prompt, String provider, int maxTokens)
             throws IOException, InterruptedException {
+        return LlmTransport.await(queryAsync(prompt, provider, maxTokens));
+    }
+
+    /** Query without blocking, queued behind other callers of the same provider. */
+    public static CompletableFuture<String> queryAsync(String prompt, String provider, int maxTokens) {
+        return queryAsync(prompt, provider, maxTokens, "");
+    }
+
+    /**
+     * Query without blocking; the future completes on a transport virtual thread. The request
+     * waits for admission on its provider's lane, where {@code caller} (usually the bot name)
+     * gets a fair share of the provider's limits.
+     */
+    public static CompletableFuture<String> queryAsync(String prompt, String provider, int maxTokens, String caller) {
+        return queryAsync(null, prompt, provider, maxTokens, caller);
+    }
+
+    /**
+     * As above with a separate system prompt. Callers should pass the same {@code system} string
+     * on every call: it is sent ahead of the prompt as the providers' cacheable prefix (a system
+     * message for OpenAI-compatible APIs, a cache_control block for Claude, systemInstruction for
+     * Gemini), so repeat calls are billed and processed as cache reads.
+     */
+    public static CompletableFuture<String> queryAsync(String system, String prompt, String provider,
+                                                       int maxTokens, String caller) {
+        return queryAsync(system, prompt, provider, maxTokens, caller, null);
+    }
+
+    /**
+     * As above, asking the provider to answer in {@code schema}'s shape with its native
+     * structured-output mode (see {@link StructuredOutput}); null for free text.
+     */
+    public static CompletableFuture<String> queryAsync(String system, String prompt, String provider, int maxTokens,
+                                                       String caller, StructuredOutput.Schema schema) {
+        int tokens = LlmAdmission.estimateTokens(prompt, maxTokens)
+                + (system == null ? 0 : LlmAdmission.estimateTokens(system, 0));
+        return LlmRouter.call(providerOf(provider), attempt -> {
+            LLMProvider lane = attempt.provider();
+            String model = LlmBudget.model(caller, lane);
+            LlmUsage.Meter meter = LlmUsage.meter(caller, model);
+            return LlmUsage.charge(meter, system, prompt, LlmAdmission.submit(lane, caller, tokens,
+                    () -> LlmTrace.around(lane, system, prompt, maxTokens, () -> switch (lane) {
+                        case OPENAI -> queryOpenAI(model, system, prompt, maxTokens, schema, meter);
+                        case GEMINI -> queryGemini(model, system, prompt, maxTokens, schema, meter);
+                        case CLAUDE -> queryClaude(model, system, prompt, maxTokens, schema, meter);
+                        case OLLAMA -> queryOllama(model, system, prompt, maxTokens, schema, meter);
+                        case GROK   -> queryGrok(model, system, prompt, maxTokens, schema, meter);
+                    })));
+        });
+    }
+
+    /** The provider a config string routes to; unrecognised strings go to Grok. */
+    public static LLMProvider providerOf(String provider) {
         return switch (provider.toLowerCase().trim()) {
-            case "openai"  -> queryOpenAI(prompt, maxTokens);
-            case "gemini"  -> queryGemini(prompt, maxTokens);
-            case "claude"  -> queryClaude(prompt, maxTokens);
-            case "ollama"  -> queryOllama(prompt, maxTokens);
-            default        -> queryGrok(prompt, maxTokens);   // "grok" + unrecognised
+            case "openai"  -> LLMProvider.OPENAI;
+            case "gemini"  -> LLMProvider.GEMINI;
+            case "claude"  -> LLMProvider.CLAUDE;
+            case "ollama"  -> LLMProvider.OLLAMA;
+            default        -> LLMProvider.GROK;   // "grok" + unrecognised
+        };
+    }
+
+    /** The model {@code provider} is asked for unless {@link LlmBudget} moves the caller to a cheaper one. */
+    static String defaultModel(LLMProvider provider) {
+        return switch (provider) {
+            case GROK   -> BotConfig.GROK_MODEL.get();
+            case OPENAI -> "gpt-4o-mini";
+            case GEMINI -> "gemini-2.0-flash";
+            case CLAUDE -> "claude-sonnet-4-20250514";
+            case OLLAMA -> "llama3";
         };
     }
 
+    /**
+     * Streams the reply instead of waiting for all of it. {@code onText} receives each piece of
+     * assistant text as the provider sends it (on a transport thread); the future completes with
+     * the whole text. Admission, system prompt, caching and {@code schema} behave as in
+     * {@link #queryAsync}; with a schema the streamed text is the JSON reply itself (for Claude, the
+     * forced tool call's input).
+     */
+    public static CompletableFuture<String> streamAsync(String system, String prompt, String provider, int maxTokens,
+                                                        String caller, StructuredOutput.Schema schema,
+                                                        Consumer<String> onText) {
+        int tokens = LlmAdmission.estimateTokens(prompt, maxTokens)
+                + (system == null ? 0 : LlmAdmission.estimateTokens(system, 0));
+        return LlmRouter.call(providerOf(provider), attempt -> {
+            LLMProvider lane = attempt.provider();
+            String model = LlmBudget.model(caller, lane);
+            LlmUsage.Meter meter = LlmUsage.meter(caller, model);
+            // Only the attempt that produces text first reaches the caller; a hedged loser is cancelled
+            Consumer<String> text = piece -> {
+                if (attempt.claim()) onText.accept(piece);
+            };
+            return LlmUsage.charge(meter, system, prompt, LlmAdmission.submit(lane, caller, tokens,
+                    () -> LlmTrace.around(lane, system, prompt, maxTokens, text, () -> {
+                StringBuilder full = new StringBuilder();
+                Consumer<String> sink = piece -> {
+                    full.append(piece);
+                    text.accept(piece);
+                };
+                CompletableFuture<Void> done = switch (lane) {
+                    case OPENAI -> LlmTransport.stream(openAIRequest(model, system, prompt, maxTokens, true, schema), "OpenAI",
+                            line -> emit(openAICompatibleDelta(line, meter), sink));
+                    case GEMINI -> LlmTransport.stream(geminiRequest(model, system, prompt, maxTokens, true, schema), "Gemini",
+                            line -> emit(geminiDelta(line, meter), sink));
+                    case CLAUDE -> LlmTransport.stream(claudeRequest(model, system, prompt, maxTokens, true, schema), "Claude",
+                            line -> emit(claudeDelta(line, meter), sink));
+                    case OLLAMA -> LlmTransport.stream(ollamaRequest(model, system, prompt, maxTokens, true, schema), "Ollama",
+                            line -> emit(ollamaDelta(line, meter), sink));
+                    case GROK   -> LlmTransport.stream(grokRequest(model, system, prompt, maxTokens, true, schema), "Grok",
+                            line -> emit(openAICompatibleDelta(line, meter), sink));
+                };
+                return LlmTransport.cancelUpstream(done.thenApply(v -> full.toString()), done);
+            })));
+        });
+    }
+
     // ── Grok ──────────────────────────────────────────────────────────────────
 
-    private static String queryGrok(String prompt, int maxTokens) throws IOException, InterruptedException {
-        String body = buildOpenAICompatibleBody(BotConfig.GROK_MODEL.get(), prompt, maxTokens);
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(BotConfig.GROK_API_URL.get()))
-                .header("Content-Type", "application/json")
+    private static CompletableFuture<String> queryGrok(String model, String system, String prompt, int maxTokens,
+                                                       StructuredOutput.Schema schema, LlmUsage.Meter meter) {
+        return LlmTransport.send(grokRequest(model, system, prompt, maxTokens, false, schema), "Grok",
+                resp -> parseOpenAICompatible(resp, "Grok", meter));
+    }
+
+    private static HttpRequest grokRequest(String model, String system, String prompt, int maxTokens, boolean stream,
+                                           StructuredOutput.Schema schema) {
+        // Grok caches a repeated prefix automatically; the stable system message is that prefix
+        JsonObject root = buildOpenAICompatibleBody(model, system, prompt, maxTokens);
+        StructuredOutput.applyOpenAI(root, schema);
+        if (stream) streamWithUsage(root);
+        return LlmTransport.jsonPost(BotConfig.GROK_API_URL.get(), root.toString())
                 .header("Authorization", "Bearer " + BotConfig.GROK_API_KEY.get())
-                .POST(HttpRequest.BodyPublishers.ofString(body))
                 .build();
-        HttpResponse<String> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        checkStatus(resp, "Grok");
-        return LlmResponseParser.extractAssistantContent(resp.body(), "Grok");
     }
 
     // ── OpenAI ────────────────────────────────────────────────────────────────
 
-    private static String queryOpenAI(String prompt, int maxTokens) throws IOException, InterruptedException {
-        String body = buildOpenAICompatibleBody("gpt-4o-mini", prompt, maxTokens);
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.openai.com/v1/chat/completions"))
-                .header("Content-Type", "application/json")
+    private static CompletableFuture<String> queryOpenAI(String model, String system, String prompt, int maxTokens,
+                                                         StructuredOutput.Schema schema, LlmUsage.Meter meter) {
+        return LlmTransport.send(openAIRequest(model, system, prompt, maxTokens, false, schema), "OpenAI",
+                resp -> parseOpenAICompatible(resp, "OpenAI", meter));
+    }
+
+    private static HttpRequest openAIRequest(String model, String system, String prompt, int maxTokens, boolean stream,
+                                             StructuredOutput.Schema schema) {
+        JsonObject root = buildOpenAICompatibleBody(model, system, prompt, maxTokens);
+        if (system != null) {
+            // Same key for every call sharing this prefix, so they are routed to the same cache
+            root.addProperty("prompt_cache_key", "amb-" + Integer.toHexString(system.hashCode()));
+        }
+        StructuredOutput.applyOpenAI(root, schema);
+        if (stream) streamWithUsage(root);
+        return LlmTransport.jsonPost("https://api.openai.com/v1/chat/completions", root.toString())
                 .header("Authorization", "Bearer " + BotConfig.OPENAI_API_KEY.get())
-                .POST(HttpRequest.BodyPublishers.ofString(body))
                 .build();
-        HttpResponse<String> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        checkStatus(resp, "OpenAI");
-        return LlmResponseParser.extractAssistantContent(resp.body(), "OpenAI");
+    }
+
+    /** The reply text of a chat completion; its usage goes to {@code meter}. */
+    private static String parseOpenAICompatible(String body, String provider, LlmUsage.Meter meter) {
+        String text = LlmResponseParser.extractAssistantContent(body, provider);
+        LlmUsage.readOpenAI(JsonParser.parseString(body).getAsJsonObject(), meter);
+        return text;
+    }
+
+    /** Streams the completion and asks for a final chunk carrying the call's usage. */
+    private static void streamWithUsage(JsonObject root) {
+        JsonObject options = new JsonObject();
+        options.addProperty("include_usage", true);
+        root.addProperty("stream", true);
+        root.add("stream_options", options);
+    }
+
+    /** Text of one "data:" line of an OpenAI-compatible chat completion stream; the last chunk's usage goes to {@code meter}. */
+    private static String openAICompatibleDelta(String line, LlmUsage.Meter meter) {
+        String data = sseData(line);
+        if (data == null || data.equals("[DONE]")) return null;
+        JsonObject json = JsonParser.parseString(data).getAsJsonObject();
+        LlmUsage.readOpenAI(json, meter);
+        JsonArray choices = json.getAsJsonArray("choices");
+        if (choices == null || choices.isEmpty()) return null;
+        JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+        if (delta == null || !delta.has("content") || delta.get("content").isJsonNull()) return null;
+        return delta.get("content").getAsString();
     }
 
     // ── Gemini ────────────────────────────────────────────────────────────────
 
-    private static String queryGemini(String prompt, int maxTokens) throws IOException, InterruptedException {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/"
-                + "gemini-2.0-flash:generateContent?key=" + BotConfig.GEMINI_API_KEY.get();
+    private static CompletableFuture<String> queryGemini(String model, String system, String prompt, int maxTokens,
+                                                         StructuredOutput.Schema schema, LlmUsage.Meter meter) {
+        return LlmTransport.send(geminiRequest(model, system, prompt, maxTokens, false, schema), "Gemini",
+                body -> parseGemini(body, meter));
+    }
+
+    private static HttpRequest geminiRequest(String model, String system, String prompt, int maxTokens, boolean stream,
+                                             StructuredOutput.Schema schema) {
+        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model
+                + (stream ? ":streamGenerateContent?alt=sse&key=" : ":generateContent?key=")
+                + BotConfig.GEMINI_API_KEY.get();
 
         JsonObject part = new JsonObject();
         part.addProperty("text", prompt);
@@ -90,96 +248,202 @@ public class LLMClient {
         contents.add(contentObj);
         JsonObject genConfig = new JsonObject();
         genConfig.addProperty("maxOutputTokens", maxTokens);
+        StructuredOutput.applyGemini(genConfig, schema);
         JsonObject root = new JsonObject();
         root.add("contents", contents);
         root.add("generationConfig", genConfig);
+        if (system != null) {
+            JsonObject sysPart = new JsonObject();
+            sysPart.addProperty("text", system);
+            JsonArray sysParts = new JsonArray();
+            sysParts.add(sysPart);
+            JsonObject sysInstruction = new JsonObject();
+            sysInstruction.add("parts", sysParts);
+            root.add("systemInstruction", sysInstruction);
+        }
 
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(root.toString()))
-                .build();
-        HttpResponse<String> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        checkStatus(resp, "Gemini");
+        return LlmTransport.jsonPost(url, root.toString()).build();
+    }
 
-        JsonObject json = JsonParser.parseString(resp.body()).getAsJsonObject();
+    private static String parseGemini(String body, LlmUsage.Meter meter) {
+        JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+        LlmUsage.readGemini(json, meter);
         JsonArray candidates = json.getAsJsonArray("candidates");
         if (candidates == null || candidates.isEmpty())
-            throw new IOException("No candidates in Gemini response");
+            throw new CompletionException(new IOException("No candidates in Gemini response"));
         JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
         JsonArray partsArr = content.getAsJsonArray("parts");
         if (partsArr == null || partsArr.isEmpty())
-            throw new IOException("No parts in Gemini response");
+            throw new CompletionException(new IOException("No parts in Gemini response"));
         return partsArr.get(0).getAsJsonObject().get("text").getAsString();
     }
 
+    /**
+     * Text of one "data:" line of a Gemini SSE stream (each is a partial GenerateContentResponse,
+     * with the usage so far, which goes to {@code meter}).
+     */
+    private static String geminiDelta(String line, LlmUsage.Meter meter) {
+        String data = sseData(line);
+        if (data == null) return null;
+        JsonObject json = JsonParser.parseString(data).getAsJsonObject();
+        LlmUsage.readGemini(json, meter);
+        JsonArray candidates = json.getAsJsonArray("candidates");
+        if (candidates == null || candidates.isEmpty()) return null;
+        JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+        JsonArray partsArr = content == null ? null : content.getAsJsonArray("parts");
+        if (partsArr == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (var p : partsArr) {
+            JsonObject po = p.getAsJsonObject();
+            if (po.has("text")) sb.append(po.get("text").getAsString());
+        }
+        return sb.toString();
+    }
+
     // ── Claude ────────────────────────────────────────────────────────────────
 
-    private static String queryClaude(String prompt, int maxTokens) throws IOException, InterruptedException {
+    private static CompletableFuture<String> queryClaude(String model, String system, String prompt, int maxTokens,
+                                                         StructuredOutput.Schema schema, LlmUsage.Meter meter) {
+        return LlmTransport.send(claudeRequest(model, system, prompt, maxTokens, false, schema), "Claude",
+                body -> parseClaude(body, meter));
+    }
+
+    private static HttpRequest claudeRequest(String model, String system, String prompt, int maxTokens, boolean stream,
+                                             StructuredOutput.Schema schema) {
         JsonObject userMsg = new JsonObject();
         userMsg.addProperty("role", "user");
         userMsg.addProperty("content", prompt);
         JsonArray messages = new JsonArray();
         messages.add(userMsg);
         JsonObject root = new JsonObject();
-        root.addProperty("model", "claude-sonnet-4-20250514");
+        root.addProperty("model", model);
         root.add("messages", messages);
         root.addProperty("max_tokens", maxTokens);
+        if (stream) root.addProperty("stream", true);
+        StructuredOutput.applyClaude(root, schema);
+        if (system != null) {
+            // Mark the system block as a cache breakpoint; later calls read it from the cache
+            JsonObject cacheControl = new JsonObject();
+            cacheControl.addProperty("type", "ephemeral");
+            JsonObject sysBlock = new JsonObject();
+            sysBlock.addProperty("type", "text");
+            sysBlock.addProperty("text", system);
+            sysBlock.add("cache_control", cacheControl);
+            JsonArray sysBlocks = new JsonArray();
+            sysBlocks.add(sysBlock);
+            root.add("system", sysBlocks);
+        }
 
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.anthropic.com/v1/messages"))
-                .header("Content-Type", "application/json")
+        return LlmTransport.jsonPost("https://api.anthropic.com/v1/messages", root.toString())
                 .header("x-api-key", BotConfig.CLAUDE_API_KEY.get())
                 .header("anthropic-version", "2023-06-01")
-                .POST(HttpRequest.BodyPublishers.ofString(root.toString()))
                 .build();
-        HttpResponse<String> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        checkStatus(resp, "Claude");
+    }
 
-        JsonObject json = JsonParser.parseString(resp.body()).getAsJsonObject();
+    /** The reply text, or the input of a tool call (a structured reply) as JSON. */
+    private static String parseClaude(String body, LlmUsage.Meter meter) {
+        JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+        LlmUsage.readClaude(json, meter);
         JsonArray content = json.getAsJsonArray("content");
         if (content == null || content.isEmpty())
-            throw new IOException("No content in Claude response");
+            throw new CompletionException(new IOException("No content in Claude response"));
+        for (var b : content) {
+            JsonObject block = b.getAsJsonObject();
+            if (block.has("input") && "tool_use".equals(block.get("type").getAsString())) {
+                return block.get("input").toString();
+            }
+        }
         return content.get(0).getAsJsonObject().get("text").getAsString();
     }
 
+    /**
+     * Text of one "data:" line of a Messages stream: text_delta events, or input_json_delta
+     * events carrying a forced tool call's input (a structured reply) as it is generated. The
+     * usage in message_start and message_delta goes to {@code meter}.
+     */
+    private static String claudeDelta(String line, LlmUsage.Meter meter) {
+        String data = sseData(line);
+        if (data == null) return null;
+        JsonObject json = JsonParser.parseString(data).getAsJsonObject();
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+        if (type.equals("error")) {
+            throw new CompletionException(new IOException("Claude stream error: " + json.get("error")));
+        }
+        if (type.equals("message_start") || type.equals("message_delta")) LlmUsage.readClaude(json, meter);
+        if (!type.equals("content_block_delta")) return null;
+        JsonObject delta = json.getAsJsonObject("delta");
+        if (delta == null) return null;
+        if (delta.has("partial_json")) return delta.get("partial_json").getAsString();
+        return delta.has("text") ? delta.get("text").getAsString() : null;
+    }
+
     // ── Ollama ────────────────────────────────────────────────────────────────
 
-    private static String queryOllama(String prompt, int maxTokens) throws IOException, InterruptedException {
-        String body = buildOpenAICompatibleBody("llama3", prompt, maxTokens);
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(BotConfig.OLLAMA_URL.get() + "/api/chat"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body))
-                .build();
-        HttpResponse<String> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        checkStatus(resp, "Ollama");
+    private static CompletableFuture<String> queryOllama(String model, String system, String prompt, int maxTokens,
+                                                         StructuredOutput.Schema schema, LlmUsage.Meter meter) {
+        return LlmTransport.send(ollamaRequest(model, system, prompt, maxTokens, false, schema), "Ollama",
+                body -> parseOllama(body, meter));
+    }
 
-        JsonObject json = JsonParser.parseString(resp.body()).getAsJsonObject();
+    private static HttpRequest ollamaRequest(String model, String system, String prompt, int maxTokens, boolean stream,
+                                             StructuredOutput.Schema schema) {
+        // Ollama keeps the evaluated prefix in its KV cache while the system message is unchanged
+        JsonObject root = buildOpenAICompatibleBody(model, system, prompt, maxTokens);
+        // /api/chat streams by default; the one-shot path needs a single JSON object back
+        root.addProperty("stream", stream);
+        StructuredOutput.applyOllama(root, schema);
+        return LlmTransport.jsonPost(BotConfig.OLLAMA_URL.get() + "/api/chat", root.toString()).build();
+    }
+
+    private static String parseOllama(String body, LlmUsage.Meter meter) {
+        JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+        LlmUsage.readOllama(json, meter);
         JsonObject messageObj = json.getAsJsonObject("message");
         if (messageObj == null)
-            throw new IOException("No message object in Ollama response");
+            throw new CompletionException(new IOException("No message object in Ollama response"));
         return messageObj.get("content").getAsString();
     }
 
+    /** Text of one NDJSON line of an Ollama chat stream; the final line's counts go to {@code meter}. */
+    private static String ollamaDelta(String line, LlmUsage.Meter meter) {
+        if (line.isBlank()) return null;
+        JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+        if (json.has("error")) {
+            throw new CompletionException(new IOException("Ollama stream error: " + json.get("error").getAsString()));
+        }
+        if (json.has("done") && json.get("done").getAsBoolean()) LlmUsage.readOllama(json, meter);
+        JsonObject messageObj = json.getAsJsonObject("message");
+        return messageObj != null && messageObj.has("content") ? messageObj.get("content").getAsString() : null;
+    }
+
     // ── Helpers ───────────────────────────────────────────────────────────────
 
-    private static String buildOpenAICompatibleBody(String model, String prompt, int maxTokens) {
+    /** Payload of an SSE "data:" line, or null for other lines (event names, comments, blanks). */
+    private static String sseData(String line) {
+        if (!line.startsWith("data:")) return null;
+        return line.substring(5).trim();
+    }
+
+    private static void emit(String piece, Consumer<String> sink) {
+        if (piece != null && !piece.isEmpty()) sink.accept(piece);
+    }
+
+    private static JsonObject buildOpenAICompatibleBody(String model, String system, String prompt, int maxTokens) {
+        JsonArray messages = new JsonArray();
+        if (system != null) {
+            JsonObject systemMsg = new JsonObject();
+            systemMsg.addProperty("role", "system");
+            systemMsg.addProperty("content", system);
+            messages.add(systemMsg);
+        }
         JsonObject userMsg = new JsonObject();
         userMsg.addProperty("role", "user");
         userMsg.addProperty("content", prompt);
-        JsonArray messages = new JsonArray();
         messages.add(userMsg);
         JsonObject root = new JsonObject();
         root.addProperty("model", model);
         root.add("messages", messages);
         root.addProperty("max_tokens", maxTokens);
-        return root.toString();
-    }
-
-    private static void checkStatus(HttpResponse<String> resp, String provider) throws IOException {
-        if (resp.statusCode() != 200) {
-            throw new IOException(provider + " API error " + resp.statusCode() + ": " + resp.body());
-        }
+        return root;
     }
 }
@@ -0,0 +1,421 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A fake LLM provider on localhost, for throughput benchmarks with many bots and no API bill.
+ *
+ * Speaks the wire formats {@link LLMClient} uses, one-shot and streamed:
+ * <ul>
+ *   <li>OpenAI / Grok chat completions ({@code .../chat/completions}, SSE deltas when "stream" is set)</li>
+ *   <li>Anthropic Messages ({@code /v1/messages}, content_block_delta events; tool_use when a tool is forced)</li>
+ *   <li>Gemini ({@code :generateContent}, {@code :streamGenerateContent?alt=sse})</li>
+ *   <li>Ollama ({@code /api/chat}, NDJSON)</li>
+ * </ul>
+ * Replies come from the LLM trace when one exists and isn't being recorded (see {@link LlmTrace}),
+ * otherwise from a few canned plans and chat answers in the formats BotBrain asks for. Each reply is held back by a
+ * synthetic latency (llm_synthetic_latency_ms), spread over the chunks when streaming, and carries
+ * each format's usage block, counting ~4 characters per token.
+ *
+ * While it runs, {@link LlmTransport#jsonPost} sends every provider request here instead of the
+ * real endpoint (scheme, host and port replaced; path and query kept), so the whole stack —
+ * admission, transport, parsing, streaming — is exercised. Requests are handled on virtual
+ * threads, so hundreds of slow concurrent "generations" cost nothing.
+ */
+public final class LlmMockServer {
+
+    private static final int STREAM_CHUNK_CHARS = 16;
+
+    private static final List<String> CANNED_PLANS = List.of(
+            "{\"thought\":\"Need wood for tools first.\",\"objective\":\"craft_tools\",\"queue\":[{\"task\":\"gather_wood\",\"minutes\":3},{\"task\":\"craft\",\"minutes\":2},{\"task\":\"mine_stone\",\"minutes\":3}]}",
+            "{\"thought\":\"Stocking up on stone.\",\"objective\":\"stockpile\",\"queue\":[{\"task\":\"mine_stone\",\"minutes\":4},{\"task\":\"gather_wood\",\"minutes\":2}]}",
+            "{\"thought\":\"Have what I need, time to dig in.\",\"objective\":\"underground_base\",\"queue\":[{\"task\":\"build_underground_base\",\"minutes\":10}],\"say\":\"Starting my base!\"}",
+            "{\"thought\":\"Looking around for resources.\",\"objective\":\"explore\",\"queue\":[{\"task\":\"explore\",\"minutes\":2},{\"task\":\"gather_wood\",\"minutes\":3}]}");
+
+    private static final List<String> CANNED_CHAT = List.of(
+            "Sounds good!", "On it.", "Busy right now, but sure.", "Nice weather for mining.");
+
+    private static HttpServer server;
+    private static final AtomicLong SERVED = new AtomicLong();
+
+    private LlmMockServer() {}
+
+    /** Starts the server if llm_mock_port is set; called at server start. */
+    public static synchronized void startIfConfigured() {
+        int port = BotConfig.LLM_MOCK_PORT.get();
+        if (port <= 0 || server != null) return;
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 64);
+            s.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            s.createContext("/", LlmMockServer::handle);
+            s.start();
+            server = s;
+            System.out.println("[AMB-LLM] Mock LLM provider listening on 127.0.0.1:" + port
+                    + "; all provider requests go there until the server stops");
+        } catch (IOException | RuntimeException | LinkageError e) {
+            // LinkageError: a trimmed Java runtime without the jdk.httpserver module
+            System.err.println("[AMB-LLM] Could not start the mock LLM provider on port " + port + ": " + e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        server = null;
+        System.out.println("[AMB-LLM] Mock LLM provider stopped after " + SERVED.get() + " replies");
+    }
+
+    public static boolean isRunning() {
+        return server != null;
+    }
+
+    public static int port() {
+        HttpServer s = server;
+        return s == null ? -1 : s.getAddress().getPort();
+    }
+
+    /** {@code url} pointed at the mock while it runs; unchanged otherwise. */
+    static String route(String url) {
+        HttpServer s = server;
+        if (s == null) return url;
+        URI u = URI.create(url);
+        return "http://127.0.0.1:" + s.getAddress().getPort() + u.getRawPath()
+                + (u.getRawQuery() == null ? "" : "?" + u.getRawQuery());
+    }
+
+    // ── Request handling ──────────────────────────────────────────────────────
+
+    private static void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            String path = ex.getRequestURI().getPath();
+            JsonObject req;
+            try {
+                req = JsonParser.parseString(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                        .getAsJsonObject();
+            } catch (RuntimeException e) {
+                respond(ex, 400, "application/json", "{\"error\":{\"message\":\"request body is not a JSON object\"}}");
+                return;
+            }
+            if (path.endsWith("/chat/completions")) {
+                openAI(ex, req);
+            } else if (path.endsWith("/v1/messages")) {
+                anthropic(ex, req);
+            } else if (path.contains(":generateContent") || path.contains(":streamGenerateContent")) {
+                gemini(ex, req, path.contains(":streamGenerateContent"));
+            } else if (path.endsWith("/api/chat")) {
+                ollama(ex, req);
+            } else {
+                respond(ex, 404, "application/json", "{\"error\":{\"message\":\"mock has no " + path + "\"}}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // A request shape the mock doesn't know; the client sees the connection close
+            System.err.println("[AMB-LLM] Mock LLM provider could not answer " + ex.getRequestURI().getPath() + ": " + e);
+        }
+    }
+
+    private static void openAI(HttpExchange ex, JsonObject req) throws IOException, InterruptedException {
+        String system = null, prompt = "";
+        for (JsonElement m : req.getAsJsonArray("messages")) {
+            JsonObject msg = m.getAsJsonObject();
+            String content = text(msg.get("content"));
+            if ("system".equals(str(msg, "role"))) system = content;
+            else prompt = content;
+        }
+        String model = str(req, "model");
+        LLMProvider provider = model != null && model.startsWith("gpt") ? LLMProvider.OPENAI : LLMProvider.GROK;
+        String reply = reply(provider, system, prompt, intOr(req, "max_tokens", 0));
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", tokens(system) + tokens(prompt));
+        usage.addProperty("completion_tokens", tokens(reply));
+        usage.addProperty("total_tokens", tokens(system) + tokens(prompt) + tokens(reply));
+        if (bool(req, "stream")) {
+            boolean withUsage = req.has("stream_options") && bool(req.getAsJsonObject("stream_options"), "include_usage");
+            streamSse(ex, reply, null, piece -> {
+                JsonObject delta = new JsonObject();
+                delta.addProperty("content", piece);
+                return "{\"choices\":[{\"index\":0,\"delta\":" + delta + "}]}";
+            }, (withUsage ? "data: {\"choices\":[],\"usage\":" + usage + "}\n\n" : "") + "data: [DONE]\n\n");
+            return;
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", reply);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject root = new JsonObject();
+        root.addProperty("object", "chat.completion");
+        root.addProperty("model", model);
+        root.add("choices", choices);
+        root.add("usage", usage);
+        delay();
+        respond(ex, 200, "application/json", root.toString());
+    }
+
+    private static void anthropic(HttpExchange ex, JsonObject req) throws IOException, InterruptedException {
+        String system = null;
+        if (req.has("system")) {
+            JsonElement sys = req.get("system");
+            system = sys.isJsonArray() ? text(sys.getAsJsonArray().get(0).getAsJsonObject().get("text")) : text(sys);
+        }
+        JsonArray messages = req.getAsJsonArray("messages");
+        String prompt = text(messages.get(messages.size() - 1).getAsJsonObject().get("content"));
+        String reply = reply(LLMProvider.CLAUDE, system, prompt, intOr(req, "max_tokens", 0));
+        // A forced tool call (structured output) answers with the tool's input instead of text
+        String tool = req.has("tool_choice") ? str(req.getAsJsonObject("tool_choice"), "name") : null;
+        JsonObject toolInput = null;
+        if (tool != null) {
+            try {
+                toolInput = JsonParser.parseString(reply).getAsJsonObject();
+            } catch (RuntimeException e) {
+                tool = null;   // not a JSON object; answer with plain text
+            }
+        }
+        boolean useTool = tool != null;
+        JsonObject usage = new JsonObject();
+        usage.addProperty("input_tokens", tokens(system) + tokens(prompt));
+        usage.addProperty("output_tokens", tokens(reply));
+        if (bool(req, "stream")) {
+            JsonObject startUsage = new JsonObject();
+            startUsage.addProperty("input_tokens", tokens(system) + tokens(prompt));
+            startUsage.addProperty("output_tokens", 1);
+            JsonObject endUsage = new JsonObject();
+            endUsage.addProperty("output_tokens", tokens(reply));
+            streamSse(ex, reply,
+                    "event: message_start\ndata: {\"type\":\"message_start\",\"message\":{\"role\":\"assistant\",\"usage\":" + startUsage + "}}\n\n",
+                    piece -> {
+                        JsonObject delta = new JsonObject();
+                        delta.addProperty("type", useTool ? "input_json_delta" : "text_delta");
+                        delta.addProperty(useTool ? "partial_json" : "text", piece);
+                        return "{\"type\":\"content_block_delta\",\"index\":0,\"delta\":" + delta + "}";
+                    },
+                    "event: message_delta\ndata: {\"type\":\"message_delta\",\"usage\":" + endUsage + "}\n\n"
+                            + "event: message_stop\ndata: {\"type\":\"message_stop\"}\n\n");
+            return;
+        }
+        JsonObject block = new JsonObject();
+        if (useTool) {
+            block.addProperty("type", "tool_use");
+            block.addProperty("id", "toolu_mock_" + SERVED.get());
+            block.addProperty("name", tool);
+            block.add("input", toolInput);
+        } else {
+            block.addProperty("type", "text");
+            block.addProperty("text", reply);
+        }
+        JsonArray content = new JsonArray();
+        content.add(block);
+        JsonObject root = new JsonObject();
+        root.addProperty("type", "message");
+        root.addProperty("role", "assistant");
+        root.add("content", content);
+        root.addProperty("stop_reason", useTool ? "tool_use" : "end_turn");
+        root.add("usage", usage);
+        delay();
+        respond(ex, 200, "application/json", root.toString());
+    }
+
+    private static void gemini(HttpExchange ex, JsonObject req, boolean stream) throws IOException, InterruptedException {
+        String system = req.has("systemInstruction")
+                ? text(req.getAsJsonObject("systemInstruction").getAsJsonArray("parts").get(0).getAsJsonObject().get("text"))
+                : null;
+        JsonArray contents = req.getAsJsonArray("contents");
+        String prompt = text(contents.get(contents.size() - 1).getAsJsonObject()
+                .getAsJsonArray("parts").get(0).getAsJsonObject().get("text"));
+        int max = req.has("generationConfig") ? intOr(req.getAsJsonObject("generationConfig"), "maxOutputTokens", 0) : 0;
+        String reply = reply(LLMProvider.GEMINI, system, prompt, max);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("promptTokenCount", tokens(system) + tokens(prompt));
+        usage.addProperty("candidatesTokenCount", tokens(reply));
+        usage.addProperty("totalTokenCount", tokens(system) + tokens(prompt) + tokens(reply));
+        if (stream) {
+            streamSse(ex, reply, null, piece -> geminiResponse(piece, null),
+                    "data: {\"usageMetadata\":" + usage + "}\n\n");
+            return;
+        }
+        delay();
+        respond(ex, 200, "application/json", geminiResponse(reply, usage));
+    }
+
+    private static String geminiResponse(String text, JsonObject usage) {
+        JsonObject part = new JsonObject();
+        part.addProperty("text", text);
+        JsonArray parts = new JsonArray();
+        parts.add(part);
+        JsonObject content = new JsonObject();
+        content.addProperty("role", "model");
+        content.add("parts", parts);
+        JsonObject candidate = new JsonObject();
+        candidate.add("content", content);
+        JsonArray candidates = new JsonArray();
+        candidates.add(candidate);
+        JsonObject root = new JsonObject();
+        root.add("candidates", candidates);
+        if (usage != null) root.add("usageMetadata", usage);
+        return root.toString();
+    }
+
+    private static void ollama(HttpExchange ex, JsonObject req) throws IOException, InterruptedException {
+        String system = null, prompt = "";
+        for (JsonElement m : req.getAsJsonArray("messages")) {
+            JsonObject msg = m.getAsJsonObject();
+            if ("system".equals(str(msg, "role"))) system = text(msg.get("content"));
+            else prompt = text(msg.get("content"));
+        }
+        String reply = reply(LLMProvider.OLLAMA, system, prompt, intOr(req, "max_tokens", 0));
+        // /api/chat streams unless told not to
+        if (!req.has("stream") || bool(req, "stream")) {
+            ex.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            ex.sendResponseHeaders(200, 0);
+            OutputStream out = ex.getResponseBody();
+            List<String> pieces = chunks(reply);
+            long perPiece = latencyMs() / pieces.size();
+            for (String piece : pieces) {
+                Thread.sleep(perPiece);
+                out.write((ollamaLine(piece, false, 0, 0) + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            out.write((ollamaLine("", true, tokens(system) + tokens(prompt), tokens(reply)) + "\n").getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        delay();
+        respond(ex, 200, "application/json", ollamaLine(reply, true, tokens(system) + tokens(prompt), tokens(reply)));
+    }
+
+    /** One /api/chat object; the final ("done") one carries the prompt and reply token counts. */
+    private static String ollamaLine(String text, boolean done, int promptTokens, int replyTokens) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", text);
+        JsonObject root = new JsonObject();
+        root.add("message", message);
+        root.addProperty("done", done);
+        if (done) {
+            root.addProperty("prompt_eval_count", promptTokens);
+            root.addProperty("eval_count", replyTokens);
+        }
+        return root.toString();
+    }
+
+    // ── Replies ───────────────────────────────────────────────────────────────
+
+    /** The trace's reply for this call if there is one to replay, else a canned one in the asked-for format. */
+    private static String reply(LLMProvider provider, String system, String prompt, int maxTokens) {
+        SERVED.incrementAndGet();
+        // While recording, the trace is being written from these very replies
+        if (LlmTrace.mode() != LlmTrace.Mode.RECORD && Files.exists(Path.of(BotConfig.LLM_TRACE_FILE.get()))) {
+            String recorded = LlmTrace.lookup(provider, system, prompt, maxTokens);
+            if (recorded != null) return recorded;
+        }
+        String all = (system == null ? "" : system) + prompt;
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        if (all.contains("\"obey\"")) {
+            return rnd.nextInt(4) == 0
+                    ? "{\"obey\": false, \"response\": \"Sorry, I'm busy right now.\"}"
+                    : "{\"obey\": true, \"response\": \"Sure, on it!\"}";
+        }
+        if (all.contains("\"queue\"")) return CANNED_PLANS.get(rnd.nextInt(CANNED_PLANS.size()));
+        return CANNED_CHAT.get(rnd.nextInt(CANNED_CHAT.size()));
+    }
+
+    /** Tokens billed for {@code text}, at ~4 characters per token. */
+    private static int tokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    private static long latencyMs() {
+        int median = BotConfig.LLM_SYNTHETIC_LATENCY_MS.get();
+        return median > 0 ? LlmTrace.syntheticLatencyMs(median) : 0;
+    }
+
+    private static void delay() throws InterruptedException {
+        long ms = latencyMs();
+        if (ms > 0) Thread.sleep(ms);
+    }
+
+    private static List<String> chunks(String text) {
+        int n = Math.max(1, (text.length() + STREAM_CHUNK_CHARS - 1) / STREAM_CHUNK_CHARS);
+        String[] out = new String[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = text.substring(i * STREAM_CHUNK_CHARS, Math.min(text.length(), (i + 1) * STREAM_CHUNK_CHARS));
+        }
+        return List.of(out);
+    }
+
+    /** Writes {@code header} if any, {@code reply} as SSE "data:" events, one per chunk, then {@code trailer} if any. */
+    private static void streamSse(HttpExchange ex, String reply, String header, Function<String, String> event,
+                                  String trailer) throws IOException, InterruptedException {
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+        ex.sendResponseHeaders(200, 0);
+        OutputStream out = ex.getResponseBody();
+        if (header != null) out.write(header.getBytes(StandardCharsets.UTF_8));
+        List<String> pieces = chunks(reply);
+        long perPiece = latencyMs() / pieces.size();
+        for (String piece : pieces) {
+            Thread.sleep(perPiece);
+            out.write(("data: " + event.apply(piece) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        if (trailer != null) out.write(trailer.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange ex, int status, String type, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", type);
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    // ── JSON helpers ──────────────────────────────────────────────────────────
+
+    /** A content field as text: a plain string, or the concatenated "text" of a block array. */
+    private static String text(JsonElement e) {
+        if (e == null || e.isJsonNull()) return "";
+        if (e.isJsonPrimitive()) return e.getAsString();
+        if (e.isJsonArray()) {
+            StringBuilder sb = new StringBuilder();
+            for (JsonElement b : e.getAsJsonArray()) {
+                if (b.isJsonObject() && b.getAsJsonObject().has("text")) sb.append(b.getAsJsonObject().get("text").getAsString());
+            }
+            return sb.toString();
+        }
+        return e.toString();
+    }
+
+    private static String str(JsonObject o, String key) {
+        return o.has(key) && o.get(key).isJsonPrimitive() ? o.get(key).getAsString() : null;
+    }
+
+    private static boolean bool(JsonObject o, String key) {
+        return o.has(key) && o.get(key).isJsonPrimitive() && o.get(key).getAsBoolean();
+    }
+
+    private static int intOr(JsonObject o, String key, int fallback) {
+        return o.has(key) && o.get(key).isJsonPrimitive() ? o.get(key).getAsInt() : fallback;
+    }
+}
@@ -0,0 +1,361 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Chooses which provider answers an LLMClient call: circuit breakers, failover and hedging.
+ *
+ * Each provider has a circuit breaker over its last {@link #WINDOW} outcomes. When the error
+ * rate reaches llm_breaker_error_rate the breaker opens and calls for that provider go to the
+ * first healthy provider in llm_fallback_providers instead; after a cool-down one probe call is
+ * let through, and its outcome closes the breaker or re-opens it for twice as long. A call that
+ * fails outright is retried once on a healthy fallback.
+ *
+ * With llm_hedge on, a call the chosen provider hasn't answered within that provider's observed
+ * p90 (queue wait included, see {@link LlmAdmission#latencyPercentileMs}) is also sent to the
+ * first healthy fallback. Whichever answers first wins and the other is cancelled, which frees
+ * its admission slot and aborts its HTTP exchange. A streamed call is won by the first attempt to
+ * produce text, so the caller never sees two replies interleaved.
+ *
+ * With no fallbacks configured every call goes straight to its provider, as before.
+ */
+public final class LlmRouter {
+
+    /** One attempt at a call, on one provider. */
+    public interface Attempt {
+        LLMProvider provider();
+
+        /**
+         * Claims the call for this attempt, cancelling the others; true if this attempt is (now)
+         * the winner. Streaming attempts claim on their first piece of text and drop it if false.
+         */
+        boolean claim();
+    }
+
+    /** Outcomes kept per breaker. */
+    private static final int WINDOW = 20;
+    /** Outcomes needed in the window before the error rate can open a breaker. */
+    private static final int MIN_CALLS = 5;
+    private static final long OPEN_MIN_MS = 15_000;
+    private static final long OPEN_MAX_MS = 300_000;
+
+    private static final Map<LLMProvider, Breaker> BREAKERS = new EnumMap<>(LLMProvider.class);
+
+    static {
+        for (LLMProvider p : LLMProvider.values()) BREAKERS.put(p, new Breaker(p));
+    }
+
+    private static final AtomicLong CALLS = new AtomicLong();
+    private static final AtomicLong REROUTED = new AtomicLong();
+    private static final AtomicLong FAILOVERS = new AtomicLong();
+    private static final AtomicLong HEDGED = new AtomicLong();
+    private static final AtomicLong HEDGE_WINS = new AtomicLong();
+
+    private LlmRouter() {}
+
+    /**
+     * Runs {@code attempt} on {@code primary} — or on a fallback while its breaker is open —
+     * hedging and failing over as configured. Cancelling the result cancels every attempt.
+     */
+    public static <T> CompletableFuture<T> call(LLMProvider primary, Function<Attempt, CompletableFuture<T>> attempt) {
+        CALLS.incrementAndGet();
+        Race<T> race = new Race<>(attempt);
+        LLMProvider first = BREAKERS.get(primary).tryAcquire() ? primary : fallback(race.tried);
+        if (first == null) {
+            first = primary;   // nowhere healthier to go
+        } else if (first != primary) {
+            REROUTED.incrementAndGet();
+        }
+        race.launch(first);
+        if (BotConfig.LLM_HEDGE.get()) scheduleHedge(race, first);
+        return race.result;
+    }
+
+    /** True while {@code provider}'s breaker is open (calls for it are being routed elsewhere). */
+    public static boolean isOpen(LLMProvider provider) {
+        Breaker b = BREAKERS.get(provider);
+        synchronized (b) {
+            return b.state == State.OPEN;
+        }
+    }
+
+    /** The configured fallbacks, in order; unknown names are skipped. */
+    static List<LLMProvider> fallbacks() {
+        List<LLMProvider> out = new ArrayList<>();
+        for (String s : BotConfig.LLM_FALLBACK_PROVIDERS.get().split(",")) {
+            String id = s.trim().toLowerCase(Locale.ROOT);
+            for (LLMProvider p : LLMProvider.values()) {
+                if (p.getId().equals(id) && !out.contains(p)) out.add(p);
+            }
+        }
+        return out;
+    }
+
+    /** The first fallback not yet tried whose breaker admits a call, or null. */
+    private static LLMProvider fallback(Set<LLMProvider> tried) {
+        for (LLMProvider p : fallbacks()) {
+            if (!tried.contains(p) && BREAKERS.get(p).tryAcquire()) return p;
+        }
+        return null;
+    }
+
+    private static <T> void scheduleHedge(Race<T> race, LLMProvider first) {
+        double p90 = LlmAdmission.latencyPercentileMs(first, 0.9);
+        if (p90 < 0) return;   // no latency observed yet, nothing to hedge against
+        long delayMs = Math.max(BotConfig.LLM_HEDGE_MIN_MS.get(), Math.round(p90));
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, LlmTransport.EXECUTOR).execute(() -> {
+            Set<LLMProvider> tried;
+            synchronized (race) {
+                if (race.result.isDone() || race.winner != null || race.tried.size() > 1) return;
+                tried = EnumSet.copyOf(race.tried);
+            }
+            // A fallback that's already saturated would only add to the pile-up
+            LLMProvider hedge = null;
+            for (LLMProvider p : fallbacks()) {
+                if (!tried.contains(p) && !LlmAdmission.saturated(p)) {
+                    hedge = BREAKERS.get(p).tryAcquire() ? p : null;
+                    if (hedge != null) break;
+                }
+            }
+            if (hedge == null) return;
+            synchronized (race) {
+                if (race.result.isDone() || race.winner != null) {
+                    BREAKERS.get(hedge).release();
+                    return;
+                }
+                race.hedge = hedge;
+            }
+            HEDGED.incrementAndGet();
+            race.launch(hedge);
+        });
+    }
+
+    /** Closes every breaker and zeroes the counters. Called when the server stops. */
+    public static void clear() {
+        for (Breaker b : BREAKERS.values()) {
+            synchronized (b) {
+                b.reset();
+            }
+        }
+        CALLS.set(0);
+        REROUTED.set(0);
+        FAILOVERS.set(0);
+        HEDGED.set(0);
+        HEDGE_WINS.set(0);
+    }
+
+    /** "llm-route: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        long calls = CALLS.get(), hedged = HEDGED.get();
+        StringBuilder open = new StringBuilder();
+        for (Breaker b : BREAKERS.values()) {
+            synchronized (b) {
+                if (b.state != State.CLOSED) open.append(' ').append(b.provider).append('=').append(b.state.name().toLowerCase(Locale.ROOT));
+            }
+        }
+        return String.format("llm-route: %d calls, %d rerouted, %d failovers, hedged %d (%.1f%%), hedge won %d (%.0f%%), breakers %s",
+                calls, REROUTED.get(), FAILOVERS.get(), hedged, calls == 0 ? 0.0 : 100.0 * hedged / calls,
+                HEDGE_WINS.get(), hedged == 0 ? 0.0 : 100.0 * HEDGE_WINS.get() / hedged,
+                open.isEmpty() ? "all closed" : open.toString().trim());
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    /** The attempts of one call; the first to claim completes {@link #result}. */
+    private static final class Race<T> {
+        final Function<Attempt, CompletableFuture<T>> attempt;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Map<LLMProvider, CompletableFuture<T>> running = new EnumMap<>(LLMProvider.class);
+        final Set<LLMProvider> tried = EnumSet.noneOf(LLMProvider.class);
+        LLMProvider winner;
+        LLMProvider hedge;
+
+        Race(Function<Attempt, CompletableFuture<T>> attempt) {
+            this.attempt = attempt;
+            // Giving up on the call gives up on every attempt
+            result.whenComplete((v, err) -> cancelAll(null));
+        }
+
+        void launch(LLMProvider provider) {
+            synchronized (this) {
+                tried.add(provider);
+            }
+            Attempt a = new Attempt() {
+                @Override
+                public LLMProvider provider() {
+                    return provider;
+                }
+
+                @Override
+                public boolean claim() {
+                    return Race.this.claim(provider);
+                }
+            };
+            CompletableFuture<T> f;
+            try {
+                f = attempt.apply(a);
+            } catch (RuntimeException e) {
+                f = CompletableFuture.failedFuture(e);
+            }
+            synchronized (this) {
+                running.put(provider, f);
+            }
+            if (result.isDone()) f.cancel(true);
+            f.whenComplete((value, err) -> finished(provider, value, err));
+        }
+
+        boolean claim(LLMProvider provider) {
+            synchronized (this) {
+                if (winner != null) return winner == provider;
+                if (result.isDone()) return false;
+                winner = provider;
+                if (provider == hedge) HEDGE_WINS.incrementAndGet();
+            }
+            cancelAll(provider);
+            return true;
+        }
+
+        void cancelAll(LLMProvider except) {
+            List<CompletableFuture<T>> losers = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<LLMProvider, CompletableFuture<T>> e : running.entrySet()) {
+                    if (e.getKey() != except && !e.getValue().isDone()) losers.add(e.getValue());
+                }
+            }
+            for (CompletableFuture<T> f : losers) f.cancel(true);
+        }
+
+        void finished(LLMProvider provider, T value, Throwable err) {
+            Breaker breaker = BREAKERS.get(provider);
+            if (err == null) {
+                breaker.record(true);
+                if (claim(provider)) result.complete(value);
+                return;
+            }
+            Throwable cause = LlmTransport.rootCause(err);
+            if (LlmTransport.isAbandoned(cause)) {
+                breaker.release();   // a cancelled loser says nothing about the provider
+                synchronized (this) {
+                    if (winner != null || !allDone()) return;
+                }
+                result.completeExceptionally(cause);
+                return;
+            }
+            // A full admission queue is our own back-pressure, not the provider failing
+            if (cause instanceof RejectedExecutionException) breaker.release();
+            else breaker.record(false);
+
+            LLMProvider next = null;
+            synchronized (this) {
+                if (result.isDone()) return;
+                if (winner == provider) {
+                    // Failed after it started streaming; the caller already has part of its text
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                if (!allDone()) return;   // the other attempt may still answer
+                if (tried.size() == 1) next = fallback(tried);
+            }
+            if (next != null) {
+                FAILOVERS.incrementAndGet();
+                System.out.println("[AMB-LLM] " + provider + " failed (" + cause.getMessage() + ") — retrying on " + next);
+                launch(next);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        }
+
+        private synchronized boolean allDone() {
+            for (CompletableFuture<T> f : running.values()) {
+                if (!f.isDone()) return false;
+            }
+            return true;
+        }
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Error-rate circuit breaker for one provider. */
+    private static final class Breaker {
+        final LLMProvider provider;
+        final boolean[] outcomes = new boolean[WINDOW];   // true = failed
+        int count, next, failures;
+        State state = State.CLOSED;
+        long openUntil;
+        long openMs;
+        boolean probing;
+
+        Breaker(LLMProvider provider) {
+            this.provider = provider;
+        }
+
+        /** True if a call may go to this provider now; in half-open state only one probe at a time. */
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() < openUntil) return false;
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probing) return false;
+                probing = true;
+            }
+            return true;
+        }
+
+        /** The acquired call ended without telling us anything (cancelled, or never sent). */
+        synchronized void release() {
+            if (state == State.HALF_OPEN) probing = false;
+        }
+
+        synchronized void record(boolean ok) {
+            if (state == State.HALF_OPEN) {
+                if (ok) {
+                    System.out.println("[AMB-LLM] " + provider + " recovered — circuit closed");
+                    reset();
+                } else {
+                    open(Math.min(openMs * 2, OPEN_MAX_MS), "probe failed");
+                }
+                return;
+            }
+            if (state == State.OPEN) return;   // a straggler from before it opened
+            if (count == WINDOW && outcomes[next]) failures--;
+            outcomes[next] = !ok;
+            if (!ok) failures++;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            double threshold = BotConfig.LLM_BREAKER_ERROR_RATE.get();
+            if (threshold > 0 && count >= MIN_CALLS && failures >= threshold * count) {
+                open(OPEN_MIN_MS, failures + "/" + count + " recent calls failed");
+            }
+        }
+
+        private void open(long ms, String why) {
+            state = State.OPEN;
+            openMs = ms;
+            openUntil = System.nanoTime() + ms * 1_000_000L;
+            probing = false;
+            System.out.println("[AMB-LLM] " + provider + " circuit open for " + ms / 1000 + "s (" + why + ")");
+        }
+
+        void reset() {
+            state = State.CLOSED;
+            count = next = failures = 0;
+            openMs = 0;
+            probing = false;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Record/replay of LLM calls, for load tests and regression runs without a paid provider.
+ *
+ * In "record" mode every completed call made through {@link LLMClient} is appended to the trace
+ * file as one JSON line: provider, prompt fingerprint, prompt, response and latency. System
+ * prompts are a few KB and identical across calls, so each distinct one is written once as a
+ * {"sys":...} line and records refer to it by hash. In "replay" mode nothing leaves the machine:
+ * a call is answered from the trace, matched by exact fingerprint, then by a loose fingerprint
+ * that ignores numbers (coordinates, ticks, counts), then by any reply to the same kind of call
+ * (provider, system prompt and output limit — a think or a chat reply), after the recorded
+ * latency or a synthetic one (llm_synthetic_latency_ms). Replayed calls still wait for admission,
+ * so queueing behaves as it would live.
+ *
+ * The mode is read on every call; the trace file is opened or loaded on first use (and reloaded
+ * when it changes on disk, checked at most once a second) and released by {@link #clear} at
+ * server stop.
+ */
+public final class LlmTrace {
+
+    public enum Mode { LIVE, RECORD, REPLAY }
+
+    /** One recorded call, as kept in memory for replay. */
+    private record Entry(String provider, String response, long latencyMs) {}
+
+    /** The configured trace file as last seen on disk, and when it was looked at. */
+    private record Seen(String file, Path path, long stamp, long checkedAt) {}
+
+    /** Replies streamed back in pieces of about this many characters during replay. */
+    private static final int REPLAY_CHUNK_CHARS = 24;
+
+    private static final Object LOCK = new Object();
+    private static BufferedWriter writer;
+    private static Path writerPath;
+    private static final Set<String> writtenSystems = new HashSet<>();
+
+    /** How often replay looks at the trace file's size and modification time. */
+    private static final long STAMP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static Path replayPath;
+    private static long replayStamp;
+    private static volatile Seen seen;
+    private static final Map<String, List<Entry>> exact = new HashMap<>();
+    private static final Map<String, List<Entry>> loose = new HashMap<>();
+    private static final Map<String, List<Entry>> byKind = new HashMap<>();
+    private static final Map<List<Entry>, Integer> cursor = new IdentityHashMap<>();
+
+    private static final AtomicLong RECORDED = new AtomicLong();
+    private static final AtomicLong EXACT_HITS = new AtomicLong();
+    private static final AtomicLong LOOSE_HITS = new AtomicLong();
+    private static final AtomicLong KIND_HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private LlmTrace() {}
+
+    /** The configured mode; anything unrecognised is LIVE. */
+    public static Mode mode() {
+        try {
+            return Mode.valueOf(BotConfig.LLM_TRANSPORT_MODE.get().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Mode.LIVE;
+        }
+    }
+
+    /**
+     * Runs {@code live} for a one-shot query, or records or replays it depending on the mode.
+     * Called from inside the admission supplier, so it runs once the call holds a slot.
+     */
+    public static CompletableFuture<String> around(LLMProvider provider, String system, String prompt,
+                                                   int maxTokens, Supplier<CompletableFuture<String>> live) {
+        return around(provider, system, prompt, maxTokens, null, live);
+    }
+
+    /** As {@link #around} for a streamed query; replay feeds {@code onText} in small pieces. */
+    public static CompletableFuture<String> around(LLMProvider provider, String system, String prompt,
+                                                   int maxTokens, Consumer<String> onText,
+                                                   Supplier<CompletableFuture<String>> live) {
+        return switch (mode()) {
+            case LIVE -> live.get();
+            case RECORD -> {
+                long start = System.nanoTime();
+                CompletableFuture<String> reply = live.get();
+                reply.whenComplete((text, err) -> {
+                    if (err == null) record(provider, system, prompt, maxTokens, text,
+                            (System.nanoTime() - start) / 1_000_000);
+                });
+                yield reply;
+            }
+            case REPLAY -> replay(provider, system, prompt, maxTokens, onText);
+        };
+    }
+
+    /** The reply the trace holds for this call, or null. Used by replay and by {@link LlmMockServer}. */
+    static String lookup(LLMProvider provider, String system, String prompt, int maxTokens) {
+        Entry e = find(provider.getId(), system, prompt, maxTokens);
+        return e == null ? null : e.response();
+    }
+
+    /** Identifies a call: provider, output limit, system prompt and prompt, exactly. */
+    public static String fingerprint(String provider, String system, String prompt, int maxTokens) {
+        return hash(provider + '\u0000' + maxTokens + '\u0000' + hash(system == null ? "" : system)
+                + '\u0000' + prompt);
+    }
+
+    /** As {@link #fingerprint} with digit runs and whitespace collapsed, so live numbers don't matter. */
+    static String looseFingerprint(String provider, String system, String prompt, int maxTokens) {
+        return fingerprint(provider, system, normalize(prompt), maxTokens);
+    }
+
+    /** A latency drawn from a log-normal around {@code medianMs} (sigma 0.5: p90 ≈ 1.9× median). */
+    static long syntheticLatencyMs(int medianMs) {
+        double z = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(medianMs * Math.exp(0.5 * z));
+    }
+
+    // ── Recording ─────────────────────────────────────────────────────────────
+
+    private static void record(LLMProvider provider, String system, String prompt, int maxTokens,
+                               String response, long latencyMs) {
+        String sysHash = system == null ? null : hash(system);
+        JsonObject line = new JsonObject();
+        line.addProperty("t", System.currentTimeMillis());
+        line.addProperty("p", provider.getId());
+        line.addProperty("fp", fingerprint(provider.getId(), system, prompt, maxTokens));
+        line.addProperty("max", maxTokens);
+        if (sysHash != null) line.addProperty("sys", sysHash);
+        line.addProperty("ms", latencyMs);
+        line.addProperty("prompt", prompt);
+        line.addProperty("resp", response);
+        synchronized (LOCK) {
+            try {
+                BufferedWriter w = writer();
+                if (sysHash != null && writtenSystems.add(sysHash)) {
+                    JsonObject sys = new JsonObject();
+                    sys.addProperty("sys", sysHash);
+                    sys.addProperty("text", system);
+                    w.write(sys.toString());
+                    w.newLine();
+                }
+                w.write(line.toString());
+                w.newLine();
+                w.flush();
+                RECORDED.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("[AMB-LLM] Could not append to the LLM trace: " + e.getMessage());
+            }
+        }
+    }
+
+    /** The append-only writer for the configured file; reopened if the path changes. */
+    private static BufferedWriter writer() throws IOException {
+        Path path = Path.of(BotConfig.LLM_TRACE_FILE.get());
+        if (writer != null && path.equals(writerPath)) return writer;
+        closeWriter();
+        writtenSystems.clear();
+        // Appending to an existing trace: its system prompts are already there
+        if (Files.exists(path)) {
+            try (BufferedReader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String s;
+                while ((s = r.readLine()) != null) {
+                    if (s.startsWith("{\"sys\"")) {
+                        JsonObject o = JsonParser.parseString(s).getAsJsonObject();
+                        if (o.has("text")) writtenSystems.add(o.get("sys").getAsString());
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[AMB-LLM] Ignoring unreadable lines in " + path + ": " + e.getMessage());
+            }
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        writerPath = path;
+        System.out.println("[AMB-LLM] Recording LLM calls to " + path.toAbsolutePath());
+        return writer;
+    }
+
+    private static void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+        writerPath = null;
+    }
+
+    // ── Replay ────────────────────────────────────────────────────────────────
+
+    private static CompletableFuture<String> replay(LLMProvider provider, String system, String prompt,
+                                                    int maxTokens, Consumer<String> onText) {
+        Entry e = find(provider.getId(), system, prompt, maxTokens);
+        if (e == null) {
+            return CompletableFuture.failedFuture(new IOException(
+                    "No recorded " + provider.getId() + " reply to replay (trace " + BotConfig.LLM_TRACE_FILE.get() + ")"));
+        }
+        int synthetic = BotConfig.LLM_SYNTHETIC_LATENCY_MS.get();
+        long latency = synthetic > 0 ? syntheticLatencyMs(synthetic) : e.latencyMs();
+        if (onText == null) {
+            return CompletableFuture.supplyAsync(e::response,
+                    CompletableFuture.delayedExecutor(latency, TimeUnit.MILLISECONDS, LlmTransport.EXECUTOR));
+        }
+        // Spread the latency over the pieces, as a provider would stream them
+        CompletableFuture<String> done = new CompletableFuture<>();
+        LlmTransport.EXECUTOR.execute(() -> {
+            String text = e.response();
+            int pieces = Math.max(1, (text.length() + REPLAY_CHUNK_CHARS - 1) / REPLAY_CHUNK_CHARS);
+            long perPiece = latency / pieces;
+            try {
+                for (int i = 0; i < pieces && !done.isDone(); i++) {
+                    Thread.sleep(perPiece);
+                    onText.accept(text.substring(i * REPLAY_CHUNK_CHARS,
+                            Math.min(text.length(), (i + 1) * REPLAY_CHUNK_CHARS)));
+                }
+                done.complete(text);
+            } catch (InterruptedException ie) {
+                done.cancel(false);
+            } catch (RuntimeException re) {
+                done.completeExceptionally(re);
+            }
+        });
+        return done;
+    }
+
+    private static Entry find(String provider, String system, String prompt, int maxTokens) {
+        Seen file = traceFile();
+        synchronized (LOCK) {
+            load(file.path(), file.stamp());
+            Entry e = next(exact.get(fingerprint(provider, system, prompt, maxTokens)));
+            if (e != null) {
+                EXACT_HITS.incrementAndGet();
+                return e;
+            }
+            e = next(loose.get(looseFingerprint(provider, system, prompt, maxTokens)));
+            if (e != null) {
+                LOOSE_HITS.incrementAndGet();
+                return e;
+            }
+            e = next(byKind.get(kindKey(provider, system, maxTokens)));
+            if (e != null) KIND_HITS.incrementAndGet();
+            else MISSES.incrementAndGet();
+            return e;
+        }
+    }
+
+    /** Cycles through the replies recorded under one key, so repeated calls don't all get the first. */
+    private static Entry next(List<Entry> entries) {
+        if (entries == null || entries.isEmpty()) return null;
+        int i = cursor.merge(entries, 1, Integer::sum) - 1;
+        return entries.get(i % entries.size());
+    }
+
+    /**
+     * The configured trace file and its stamp. The file is stat'ed outside {@link #LOCK} and at
+     * most once a second (or when the setting changes), not on every replayed call.
+     */
+    private static Seen traceFile() {
+        String file = BotConfig.LLM_TRACE_FILE.get();
+        long now = System.nanoTime();
+        Seen last = seen;
+        if (last != null && last.file().equals(file) && now - last.checkedAt() < STAMP_INTERVAL_NANOS) return last;
+        Path path = Path.of(file);
+        Seen fresh = new Seen(file, path, stamp(path), now);
+        seen = fresh;
+        return fresh;
+    }
+
+    /** Loads {@code path} into the replay index; a no-op while it's loaded and unchanged. */
+    private static void load(Path path, long stamp) {
+        if (path.equals(replayPath) && stamp == replayStamp) return;
+        exact.clear();
+        loose.clear();
+        byKind.clear();
+        cursor.clear();
+        replayPath = path;
+        replayStamp = stamp;
+        if (stamp == 0) {
+            System.err.println("[AMB-LLM] LLM trace " + path.toAbsolutePath() + " not found; nothing to replay");
+            return;
+        }
+        Map<String, String> systems = new HashMap<>();
+        int loaded = 0, skipped = 0;
+        try (BufferedReader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String s;
+            while ((s = r.readLine()) != null) {
+                if (s.isBlank()) continue;
+                try {
+                    JsonObject o = JsonParser.parseString(s).getAsJsonObject();
+                    if (!o.has("p")) {
+                        if (o.has("sys") && o.has("text")) systems.put(o.get("sys").getAsString(), o.get("text").getAsString());
+                        continue;
+                    }
+                    String provider = o.get("p").getAsString();
+                    int max = o.has("max") ? o.get("max").getAsInt() : 0;
+                    String system = o.has("sys") ? systems.get(o.get("sys").getAsString()) : null;
+                    String prompt = o.get("prompt").getAsString();
+                    Entry e = new Entry(provider, o.get("resp").getAsString(), o.get("ms").getAsLong());
+                    exact.computeIfAbsent(o.get("fp").getAsString(), k -> new ArrayList<>()).add(e);
+                    loose.computeIfAbsent(looseFingerprint(provider, system, prompt, max), k -> new ArrayList<>()).add(e);
+                    byKind.computeIfAbsent(kindKey(provider, system, max), k -> new ArrayList<>()).add(e);
+                    loaded++;
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[AMB-LLM] Could not read LLM trace " + path + ": " + e.getMessage());
+        }
+        System.out.println("[AMB-LLM] Loaded " + loaded + " recorded LLM calls from " + path.toAbsolutePath()
+                + (skipped > 0 ? " (" + skipped + " unreadable lines skipped)" : ""));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static String kindKey(String provider, String system, int maxTokens) {
+        return provider + '|' + maxTokens + '|' + hash(system == null ? "" : system);
+    }
+
+    /** Size and modification time folded together; 0 when the file doesn't exist. */
+    private static long stamp(Path path) {
+        try {
+            return Files.size(path) * 31 + Files.getLastModifiedTime(path).toMillis() + 1;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String normalize(String prompt) {
+        return prompt.replaceAll("-?\\d+(?:\\.\\d+)?", "#").replaceAll("\\s+", " ").trim();
+    }
+
+    /** 64-bit FNV-1a as 16 hex digits; enough to key a trace, and stable across runs. */
+    private static String hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return String.format("%016x", h);
+    }
+
+    /** Closes the recording and drops the replay index (server stop). */
+    public static void clear() {
+        synchronized (LOCK) {
+            closeWriter();
+            writtenSystems.clear();
+            exact.clear();
+            loose.clear();
+            byKind.clear();
+            cursor.clear();
+            replayPath = null;
+            replayStamp = 0;
+            seen = null;
+        }
+    }
+
+    /** "llm-trace: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        return String.format("llm-trace: %s, %d recorded, replayed %d exact / %d loose / %d same-kind, %d misses%s",
+                mode().name().toLowerCase(Locale.ROOT), RECORDED.get(), EXACT_HITS.get(), LOOSE_HITS.get(),
+                KIND_HITS.get(), MISSES.get(), LlmMockServer.isRunning() ? ", mock on :" + LlmMockServer.port() : "");
+    }
+}
@@ -0,0 +1,223 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Shared HTTP transport for every LLM provider.
+ *
+ * Requests go out through {@link HttpClient#sendAsync}, so a request in flight holds no thread
+ * at all; response handling and any follow-up work run on a virtual-thread executor instead of
+ * the ForkJoin common pool (which parallel streams and Minecraft itself rely on). One client is
+ * kept per endpoint (scheme + host + port), so requests to the same provider share its HTTP/2
+ * connection rather than each client class opening its own.
+ *
+ * Cancelling a future returned here aborts the HTTP exchange (or stops reading a stream), and
+ * {@link #cancelUpstream} carries that through each stage a caller adds on top, so a bot that
+ * stops caring about a reply frees the connection and the provider slot straight away.
+ */
+public final class LlmTransport {
+
+    /** Runs response callbacks and any blocking LLM-side work. One cheap virtual thread per task. */
+    public static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Map<String, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicLong SENT = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static final AtomicLong CANCELLED = new AtomicLong();
+
+    private LlmTransport() {}
+
+    /** The shared client for {@code uri}'s endpoint, created on first use. */
+    public static HttpClient client(URI uri) {
+        String endpoint = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        return CLIENTS.computeIfAbsent(endpoint, k -> HttpClient.newBuilder()
+                // Plain-http endpoints (a local Ollama) would get an h2c upgrade attempt; skip it.
+                .version("https".equalsIgnoreCase(uri.getScheme())
+                        ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(BotConfig.LLM_CONNECT_TIMEOUT.get()))
+                .executor(EXECUTOR)
+                .build());
+    }
+
+    /**
+     * A JSON POST to {@code url} with the configured request timeout; add auth headers and build.
+     * While the {@link LlmMockServer} runs, the request goes to it instead.
+     */
+    public static HttpRequest.Builder jsonPost(String url, String body) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(LlmMockServer.route(url)))
+                .timeout(Duration.ofSeconds(BotConfig.LLM_REQUEST_TIMEOUT.get()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends {@code request} without blocking and completes with the response body. A non-2xx
+     * status completes exceptionally with an {@link HttpStatusException} naming {@code provider}.
+     */
+    public static CompletableFuture<String> send(HttpRequest request, String provider) {
+        IN_FLIGHT.incrementAndGet();
+        SENT.incrementAndGet();
+        CompletableFuture<HttpResponse<String>> exchange = client(request.uri())
+                .sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<String> body = exchange
+                .whenComplete((resp, err) -> {
+                    IN_FLIGHT.decrementAndGet();
+                    count(err, resp == null || resp.statusCode() / 100 != 2);
+                })
+                .thenApply(resp -> {
+                    if (resp.statusCode() / 100 != 2) {
+                        throw new CompletionException(new HttpStatusException(provider, resp.statusCode(), resp.body()));
+                    }
+                    return resp.body();
+                });
+        return cancelUpstream(body, exchange);
+    }
+
+    /** {@link #send} followed by {@code parse} on the body; cancelling the result still aborts the request. */
+    public static <T> CompletableFuture<T> send(HttpRequest request, String provider, Function<String, T> parse) {
+        CompletableFuture<String> body = send(request, provider);
+        return cancelUpstream(body.thenApply(parse), body);
+    }
+
+    /**
+     * Sends {@code request} and hands each line of the streamed response body to {@code onLine}
+     * as it arrives (SSE "data:" lines, or NDJSON for Ollama). Lines are read on a virtual thread;
+     * the future completes when the body ends. A non-2xx status fails it with an
+     * {@link HttpStatusException} carrying the body, like {@link #send}. Cancelling the future closes the body, which
+     * resets the stream and ends the read.
+     */
+    public static CompletableFuture<Void> stream(HttpRequest request, String provider, Consumer<String> onLine) {
+        IN_FLIGHT.incrementAndGet();
+        SENT.incrementAndGet();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicReference<Stream<String>> open = new AtomicReference<>();
+        CompletableFuture<HttpResponse<Stream<String>>> exchange = client(request.uri())
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        exchange.whenCompleteAsync((resp, err) -> {
+            if (err != null) {
+                done.completeExceptionally(err);
+                return;
+            }
+            try (Stream<String> lines = resp.body()) {
+                open.set(lines);
+                if (done.isDone()) return;   // given up while the headers were on their way
+                if (resp.statusCode() / 100 != 2) {
+                    String body = lines.collect(Collectors.joining("\n"));
+                    done.completeExceptionally(new HttpStatusException(provider, resp.statusCode(), body));
+                    return;
+                }
+                Iterator<String> it = lines.iterator();
+                while (!done.isDone() && it.hasNext()) onLine.accept(it.next());
+                done.complete(null);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        }, EXECUTOR);
+        done.whenComplete((v, err) -> {
+            IN_FLIGHT.decrementAndGet();
+            count(err, err != null);
+            Stream<String> lines = open.get();
+            if (err != null && lines != null) lines.close();
+        });
+        return cancelUpstream(done, exchange);
+    }
+
+    /** A provider answered with a non-2xx status; {@link #status()} is the HTTP status code. */
+    public static final class HttpStatusException extends IOException {
+        private final int status;
+
+        HttpStatusException(String provider, int status, String body) {
+            super(provider + " API error " + status + ": " + body);
+            this.status = status;
+        }
+
+        public int status() {
+            return status;
+        }
+    }
+
+    /**
+     * Cancels {@code upstream} if {@code downstream} finishes first — because it was cancelled
+     * or ran past a deadline — so no one keeps waiting on a reply nobody will read. Returns
+     * {@code downstream}. Chain stages with this wherever a caller may cancel the result.
+     */
+    public static <T> CompletableFuture<T> cancelUpstream(CompletableFuture<T> downstream, CompletableFuture<?> upstream) {
+        downstream.whenComplete((v, err) -> {
+            if (!upstream.isDone()) upstream.cancel(true);
+        });
+        return downstream;
+    }
+
+    /** Fails {@code future} with a TimeoutException (cancelling whatever it links to) after {@code seconds}. */
+    public static <T> CompletableFuture<T> deadline(CompletableFuture<T> future, int seconds) {
+        return future.orTimeout(seconds, TimeUnit.SECONDS);
+    }
+
+    /** True if {@code t} means the caller gave up (cancelled, or its deadline passed) rather than a failure. */
+    public static boolean isAbandoned(Throwable t) {
+        Throwable root = rootCause(t);
+        return root instanceof CancellationException || root instanceof TimeoutException;
+    }
+
+    /**
+     * Waits for {@code future} on behalf of the remaining blocking callers, rethrowing the
+     * original IOException rather than a wrapped one.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    /** Unwraps the CompletionException layers a future chain adds around the real failure. */
+    public static Throwable rootCause(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static void count(Throwable err, boolean failed) {
+        if (err != null && isAbandoned(err)) CANCELLED.incrementAndGet();
+        else if (failed) FAILED.incrementAndGet();
+    }
+
+    /** "llm-io: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        return String.format("llm-io: %d in flight, %d sent, %d failed, %d cancelled, %d endpoints",
+                IN_FLIGHT.get(), SENT.get(), FAILED.get(), CANCELLED.get(), CLIENTS.size());
+    }
+}
@@ -0,0 +1,356 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token and cost accounting for LLM calls, per bot and per tribe.
+ *
+ * Every call LLMClient makes carries a {@link Meter}. The response parsers feed it the provider's
+ * usage block — OpenAI/Grok "usage" (streams ask for it with stream_options.include_usage),
+ * Claude "usage" (message_start and message_delta when streaming), Gemini "usageMetadata" and
+ * Ollama's prompt_eval_count / eval_count — and the meter is charged when the call ends. A call
+ * answered without a usage block (a replayed trace, a provider that omits it) is charged an
+ * estimate of ~4 characters per token and counted as estimated; a call that fails before any
+ * usage arrives is not charged.
+ *
+ * Cost is priced from llm_model_prices (USD per million input / output / cached-input tokens);
+ * models without a price, such as local Ollama models, are free. Prompt tokens written to
+ * Claude's cache are billed at {@link #CACHE_WRITE_FACTOR} times the input price. Counters are kept per caller
+ * (bot name) and per tribe (the group the bot was spawned into) over a rolling hour of one-minute
+ * slots, plus totals since the server started. {@link LlmBudget} reads the hourly spend to move
+ * bots onto cheaper models.
+ *
+ * Charges arrive on transport threads; each counter is locked individually.
+ */
+public final class LlmUsage {
+
+    /** One-minute slots in the rolling window. */
+    private static final int SLOTS = 60;
+    private static final long SLOT_MS = 60_000;
+    /** Bots listed per tribe by /amb usage. */
+    private static final int REPORT_BOTS = 8;
+    /** Claude bills tokens written to its prompt cache at 1.25x the base input price. */
+    static final double CACHE_WRITE_FACTOR = 1.25;
+
+    /** Tokens and cost over some span; cost in micro-dollars (tokens x USD per million). */
+    public record Totals(long calls, long input, long cachedInput, long output, long costMicros, long estimated) {
+        public double cost() {
+            return costMicros / 1e6;
+        }
+    }
+
+    private static final Map<String, Counter> BOTS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> TRIBES = new ConcurrentHashMap<>();
+    private static final Map<String, String> TRIBE_OF = new ConcurrentHashMap<>();
+    private static final Counter ALL = new Counter();
+
+    private static volatile String pricesSource;
+    private static volatile Map<String, double[]> prices = Map.of();
+
+    private LlmUsage() {}
+
+    /** Records that {@code caller}'s calls are charged to {@code tribe} as well. */
+    public static void setTribe(String caller, String tribe) {
+        if (caller == null || caller.isEmpty() || tribe == null || tribe.isBlank()) return;
+        TRIBE_OF.put(caller, tribe.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** The tribe {@code caller} is charged to, or null. */
+    public static String tribeOf(String caller) {
+        return caller == null ? null : TRIBE_OF.get(caller);
+    }
+
+    /** {@code caller}'s spend over the last hour. */
+    public static Totals lastHour(String caller) {
+        Counter c = caller == null ? null : BOTS.get(caller);
+        return c == null ? Counter.EMPTY : c.lastHour(System.currentTimeMillis() / SLOT_MS);
+    }
+
+    /** {@code tribe}'s spend over the last hour, all its bots together. */
+    public static Totals tribeLastHour(String tribe) {
+        Counter c = tribe == null ? null : TRIBES.get(tribe);
+        return c == null ? Counter.EMPTY : c.lastHour(System.currentTimeMillis() / SLOT_MS);
+    }
+
+    /**
+     * Cost in micro-dollars of a call on {@code model}; unpriced models are free. {@code input}
+     * counts every prompt token, {@code cachedInput} and {@code cacheWritten} included.
+     */
+    static long costMicros(String model, long input, long cachedInput, long cacheWritten, long output) {
+        double[] p = prices().get(model == null ? "" : model.toLowerCase(Locale.ROOT));
+        if (p == null) return 0;
+        long fresh = Math.max(0, input - cachedInput - cacheWritten);
+        return Math.round(fresh * p[0] + cacheWritten * p[0] * CACHE_WRITE_FACTOR + output * p[1] + cachedInput * p[2]);
+    }
+
+    /** llm_model_prices as model → {input, output, cached input} USD per million tokens. */
+    private static Map<String, double[]> prices() {
+        String src = BotConfig.LLM_MODEL_PRICES.get();
+        if (src.equals(pricesSource)) return prices;
+        Map<String, double[]> out = new HashMap<>();
+        for (String entry : src.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) continue;
+            String[] parts = entry.substring(eq + 1).trim().split("/");
+            try {
+                double in = Double.parseDouble(parts[0].trim());
+                double o = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : in;
+                double cached = parts.length > 2 ? Double.parseDouble(parts[2].trim()) : in;
+                out.put(entry.substring(0, eq).trim().toLowerCase(Locale.ROOT), new double[]{in, o, cached});
+            } catch (NumberFormatException e) {
+                System.err.println("[AMB-LLM] llm_model_prices: ignoring \"" + entry.trim() + "\"");
+            }
+        }
+        prices = out;
+        pricesSource = src;
+        return out;
+    }
+
+    // ── Metering one call ─────────────────────────────────────────────────────
+
+    /** A meter for one call by {@code caller} on {@code model}. */
+    static Meter meter(String caller, String model) {
+        return new Meter(caller == null ? "" : caller, model);
+    }
+
+    /**
+     * Charges {@code meter} when {@code call} ends and returns {@code call} itself, so cancelling
+     * the result still reaches the request. {@code system} and {@code prompt} size the estimate
+     * for a reply that came without usage.
+     */
+    static <T> CompletableFuture<T> charge(Meter meter, String system, String prompt, CompletableFuture<T> call) {
+        call.whenComplete((reply, error) -> meter.charge(system, prompt, error == null ? String.valueOf(reply) : null));
+        return call;
+    }
+
+    /** Usage reported by one call's responses. Streams report running totals, so later counts replace earlier ones. */
+    static final class Meter {
+        final String caller;
+        final String model;
+        private long input = -1, cachedInput, cacheWritten, output = -1;
+        private boolean charged;
+
+        private Meter(String caller, String model) {
+            this.caller = caller;
+            this.model = model;
+        }
+
+        /** Counts from a usage block; negative means "not in this block". */
+        synchronized void report(long input, long cachedInput, long output) {
+            report(input, cachedInput, 0, output);
+        }
+
+        /** As above, with the prompt tokens written to the provider's cache (part of {@code input}). */
+        synchronized void report(long input, long cachedInput, long cacheWritten, long output) {
+            if (input >= 0) {
+                this.input = input;
+                this.cachedInput = Math.max(0, cachedInput);
+                this.cacheWritten = Math.max(0, cacheWritten);
+            }
+            if (output >= 0) this.output = output;
+        }
+
+        private void charge(String system, String prompt, String reply) {
+            long in, cached, written, out;
+            boolean estimated;
+            synchronized (this) {
+                if (charged) return;
+                charged = true;
+                if (reply == null && input < 0 && output < 0) return;   // failed before any usage arrived
+                estimated = input < 0 || (output < 0 && reply != null);
+                in = input >= 0 ? input : ((system == null ? 0 : system.length()) + (prompt == null ? 0 : prompt.length())) / 4;
+                cached = input >= 0 ? cachedInput : 0;
+                written = input >= 0 ? cacheWritten : 0;
+                out = output >= 0 ? output : (reply == null ? 0 : reply.length() / 4);
+            }
+            long micros = costMicros(model, in, cached, written, out);
+            long slot = System.currentTimeMillis() / SLOT_MS;
+            ALL.add(slot, in, cached, out, micros, estimated);
+            BOTS.computeIfAbsent(caller, k -> new Counter()).add(slot, in, cached, out, micros, estimated);
+            String tribe = TRIBE_OF.get(caller);
+            if (tribe != null) TRIBES.computeIfAbsent(tribe, k -> new Counter()).add(slot, in, cached, out, micros, estimated);
+        }
+    }
+
+    // ── Usage blocks, one reader per wire format ──────────────────────────────
+
+    /** OpenAI / Grok: "usage" of a completion, or of the last chunk of a stream. */
+    static void readOpenAI(JsonObject root, Meter meter) {
+        JsonObject u = object(root, "usage");
+        if (u == null) return;
+        JsonObject details = object(u, "prompt_tokens_details");
+        meter.report(count(u, "prompt_tokens"), details == null ? 0 : Math.max(0, count(details, "cached_tokens")),
+                count(u, "completion_tokens"));
+    }
+
+    /**
+     * Claude: a message's "usage" (message_start carries it inside "message", message_delta at the
+     * top level). input_tokens excludes cache reads and writes, which are added back here; writes
+     * are reported separately so they are priced at the cache-write rate.
+     */
+    static void readClaude(JsonObject root, Meter meter) {
+        JsonObject u = object(root, "usage");
+        if (u == null && object(root, "message") != null) u = object(object(root, "message"), "usage");
+        if (u == null) return;
+        long fresh = count(u, "input_tokens");
+        long read = Math.max(0, count(u, "cache_read_input_tokens"));
+        long written = Math.max(0, count(u, "cache_creation_input_tokens"));
+        meter.report(fresh < 0 ? -1 : fresh + read + written, read, written, count(u, "output_tokens"));
+    }
+
+    /** Gemini: "usageMetadata"; thinking tokens are billed as output. */
+    static void readGemini(JsonObject root, Meter meter) {
+        JsonObject u = object(root, "usageMetadata");
+        if (u == null) return;
+        long out = count(u, "candidatesTokenCount");
+        long thoughts = count(u, "thoughtsTokenCount");
+        if (thoughts > 0) out = Math.max(0, out) + thoughts;
+        meter.report(count(u, "promptTokenCount"), Math.max(0, count(u, "cachedContentTokenCount")), out);
+    }
+
+    /** Ollama: counts on the final ("done") object. */
+    static void readOllama(JsonObject root, Meter meter) {
+        meter.report(count(root, "prompt_eval_count"), 0, count(root, "eval_count"));
+    }
+
+    private static JsonObject object(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return e != null && e.isJsonObject() ? e.getAsJsonObject() : null;
+    }
+
+    private static long count(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return e != null && e.isJsonPrimitive() && e.getAsJsonPrimitive().isNumber() ? e.getAsLong() : -1;
+    }
+
+    // ── Reporting ─────────────────────────────────────────────────────────────
+
+    /** Zeroes every counter. Called when the server stops. */
+    public static void clear() {
+        BOTS.clear();
+        TRIBES.clear();
+        TRIBE_OF.clear();
+        ALL.reset();
+    }
+
+    /** "llm-usage: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        long slot = System.currentTimeMillis() / SLOT_MS;
+        Totals hour = ALL.lastHour(slot);
+        Totals total = ALL.total();
+        return String.format("llm-usage: last hour %d calls, %s in (%.0f%% cached) / %s out tokens, $%.2f; "
+                        + "since start %d calls, $%.2f, %.0f%% estimated; %d bots, %d tribes",
+                hour.calls(), tokens(hour.input()), hour.input() == 0 ? 0.0 : 100.0 * hour.cachedInput() / hour.input(),
+                tokens(hour.output()), hour.cost(), total.calls(), total.cost(),
+                total.calls() == 0 ? 0.0 : 100.0 * total.estimated() / total.calls(), BOTS.size(), TRIBES.size());
+    }
+
+    /**
+     * Last-hour spend per tribe, each followed by its costliest bots, for /amb usage. With
+     * {@code name} set, only that bot or tribe.
+     */
+    public static List<String> reportLines(String name) {
+        long slot = System.currentTimeMillis() / SLOT_MS;
+        List<String> lines = new ArrayList<>();
+        if (name != null && BOTS.containsKey(name)) {
+            lines.add(botLine(name, BOTS.get(name).lastHour(slot)));
+            return lines;
+        }
+        Map<String, List<String>> byTribe = new HashMap<>();
+        for (String bot : BOTS.keySet()) {
+            byTribe.computeIfAbsent(TRIBE_OF.getOrDefault(bot, ""), k -> new ArrayList<>()).add(bot);
+        }
+        List<String> tribes = new ArrayList<>(byTribe.keySet());
+        tribes.sort(Comparator.comparingLong((String t) -> t.isEmpty() ? 0 : tribeLastHour(t).costMicros()).reversed());
+        for (String tribe : tribes) {
+            if (name != null && !name.equals(tribe)) continue;
+            List<String> bots = byTribe.get(tribe);
+            bots.sort(Comparator.comparingLong((String b) -> BOTS.get(b).lastHour(slot).costMicros()).reversed());
+            if (!tribe.isEmpty()) {
+                Totals t = TRIBES.get(tribe) == null ? Counter.EMPTY : TRIBES.get(tribe).lastHour(slot);
+                lines.add(String.format("tribe %s: %d bots, %s%s", tribe, bots.size(), summary(t), LlmBudget.describeTribe(t)));
+            } else {
+                lines.add("no tribe: " + bots.size() + " callers");
+            }
+            for (int i = 0; i < Math.min(REPORT_BOTS, bots.size()); i++) {
+                lines.add("  " + botLine(bots.get(i), BOTS.get(bots.get(i)).lastHour(slot)));
+            }
+            if (bots.size() > REPORT_BOTS) lines.add("  ... " + (bots.size() - REPORT_BOTS) + " more");
+        }
+        if (lines.isEmpty()) lines.add(name == null ? "no LLM usage yet" : "no LLM usage for " + name);
+        return lines;
+    }
+
+    private static String botLine(String caller, Totals t) {
+        return (caller.isEmpty() ? "(no bot)" : caller) + ": " + summary(t) + LlmBudget.describeBot(caller, t);
+    }
+
+    private static String summary(Totals t) {
+        return String.format("%d calls, %s in / %s out, $%.3f/h", t.calls(), tokens(t.input()), tokens(t.output()), t.cost());
+    }
+
+    private static String tokens(long n) {
+        if (n >= 1_000_000) return String.format("%.1fM", n / 1e6);
+        if (n >= 1_000) return String.format("%.1fk", n / 1e3);
+        return Long.toString(n);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    /** Rolling-hour and lifetime counters for one bot, one tribe or everything. */
+    private static final class Counter {
+        static final Totals EMPTY = new Totals(0, 0, 0, 0, 0, 0);
+        // per slot: calls, input, cached input, output, cost micros, estimated
+        private final long[][] slots = new long[SLOTS][6];
+        private final long[] slotMinute = new long[SLOTS];
+        private final long[] total = new long[6];
+
+        synchronized void add(long minute, long in, long cached, long out, long micros, boolean estimated) {
+            int i = (int) (minute % SLOTS);
+            if (slotMinute[i] != minute) {
+                slotMinute[i] = minute;
+                Arrays.fill(slots[i], 0);
+            }
+            long[] row = {1, in, cached, out, micros, estimated ? 1 : 0};
+            for (int k = 0; k < row.length; k++) {
+                slots[i][k] += row[k];
+                total[k] += row[k];
+            }
+        }
+
+        synchronized Totals lastHour(long minute) {
+            long[] sum = new long[6];
+            for (int i = 0; i < SLOTS; i++) {
+                if (minute - slotMinute[i] >= SLOTS) continue;
+                for (int k = 0; k < sum.length; k++) sum[k] += slots[i][k];
+            }
+            return totals(sum);
+        }
+
+        synchronized Totals total() {
+            return totals(total);
+        }
+
+        synchronized void reset() {
+            for (long[] row : slots) Arrays.fill(row, 0);
+            Arrays.fill(slotMinute, 0);
+            Arrays.fill(total, 0);
+        }
+
+        private static Totals totals(long[] s) {
+            return new Totals(s[0], s[1], s[2], s[3], s[4], s[5]);
+        }
+    }
+}
@@ -4,14 +4,12 @@ import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
 import com.google.gson.JsonParser;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.*;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpRequest;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public final class OpenAIResponsesClient implements LlmClient {
-    private final HttpClient http = HttpClient.newHttpClient();
     private final String apiKey;
     private final String model;
 
@@ -32,23 +30,19 @@ public final class OpenAIResponsesClient implements LlmClient {
         }
         """.formatted(model, jsonString(prompt));
 
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.openai.com/v1/responses"))
+        HttpRequest req = LlmTransport.jsonPost("https://api.openai.com/v1/responses", body)
                 .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (resp.statusCode() / 100 != 2) {
-            throw new RuntimeException("OpenAI error " + resp.statusCode() + ": " + resp.body());
-        }
-
-        String json = extractFirstJsonObject(resp.body());
+        String json = extractFirstJsonObject(LlmTransport.await(LlmTransport.send(req, "OpenAI")));
         return SimpleJson.parseActionPlan(json);
     }
 
     public String chat(List<Map<String, String>> messages, int maxTokens) throws IOException, InterruptedException {
+        return LlmTransport.await(chatAsync(messages, maxTokens));
+    }
+
+    public CompletableFuture<String> chatAsync(List<Map<String, String>> messages, int maxTokens) {
         // DEBUG: Log API configuration
         System.out.println("=== OPENAI REQUEST DEBUG ===");
         System.out.println("Model: " + model);
@@ -68,30 +62,19 @@ public final class OpenAIResponsesClient implements LlmClient {
         System.out.println(requestBody);
         System.out.println("====================");
 
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.openai.com/v1/chat/completions"))
+        HttpRequest req = LlmTransport.jsonPost("https://api.openai.com/v1/chat/completions", requestBody)
                 .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-
-        // Get response body ONCE
-        String rawResponse = resp.body();
-
-        // DEBUG: Log raw response
-        System.out.println("=== RAW OPENAI RESPONSE ===");
-        System.out.println("Status Code: " + resp.statusCode());
-        System.out.println("Response Body: " + rawResponse);
-        System.out.println("===========================");
-
-        if (resp.statusCode() != 200) {
-            throw new IOException("OpenAI API error: " + resp.statusCode() + " - " + rawResponse);
-        }
+        return LlmTransport.send(req, "OpenAI", rawResponse -> {
+            // DEBUG: Log raw response (non-2xx statuses fail inside the transport)
+            System.out.println("=== RAW OPENAI RESPONSE ===");
+            System.out.println("Response Body: " + rawResponse);
+            System.out.println("===========================");
 
-        // Use the shared robust Gson-based extraction
-        return LlmResponseParser.extractAssistantContent(rawResponse, "OpenAI");
+            // Use the shared robust Gson-based extraction
+            return LlmResponseParser.extractAssistantContent(rawResponse, "OpenAI");
+        });
     }
 
     private static String jsonString(String s) {
@@ -0,0 +1,126 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Incremental reader for the think response format
+ * {"thought":"...","objective":"...","queue":[{"task":"...","minutes":3},...],"say":"..."}.
+ *
+ * Text is fed in whatever pieces the stream delivers. Each item of the top-level "queue" array
+ * is handed to the listener as soon as its closing brace arrives, so the bot can start the first
+ * step while the rest of the plan is still being generated. Anything before the first '{' (a
+ * markdown fence, a preamble) is skipped. The full text is still available at the end for the
+ * regular parser to pick up "thought" and "say".
+ *
+ * Not thread-safe; one instance per response, fed from the stream's thread.
+ */
+public final class PlanStreamParser {
+
+    /** Receives queue items in order; {@code index} is the item's position in the queue. */
+    @FunctionalInterface
+    public interface Listener {
+        void onQueueItem(int index, String task, double minutes);
+    }
+
+    private final Listener listener;
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder lastString = new StringBuilder();
+    private final StringBuilder item = new StringBuilder();
+
+    private boolean started;
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private String key;          // last key seen at depth 1
+    private int queueDepth = -1; // depth inside the queue array, -1 when not in it
+    private boolean inItem;
+    private int items;
+
+    public PlanStreamParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Feeds the next piece of response text. */
+    public void feed(String chunk) {
+        if (chunk == null) return;
+        text.append(chunk);
+        for (int i = 0; i < chunk.length(); i++) step(chunk.charAt(i));
+    }
+
+    /** Everything fed so far. */
+    public String text() {
+        return text.toString();
+    }
+
+    /** Queue items seen so far, unparseable ones included (the next item's index). */
+    public int itemCount() {
+        return items;
+    }
+
+    private void step(char c) {
+        if (!started) {
+            if (c != '{') return;
+            started = true;
+        }
+        if (inItem) item.append(c);
+
+        if (inString) {
+            if (escape) {
+                escape = false;
+                if (depth == 1) lastString.append(c);
+            } else if (c == '\\') {
+                escape = true;
+            } else if (c == '"') {
+                inString = false;
+            } else if (depth == 1) {
+                lastString.append(c);
+            }
+            return;
+        }
+
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                if (depth == 1) lastString.setLength(0);
+            }
+            case ':' -> {
+                if (depth == 1) key = lastString.toString();
+            }
+            case '{', '[' -> {
+                depth++;
+                if (c == '[' && depth == 2 && "queue".equals(key)) {
+                    queueDepth = depth;
+                } else if (c == '{' && queueDepth > 0 && depth == queueDepth + 1) {
+                    inItem = true;
+                    item.setLength(0);
+                    item.append('{');
+                }
+            }
+            case '}', ']' -> {
+                if (inItem && c == '}' && depth == queueDepth + 1) {
+                    inItem = false;
+                    emit(item.toString());
+                }
+                if (c == ']' && depth == queueDepth) queueDepth = -1;
+                depth--;
+                if (depth == 1) key = null;
+            }
+            default -> { }
+        }
+    }
+
+    private void emit(String json) {
+        int index = items++;   // position in the queue, whether or not this item parses
+        try {
+            JsonObject obj = JsonParser.parseString(json).getAsJsonObject();
+            String task = obj.has("task") ? obj.get("task").getAsString() : "idle";
+            double minutes = obj.has("minutes") ? obj.get("minutes").getAsDouble() : 3.0;
+            listener.onQueueItem(index, task, minutes);
+        } catch (RuntimeException e) {
+            // Malformed item: leave it to the full parse at the end
+            System.out.println("[AMB-LLM] Streamed queue item " + index + " unparseable (" + json.length()
+                    + " chars) — left to the full reply");
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.shayneomac08.automated_minecraft_bots.llm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import com.shayneomac08.automated_minecraft_bots.agent.ActionPlan;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schema-constrained replies for the two formats BotBrain asks for, and a strict reader for them.
+ *
+ * Each provider is asked for the schema in its native mode: a strict json_schema response_format
+ * for OpenAI and Grok, a forced tool call for Claude (the tool's input is the reply), a
+ * responseSchema for Gemini and a format schema for Ollama. The reply is then plain JSON in the
+ * schema's shape — no prose around it, no markdown fence — so it can be read strictly:
+ * {@link #parsePlan} and {@link #parseChatDecision} check every field's presence and type and
+ * throw a JsonParseException naming the first problem instead of guessing.
+ *
+ * With llm_structured_output off (or a provider that ignores the schema) the readers still accept
+ * a reply wrapped in prose or a fence, as long as the object inside it is well-formed and complete.
+ */
+public final class StructuredOutput {
+
+    /** The reply formats BotBrain uses. */
+    public enum Schema {
+        /** {"thought","objective","queue":[{"task","minutes"}],"say"} for autonomous thinks. */
+        PLAN("bot_plan", "Submit the bot's plan: reasoning, objective, ordered task queue and an optional chat line."),
+        /** {"obey","response"} for a player's chat command. */
+        CHAT_DECISION("chat_decision", "Decide whether to obey the player and what to say back.");
+
+        /** Schema and tool name sent to the provider. */
+        final String id;
+        final String description;
+
+        Schema(String id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+    }
+
+    /** The answer to a player's chat command. */
+    public record ChatDecision(boolean obey, String response) {}
+
+    /** Longest step a plan may ask for; longer ones are clamped. */
+    private static final double MAX_STEP_MINUTES = 60.0;
+
+    private static final AtomicLong PLANS = new AtomicLong();
+    private static final AtomicLong DECISIONS = new AtomicLong();
+    private static final AtomicLong REJECTED = new AtomicLong();
+
+    private StructuredOutput() {}
+
+    /** True if {@code schema} should be sent with the request. */
+    static boolean enabled(Schema schema) {
+        return schema != null && BotConfig.LLM_STRUCTURED_OUTPUT.get();
+    }
+
+    // ── Request decoration, one per wire format ──────────────────────────────
+
+    /** OpenAI / Grok chat completions: a strict json_schema response_format. */
+    static void applyOpenAI(JsonObject root, Schema schema) {
+        if (!enabled(schema)) return;
+        JsonObject format = new JsonObject();
+        format.addProperty("name", schema.id);
+        format.addProperty("strict", true);
+        format.add("schema", jsonSchema(schema));
+        JsonObject responseFormat = new JsonObject();
+        responseFormat.addProperty("type", "json_schema");
+        responseFormat.add("json_schema", format);
+        root.add("response_format", responseFormat);
+    }
+
+    /** Anthropic Messages: one tool whose input is the reply, and a tool_choice forcing it. */
+    static void applyClaude(JsonObject root, Schema schema) {
+        if (!enabled(schema)) return;
+        JsonObject tool = new JsonObject();
+        tool.addProperty("name", schema.id);
+        tool.addProperty("description", schema.description);
+        tool.add("input_schema", jsonSchema(schema));
+        JsonArray tools = new JsonArray();
+        tools.add(tool);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("type", "tool");
+        choice.addProperty("name", schema.id);
+        root.add("tools", tools);
+        root.add("tool_choice", choice);
+    }
+
+    /** Gemini: JSON mime type and a responseSchema in the generationConfig. */
+    static void applyGemini(JsonObject generationConfig, Schema schema) {
+        if (!enabled(schema)) return;
+        generationConfig.addProperty("responseMimeType", "application/json");
+        generationConfig.add("responseSchema", geminiSchema(schema));
+    }
+
+    /** Ollama /api/chat: the schema as "format". */
+    static void applyOllama(JsonObject root, Schema schema) {
+        if (!enabled(schema)) return;
+        root.add("format", jsonSchema(schema));
+    }
+
+    /** JSON Schema as OpenAI strict mode accepts it: every property required, nothing extra. */
+    static JsonObject jsonSchema(Schema schema) {
+        return shape(schema, false);
+    }
+
+    /** The same shape in Gemini's OpenAPI subset; propertyOrdering keeps the thought first. */
+    static JsonObject geminiSchema(Schema schema) {
+        return shape(schema, true);
+    }
+
+    private static JsonObject shape(Schema schema, boolean gemini) {
+        return switch (schema) {
+            case PLAN -> object(gemini, fields(
+                    "thought", string(gemini, "Your reasoning: what you need and why"),
+                    "objective", string(gemini, "Short name for the long-term goal"),
+                    "queue", array(gemini, object(gemini, fields(
+                            "task", string(gemini, "Task name, e.g. gather_wood, mine_stone, craft, build_underground_base"),
+                            "minutes", number(gemini, "How long to spend on it")))),
+                    "say", string(gemini, "Chat message for players, or empty for none")));
+            case CHAT_DECISION -> object(gemini, fields(
+                    "obey", bool(gemini, "Whether you will do what the player asked"),
+                    "response", string(gemini, "Your chat message to the player")));
+        };
+    }
+
+    // ── Strict reading ────────────────────────────────────────────────────────
+
+    /**
+     * A think reply as a plan_queue ActionPlan (objective in the goal slot, say as text). Throws
+     * JsonParseException if the reply is not a plan: missing or mistyped fields, an empty queue,
+     * a blank task or a non-positive duration.
+     */
+    public static ActionPlan parsePlan(String reply) {
+        try {
+            JsonObject o = object(reply);
+            String thought = requireString(o, "thought");
+            String objective = optionalString(o, "objective");
+            String say = optionalString(o, "say");
+            JsonElement q = o.get("queue");
+            if (q == null || !q.isJsonArray()) throw new JsonParseException("plan: \"queue\" is missing or not an array");
+            JsonArray queue = q.getAsJsonArray();
+            if (queue.isEmpty()) throw new JsonParseException("plan: \"queue\" is empty");
+            List<String> tasks = new ArrayList<>(queue.size());
+            List<Double> minutes = new ArrayList<>(queue.size());
+            for (int i = 0; i < queue.size(); i++) {
+                if (!queue.get(i).isJsonObject()) throw new JsonParseException("plan: queue[" + i + "] is not an object");
+                JsonObject item = queue.get(i).getAsJsonObject();
+                String task = requireString(item, "task").trim();
+                if (task.isEmpty()) throw new JsonParseException("plan: queue[" + i + "].task is blank");
+                double m = requireNumber(item, "minutes");
+                if (!(m > 0)) throw new JsonParseException("plan: queue[" + i + "].minutes is " + m);
+                tasks.add(task);
+                minutes.add(Math.min(m, MAX_STEP_MINUTES));
+            }
+            PLANS.incrementAndGet();
+            return new ActionPlan(List.of(new ActionPlan.Action("plan_queue", blankToNull(say), null, null, null,
+                    null, null, blankToNull(objective), null, tasks, minutes, thought)));
+        } catch (JsonParseException | IllegalStateException e) {
+            REJECTED.incrementAndGet();
+            throw e instanceof JsonParseException jpe ? jpe : new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    /** A chat-command reply. Throws JsonParseException unless it has a boolean "obey" and a string "response". */
+    public static ChatDecision parseChatDecision(String reply) {
+        try {
+            JsonObject o = object(reply);
+            JsonElement obey = o.get("obey");
+            if (obey == null || !obey.isJsonPrimitive() || !obey.getAsJsonPrimitive().isBoolean()) {
+                throw new JsonParseException("chat decision: \"obey\" is missing or not a boolean");
+            }
+            ChatDecision d = new ChatDecision(obey.getAsBoolean(), requireString(o, "response"));
+            DECISIONS.incrementAndGet();
+            return d;
+        } catch (JsonParseException | IllegalStateException e) {
+            REJECTED.incrementAndGet();
+            throw e instanceof JsonParseException jpe ? jpe : new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    /** "structured: ..." summary for logs and /amb stats. */
+    public static String statsLine() {
+        return String.format("structured: %s, %d plans, %d chat decisions, %d replies rejected",
+                BotConfig.LLM_STRUCTURED_OUTPUT.get() ? "on" : "off", PLANS.get(), DECISIONS.get(), REJECTED.get());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    /** The reply's JSON object; a reply wrapped in prose or a markdown fence is unwrapped first. */
+    private static JsonObject object(String reply) {
+        if (reply == null) throw new JsonParseException("empty reply");
+        String s = reply.trim();
+        if (!s.startsWith("{")) {
+            int a = s.indexOf('{');
+            int b = s.lastIndexOf('}');
+            if (a < 0 || b <= a) throw new JsonParseException("no JSON object in reply");
+            s = s.substring(a, b + 1);
+        }
+        JsonElement e = JsonParser.parseString(s);
+        if (!e.isJsonObject()) throw new JsonParseException("reply is not a JSON object");
+        return e.getAsJsonObject();
+    }
+
+    private static String requireString(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        if (e == null || !e.isJsonPrimitive() || !e.getAsJsonPrimitive().isString()) {
+            throw new JsonParseException("\"" + key + "\" is missing or not a string");
+        }
+        return e.getAsString();
+    }
+
+    private static String optionalString(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        if (e == null || e.isJsonNull()) return null;
+        if (!e.isJsonPrimitive() || !e.getAsJsonPrimitive().isString()) {
+            throw new JsonParseException("\"" + key + "\" is not a string");
+        }
+        return e.getAsString();
+    }
+
+    private static double requireNumber(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        if (e == null || !e.isJsonPrimitive() || !e.getAsJsonPrimitive().isNumber()) {
+            throw new JsonParseException("\"" + key + "\" is missing or not a number");
+        }
+        return e.getAsDouble();
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    private static Map<String, JsonObject> fields(Object... nameThenSchema) {
+        Map<String, JsonObject> m = new LinkedHashMap<>();
+        for (int i = 0; i < nameThenSchema.length; i += 2) m.put((String) nameThenSchema[i], (JsonObject) nameThenSchema[i + 1]);
+        return m;
+    }
+
+    private static JsonObject object(boolean gemini, Map<String, JsonObject> properties) {
+        JsonObject props = new JsonObject();
+        JsonArray required = new JsonArray();
+        for (Map.Entry<String, JsonObject> e : properties.entrySet()) {
+            props.add(e.getKey(), e.getValue());
+            required.add(e.getKey());
+        }
+        JsonObject o = type(gemini, "object", null);
+        o.add("properties", props);
+        o.add("required", required);
+        if (gemini) o.add("propertyOrdering", required.deepCopy());
+        else o.addProperty("additionalProperties", false);
+        return o;
+    }
+
+    private static JsonObject array(boolean gemini, JsonObject items) {
+        JsonObject o = type(gemini, "array", null);
+        o.add("items", items);
+        return o;
+    }
+
+    private static JsonObject string(boolean gemini, String description) {
+        return type(gemini, "string", description);
+    }
+
+    private static JsonObject number(boolean gemini, String description) {
+        return type(gemini, "number", description);
+    }
+
+    private static JsonObject bool(boolean gemini, String description) {
+        return type(gemini, "boolean", description);
+    }
+
+    /** Gemini's Schema uses the upper-case OpenAPI type names. */
+    private static JsonObject type(boolean gemini, String type, String description) {
+        JsonObject o = new JsonObject();
+        o.add("type", new JsonPrimitive(gemini ? type.toUpperCase(Locale.ROOT) : type));
+        if (description != null) o.addProperty("description", description);
+        return o;
+    }
+}
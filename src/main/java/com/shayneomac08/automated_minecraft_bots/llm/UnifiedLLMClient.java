@@ -3,6 +3,7 @@ package com.shayneomac08.automated_minecraft_bots.llm;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Unified client that can use OpenAI, Gemini, or Grok based on configuration
@@ -42,13 +43,21 @@ public class UnifiedLLMClient {
     }
 
     public String chat(List<Map<String, String>> messages, int maxTokens) throws IOException, InterruptedException {
-        return switch (provider) {
-            case OPENAI -> openaiClient.chat(messages, maxTokens);
-            case GEMINI -> geminiClient.chat(messages, maxTokens);
-            case GROK   -> grokClient.chat(messages, maxTokens);
-            case CLAUDE, OLLAMA -> throw new UnsupportedOperationException(
-                    provider + " is not supported by UnifiedLLMClient — use LLMClient.query() instead");
-        };
+        return LlmTransport.await(chatAsync(messages, maxTokens));
+    }
+
+    public CompletableFuture<String> chatAsync(List<Map<String, String>> messages, int maxTokens) {
+        if (provider == LLMProvider.CLAUDE || provider == LLMProvider.OLLAMA) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException(
+                    provider + " is not supported by UnifiedLLMClient — use LLMClient.queryAsync() instead"));
+        }
+        int chars = 0;
+        for (Map<String, String> msg : messages) chars += String.valueOf(msg.get("content")).length();
+        return LlmAdmission.submit(provider, "", chars / 4 + maxTokens, () -> switch (provider) {
+            case OPENAI -> openaiClient.chatAsync(messages, maxTokens);
+            case GEMINI -> geminiClient.chatAsync(messages, maxTokens);
+            default     -> grokClient.chatAsync(messages, maxTokens);
+        });
     }
 
     public LLMProvider getProvider() {
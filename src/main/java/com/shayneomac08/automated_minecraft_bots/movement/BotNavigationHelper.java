@@ -1,5 +1,6 @@
 package com.shayneomac08.automated_minecraft_bots.movement;
 
+import com.shayneomac08.automated_minecraft_bots.world.BlockScanner;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
@@ -59,12 +60,21 @@ public final class BotNavigationHelper {
      * Returns the BlockPos of the exit, or null if none found.
      */
     public static BlockPos findNearestExit(ServerLevel level, BlockPos botPos) {
-        BlockPos doorExit = null;
+        // A palette-filtered scan (most sections hold no door) finds the nearest door ring; the ring
+        // scan stops there, since a door wins over anything found on the same or a later ring.
+        // The bot's own column (ring 0) is not part of the ring scan.
+        BlockPos nearestDoor = BlockScanner.findNearest(level, botPos, 32, 2, 4,
+                state -> state.is(BlockTags.DOORS),
+                pos -> pos.getX() != botPos.getX() || pos.getZ() != botPos.getZ(),
+                (dx, dy, dz) -> Math.max(Math.abs(dx), Math.abs(dz)));
+        int doorRing = nearestDoor == null ? -1
+                : Math.max(Math.abs(nearestDoor.getX() - botPos.getX()), Math.abs(nearestDoor.getZ() - botPos.getZ()));
+        int lastRing = nearestDoor == null ? 32 : doorRing;
+
         BlockPos openingExit = null;
         BlockPos stairExit = null;
 
-        outer:
-        for (int ring = 1; ring <= 32; ring++) {
+        for (int ring = 1; ring <= lastRing; ring++) {
             for (int dx = -ring; dx <= ring; dx++) {
                 for (int dz = -ring; dz <= ring; dz++) {
                     if (Math.abs(dx) != ring && Math.abs(dz) != ring) continue; // Border of ring only
@@ -73,10 +83,10 @@ public final class BotNavigationHelper {
                         BlockPos check = botPos.offset(dx, dy, dz);
                         BlockState state = level.getBlockState(check);
 
-                        // Priority 1: Any door
-                        if (doorExit == null && state.is(BlockTags.DOORS)) {
-                            doorExit = check;
-                            break outer; // Door is highest priority — return immediately
+                        // Priority 1: Any door — on its ring, the first one in scan order
+                        if (ring == doorRing) {
+                            if (state.is(BlockTags.DOORS)) return check;
+                            continue;
                         }
 
                         // Priority 2: 2-tall air opening leading toward sky
@@ -101,11 +111,10 @@ public final class BotNavigationHelper {
             }
 
             // Return best found at this ring before expanding further
-            if (doorExit != null)    return doorExit;
             if (openingExit != null) return openingExit;
         }
 
-        if (openingExit != null) return openingExit;
+        if (nearestDoor != null) return nearestDoor;   // only if the door ring changed under the scan
         return stairExit;
     }
 
@@ -15,16 +15,22 @@ public class BotTicker {
      * Execute bot tick - called every game tick for physics and movement updates
      */
     public static void tick(FakePlayer bot, BlockPos goal, HumanlikeMovement.MovementState movementState) {
+        tick(bot, goal, movementState, true);
+    }
+
+    /** With {@code cosmetic} false only climbing is handled — no head sway or idle look-around. */
+    public static void tick(FakePlayer bot, BlockPos goal, HumanlikeMovement.MovementState movementState,
+                            boolean cosmetic) {
         if (bot == null) return;
 
         // Apply human-like head movement
-        HumanlikeMovement.applyHumanlikeHeadMovement(bot, movementState, goal);
+        if (cosmetic) HumanlikeMovement.applyHumanlikeHeadMovement(bot, movementState, goal);
 
         // Handle climbing (ladders, vines, water)
         handleClimbing(bot, goal);
 
         // Random exploration if no goal and no cooldown
-        if (goal == null || goal.equals(BlockPos.ZERO)) {
+        if (cosmetic && (goal == null || goal.equals(BlockPos.ZERO))) {
             if (bot.tickCount % 100 == 0 && Math.random() < 0.3) {
                 // 30% chance every 5 seconds to look around
                 HumanlikeMovement.lookAround(bot);
@@ -2,6 +2,7 @@ package com.shayneomac08.automated_minecraft_bots.movement;
 
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.component.DataComponents;
 import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -9,6 +10,7 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.food.FoodProperties;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.block.Block;
@@ -85,6 +87,14 @@ public class RealisticActions {
      * Returns true when block is broken
      */
     public static boolean continueMining(FakePlayer player, MiningState state) {
+        return continueMining(player, state, 1, true);
+    }
+
+    /**
+     * Advance mining by {@code ticks} ticks at once. With {@code cosmetic} false the crack stages
+     * and arm swings are not sent (nobody is near enough to see them); the final clear still is.
+     */
+    public static boolean continueMining(FakePlayer player, MiningState state, int ticks, boolean cosmetic) {
         if (player == null || state == null || !state.isMining) return false;
 
         ServerLevel level = (ServerLevel) player.level();
@@ -98,17 +108,20 @@ public class RealisticActions {
         }
 
         // Increment mining progress
-        state.miningTicks++;
+        int before = state.miningTicks;
+        state.miningTicks += ticks;
 
         // Update breaking animation (0-9 stages)
-        int stage = Math.min(9, (state.miningTicks * 10) / state.requiredTicks);
-        level.destroyBlockProgress(player.getId(), state.targetBlock, stage);
+        if (cosmetic) {
+            int stage = Math.min(9, (state.miningTicks * 10) / state.requiredTicks);
+            level.destroyBlockProgress(player.getId(), state.targetBlock, stage);
+        }
 
         // Keep looking at the block
         RealisticMovement.lookAt(player, Vec3.atCenterOf(state.targetBlock));
 
-        // Swing arm for visual feedback
-        if (state.miningTicks % 4 == 0) {
+        // Swing arm for visual feedback (once per 4 mining ticks passed)
+        if (cosmetic && state.miningTicks / 4 > before / 4) {
             System.out.printf("[AMB-SWING] %s swing tick=%d/%d at %s%n",
                 player.getName().getString(), state.miningTicks, state.requiredTicks, state.targetBlock);
             player.swing(InteractionHand.MAIN_HAND);
@@ -184,8 +197,9 @@ public class RealisticActions {
         ItemStack food = findFood(player);
         if (food.isEmpty()) return false;
 
-        // Get food properties
-        int hungerRestored = 0;
+        // Get food properties; anything else edible restores what its food component says
+        FoodProperties props = food.get(DataComponents.FOOD);
+        int hungerRestored = props == null ? 0 : props.nutrition();
         if (food.is(Items.COOKED_BEEF) || food.is(Items.COOKED_PORKCHOP)) {
             hungerRestored = 8;
         } else if (food.is(Items.COOKED_CHICKEN) || food.is(Items.COOKED_MUTTON)) {
@@ -213,7 +227,8 @@ public class RealisticActions {
     }
 
     /**
-     * Find food in inventory
+     * Find food in inventory: the preferred foods first, then any stack with a food component
+     * (the same test BotSurvivalNeeds counts food with)
      */
     private static ItemStack findFood(FakePlayer player) {
         // Priority order: cooked meat > raw meat > bread > apples
@@ -239,6 +254,13 @@ public class RealisticActions {
             }
         }
 
+        for (int i = 0; i < player.getInventory().getContainerSize(); i++) {
+            ItemStack stack = player.getInventory().getItem(i);
+            if (!stack.isEmpty() && stack.get(DataComponents.FOOD) != null) {
+                return stack;
+            }
+        }
+
         return ItemStack.EMPTY;
     }
 
@@ -1,15 +1,12 @@
 package com.shayneomac08.automated_minecraft_bots.movement;
 
+import com.shayneomac08.automated_minecraft_bots.pathfinding.NavigationGrid;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.MoverType;
 import net.minecraft.world.level.ClipContext;
-import net.minecraft.world.level.block.DoorBlock;
-import net.minecraft.world.level.block.FenceGateBlock;
-import net.minecraft.world.level.block.SlabBlock;
-import net.minecraft.world.level.block.StairBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.HitResult;
@@ -26,6 +23,15 @@ public class RealisticMovement {
      * Returns true if still moving, false if reached destination
      */
     public static boolean moveTowards(LivingEntity entity, BlockPos target, float speed) {
+        return moveTowards(entity, target, speed, 1);
+    }
+
+    /**
+     * Same as moveTowards(entity, target, speed), but covers {@code steps} ticks of walking in one
+     * move() (clamped so it never overshoots the target). Used by reduced-fidelity bots that only
+     * run their decision logic every few ticks.
+     */
+    public static boolean moveTowards(LivingEntity entity, BlockPos target, float speed, int steps) {
         if (entity == null || target == null) return false;
 
         Vec3 currentPos = entity.position();
@@ -93,8 +99,9 @@ public class RealisticMovement {
 
         // Apply speed directly each tick.
         double variation = 0.02;
-        double newVX = dirX * speed * (1.0 + (Math.random() * variation * 2 - variation));
-        double newVZ = dirZ * speed * (1.0 + (Math.random() * variation * 2 - variation));
+        double stride = steps > 1 ? Math.min(speed * steps, horizontalDist) : speed;
+        double newVX = dirX * stride * (1.0 + (Math.random() * variation * 2 - variation));
+        double newVZ = dirZ * stride * (1.0 + (Math.random() * variation * 2 - variation));
 
         // FakePlayer's super.tick() applies gravity to deltaMovement but does NOT call
         // travel()→move(deltaMovement) because isEffectiveAi()=false for player-type entities.
@@ -316,42 +323,12 @@ public class RealisticMovement {
     }
 
     /**
-     * Returns true if the block state can serve as a walkable floor.
-     * canOcclude() is false for stairs/slabs but they fully support standing.
-     * isSolid() is deprecated in 1.21 but has no single-argument replacement; suppress the warning.
-     */
-    @SuppressWarnings("deprecation")
-    private static boolean isWalkableFloor(BlockState state) {
-        if (state.isAir()) return false;
-        if (state.getBlock() instanceof DoorBlock) return false;
-        if (state.getBlock() instanceof FenceGateBlock) return false;
-        if (state.canOcclude()) return true;
-        return state.getBlock() instanceof StairBlock
-            || state.getBlock() instanceof SlabBlock
-            || state.isSolid();
-    }
-
-    /**
-     * Check if a position is safe to walk on
+     * Check if a position is safe to walk on: walkable floor below (includes stairs, slabs and
+     * other partial surfaces), feet and head not occluding. Lava is not hard-blocked here;
+     * callers choose path costs. Answered from the shared NavigationGrid.
      */
     public static boolean isWalkable(ServerLevel level, BlockPos pos) {
-        BlockPos below = pos.below();
-        BlockPos feet = pos;
-        BlockPos head = pos.above();
-
-        BlockState belowState = level.getBlockState(below);
-        BlockState feetState = level.getBlockState(feet);
-        BlockState headState = level.getBlockState(head);
-
-        // Must have walkable floor — includes stairs, slabs, and other partial surfaces
-        if (!isWalkableFloor(belowState)) return false;
-
-        // Must have space for body
-        if (feetState.canOcclude() || headState.canOcclude()) return false;
-
-        // Do not hard-block lava here; caller will choose path costs. Treat as potentially passable.
-
-        return true;
+        return NavigationGrid.of(level).isWalkable(pos.getX(), pos.getY(), pos.getZ());
     }
 
     /**
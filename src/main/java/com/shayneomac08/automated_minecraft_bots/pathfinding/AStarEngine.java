@@ -0,0 +1,278 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Allocation-light A* over packed block positions.
+ *
+ * Node state lives in parallel primitive arrays indexed by node id, the position → id
+ * lookup is a {@link LongIntHashMap}, and the open set is an indexed binary heap
+ * (decrease-key instead of duplicate entries). All buffers are kept between searches,
+ * so once an engine has warmed up a 16k-node search allocates only the returned path.
+ *
+ * An engine is not thread-safe — keep one per bot or per worker thread.
+ * A search can be run in one go with {@link #search} or sliced with {@link #begin}/{@link #run}.
+ */
+public final class AStarEngine {
+
+    public static final int RUNNING = 0;
+    public static final int FOUND = 1;
+    public static final int EXHAUSTED = 2;
+
+    private static final int NO_PARENT = -1;
+    private static final int CLOSED = -2;   // heap slot marker for expanded nodes
+
+    // ── Node storage ───────────────────────────────────────────────────────────
+    private long[] nodePos = new long[1024];
+    private int[] nodeG = new int[1024];
+    private int[] nodeF = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private int[] nodeHeapSlot = new int[1024];
+    private int nodeCount;
+
+    private final LongIntHashMap index = new LongIntHashMap(4096);
+
+    // ── Open set (binary min-heap of node ids) ─────────────────────────────────
+    private int[] heap = new int[1024];
+    private int heapSize;
+
+    private final long[] neighborBuf = new long[MoveModel.MAX_NEIGHBORS];
+
+    // ── Current search ─────────────────────────────────────────────────────────
+    private MoveModel model;
+    private long goal;
+    private boolean flood;      // Dijkstra from start with no goal (h = 0)
+    private LongPredicate goalTest;   // flood stops at the first expanded node passing this
+    private int maxNodes;
+    private int expanded;
+    private int status = EXHAUSTED;
+    private int endNode = NO_PARENT;
+    private int bestNode;
+    private int bestH;
+
+    /** Runs a complete search and returns the path (start excluded), or a partial path / empty list. */
+    public List<BlockPos> search(long start, long goal, MoveModel model, int maxNodes) {
+        begin(start, goal, model, maxNodes);
+        run(maxNodes);
+        return path();
+    }
+
+    /**
+     * Expands everything reachable from {@code start} (up to {@code maxNodes}) in cost order.
+     * Afterwards {@link #costTo} answers exact path costs to any expanded position.
+     */
+    public void flood(long start, MoveModel model, int maxNodes) {
+        begin(start, start, model, maxNodes);
+        flood = true;
+        run(maxNodes);
+    }
+
+    /**
+     * Dijkstra from {@code start} that stops at the cheapest position accepted by {@code isGoal}
+     * (status FOUND, path() leads there) or exhausts {@code maxNodes}. isGoal sees each expanded
+     * position once, in cost order.
+     */
+    public List<BlockPos> searchNearest(long start, MoveModel model, int maxNodes, LongPredicate isGoal) {
+        begin(start, start, model, maxNodes);
+        flood = true;
+        goalTest = isGoal;
+        run(maxNodes);
+        goalTest = null;
+        return status == FOUND ? path() : new ArrayList<>();
+    }
+
+    /** Cost of the cheapest path from the start to an expanded position, or -1. */
+    public int costTo(long pos) {
+        int id = index.get(pos);
+        return id != LongIntHashMap.MISSING && nodeHeapSlot[id] == CLOSED ? nodeG[id] : -1;
+    }
+
+    /** Resets the engine for a new search without expanding anything. */
+    public void begin(long start, long goal, MoveModel model, int maxNodes) {
+        this.model = model;
+        this.goal = goal;
+        this.flood = false;
+        this.goalTest = null;
+        this.maxNodes = maxNodes;
+        this.expanded = 0;
+        this.endNode = NO_PARENT;
+        this.status = RUNNING;
+        nodeCount = 0;
+        heapSize = 0;
+        index.clear();
+
+        int h = heuristic(start, goal);
+        int s = addNode(start, 0, h, NO_PARENT);
+        push(s);
+        bestNode = s;
+        bestH = h;
+    }
+
+    /**
+     * Expands up to {@code budget} nodes. Returns {@link #RUNNING} if the search needs more
+     * time, {@link #FOUND} when the goal was reached or {@link #EXHAUSTED} when the open set or
+     * node budget ran out (path() then returns the partial path to the closest node).
+     */
+    public int run(int budget) {
+        if (status != RUNNING) return status;
+        long[] buf = neighborBuf;
+        int stopAt = Math.min(maxNodes, expanded + budget);
+
+        while (heapSize > 0 && expanded < stopAt) {
+            int cur = pop();
+            nodeHeapSlot[cur] = CLOSED;
+            expanded++;
+
+            long curPos = nodePos[cur];
+            int curG = nodeG[cur];
+            int h = nodeF[cur] - curG;
+            if (h < bestH) {
+                bestH = h;
+                bestNode = cur;
+            }
+            if (flood ? goalTest != null && goalTest.test(curPos) : curPos == goal) {
+                endNode = cur;
+                return status = FOUND;
+            }
+
+            int n = model.neighbors(curPos, buf);
+            for (int i = 0; i < n; i++) {
+                long nPos = buf[i];
+                int g = curG + model.cost(curPos, nPos);
+                int id = index.get(nPos);
+                if (id == LongIntHashMap.MISSING) {
+                    id = addNode(nPos, g, flood ? g : g + heuristic(nPos, goal), cur);
+                    push(id);
+                } else {
+                    int slot = nodeHeapSlot[id];
+                    if (slot == CLOSED || g >= nodeG[id]) continue;
+                    nodeF[id] = g + (nodeF[id] - nodeG[id]);
+                    nodeG[id] = g;
+                    nodeParent[id] = cur;
+                    siftUp(slot);
+                }
+            }
+        }
+
+        if (heapSize > 0 && expanded < maxNodes) return RUNNING;
+        endNode = bestNode;
+        return status = EXHAUSTED;
+    }
+
+    /** Path to the goal (FOUND) or to the closest explored node (EXHAUSTED), start excluded. */
+    public List<BlockPos> path() {
+        if (endNode == NO_PARENT) return new ArrayList<>();
+        int len = 0;
+        for (int id = endNode; nodeParent[id] != NO_PARENT; id = nodeParent[id]) len++;
+        BlockPos[] out = new BlockPos[len];
+        int i = len;
+        for (int id = endNode; nodeParent[id] != NO_PARENT; id = nodeParent[id]) {
+            out[--i] = BlockPos.of(nodePos[id]);
+        }
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    /** Snapshot of the finished search for hand-off to another thread. */
+    public PathResult result() {
+        return new PathResult(path(), reachedGoal(), expanded, BlockPos.of(endPos()), bestH);
+    }
+
+    public int status() { return status; }
+    public int expanded() { return expanded; }
+    public boolean reachedGoal() { return status == FOUND; }
+
+    /** Packed position the returned path ends at. */
+    public long endPos() {
+        return endNode == NO_PARENT ? nodePos[0] : nodePos[endNode];
+    }
+
+    /** Heuristic distance of the closest node explored so far. */
+    public int bestHeuristic() { return bestH; }
+
+    /** Same weighting the entity planner has always used: vertical moves count double. */
+    public static int heuristic(long a, long b) {
+        return Math.abs(BlockPos.getX(a) - BlockPos.getX(b))
+             + Math.abs(BlockPos.getZ(a) - BlockPos.getZ(b))
+             + Math.abs(BlockPos.getY(a) - BlockPos.getY(b)) * 2;
+    }
+
+    // ── Node + heap internals ──────────────────────────────────────────────────
+
+    private int addNode(long pos, int g, int f, int parent) {
+        if (nodeCount == nodePos.length) {
+            int cap = nodeCount << 1;
+            nodePos = Arrays.copyOf(nodePos, cap);
+            nodeG = Arrays.copyOf(nodeG, cap);
+            nodeF = Arrays.copyOf(nodeF, cap);
+            nodeParent = Arrays.copyOf(nodeParent, cap);
+            nodeHeapSlot = Arrays.copyOf(nodeHeapSlot, cap);
+        }
+        int id = nodeCount++;
+        nodePos[id] = pos;
+        nodeG[id] = g;
+        nodeF[id] = f;
+        nodeParent[id] = parent;
+        index.put(pos, id);
+        return id;
+    }
+
+    /** Lower f first; on ties prefer the node closer to the goal (lower h). */
+    private boolean less(int a, int b) {
+        int fa = nodeF[a], fb = nodeF[b];
+        if (fa != fb) return fa < fb;
+        return fa - nodeG[a] < fb - nodeG[b];
+    }
+
+    private void push(int id) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize << 1);
+        heap[heapSize] = id;
+        nodeHeapSlot[id] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            nodeHeapSlot[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (!less(id, parent)) break;
+            heap[slot] = parent;
+            nodeHeapSlot[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = id;
+        nodeHeapSlot[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < heapSize && less(heap[right], heap[child])) child = right;
+            if (!less(heap[child], id)) break;
+            heap[slot] = heap[child];
+            nodeHeapSlot[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        nodeHeapSlot[id] = slot;
+    }
+}
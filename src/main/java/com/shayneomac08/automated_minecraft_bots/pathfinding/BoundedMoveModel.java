@@ -0,0 +1,61 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * Restricts another {@link MoveModel} to an axis-aligned box of block positions and,
+ * optionally, to cells a bot can stand in (no mid-air climbing chains).
+ * Used for searches that must stay inside one chunk section.
+ */
+public final class BoundedMoveModel implements MoveModel {
+
+    private final long[] buffer = new long[MAX_NEIGHBORS];
+    private MoveModel inner;
+    private NavView standableIn;     // null = keep every neighbor inside the box
+    private int minX, minY, minZ, maxX, maxY, maxZ;
+
+    public BoundedMoveModel bind(MoveModel inner, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return bind(inner, null, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public BoundedMoveModel bind(MoveModel inner, NavView standableIn,
+                                 int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.inner = inner;
+        this.standableIn = standableIn;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        return this;
+    }
+
+    public boolean contains(long pos) {
+        int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    @Override
+    public int neighbors(long pos, long[] out) {
+        int n = inner.neighbors(pos, buffer);
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            long q = buffer[i];
+            if (!contains(q)) continue;
+            if (standableIn != null && !isStandable(q)) continue;
+            out[kept++] = q;
+        }
+        return kept;
+    }
+
+    private boolean isStandable(long pos) {
+        int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+        return standableIn.isPassable(x, y, z) || NavFlags.has(standableIn.flags(x, y, z), NavFlags.WATER);
+    }
+
+    @Override
+    public int cost(long from, long to) {
+        return inner.cost(from, to);
+    }
+}
@@ -0,0 +1,131 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+
+import static com.shayneomac08.automated_minecraft_bots.pathfinding.NavFlags.*;
+
+/**
+ * Walking rules for bots: the same neighbor set and step costs computeAStarPath has
+ * always used (8-way moves, one-block step up/down, drops, vertical moves), expressed
+ * over packed positions and {@link NavFlags} so expansions do not allocate.
+ *
+ * Reads terrain through a {@link NavView}; bind() it before each search. Not thread-safe.
+ */
+public final class GroundMoveModel implements MoveModel {
+
+    private static final int[] STEP_X = {1, 1, -1, -1, 1, 0, -1, 0};
+    private static final int[] STEP_Z = {1, -1, 1, -1, 0, 1, 0, -1};
+
+    private NavView view;
+
+    public GroundMoveModel bind(NavView view) {
+        this.view = view;
+        return this;
+    }
+
+    public NavView view() {
+        return view;
+    }
+
+    private int flags(int x, int y, int z) {
+        return view.flags(x, y, z);
+    }
+
+    private boolean isPassable(int x, int y, int z) {
+        return view.isPassable(x, y, z);
+    }
+
+    private boolean isWalkable(int x, int y, int z) {
+        return view.isWalkable(x, y, z);
+    }
+
+    private boolean isPassableVertical(int x, int y, int z) {
+        return view.isPassableVertical(x, y, z);
+    }
+
+    // ── MoveModel ──────────────────────────────────────────────────────────────
+
+    @Override
+    public int neighbors(long pos, long[] out) {
+        int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+        int n = 0;
+
+        // Cardinal passability drives diagonal corner-cutting prevention for all three rings
+        boolean passE = isPassable(x + 1, y, z);
+        boolean passW = isPassable(x - 1, y, z);
+        boolean passS = isPassable(x, y, z + 1);
+        boolean passN = isPassable(x, y, z - 1);
+        // A one-block step up needs something solid under the bot to jump from
+        boolean canJump = isStandable(flags(x, y - 1, z));
+
+        for (int i = 0; i < 8; i++) {
+            int dx = STEP_X[i], dz = STEP_Z[i];
+            if (dx != 0 && dz != 0) {
+                boolean sideX = dx > 0 ? passE : passW;
+                boolean sideZ = dz > 0 ? passS : passN;
+                if (!sideX || !sideZ) continue;
+            }
+            int nx = x + dx, nz = z + dz;
+
+            // Same level: floor must occlude so waypoints never sit on a cliff edge
+            if (isPassable(nx, y, nz) && has(flags(nx, y - 1, nz), OCCLUDES)) {
+                out[n++] = BlockPos.asLong(nx, y, nz);
+            }
+            // Step up one block (stairs/slabs are climbable too)
+            if (canJump && isPassable(nx, y + 1, nz) && isFloorOrWater(flags(nx, y, nz))) {
+                out[n++] = BlockPos.asLong(nx, y + 1, nz);
+            }
+            // Step down one block
+            if (isPassable(nx, y - 1, nz) && isWalkable(nx, y - 1, nz)) {
+                out[n++] = BlockPos.asLong(nx, y - 1, nz);
+            }
+        }
+
+        // Straight-down drop (holes / water)
+        if (isPassable(x, y - 1, z) || has(flags(x, y - 1, z), WATER)) {
+            out[n++] = BlockPos.asLong(x, y - 1, z);
+        }
+        // Vertical moves (VerticalNavigation.addVerticalNeighbors); a 1-block fall is always safe
+        if (isPassableVertical(x, y + 1, z)) out[n++] = BlockPos.asLong(x, y + 1, z);
+        if (isPassableVertical(x, y - 1, z)) out[n++] = BlockPos.asLong(x, y - 1, z);
+
+        return n;
+    }
+
+    @Override
+    public int cost(long from, long to) {
+        int tx = BlockPos.getX(to), ty = BlockPos.getY(to), tz = BlockPos.getZ(to);
+        int dx = tx - BlockPos.getX(from);
+        int dy = ty - BlockPos.getY(from);
+        int dz = tz - BlockPos.getZ(from);
+        int state = flags(tx, ty, tz);
+        int below = flags(tx, ty - 1, tz);
+
+        int cost = (dx != 0 && dz != 0) ? 2 : 1;   // diagonal ≈ sqrt(2), rounded up
+
+        cost += verticalCost(from, dy, state);
+
+        if ((state & DOOR) != 0) cost += (state & DOOR_OPEN) != 0 ? 1 : 2;
+        if ((state & WATER) != 0) cost += 3;     // okay to cross
+        if ((state & LAVA) != 0) cost += 47;     // risky but not forbidden
+        if ((state & AIR) != 0 && (below & AIR) != 0) cost += 12;  // cliff
+        if ((below & CHEAP) != 0) cost -= 1;     // stairs, slabs, paths
+
+        return Math.max(1, cost);
+    }
+
+    /**
+     * VerticalNavigation.getVerticalMovementCost truncated to int, read from the grid.
+     * ±1 steps cost under one block and truncate to 0; only larger moves add cost.
+     */
+    private int verticalCost(long from, int dy, int targetFlags) {
+        if (dy >= -1 && dy <= 1) return 0;
+        if (dy == 2) {
+            int above = flags(BlockPos.getX(from), BlockPos.getY(from) + 1, BlockPos.getZ(from));
+            return (above & AIR) != 0 || (above & OCCLUDES) == 0 ? 2 : 10;
+        }
+        if (dy > 2) return (int) (2.0 + (dy - 2) * 1.5);
+        // Falls of 3 or less, or into water, are safe
+        return (-dy <= 3 || (targetFlags & WATER) != 0) ? 0 : 15;
+    }
+}
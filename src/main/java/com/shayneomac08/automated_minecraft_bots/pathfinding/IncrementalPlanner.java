@@ -0,0 +1,359 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lifelong Planning A* (LPA*) for one bot's active goal.
+ *
+ * plan() runs a normal best-first search but keeps the whole search tree — g, rhs and the
+ * parent pointer of every node it touched. When blocks near the path change, repair() only
+ * re-evaluates the nodes whose moves could have changed (a small box around each edited block)
+ * and re-expands whatever that makes inconsistent, so breaking a block in front of the bot costs
+ * a few dozen node updates instead of a fresh 16k-node search.
+ *
+ * The tree is rooted at the position the bot stood on when plan() ran; pathFrom() returns the
+ * part of the repaired path after the bot's current cell. Server thread only, one per bot.
+ */
+public final class IncrementalPlanner {
+
+    private static final int INF = 1 << 29;
+    private static final int NO_PARENT = -1;
+    private static final int NOT_QUEUED = -1;
+
+    /** GroundMoveModel only links cells at most one block apart on each axis. */
+    private static final int REACH = 1;
+    /** Cells around an edited block whose moves (or the moves into them) can change. */
+    private static final int EDIT_RADIUS_XZ = 3;
+    private static final int EDIT_RADIUS_Y = 4;
+
+    // ── Node storage ───────────────────────────────────────────────────────────
+    private long[] nodePos = new long[1024];
+    private int[] nodeG = new int[1024];
+    private int[] nodeRhs = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private int[] nodeHeapSlot = new int[1024];
+    private long[] nodeKey = new long[1024];
+    private int[] nodeMark = new int[1024];
+    private int nodeCount;
+    private int markRound;
+
+    private final LongIntHashMap index = new LongIntHashMap(4096);
+
+    private int[] heap = new int[1024];
+    private int heapSize;
+
+    private final long[] succBuf = new long[MoveModel.MAX_NEIGHBORS];
+    private final long[] predBuf = new long[MoveModel.MAX_NEIGHBORS];
+    private int[] affected = new int[256];
+
+    // ── Current tree ───────────────────────────────────────────────────────────
+    private MoveModel model;
+    private long start;
+    private long goal;
+    private boolean hasTree;
+    private int work;   // expansions + rhs recomputations in the last plan()/repair()
+
+    /** Drops the current tree. */
+    public void reset() {
+        hasTree = false;
+        nodeCount = 0;
+        heapSize = 0;
+        index.clear();
+    }
+
+    /** True if a consistent tree towards {@code goal} is held and can be repaired. */
+    public boolean hasTree(long goal) {
+        return hasTree && this.goal == goal;
+    }
+
+    /** Node expansions plus rhs recomputations spent by the last plan() or repair(). */
+    public int lastWork() {
+        return work;
+    }
+
+    /**
+     * Builds a new tree from {@code start} to {@code goal}. Returns false (and drops the tree)
+     * if the goal was not reached within {@code budget} expansions.
+     */
+    public boolean plan(long start, long goal, MoveModel model, int budget) {
+        reset();
+        this.model = model;
+        this.start = start;
+        this.goal = goal;
+        this.work = 0;
+        int s = node(start);
+        nodeRhs[s] = 0;
+        updateQueue(s);
+        hasTree = computeShortestPath(budget);
+        if (!hasTree) reset();
+        return hasTree;
+    }
+
+    /**
+     * Repairs the tree after the blocks at {@code edits[0..count)} changed. {@code model} must read
+     * the post-edit terrain. Returns false (and drops the tree) if the goal became unreachable or
+     * the repair needed more than {@code budget} expansions.
+     */
+    public boolean repair(long[] edits, int count, MoveModel model, int budget) {
+        if (!hasTree) return false;
+        this.model = model;
+        this.work = 0;
+
+        // Collect every known node near an edit once
+        int n = 0;
+        int round = ++markRound;
+        for (int e = 0; e < count; e++) {
+            int bx = BlockPos.getX(edits[e]), by = BlockPos.getY(edits[e]), bz = BlockPos.getZ(edits[e]);
+            for (int x = bx - EDIT_RADIUS_XZ; x <= bx + EDIT_RADIUS_XZ; x++) {
+                for (int z = bz - EDIT_RADIUS_XZ; z <= bz + EDIT_RADIUS_XZ; z++) {
+                    for (int y = by - EDIT_RADIUS_Y; y <= by + EDIT_RADIUS_Y; y++) {
+                        int id = index.get(BlockPos.asLong(x, y, z));
+                        if (id == LongIntHashMap.MISSING || nodeMark[id] == round) continue;
+                        nodeMark[id] = round;
+                        if (n == affected.length) affected = Arrays.copyOf(affected, n << 1);
+                        affected[n++] = id;
+                    }
+                }
+            }
+        }
+        if (n == 0) return true;
+
+        // Moves out of these nodes may have changed: re-derive their rhs from current predecessors,
+        // then offer their current successors (which may be new) a cheaper parent.
+        for (int i = 0; i < n; i++) {
+            int id = affected[i];
+            if (nodePos[id] != start) recomputeRhs(id);
+            updateQueue(id);
+        }
+        for (int i = 0; i < n; i++) {
+            int id = affected[i];
+            if (nodeG[id] < INF) relaxSuccessors(id);
+        }
+
+        hasTree = computeShortestPath(budget);
+        if (!hasTree) reset();
+        return hasTree;
+    }
+
+    /**
+     * Path after {@code from} to the goal (from excluded), or null if {@code from} is not on the
+     * current shortest path — the caller should plan() again from where the bot stands.
+     */
+    public List<BlockPos> pathFrom(long from) {
+        if (!hasTree) return null;
+        int id = index.get(goal);
+        if (id == LongIntHashMap.MISSING || nodeG[id] >= INF) return null;
+
+        List<BlockPos> out = new ArrayList<>();
+        int steps = 0;
+        while (nodePos[id] != from) {
+            out.add(BlockPos.of(nodePos[id]));
+            id = nodeParent[id];
+            if (id == NO_PARENT || ++steps > nodeCount) return null;   // from not on the path
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // ── LPA* core ──────────────────────────────────────────────────────────────
+
+    private boolean computeShortestPath(int budget) {
+        int expanded = 0;
+        while (heapSize > 0) {
+            int goalId = index.get(goal);
+            if (goalId != LongIntHashMap.MISSING && nodeG[goalId] == nodeRhs[goalId]
+                    && nodeKey[heap[0]] >= key(goalId)) {
+                break;
+            }
+            if (expanded++ >= budget) return false;
+            work++;
+
+            int u = pop();
+            if (nodeG[u] > nodeRhs[u]) {
+                nodeG[u] = nodeRhs[u];       // overconsistent: settle and relax
+                relaxSuccessors(u);
+            } else {
+                nodeG[u] = INF;              // underconsistent: re-derive u and its children
+                if (nodePos[u] != start) recomputeRhs(u);
+                updateQueue(u);
+                int n = model.neighbors(nodePos[u], succBuf);
+                for (int i = 0; i < n; i++) {
+                    int s = index.get(succBuf[i]);
+                    if (s == LongIntHashMap.MISSING || nodeParent[s] != u) continue;
+                    recomputeRhs(s);
+                    updateQueue(s);
+                }
+            }
+        }
+        int goalId = index.get(goal);
+        return goalId != LongIntHashMap.MISSING && nodeG[goalId] < INF && nodeG[goalId] == nodeRhs[goalId];
+    }
+
+    private void relaxSuccessors(int u) {
+        long uPos = nodePos[u];
+        int n = model.neighbors(uPos, succBuf);
+        for (int i = 0; i < n; i++) {
+            long sPos = succBuf[i];
+            if (sPos == start) continue;
+            int g = nodeG[u] + model.cost(uPos, sPos);
+            int s = node(sPos);
+            if (g < nodeRhs[s]) {
+                nodeRhs[s] = g;
+                nodeParent[s] = u;
+                updateQueue(s);
+            }
+        }
+    }
+
+    /** rhs(s) = min over current predecessors p of g(p) + cost(p, s). */
+    private void recomputeRhs(int s) {
+        work++;
+        long sPos = nodePos[s];
+        int sx = BlockPos.getX(sPos), sy = BlockPos.getY(sPos), sz = BlockPos.getZ(sPos);
+        int best = INF, bestParent = NO_PARENT;
+        for (int dx = -REACH; dx <= REACH; dx++) {
+            for (int dy = -REACH; dy <= REACH; dy++) {
+                for (int dz = -REACH; dz <= REACH; dz++) {
+                    if (dx == 0 && dy == 0 && dz == 0) continue;
+                    long pPos = BlockPos.asLong(sx + dx, sy + dy, sz + dz);
+                    int p = index.get(pPos);
+                    if (p == LongIntHashMap.MISSING || nodeG[p] >= INF || nodeG[p] >= best) continue;
+                    if (!linksTo(pPos, sPos)) continue;
+                    int g = nodeG[p] + model.cost(pPos, sPos);
+                    if (g < best) {
+                        best = g;
+                        bestParent = p;
+                    }
+                }
+            }
+        }
+        nodeRhs[s] = best;
+        nodeParent[s] = bestParent;
+    }
+
+    private boolean linksTo(long from, long to) {
+        int n = model.neighbors(from, predBuf);
+        for (int i = 0; i < n; i++) if (predBuf[i] == to) return true;
+        return false;
+    }
+
+    /** [min(g, rhs) + h, min(g, rhs)] packed so a plain long comparison orders keys. */
+    private long key(int id) {
+        int m = Math.min(nodeG[id], nodeRhs[id]);
+        return ((long) (m + heuristic(nodePos[id], goal)) << 32) | m;
+    }
+
+    /**
+     * Chebyshev distance. Unlike AStarEngine's weighted estimate this is consistent (every move
+     * changes each axis by at most one and costs at least one), which LPA* needs for repaired
+     * trees to stay correct.
+     */
+    private static int heuristic(long a, long b) {
+        int dx = Math.abs(BlockPos.getX(a) - BlockPos.getX(b));
+        int dy = Math.abs(BlockPos.getY(a) - BlockPos.getY(b));
+        int dz = Math.abs(BlockPos.getZ(a) - BlockPos.getZ(b));
+        return Math.max(dx, Math.max(dy, dz));
+    }
+
+    private void updateQueue(int id) {
+        int slot = nodeHeapSlot[id];
+        if (nodeG[id] != nodeRhs[id]) {
+            nodeKey[id] = key(id);
+            if (slot == NOT_QUEUED) {
+                push(id);
+            } else {
+                siftUp(slot);
+                siftDown(nodeHeapSlot[id]);
+            }
+        } else if (slot != NOT_QUEUED) {
+            remove(slot);
+        }
+    }
+
+    // ── Node + heap internals ──────────────────────────────────────────────────
+
+    private int node(long pos) {
+        int id = index.get(pos);
+        if (id != LongIntHashMap.MISSING) return id;
+        if (nodeCount == nodePos.length) {
+            int cap = nodeCount << 1;
+            nodePos = Arrays.copyOf(nodePos, cap);
+            nodeG = Arrays.copyOf(nodeG, cap);
+            nodeRhs = Arrays.copyOf(nodeRhs, cap);
+            nodeParent = Arrays.copyOf(nodeParent, cap);
+            nodeHeapSlot = Arrays.copyOf(nodeHeapSlot, cap);
+            nodeKey = Arrays.copyOf(nodeKey, cap);
+            nodeMark = Arrays.copyOf(nodeMark, cap);
+        }
+        id = nodeCount++;
+        nodePos[id] = pos;
+        nodeG[id] = INF;
+        nodeRhs[id] = INF;
+        nodeParent[id] = NO_PARENT;
+        nodeHeapSlot[id] = NOT_QUEUED;
+        nodeMark[id] = 0;
+        index.put(pos, id);
+        return id;
+    }
+
+    private void push(int id) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize << 1);
+        heap[heapSize] = id;
+        nodeHeapSlot[id] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        remove(0);
+        return top;
+    }
+
+    private void remove(int slot) {
+        int id = heap[slot];
+        nodeHeapSlot[id] = NOT_QUEUED;
+        int last = heap[--heapSize];
+        if (slot == heapSize) return;
+        heap[slot] = last;
+        nodeHeapSlot[last] = slot;
+        siftUp(slot);
+        siftDown(nodeHeapSlot[last]);
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        long k = nodeKey[id];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (nodeKey[parent] <= k) break;
+            heap[slot] = parent;
+            nodeHeapSlot[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = id;
+        nodeHeapSlot[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        long k = nodeKey[id];
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < heapSize && nodeKey[heap[right]] < nodeKey[heap[child]]) child = right;
+            if (nodeKey[heap[child]] >= k) break;
+            heap[slot] = heap[child];
+            nodeHeapSlot[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        nodeHeapSlot[id] = slot;
+    }
+}
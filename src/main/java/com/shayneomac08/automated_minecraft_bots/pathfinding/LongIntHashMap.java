@@ -0,0 +1,125 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long → int map used by the path engines.
+ * Keys are packed block positions (BlockPos.asLong), values are node indices.
+ * Linear probing, power-of-two capacity, no boxing and no per-entry objects.
+ * clear() keeps the backing arrays so the map can be reused across searches.
+ */
+public final class LongIntHashMap {
+
+    /** Returned by get() when the key is absent. */
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;   // MISSING marks an empty slot
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap(int expectedSize) {
+        int cap = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.6f);
+        size = 0;
+    }
+
+    /** Murmur3 finalizer — BlockPos.asLong puts X/Z in the high bits, so mix before masking. */
+    private static int slot(long key, int mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    public int get(long key) {
+        int i = slot(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /** Stores key → value (value must be ≥ 0). */
+    public void put(long key, int value) {
+        int i = slot(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size >= resizeAt) rehash(keys.length << 1);
+    }
+
+    /** Removes a key, back-shifting the probe chain so lookups stay correct. */
+    public int remove(long key) {
+        int i = slot(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                int old = values[i];
+                shiftDown(i);
+                size--;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    private void shiftDown(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == MISSING) break;
+            int home = slot(keys[i], mask);
+            // Move entry i into the hole if its home slot is not in (hole, i]
+            boolean between = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!between) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = MISSING;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Empties the map but keeps its capacity. */
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+/**
+ * Movement rules the path engine searches over.
+ * Positions are packed with BlockPos.asLong so implementations never allocate per expansion.
+ */
+public interface MoveModel {
+
+    /** Upper bound on neighbors written by a single neighbors() call. */
+    int MAX_NEIGHBORS = 32;
+
+    /**
+     * Writes every position reachable in one step from {@code pos} into {@code out}
+     * and returns how many were written. Duplicates are allowed.
+     */
+    int neighbors(long pos, long[] out);
+
+    /** Cost of stepping from {@code from} to the neighbor {@code to}; always ≥ 1. */
+    int cost(long from, long to);
+}
@@ -0,0 +1,101 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.DoorBlock;
+import net.minecraft.world.level.block.FenceGateBlock;
+import net.minecraft.world.level.block.SlabBlock;
+import net.minecraft.world.level.block.StairBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+
+/**
+ * Compact traversal class of a single block, packed into a short.
+ * Everything the pathfinding predicates used to ask BlockState for is one bit here,
+ * so the rules in {@link GroundMoveModel} are pure bit tests.
+ */
+public final class NavFlags {
+
+    private NavFlags() {}
+
+    public static final int AIR       = 1;
+    public static final int OCCLUDES  = 1 << 1;  // BlockState.canOcclude()
+    public static final int DOOR      = 1 << 2;  // DoorBlock
+    public static final int DOOR_OPEN = 1 << 3;
+    public static final int GATE      = 1 << 4;  // FenceGateBlock
+    public static final int FENCE     = 1 << 5;  // fences and walls — not occluding, but block movement
+    public static final int WATER     = 1 << 6;
+    public static final int LAVA      = 1 << 7;
+    public static final int FLOOR     = 1 << 8;  // can be stood on (full blocks, stairs, slabs, other solids)
+    public static final int CHEAP     = 1 << 9;  // stairs, slabs, dirt path — preferred surfaces
+    /** Set on every classified entry so a zero short can mean "not computed yet". */
+    public static final int KNOWN     = 1 << 15;
+
+    /** Flags for blocks in chunks that are not loaded: solid, never walkable. */
+    public static final int UNKNOWN_SOLID = KNOWN | OCCLUDES;
+
+    // Flags per block-state id; 0 = not classified yet. Races only ever write the same value.
+    private static volatile short[] stateCache = new short[0];
+
+    /** Memoized {@link #classify} keyed by block-state id. */
+    public static int forState(BlockState state) {
+        int id = Block.getId(state);
+        if (id < 0) return classify(state);
+        short[] cache = stateCache;
+        if (id >= cache.length) {
+            cache = new short[Math.max(id + 1, Block.BLOCK_STATE_REGISTRY.size())];
+            stateCache = cache;
+        }
+        int f = cache[id] & 0xFFFF;
+        if (f == 0) {
+            f = classify(state);
+            cache[id] = (short) f;
+        }
+        return f;
+    }
+
+    /** Tags (fences, walls) can change on datapack reload. */
+    public static void clearCache() {
+        stateCache = new short[0];
+    }
+
+    @SuppressWarnings("deprecation")
+    public static int classify(BlockState state) {
+        int f = KNOWN;
+        Block block = state.getBlock();
+        boolean air = state.isAir();
+        boolean door = block instanceof DoorBlock;
+        boolean gate = block instanceof FenceGateBlock;
+        boolean stairOrSlab = block instanceof StairBlock || block instanceof SlabBlock;
+
+        if (air) f |= AIR;
+        if (state.canOcclude()) f |= OCCLUDES;
+        if (door) {
+            f |= DOOR;
+            if (state.getOptionalValue(BlockStateProperties.OPEN).orElse(false)) f |= DOOR_OPEN;
+        }
+        if (gate) f |= GATE;
+        if (state.is(BlockTags.FENCES) || state.is(BlockTags.WALLS)) f |= FENCE;
+        if (state.is(Blocks.WATER)) f |= WATER;
+        if (state.is(Blocks.LAVA)) f |= LAVA;
+        // isSolid() is deprecated in 1.21 but has no single-argument replacement
+        if (!air && !door && !gate && (state.canOcclude() || stairOrSlab || state.isSolid())) f |= FLOOR;
+        if (stairOrSlab || state.is(Blocks.DIRT_PATH)) f |= CHEAP;
+        return f;
+    }
+
+    public static boolean has(int flags, int bit) {
+        return (flags & bit) != 0;
+    }
+
+    /** AmbNpcEntity.isWalkableFloor: solid floors plus water. */
+    public static boolean isFloorOrWater(int flags) {
+        return (flags & (FLOOR | WATER)) != 0;
+    }
+
+    /** AmbNpcEntity.canStandOn: an occluding block that is not a door or gate. */
+    public static boolean isStandable(int flags) {
+        return (flags & OCCLUDES) != 0 && (flags & (DOOR | GATE)) == 0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Immutable view of the navigation grid over a box of chunk sections, safe to search off-thread.
+ *
+ * Captured on the server thread. Sections the grid has already classified are shared by
+ * reference (the grid never edits a published array). Sections it has not seen yet are taken
+ * as a copy of the chunk's block-state container and classified lazily by the worker, so a
+ * capture costs a few small copies rather than thousands of block lookups.
+ *
+ * A snapshot is read by one worker at a time.
+ */
+public final class NavSnapshot implements NavView {
+
+    private static final int OUTSIDE_WORLD = NavFlags.KNOWN | NavFlags.AIR;
+
+    private final NavigationGrid grid;
+    private final int minChunkX, minChunkZ, minSectionIndex;
+    private final int sizeX, sizeZ, sizeY;
+    private final int minSectionY;        // world section Y of grid section index 0
+    private final int minBuildY, maxBuildY;
+
+    private final short[][] sections;
+    private final PalettedContainer<BlockState>[] pending;
+    private final long[] stamps;
+
+    @SuppressWarnings("unchecked")
+    private NavSnapshot(NavigationGrid grid, int minChunkX, int minChunkZ, int minSectionIndex,
+                        int sizeX, int sizeZ, int sizeY) {
+        ServerLevel level = grid.level();
+        this.grid = grid;
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.minSectionIndex = minSectionIndex;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.sizeY = sizeY;
+        this.minSectionY = level.getMinSectionY();
+        this.minBuildY = minSectionY << 4;
+        this.maxBuildY = minBuildY + (grid.sectionCount() << 4);
+        int n = sizeX * sizeZ * sizeY;
+        this.sections = new short[n][];
+        this.pending = new PalettedContainer[n];
+        this.stamps = new long[n];
+    }
+
+    /**
+     * Captures every section overlapping the box spanned by {@code a} and {@code b},
+     * grown by {@code marginXZ} / {@code marginY} blocks. Server thread only.
+     */
+    public static NavSnapshot capture(NavigationGrid grid, BlockPos a, BlockPos b, int marginXZ, int marginY) {
+        ServerLevel level = grid.level();
+        int minX = Math.min(a.getX(), b.getX()) - marginXZ, maxX = Math.max(a.getX(), b.getX()) + marginXZ;
+        int minZ = Math.min(a.getZ(), b.getZ()) - marginXZ, maxZ = Math.max(a.getZ(), b.getZ()) + marginXZ;
+        int lastSection = grid.sectionCount() - 1;
+        int minSi = clamp(level.getSectionIndex(Math.min(a.getY(), b.getY()) - marginY), 0, lastSection);
+        int maxSi = clamp(level.getSectionIndex(Math.max(a.getY(), b.getY()) + marginY), 0, lastSection);
+
+        NavSnapshot snap = new NavSnapshot(grid, minX >> 4, minZ >> 4, minSi,
+                (maxX >> 4) - (minX >> 4) + 1, (maxZ >> 4) - (minZ >> 4) + 1, maxSi - minSi + 1);
+
+        for (int cx = 0; cx < snap.sizeX; cx++) {
+            for (int cz = 0; cz < snap.sizeZ; cz++) {
+                int chunkX = snap.minChunkX + cx, chunkZ = snap.minChunkZ + cz;
+                NavigationGrid.Column column = grid.column(chunkX, chunkZ);
+                if (column == null) continue;   // not loaded — reads as solid
+                LevelChunk chunk = null;
+                for (int sy = 0; sy < snap.sizeY; sy++) {
+                    int si = minSi + sy;
+                    int i = snap.index(cx, cz, sy);
+                    snap.stamps[i] = column.stamps[si];
+                    short[] cached = column.sections[si];
+                    if (cached != null) {
+                        snap.sections[i] = cached;
+                        column.copiedAt[si] = NavigationGrid.NOT_COPIED;   // shared: the next edit copies again
+                        continue;
+                    }
+                    if (chunk == null) chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                    if (chunk == null) break;
+                    LevelChunkSection section = chunk.getSection(si);
+                    snap.pending[i] = section.getStates().copy();
+                }
+            }
+        }
+        return snap;
+    }
+
+    private static int clamp(int v, int lo, int hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+
+    private int index(int cx, int cz, int sy) {
+        return (sy * sizeZ + cz) * sizeX + cx;
+    }
+
+    @Override
+    public int flags(int x, int y, int z) {
+        if (y < minBuildY || y >= maxBuildY) return OUTSIDE_WORLD;
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        int sy = (y >> 4) - minSectionY - minSectionIndex;
+        if (cx < 0 || cx >= sizeX || cz < 0 || cz >= sizeZ || sy < 0 || sy >= sizeY) {
+            return NavFlags.UNKNOWN_SOLID;
+        }
+        int i = index(cx, cz, sy);
+        short[] section = sections[i];
+        if (section == null) {
+            PalettedContainer<BlockState> states = pending[i];
+            if (states == null) return NavFlags.UNKNOWN_SOLID;
+            section = NavigationGrid.classify(states);
+            sections[i] = section;
+            pending[i] = null;
+        }
+        return section[NavigationGrid.indexOf(x, y, z)] & 0xFFFF;
+    }
+
+    /** True if no captured section has changed in the live grid since capture. Server thread only. */
+    public boolean isCurrent() {
+        for (int cx = 0; cx < sizeX; cx++) {
+            for (int cz = 0; cz < sizeZ; cz++) {
+                for (int sy = 0; sy < sizeY; sy++) {
+                    long stamp = stamps[index(cx, cz, sy)];
+                    if (stamp == 0) continue;   // chunk was not loaded at capture
+                    if (grid.stamp(minChunkX + cx, minSectionIndex + sy, minChunkZ + cz) != stamp) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int sectionCount() {
+        return sections.length;
+    }
+}
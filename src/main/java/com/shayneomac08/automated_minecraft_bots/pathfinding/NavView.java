@@ -0,0 +1,38 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import static com.shayneomac08.automated_minecraft_bots.pathfinding.NavFlags.*;
+
+/**
+ * Read access to {@link NavFlags} for a region of the world, plus the walking
+ * predicates every path consumer shares. Implemented by the live {@link NavigationGrid}.
+ */
+public interface NavView {
+
+    /** Traversal flags of one block. */
+    int flags(int x, int y, int z);
+
+    /** Feet and head are clear (doors/gates count as clear), no fence/wall, walkable floor or water below. */
+    default boolean isPassable(int x, int y, int z) {
+        int feet = flags(x, y, z);
+        int head = flags(x, y + 1, z);
+        if (((feet | head) & FENCE) != 0) return false;
+        boolean feetClear = (feet & OCCLUDES) == 0 || (feet & (DOOR | GATE)) != 0;
+        boolean headClear = (head & OCCLUDES) == 0 || (head & (DOOR | GATE)) != 0;
+        return feetClear && headClear && isFloorOrWater(flags(x, y - 1, z));
+    }
+
+    /** RealisticMovement.isWalkable: solid floor (not water), feet and head not occluding. */
+    default boolean isWalkable(int x, int y, int z) {
+        return has(flags(x, y - 1, z), FLOOR)
+            && !has(flags(x, y, z), OCCLUDES)
+            && !has(flags(x, y + 1, z), OCCLUDES);
+    }
+
+    /** VerticalNavigation.isPassableVertical: feet and head clear or a door. */
+    default boolean isPassableVertical(int x, int y, int z) {
+        int feet = flags(x, y, z);
+        int head = flags(x, y + 1, z);
+        return ((feet & OCCLUDES) == 0 || (feet & DOOR) != 0)
+            && ((head & OCCLUDES) == 0 || (head & DOOR) != 0);
+    }
+}
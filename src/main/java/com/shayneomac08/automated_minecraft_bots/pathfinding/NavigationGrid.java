@@ -0,0 +1,258 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared per-level cache of {@link NavFlags}, one short per block, stored per chunk section.
+ *
+ * A section is classified in one pass the first time any bot's search touches it, then every
+ * later lookup by any bot is an array read. Entries are kept current by WorldChangeHandler
+ * (block updates patch single entries, breaks/places drop the section, chunk unloads drop the
+ * column). Unloaded chunks are never loaded by a lookup — they read as solid.
+ *
+ * Server thread only. Off-thread consumers use a {@link NavSnapshot}; section arrays a snapshot
+ * has taken are never modified in place, so snapshots can share them safely. Edits copy a section
+ * at most once per tick: later edits that tick patch the copy until a snapshot takes it.
+ */
+public final class NavigationGrid implements NavView {
+
+    private static final Map<ResourceKey<Level>, NavigationGrid> GRIDS = new ConcurrentHashMap<>();
+
+    /** Flags for positions above/below the build limit (void air). */
+    private static final int OUTSIDE_WORLD = NavFlags.KNOWN | NavFlags.AIR;
+
+    private final ServerLevel level;
+    private final int sectionCount;
+    private final Map<Long, Column> columns = new HashMap<>();
+
+    // One-entry column cache — A* touches the same column many times in a row
+    private long lastChunk = Long.MIN_VALUE;
+    private Column lastColumn;
+
+    // Monotonic change stamp; snapshots compare per-section stamps to detect edits
+    private long changeCounter;
+
+    // Ring of recently edited positions, read by path repair (IncrementalPlanner)
+    private static final int EDIT_RING = 256;
+    private final long[] recentEdits = new long[EDIT_RING];
+    private long editCount;
+
+    /**
+     * Cached sections of one chunk column. Section arrays are copy-on-write once published,
+     * so snapshots can hold them while the grid keeps changing.
+     */
+    static final class Column {
+        final short[][] sections;
+        final long[] stamps;
+        final long[] copiedAt;   // game time sections[si] was copied for an edit; NOT_COPIED once shared
+
+        Column(int sectionCount, long stamp) {
+            sections = new short[sectionCount][];
+            stamps = new long[sectionCount];
+            copiedAt = new long[sectionCount];
+            Arrays.fill(stamps, stamp);
+            Arrays.fill(copiedAt, NOT_COPIED);
+        }
+    }
+
+    static final long NOT_COPIED = Long.MIN_VALUE;
+
+    private NavigationGrid(ServerLevel level) {
+        this.level = level;
+        this.sectionCount = level.getSectionsCount();
+    }
+
+    public static NavigationGrid of(ServerLevel level) {
+        NavigationGrid grid = GRIDS.get(level.dimension());
+        if (grid == null || grid.level != level) {
+            grid = new NavigationGrid(level);
+            GRIDS.put(level.dimension(), grid);
+        }
+        return grid;
+    }
+
+    /** The grid for this level if one has been built, without creating it. */
+    public static NavigationGrid existing(ServerLevel level) {
+        NavigationGrid grid = GRIDS.get(level.dimension());
+        return grid != null && grid.level == level ? grid : null;
+    }
+
+    public static void discard(ServerLevel level) {
+        GRIDS.remove(level.dimension());
+    }
+
+    public static void discardAll() {
+        GRIDS.clear();
+    }
+
+    public ServerLevel level() {
+        return level;
+    }
+
+    // ── Lookups ────────────────────────────────────────────────────────────────
+
+    @Override
+    public int flags(int x, int y, int z) {
+        if (level.isOutsideBuildHeight(y)) return OUTSIDE_WORLD;
+        short[] section = section(x >> 4, level.getSectionIndex(y), z >> 4);
+        if (section == null) return NavFlags.UNKNOWN_SOLID;
+        return section[indexOf(x, y, z)] & 0xFFFF;
+    }
+
+    public int flags(BlockPos pos) {
+        return flags(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    static int indexOf(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    /** Classified section, building it on first access; null if the chunk is not loaded. */
+    short[] section(int chunkX, int sectionIndex, int chunkZ) {
+        Column column = column(chunkX, chunkZ);
+        if (column == null) return null;
+
+        short[] section = column.sections[sectionIndex];
+        if (section == null) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk == null) return null;
+            LevelChunkSection source = chunk.getSection(sectionIndex);
+            section = source.hasOnlyAir() ? airSection() : classify(source.getStates());
+            column.sections[sectionIndex] = section;
+        }
+        return section;
+    }
+
+    /** Cached column for a loaded chunk (created empty on first use); null if not loaded. */
+    Column column(int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        if (key == lastChunk) return lastColumn;
+        Column column = columns.get(key);
+        if (column == null) {
+            if (level.getChunkSource().getChunkNow(chunkX, chunkZ) == null) return null;
+            column = new Column(sectionCount, ++changeCounter);
+            columns.put(key, column);
+        }
+        lastChunk = key;
+        lastColumn = column;
+        return column;
+    }
+
+    private static short[] airSection() {
+        short[] out = new short[4096];
+        Arrays.fill(out, (short) NavFlags.forState(Blocks.AIR.defaultBlockState()));
+        return out;
+    }
+
+    /** Classifies a whole section. Pure function of its input, so safe on copied containers off-thread. */
+    static short[] classify(PalettedContainer<BlockState> states) {
+        short[] out = new short[4096];
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    out[y << 8 | z << 4 | x] = (short) NavFlags.forState(states.get(x, y, z));
+                }
+            }
+        }
+        return out;
+    }
+
+    int sectionCount() {
+        return sectionCount;
+    }
+
+    // ── Invalidation (called from WorldChangeHandler on the server thread) ────
+
+    /** A block now has {@code state}: patch its entry if the section is cached. */
+    public void onBlockChanged(BlockPos pos, BlockState state) {
+        if (level.isOutsideBuildHeight(pos.getY())) return;
+        recordEdit(pos);
+        Column column = columns.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (column == null) return;
+        int si = level.getSectionIndex(pos.getY());
+        column.stamps[si] = ++changeCounter;
+        short[] section = column.sections[si];
+        if (section != null) {
+            // Copy-on-write, once per tick: a snapshot may still be reading the old array, but the
+            // copy made for an earlier edit this tick is only ours until a snapshot takes it
+            long now = level.getGameTime();
+            if (column.copiedAt[si] != now) {
+                section = section.clone();
+                column.sections[si] = section;
+                column.copiedAt[si] = now;
+            }
+            section[indexOf(pos.getX(), pos.getY(), pos.getZ())] = (short) NavFlags.forState(state);
+        }
+    }
+
+    /** Something is about to change at {@code pos}; drop its section so it is rebuilt on next use. */
+    public void invalidate(BlockPos pos) {
+        if (level.isOutsideBuildHeight(pos.getY())) return;
+        recordEdit(pos);
+        Column column = columns.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (column == null) return;
+        int si = level.getSectionIndex(pos.getY());
+        column.stamps[si] = ++changeCounter;
+        column.sections[si] = null;
+    }
+
+    private void recordEdit(BlockPos pos) {
+        recentEdits[(int) (editCount % EDIT_RING)] = pos.asLong();
+        editCount++;
+    }
+
+    /** Number of block edits seen so far; pass it to editsSince() later. */
+    public long editCount() {
+        return editCount;
+    }
+
+    /**
+     * Copies the packed positions edited after {@code since} into {@code out} and returns how many,
+     * or -1 if more edits happened than the ring (or {@code out}) can hold.
+     */
+    public int editsSince(long since, long[] out) {
+        long n = editCount - since;
+        if (since < 0 || n < 0 || n > EDIT_RING || n > out.length) return -1;
+        for (int i = 0; i < n; i++) out[i] = recentEdits[(int) ((since + i) % EDIT_RING)];
+        return (int) n;
+    }
+
+    public void onChunkUnloaded(ChunkPos pos) {
+        columns.remove(pos.toLong());
+        lastChunk = Long.MIN_VALUE;
+        lastColumn = null;
+    }
+
+    /** Change stamp of a section, or -1 if its column is not cached (unloaded since). */
+    long stamp(int chunkX, int sectionIndex, int chunkZ) {
+        Column column = columns.get(ChunkPos.asLong(chunkX, chunkZ));
+        return column == null ? -1 : column.stamps[sectionIndex];
+    }
+
+    /** Bumped by every edit to the grid; equal values mean nothing changed in between. */
+    public long changeCount() {
+        return changeCounter;
+    }
+
+    public int cachedSectionCount() {
+        int n = 0;
+        for (Column column : columns.values()) {
+            for (short[] section : column.sections) if (section != null) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,204 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bot path searches on a small worker pool instead of the server thread.
+ *
+ * {@link PathScheduler} decides when a queued {@link Ticket} is dispatched; dispatch() captures a
+ * {@link NavSnapshot} around start and goal (server thread), a worker runs the A* on it, and the
+ * bot collects the ticket on a later tick. Tickets can be cancelled (goal changed, bot removed)
+ * and the worker stops at its next slice. Before a result is used, {@link Ticket#isStillValid()}
+ * checks the snapshot against the live grid and, if terrain in the region changed meanwhile,
+ * re-checks every step of the returned path with the planner's move model on the live grid.
+ */
+public final class PathPlanner {
+
+    private PathPlanner() {}
+
+    /** Expansions between cancellation checks. */
+    private static final int SLICE = 1024;
+    /** Horizontal/vertical padding around the start–goal box captured for the search. */
+    private static final int MARGIN_XZ = 24;
+    private static final int MARGIN_Y = 12;
+    /** Cap on how far from the start the snapshot reaches; partial paths cover the rest. */
+    private static final int MAX_REACH = 96;
+
+    private static final ThreadLocal<AStarEngine> ENGINE = ThreadLocal.withInitial(AStarEngine::new);
+    private static final ThreadLocal<GroundMoveModel> MODEL = ThreadLocal.withInitial(GroundMoveModel::new);
+
+    // Server-thread re-check of finished paths against the live grid
+    private static final GroundMoveModel CHECK_MODEL = new GroundMoveModel();
+    private static final long[] CHECK_BUF = new long[MoveModel.MAX_NEIGHBORS];
+
+    private static volatile ExecutorService workers;
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    private static ExecutorService workers() {
+        ExecutorService pool = workers;
+        if (pool == null) {
+            synchronized (PathPlanner.class) {
+                pool = workers;
+                if (pool == null) {
+                    int threads = BotConfig.PATH_WORKER_THREADS.get();
+                    AtomicInteger n = new AtomicInteger();
+                    pool = Executors.newFixedThreadPool(threads, r -> {
+                        Thread t = new Thread(r, "AMB-PathWorker-" + n.incrementAndGet());
+                        t.setDaemon(true);
+                        t.setPriority(Thread.NORM_PRIORITY - 1);
+                        return t;
+                    });
+                    workers = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    public static boolean isEnabled() {
+        return BotConfig.ASYNC_PATHFINDING.get();
+    }
+
+    public static int workerThreads() {
+        return BotConfig.PATH_WORKER_THREADS.get();
+    }
+
+    /** Tickets handed to workers that have not finished yet. */
+    public static int inFlight() {
+        return IN_FLIGHT.get();
+    }
+
+    /** Captures the search region and hands the ticket to a worker. Server thread only. */
+    static void dispatch(Ticket ticket) {
+        BlockPos far = clampReach(ticket.start, ticket.walkableGoal);
+        ticket.snapshot = NavSnapshot.capture(ticket.grid, ticket.start, far, MARGIN_XZ, MARGIN_Y);
+        IN_FLIGHT.incrementAndGet();
+        workers().execute(ticket::run);
+    }
+
+    private static BlockPos clampReach(BlockPos start, BlockPos goal) {
+        int dx = Math.max(-MAX_REACH, Math.min(MAX_REACH, goal.getX() - start.getX()));
+        int dz = Math.max(-MAX_REACH, Math.min(MAX_REACH, goal.getZ() - start.getZ()));
+        int dy = Math.max(-MAX_REACH, Math.min(MAX_REACH, goal.getY() - start.getY()));
+        return start.offset(dx, dy, dz);
+    }
+
+    /**
+     * One path request. It is searched either by a worker on a snapshot or by the scheduler on the
+     * live grid; fields written by the worker are published through {@code result}.
+     */
+    public static final class Ticket {
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+
+        private final NavigationGrid grid;
+        private final BlockPos start;
+        private final BlockPos goal;
+        private final BlockPos walkableGoal;
+        private final int maxNodes;
+        final int priority;
+        final long sequence = SEQUENCE.incrementAndGet();
+        final int queuedAtTick;
+        private NavSnapshot snapshot;     // set when dispatched to a worker
+        private long liveChangeCount;     // grid change count when searched on the live grid
+        private volatile boolean cancelled;
+        private volatile PathResult result;
+
+        Ticket(NavigationGrid grid, BlockPos start, BlockPos goal, BlockPos walkableGoal, int maxNodes,
+               int priority, int queuedAtTick) {
+            this.grid = grid;
+            this.start = start.immutable();
+            this.goal = goal.immutable();
+            this.walkableGoal = walkableGoal.immutable();
+            this.maxNodes = maxNodes;
+            this.priority = priority;
+            this.queuedAtTick = queuedAtTick;
+        }
+
+        private void run() {
+            try {
+                if (cancelled) return;
+                AStarEngine engine = ENGINE.get();
+                engine.begin(start.asLong(), walkableGoal.asLong(), MODEL.get().bind(snapshot), maxNodes);
+                while (engine.run(SLICE) == AStarEngine.RUNNING) {
+                    if (cancelled) return;
+                }
+                result = engine.result();
+            } catch (Throwable e) {
+                // Resolve the ticket first so its bot doesn't wait on it forever; a deep search
+                // overflowing the worker's stack is not fatal, anything else from the VM is
+                System.out.println("[AMB-PATH] async search " + start + "→" + walkableGoal + " failed: " + e);
+                result = new PathResult(new ArrayList<>(), false, 0, start, Integer.MAX_VALUE);
+                if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) throw (Error) e;
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+            }
+        }
+
+        /** Server-thread search on the live grid started by the scheduler. */
+        void beginLive(AStarEngine engine, GroundMoveModel model) {
+            liveChangeCount = grid.changeCount();
+            engine.begin(start.asLong(), walkableGoal.asLong(), model.bind(grid), maxNodes);
+        }
+
+        void complete(PathResult result) {
+            this.result = result;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        int maxNodes() {
+            return maxNodes;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isDone() {
+            return result != null;
+        }
+
+        public PathResult result() {
+            return result;
+        }
+
+        public BlockPos start() { return start; }
+        public BlockPos goal() { return goal; }
+        public BlockPos walkableGoal() { return walkableGoal; }
+        public int priority() { return priority; }
+
+        /**
+         * Server thread. True if the result can still be trusted: either nothing in the searched
+         * region changed, or every step of the path (from the start) is still a move the planner's
+         * model allows on the live grid — room for the body, floor support, step and jump rules.
+         */
+        public boolean isStillValid() {
+            if (snapshot != null ? snapshot.isCurrent() : grid.changeCount() == liveChangeCount) return true;
+            CHECK_MODEL.bind(grid);
+            long from = start.asLong();
+            for (BlockPos p : result.path()) {
+                long to = p.asLong();
+                if (!isStep(from, to)) return false;
+                from = to;
+            }
+            return true;
+        }
+
+        private static boolean isStep(long from, long to) {
+            int n = CHECK_MODEL.neighbors(from, CHECK_BUF);
+            for (int i = 0; i < n; i++) {
+                if (CHECK_BUF[i] == to) return true;
+            }
+            return false;
+        }
+    }
+}
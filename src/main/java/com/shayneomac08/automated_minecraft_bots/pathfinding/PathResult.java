@@ -0,0 +1,12 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.List;
+
+/**
+ * Outcome of one search: the waypoints (start excluded), whether they reach the goal or
+ * only the closest explored node, and the numbers the [AMB-PATH] log reports.
+ */
+public record PathResult(List<BlockPos> path, boolean reachedGoal, int expanded, BlockPos end, int bestHeuristic) {
+}
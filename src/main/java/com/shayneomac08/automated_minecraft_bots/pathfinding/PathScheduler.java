@@ -0,0 +1,201 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import com.shayneomac08.automated_minecraft_bots.BotConfig;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Central queue for bot path requests, so bots that get stuck together don't all search on the
+ * same tick.
+ *
+ * Requests are served in priority order (danger, then player-commanded tasks, then routine
+ * replans), oldest first within a priority. With async pathfinding on, tickets are handed to the
+ * worker pool while fewer than two per worker are in flight and the workers' node credit is
+ * positive: every tick adds {@code path_tick_budget} (banking at most one tick's worth), each
+ * dispatch takes the ticket's node cap, and the part a finished search didn't use is refunded, so
+ * workers average at most the same expansions per tick as the server thread. Otherwise the
+ * scheduler searches on the server thread and spends at most {@code path_tick_budget} node
+ * expansions per tick, with long searches picked up again on the next tick. Either way a bot keeps following its current
+ * path until its ticket is done. Path work bots do on the server thread themselves (in-place
+ * repairs) is {@link #charge charged} to the same per-tick budget and shrinks the slice left for
+ * queued searches.
+ *
+ * Server thread only (workers only touch the tickets they were given).
+ */
+public final class PathScheduler {
+
+    private PathScheduler() {}
+
+    public static final int PRIORITY_DANGER = 0;
+    public static final int PRIORITY_COMMANDED = 1;
+    public static final int PRIORITY_ROUTINE = 2;
+
+    /** Ticks between scheduler summaries in the log (only printed when there was traffic). */
+    private static final int REPORT_INTERVAL = 1200;
+
+    private static final PriorityQueue<PathPlanner.Ticket> QUEUE = new PriorityQueue<>(
+            Comparator.<PathPlanner.Ticket>comparingInt(t -> t.priority).thenComparingLong(t -> t.sequence));
+
+    // Server-thread search, sliced across ticks when async pathfinding is off
+    private static final AStarEngine ENGINE = new AStarEngine();
+    private static final GroundMoveModel MODEL = new GroundMoveModel();
+    private static PathPlanner.Ticket active;
+
+    // Worker node credit (see class doc) and the tickets whose cap it was charged
+    private static long workerCredit;
+    private static final List<PathPlanner.Ticket> DISPATCHED = new ArrayList<>();
+
+    private static int currentTick;
+
+    // Stats since the last report
+    private static int served;
+    private static long totalWaitTicks;
+    private static int maxWaitTicks;
+    private static int maxQueueDepth;
+    private static int nodesThisTick;
+    private static int peakNodesPerTick;
+    private static int slicedSearches;
+    private static int creditStalls;
+
+    /** Queues a search from {@code start} to {@code walkableGoal}; {@code goal} is the bot's requested goal. */
+    public static PathPlanner.Ticket request(ServerLevel level, BlockPos start, BlockPos goal, BlockPos walkableGoal,
+                                             int maxNodes, int priority) {
+        PathPlanner.Ticket ticket = new PathPlanner.Ticket(NavigationGrid.of(level), start, goal, walkableGoal,
+                maxNodes, priority, currentTick);
+        QUEUE.add(ticket);
+        maxQueueDepth = Math.max(maxQueueDepth, QUEUE.size());
+        return ticket;
+    }
+
+    /** Called once per server tick, after the level ticks (so bots' repairs this tick are already charged). */
+    public static void tick(MinecraftServer server) {
+        currentTick = server.getTickCount();
+
+        if (PathPlanner.isEnabled()) {
+            dispatchToWorkers(BotConfig.PATH_TICK_BUDGET.get());
+        }
+        runOnServerThread(budgetLeft());
+
+        peakNodesPerTick = Math.max(peakNodesPerTick, nodesThisTick);
+        nodesThisTick = 0;
+        if (currentTick % REPORT_INTERVAL == 0 && served > 0) {
+            System.out.println("[AMB-PATH] scheduler: " + statsLine());
+            resetStats();
+        }
+    }
+
+    private static void dispatchToWorkers(int budget) {
+        for (Iterator<PathPlanner.Ticket> it = DISPATCHED.iterator(); it.hasNext(); ) {
+            PathPlanner.Ticket ticket = it.next();
+            if (ticket.isDone()) {
+                workerCredit += Math.max(0, ticket.maxNodes() - ticket.result().expanded());
+                it.remove();
+            } else if (ticket.isCancelled()) {
+                it.remove();   // no refund: the worker may still be running it
+            }
+        }
+        workerCredit = Math.min(workerCredit + budget, budget);
+
+        int limit = PathPlanner.workerThreads() * 2;
+        while (PathPlanner.inFlight() < limit) {
+            if (workerCredit <= 0) {
+                if (!QUEUE.isEmpty()) creditStalls++;
+                return;
+            }
+            PathPlanner.Ticket ticket = nextLive();
+            if (ticket == null) return;
+            PathPlanner.dispatch(ticket);
+            workerCredit -= ticket.maxNodes();
+            DISPATCHED.add(ticket);
+        }
+    }
+
+    private static void runOnServerThread(int budget) {
+        while (budget > 0) {
+            if (active == null) {
+                // Tickets queued before async was switched on are finished here; new ones wait for workers
+                if (PathPlanner.isEnabled()) return;
+                active = nextLive();
+                if (active == null) return;
+                active.beginLive(ENGINE, MODEL);
+            }
+            if (active.isCancelled()) {
+                active = null;
+                continue;
+            }
+            int before = ENGINE.expanded();
+            int status = ENGINE.run(budget);
+            int spent = ENGINE.expanded() - before;
+            nodesThisTick += spent;
+            budget -= spent;
+            if (status == AStarEngine.RUNNING) {
+                slicedSearches++;
+                return;   // budget used up — continue next tick
+            }
+            active.complete(ENGINE.result());
+            active = null;
+        }
+    }
+
+    /** Node expansions still available to server-thread path work this tick. */
+    public static int budgetLeft() {
+        return Math.max(0, BotConfig.PATH_TICK_BUDGET.get() - nodesThisTick);
+    }
+
+    /** Records {@code nodes} expansions a bot spent on the server thread outside the queue. */
+    public static void charge(int nodes) {
+        nodesThisTick += nodes;
+    }
+
+    /** Next ticket that hasn't been cancelled, recording its wait time. */
+    private static PathPlanner.Ticket nextLive() {
+        PathPlanner.Ticket ticket;
+        while ((ticket = QUEUE.poll()) != null) {
+            if (ticket.isCancelled()) continue;
+            int wait = currentTick - ticket.queuedAtTick;
+            served++;
+            totalWaitTicks += wait;
+            maxWaitTicks = Math.max(maxWaitTicks, wait);
+            return ticket;
+        }
+        return null;
+    }
+
+    public static int queueDepth() {
+        return QUEUE.size();
+    }
+
+    public static String statsLine() {
+        double avgWait = served == 0 ? 0 : (double) totalWaitTicks / served;
+        return String.format("queue=%d (peak %d) inFlight=%d served=%d wait avg=%.1ft max=%dt "
+                        + "serverNodes peak=%d/tick sliced=%d workerCredit=%d stalls=%d",
+                QUEUE.size(), maxQueueDepth, PathPlanner.inFlight(), served, avgWait, maxWaitTicks,
+                peakNodesPerTick, slicedSearches, workerCredit, creditStalls);
+    }
+
+    private static void resetStats() {
+        served = 0;
+        totalWaitTicks = 0;
+        maxWaitTicks = 0;
+        maxQueueDepth = QUEUE.size();
+        peakNodesPerTick = 0;
+        slicedSearches = 0;
+        creditStalls = 0;
+    }
+
+    /** Drops everything queued (server stopping). */
+    public static void clear() {
+        for (PathPlanner.Ticket ticket : QUEUE) ticket.cancel();
+        QUEUE.clear();
+        DISPATCHED.clear();
+        workerCredit = 0;
+        active = null;
+    }
+}
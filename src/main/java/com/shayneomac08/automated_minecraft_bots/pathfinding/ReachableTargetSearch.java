@@ -0,0 +1,80 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * "Nearest reachable block matching X" in one pass: a Dijkstra flood from the bot over walkable
+ * cells that stops at the first cell standing next to a matching block, returning the block and
+ * the path to it together.
+ *
+ * Replaces pick-by-straight-line-distance-then-discover-it-is-unreachable: anything it returns
+ * has a path, so walled-off or cliff-top targets are never chosen in the first place. Each
+ * block is tested against the predicate at most once per search.
+ *
+ * Server thread only; keep one per bot.
+ */
+public final class ReachableTargetSearch {
+
+    /** {@code target} is the matching block, {@code stand} the cell the path ends on. */
+    public record Hit(BlockPos target, BlockPos stand, List<BlockPos> path, int expanded) {}
+
+    // Blocks tested from each stand cell: feet level first, then head+1 and floor level
+    private static final int[] CHECK_DY = {0, 1, 2, -1};
+
+    private final AStarEngine engine = new AStarEngine();
+    private final GroundMoveModel ground = new GroundMoveModel();
+    private final BoundedMoveModel bounded = new BoundedMoveModel();
+    private final LongIntHashMap checked = new LongIntHashMap(4096);
+
+    private Predicate<BlockPos> matches;
+    private long found;
+    private int lastExpanded;
+
+    /**
+     * Searches cells within {@code radius} blocks horizontally and {@code down}/{@code up} blocks
+     * vertically of {@code start}, expanding at most {@code maxNodes}. Returns null if no matching
+     * block is reachable within those limits.
+     */
+    public Hit find(ServerLevel level, BlockPos start, int radius, int down, int up, int maxNodes,
+                    Predicate<BlockPos> matches) {
+        NavigationGrid grid = NavigationGrid.of(level);
+        bounded.bind(ground.bind(grid), grid,
+                start.getX() - radius, start.getY() - down, start.getZ() - radius,
+                start.getX() + radius, start.getY() + up, start.getZ() + radius);
+        this.matches = matches;
+        checked.clear();
+        List<BlockPos> path = engine.searchNearest(start.asLong(), bounded, maxNodes, this::standsNextToMatch);
+        this.matches = null;
+        lastExpanded = engine.expanded();
+        if (!engine.reachedGoal()) return null;
+        return new Hit(BlockPos.of(found), BlockPos.of(engine.endPos()), path, lastExpanded);
+    }
+
+    /** Expansions used by the last find(), charged to the PathScheduler by the caller. */
+    public int lastExpanded() {
+        return lastExpanded;
+    }
+
+    private boolean standsNextToMatch(long stand) {
+        int x = BlockPos.getX(stand), y = BlockPos.getY(stand), z = BlockPos.getZ(stand);
+        for (int dy : CHECK_DY) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (dx == 0 && dz == 0 && (dy == 0 || dy == 1)) continue;   // the bot's own body
+                    long pos = BlockPos.asLong(x + dx, y + dy, z + dz);
+                    if (checked.containsKey(pos)) continue;
+                    checked.put(pos, 0);
+                    if (matches.test(BlockPos.of(pos))) {
+                        found = pos;
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
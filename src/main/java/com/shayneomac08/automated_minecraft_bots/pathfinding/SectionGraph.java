@@ -0,0 +1,415 @@
+package com.shayneomac08.automated_minecraft_bots.pathfinding;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hierarchical (HPA*-style) layer over the navigation grid for long trips.
+ *
+ * Every 16³ chunk section is a cluster. A cluster's exits are the places where a walking bot
+ * can step into a neighbouring section; runs of adjacent crossings into the same neighbour are
+ * merged into one representative exit. Its entrances are the cells the neighbours' exits land
+ * on (found from its side with the same merging, so both sides agree). Costs from every entrance
+ * to every exit come from a Dijkstra flood confined to the section's standable cells and are
+ * computed when the cluster is built, as far as the route's budget allows; entrances left over
+ * are costed on first landing. route() then only floods from its start and, in the goal section,
+ * towards the goal. Landing points that are not entrances (a neighbour rebuilt after an edit just
+ * across the border) are flooded on demand and cached.
+ *
+ * route() searches this abstract graph (a few hundred nodes for a 200-block trip) and returns
+ * the chain of landing points; the regular A* then only has to refine the next segment. It runs
+ * on the server thread within a node budget that callers charge to the PathScheduler. Every
+ * flood is capped at what is left of that budget, and a flood cut short is not cached; clusters
+ * and entrance costs finished before running out stay cached, so the next call picks up there.
+ * Clusters are rebuilt lazily — a block change only drops the sections within two blocks of it.
+ *
+ * Server thread only.
+ */
+public final class SectionGraph {
+
+    private static final Map<ResourceKey<Level>, SectionGraph> GRAPHS = new ConcurrentHashMap<>();
+
+    /** Abstract nodes expanded before route() gives up. */
+    private static final int MAX_ABSTRACT_NODES = 6000;
+    /** Landing points remembered per cluster before its cost cache is reset. */
+    private static final int MAX_LANDINGS_PER_CLUSTER = 64;
+    /** Upper bound for one in-section flood (a section has 4096 cells). */
+    private static final int FLOOD_BUDGET = 4096;
+
+    private final ServerLevel level;
+    private final Map<Long, Cluster> clusters = new HashMap<>();
+
+    private final AStarEngine engine = new AStarEngine();
+    private final GroundMoveModel ground = new GroundMoveModel();
+    private final BoundedMoveModel bounded = new BoundedMoveModel();
+    private final long[] neighborBuf = new long[MoveModel.MAX_NEIGHBORS];
+
+    // Stats for the last route() call, reported in the [AMB-PATH] log
+    private int lastAbstractExpanded;
+    private int lastFloodExpanded;
+    private int lastBuilt;
+    private int lastCosted;
+    private boolean lastOutOfBudget;
+    private int budget;
+
+    private static final class Cluster {
+        final long key;
+        final int minX, minY, minZ;
+        long[] exitFrom = new long[0];   // cell inside this section
+        long[] exitTo = new long[0];     // landing cell in the neighbouring section
+        int[] exitCost = new int[0];     // cost of the crossing step itself
+        final Map<Long, int[]> entranceCosts = new HashMap<>();   // built with the cluster
+        final Set<Long> uncosted = new HashSet<>();               // entrances the build had no budget for
+        final Map<Long, int[]> landingCosts = new HashMap<>();    // other landing points, on demand
+
+        Cluster(long key) {
+            this.key = key;
+            this.minX = SectionPos.sectionToBlockCoord(SectionPos.x(key));
+            this.minY = SectionPos.sectionToBlockCoord(SectionPos.y(key));
+            this.minZ = SectionPos.sectionToBlockCoord(SectionPos.z(key));
+        }
+    }
+
+    private SectionGraph(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static SectionGraph of(ServerLevel level) {
+        SectionGraph graph = GRAPHS.get(level.dimension());
+        if (graph == null || graph.level != level) {
+            graph = new SectionGraph(level);
+            GRAPHS.put(level.dimension(), graph);
+        }
+        return graph;
+    }
+
+    public static SectionGraph existing(ServerLevel level) {
+        SectionGraph graph = GRAPHS.get(level.dimension());
+        return graph != null && graph.level == level ? graph : null;
+    }
+
+    public static void discard(ServerLevel level) {
+        GRAPHS.remove(level.dimension());
+    }
+
+    public static void discardAll() {
+        GRAPHS.clear();
+    }
+
+    private static long sectionOf(long pos) {
+        return SectionPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getY(pos) >> 4, BlockPos.getZ(pos) >> 4);
+    }
+
+    // ── Route search ───────────────────────────────────────────────────────────
+
+    private record Entry(long pos, int g, int f) {}
+
+    /**
+     * Chain of landing points from {@code start} to {@code goal} (goal included, start excluded),
+     * or null if the abstract graph has no route within MAX_ABSTRACT_NODES. Gives up with null
+     * once {@code budget} abstract plus flood nodes are spent; lastOutOfBudget() tells the cases apart.
+     */
+    public List<BlockPos> route(BlockPos start, BlockPos goal, int budget) {
+        long s = start.asLong(), g = goal.asLong();
+        long goalSection = sectionOf(g);
+        lastAbstractExpanded = 0;
+        lastFloodExpanded = 0;
+        lastBuilt = 0;
+        lastCosted = 0;
+        lastOutOfBudget = false;
+        this.budget = budget;
+
+        Map<Long, Integer> best = new HashMap<>();
+        Map<Long, Long> parent = new HashMap<>();
+        PriorityQueue<Entry> open = new PriorityQueue<>((a, b) -> Integer.compare(a.f, b.f));
+        best.put(s, 0);
+        open.add(new Entry(s, 0, AStarEngine.heuristic(s, g)));
+
+        while (!open.isEmpty() && lastAbstractExpanded < MAX_ABSTRACT_NODES) {
+            if (lastWork() >= budget) {
+                lastOutOfBudget = true;
+                return null;
+            }
+            Entry cur = open.poll();
+            if (cur.g > best.getOrDefault(cur.pos, Integer.MAX_VALUE)) continue;   // stale entry
+            lastAbstractExpanded++;
+            if (cur.pos == g) return reconstruct(parent, s, g);
+
+            Cluster cluster = cluster(sectionOf(cur.pos));
+            boolean inGoalSection = cluster.key == goalSection;
+            int[] costs = landingCosts(cluster, cur.pos, inGoalSection);
+            if (costs == null) {
+                lastOutOfBudget = true;
+                return null;
+            }
+
+            if (inGoalSection) {
+                int toGoal = engine.costTo(g);   // flood above was just run from cur.pos
+                if (toGoal >= 0) relax(open, best, parent, cur.pos, g, cur.g + toGoal, g);
+            }
+            for (int i = 0; i < costs.length; i++) {
+                if (costs[i] < 0) continue;
+                relax(open, best, parent, cur.pos, cluster.exitTo[i], cur.g + costs[i] + cluster.exitCost[i], g);
+            }
+        }
+        return null;
+    }
+
+    private static void relax(PriorityQueue<Entry> open, Map<Long, Integer> best, Map<Long, Long> parent,
+                              long from, long to, int g, long goal) {
+        if (g >= best.getOrDefault(to, Integer.MAX_VALUE)) return;
+        best.put(to, g);
+        parent.put(to, from);
+        open.add(new Entry(to, g, g + AStarEngine.heuristic(to, goal)));
+    }
+
+    private static List<BlockPos> reconstruct(Map<Long, Long> parent, long start, long goal) {
+        List<BlockPos> out = new ArrayList<>();
+        for (long p = goal; p != start; p = parent.get(p)) out.add(BlockPos.of(p));
+        Collections.reverse(out);
+        return out;
+    }
+
+    public int lastAbstractExpanded() { return lastAbstractExpanded; }
+    /** Flood nodes spent by the last route(), including floods for clusters it built. */
+    public int lastFloodExpanded() { return lastFloodExpanded; }
+    /** Clusters the last route() built. */
+    public int lastBuilt() { return lastBuilt; }
+    /** Entrance and landing floods the last route() finished and cached. */
+    public int lastCosted() { return lastCosted; }
+    /** True if the last route() stopped because its budget ran out. */
+    public boolean lastOutOfBudget() { return lastOutOfBudget; }
+    /** Abstract plus flood nodes spent by the last route(). */
+    public int lastWork() { return lastAbstractExpanded + lastFloodExpanded; }
+
+    /**
+     * Costs from {@code landing} to each exit of its cluster (-1 = unreachable inside the section),
+     * or null if the route's budget ran out before they were known. When {@code forceFlood} is set
+     * the flood is always run so the engine can answer costTo() after.
+     */
+    private int[] landingCosts(Cluster cluster, long landing, boolean forceFlood) {
+        int[] cached = cluster.entranceCosts.get(landing);
+        if (cached == null) cached = cluster.landingCosts.get(landing);
+        if (cached != null && !forceFlood) return cached;
+
+        int[] costs = flood(cluster, landing);
+        if (costs == null) return null;
+        if (cached != null) return cached;
+        lastCosted++;
+        if (cluster.uncosted.remove(landing)) {
+            cluster.entranceCosts.put(landing, costs);
+            return costs;
+        }
+        if (cluster.landingCosts.size() >= MAX_LANDINGS_PER_CLUSTER) cluster.landingCosts.clear();
+        cluster.landingCosts.put(landing, costs);
+        return costs;
+    }
+
+    /**
+     * Floods the section from {@code landing} and returns its cost to each exit, or null if what
+     * is left of the route's budget ran out before the flood finished (the nodes are still counted).
+     */
+    private int[] flood(Cluster cluster, long landing) {
+        int cap = Math.min(FLOOD_BUDGET, budget - lastWork());
+        if (cap <= 0) return null;
+        NavigationGrid grid = NavigationGrid.of(level);
+        bounded.bind(ground.bind(grid), grid,
+                cluster.minX, cluster.minY, cluster.minZ, cluster.minX + 15, cluster.minY + 15, cluster.minZ + 15);
+        engine.flood(landing, bounded, cap);
+        lastFloodExpanded += engine.expanded();
+        if (cap < FLOOD_BUDGET && engine.expanded() >= cap) return null;   // cut short by the budget
+        int[] costs = new int[cluster.exitFrom.length];
+        for (int i = 0; i < costs.length; i++) costs[i] = engine.costTo(cluster.exitFrom[i]);
+        return costs;
+    }
+
+    // ── Cluster construction ───────────────────────────────────────────────────
+
+    private Cluster cluster(long key) {
+        Cluster cluster = clusters.get(key);
+        if (cluster == null) {
+            cluster = build(key);
+            clusters.put(key, cluster);
+            lastBuilt++;
+        }
+        return cluster;
+    }
+
+    /**
+     * Finds every walking step that leaves the section and keeps one exit per connected run, then
+     * floods from each entrance to cost the entrance-to-exit edges while the route's budget lasts.
+     * Entrances left over are costed by landingCosts() when a route first lands on them.
+     */
+    private Cluster build(long key) {
+        Cluster cluster = new Cluster(key);
+        NavigationGrid grid = NavigationGrid.of(level);
+        ground.bind(grid);
+
+        Map<Long, List<long[]>> byTarget = new HashMap<>();
+        for (int ly = 0; ly < 16; ly++) {
+            for (int lz = 0; lz < 16; lz++) {
+                boolean fullRow = ly == 0 || ly == 15 || lz == 0 || lz == 15;
+                for (int lx = 0; lx < 16; lx += fullRow ? 1 : 15) {
+                    int x = cluster.minX + lx, y = cluster.minY + ly, z = cluster.minZ + lz;
+                    if (!grid.isPassable(x, y, z)) continue;
+                    long p = BlockPos.asLong(x, y, z);
+                    int n = ground.neighbors(p, neighborBuf);
+                    for (int i = 0; i < n; i++) {
+                        long q = neighborBuf[i];
+                        long target = sectionOf(q);
+                        if (target == key) continue;
+                        byTarget.computeIfAbsent(target, k -> new ArrayList<>())
+                                .add(new long[]{p, q, ground.cost(p, q)});
+                    }
+                }
+            }
+        }
+
+        List<long[]> exits = new ArrayList<>();
+        for (List<long[]> crossings : byTarget.values()) exits.addAll(representatives(crossings));
+
+        cluster.exitFrom = new long[exits.size()];
+        cluster.exitTo = new long[exits.size()];
+        cluster.exitCost = new int[exits.size()];
+        for (int i = 0; i < exits.size(); i++) {
+            long[] e = exits.get(i);
+            cluster.exitFrom[i] = e[0];
+            cluster.exitTo[i] = e[1];
+            cluster.exitCost[i] = (int) e[2];
+        }
+
+        for (long entrance : entrances(cluster, grid)) {
+            if (cluster.entranceCosts.containsKey(entrance)) continue;
+            int[] costs = cluster.uncosted.isEmpty() ? flood(cluster, entrance) : null;
+            if (costs == null) {
+                cluster.uncosted.add(entrance);
+            } else {
+                cluster.entranceCosts.put(entrance, costs);
+                lastCosted++;
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Cells of the section that walking steps from its neighbours land on, one per connected run.
+     * The shell around the section is scanned in the same y, z, x order as each neighbour's own
+     * build() scans its border, so the representatives picked here are that neighbour's exits.
+     */
+    private List<Long> entrances(Cluster cluster, NavigationGrid grid) {
+        Map<Long, List<long[]>> bySource = new HashMap<>();
+        int maxX = cluster.minX + 15, maxY = cluster.minY + 15, maxZ = cluster.minZ + 15;
+        for (int y = cluster.minY - 1; y <= maxY + 1; y++) {
+            for (int z = cluster.minZ - 1; z <= maxZ + 1; z++) {
+                boolean fullRow = y < cluster.minY || y > maxY || z < cluster.minZ || z > maxZ;
+                for (int x = cluster.minX - 1; x <= maxX + 1; x += fullRow ? 1 : 17) {
+                    if (!grid.isPassable(x, y, z)) continue;
+                    long p = BlockPos.asLong(x, y, z);
+                    int n = ground.neighbors(p, neighborBuf);
+                    for (int i = 0; i < n; i++) {
+                        long q = neighborBuf[i];
+                        if (sectionOf(q) != cluster.key) continue;
+                        bySource.computeIfAbsent(sectionOf(p), k -> new ArrayList<>())
+                                .add(new long[]{p, q, ground.cost(p, q)});
+                    }
+                }
+            }
+        }
+        List<Long> out = new ArrayList<>();
+        for (List<long[]> crossings : bySource.values()) {
+            for (long[] c : representatives(crossings)) out.add(c[1]);
+        }
+        return out;
+    }
+
+    /** Groups crossings whose inner cells touch (26-neighbourhood) and keeps the most central of each group. */
+    private static List<long[]> representatives(List<long[]> crossings) {
+        List<long[]> out = new ArrayList<>();
+        boolean[] seen = new boolean[crossings.size()];
+        List<Integer> group = new ArrayList<>();
+        for (int root = 0; root < crossings.size(); root++) {
+            if (seen[root]) continue;
+            group.clear();
+            group.add(root);
+            seen[root] = true;
+            for (int gi = 0; gi < group.size(); gi++) {
+                long a = crossings.get(group.get(gi))[0];
+                for (int j = 0; j < crossings.size(); j++) {
+                    if (seen[j] || !touching(a, crossings.get(j)[0])) continue;
+                    seen[j] = true;
+                    group.add(j);
+                }
+            }
+            double cx = 0, cy = 0, cz = 0;
+            for (int idx : group) {
+                long p = crossings.get(idx)[0];
+                cx += BlockPos.getX(p);
+                cy += BlockPos.getY(p);
+                cz += BlockPos.getZ(p);
+            }
+            cx /= group.size();
+            cy /= group.size();
+            cz /= group.size();
+            long[] pick = null;
+            double pickDist = Double.MAX_VALUE;
+            for (int idx : group) {
+                long[] c = crossings.get(idx);
+                double dx = BlockPos.getX(c[0]) - cx, dy = BlockPos.getY(c[0]) - cy, dz = BlockPos.getZ(c[0]) - cz;
+                double d = dx * dx + dy * dy + dz * dz;
+                if (d < pickDist) {
+                    pickDist = d;
+                    pick = c;
+                }
+            }
+            out.add(pick);
+        }
+        return out;
+    }
+
+    private static boolean touching(long a, long b) {
+        return Math.abs(BlockPos.getX(a) - BlockPos.getX(b)) <= 1
+            && Math.abs(BlockPos.getY(a) - BlockPos.getY(b)) <= 1
+            && Math.abs(BlockPos.getZ(a) - BlockPos.getZ(b)) <= 1;
+    }
+
+    // ── Invalidation (WorldChangeHandler, server thread) ──────────────────────
+
+    /**
+     * Drops every cluster whose exits or inner costs can depend on {@code pos}: walking rules read
+     * up to two blocks around a cell, so sections within two blocks of the change are rebuilt.
+     */
+    public void onBlockChanged(BlockPos pos) {
+        for (int dx = -2; dx <= 2; dx += 4) {
+            for (int dy = -2; dy <= 2; dy += 4) {
+                for (int dz = -2; dz <= 2; dz += 4) {
+                    clusters.remove(SectionPos.asLong((pos.getX() + dx) >> 4, (pos.getY() + dy) >> 4, (pos.getZ() + dz) >> 4));
+                }
+            }
+        }
+        clusters.remove(SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+    }
+
+    public void onChunkUnloaded(ChunkPos pos) {
+        for (int sy = level.getMinSectionY(); sy <= level.getMaxSectionY(); sy++) {
+            clusters.remove(SectionPos.asLong(pos.x, sy, pos.z));
+        }
+    }
+
+    public int clusterCount() {
+        return clusters.size();
+    }
+}
@@ -0,0 +1,200 @@
+package com.shayneomac08.automated_minecraft_bots.world;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Box scans over chunk sections instead of per-block getBlockState calls.
+ *
+ * The box is split into the 16³ sections it overlaps. A section is skipped outright when it
+ * holds only air or when its palette cannot contain a matching state (LevelChunkSection.maybeHas),
+ * so a search for logs or ores usually reads a handful of sections rather than ~100k blocks.
+ * findNearest() visits sections nearest-first and stops once no remaining section can beat the
+ * best hit. Unloaded chunks are skipped, never loaded.
+ *
+ * All methods are pure static and server-thread only.
+ */
+public final class BlockScanner {
+
+    private BlockScanner() {}
+
+    /** Distance score; must not decrease as |dx|, |dy| or |dz| grow. */
+    @FunctionalInterface
+    public interface Metric {
+        double score(int dx, int dy, int dz);
+    }
+
+    /** Squared straight-line distance (BlockPos.distSqr). */
+    public static final Metric EUCLIDEAN = (dx, dy, dz) -> (double) dx * dx + (double) dy * dy + (double) dz * dz;
+
+    // ── Queries ────────────────────────────────────────────────────────────────
+    // The box is center ± radius horizontally and center.y - down .. center.y + up vertically.
+
+    public static BlockPos findNearest(ServerLevel level, BlockPos center, int radius, int down, int up,
+                                       Predicate<BlockState> matches) {
+        return findNearest(level, center, radius, down, up, matches, null, EUCLIDEAN);
+    }
+
+    public static BlockPos findNearest(ServerLevel level, BlockPos center, int radius, int down, int up,
+                                       Predicate<BlockState> matches, Predicate<BlockPos> accept) {
+        return findNearest(level, center, radius, down, up, matches, accept, EUCLIDEAN);
+    }
+
+    /**
+     * Lowest-scoring position whose state passes {@code matches} and whose position passes
+     * {@code accept} (may be null), or null if there is none in the box.
+     */
+    public static BlockPos findNearest(ServerLevel level, BlockPos center, int radius, int down, int up,
+                                       Predicate<BlockState> matches, Predicate<BlockPos> accept, Metric metric) {
+        List<Section> sections = sections(level, center, radius, down, up, metric);
+        sections.sort((a, b) -> Double.compare(a.bound, b.bound));
+
+        BlockPos best = null;
+        double bestScore = Double.MAX_VALUE;
+        boolean airMatches = matches.test(Blocks.AIR.defaultBlockState());
+        for (Section s : sections) {
+            if (s.bound >= bestScore) break;   // every later section is at least this far
+            LevelChunkSection section = s.load(level, matches, airMatches);
+            if (section == null) continue;
+            for (int y = s.minY; y <= s.maxY; y++) {
+                for (int z = s.minZ; z <= s.maxZ; z++) {
+                    for (int x = s.minX; x <= s.maxX; x++) {
+                        if (!matches.test(section.getBlockState(x & 15, y & 15, z & 15))) continue;
+                        double score = metric.score(x - center.getX(), y - center.getY(), z - center.getZ());
+                        if (score >= bestScore) continue;
+                        BlockPos pos = new BlockPos(x, y, z);
+                        if (accept != null && !accept.test(pos)) continue;
+                        best = pos;
+                        bestScore = score;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /** True if any position in the box matches; stops at the first hit. */
+    public static boolean any(ServerLevel level, BlockPos center, int radius, int down, int up,
+                              Predicate<BlockState> matches, Predicate<BlockPos> accept) {
+        boolean[] found = {false};
+        scan(level, center, radius, down, up, matches, (pos, state) -> {
+            if (accept == null || accept.test(pos)) found[0] = true;
+            return found[0];
+        });
+        return found[0];
+    }
+
+    /** Number of matching positions in the box. */
+    public static int count(ServerLevel level, BlockPos center, int radius, int down, int up,
+                            Predicate<BlockState> matches) {
+        int[] n = {0};
+        scan(level, center, radius, down, up, matches, (pos, state) -> {
+            n[0]++;
+            return false;
+        });
+        return n[0];
+    }
+
+    /** Calls {@code visitor} for every matching position in the box (section order). */
+    public static void forEach(ServerLevel level, BlockPos center, int radius, int down, int up,
+                               Predicate<BlockState> matches, BiConsumer<BlockPos, BlockState> visitor) {
+        scan(level, center, radius, down, up, matches, (pos, state) -> {
+            visitor.accept(pos, state);
+            return false;
+        });
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    /** Returns true to stop the scan. */
+    @FunctionalInterface
+    private interface Visitor {
+        boolean visit(BlockPos pos, BlockState state);
+    }
+
+    private static void scan(ServerLevel level, BlockPos center, int radius, int down, int up,
+                             Predicate<BlockState> matches, Visitor visitor) {
+        boolean airMatches = matches.test(Blocks.AIR.defaultBlockState());
+        for (Section s : sections(level, center, radius, down, up, null)) {
+            LevelChunkSection section = s.load(level, matches, airMatches);
+            if (section == null) continue;
+            for (int y = s.minY; y <= s.maxY; y++) {
+                for (int z = s.minZ; z <= s.maxZ; z++) {
+                    for (int x = s.minX; x <= s.maxX; x++) {
+                        BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                        if (matches.test(state) && visitor.visit(new BlockPos(x, y, z), state)) return;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Part of the box inside one chunk section, with the best score any block in it could have. */
+    private static final class Section {
+        final int chunkX, chunkZ, sectionY;
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+        final double bound;
+
+        Section(int chunkX, int chunkZ, int sectionY, int minX, int minY, int minZ,
+                int maxX, int maxY, int maxZ, double bound) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.sectionY = sectionY;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.bound = bound;
+        }
+
+        /** The chunk section, or null if it is unloaded or cannot contain a match. */
+        LevelChunkSection load(ServerLevel level, Predicate<BlockState> matches, boolean airMatches) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk == null) return null;
+            LevelChunkSection section = chunk.getSection(level.getSectionIndex(sectionY << 4));
+            if (section.hasOnlyAir()) return airMatches ? section : null;
+            return section.maybeHas(matches) ? section : null;
+        }
+    }
+
+    private static List<Section> sections(ServerLevel level, BlockPos center, int radius, int down, int up,
+                                          Metric metric) {
+        int minX = center.getX() - radius, maxX = center.getX() + radius;
+        int minZ = center.getZ() - radius, maxZ = center.getZ() + radius;
+        int minY = center.getY() - down, maxY = center.getY() + up;
+        while (minY <= maxY && level.isOutsideBuildHeight(minY)) minY++;
+        while (maxY >= minY && level.isOutsideBuildHeight(maxY)) maxY--;
+
+        List<Section> out = new ArrayList<>();
+        if (minY > maxY) return out;
+        for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+            int y0 = Math.max(minY, sy << 4), y1 = Math.min(maxY, (sy << 4) + 15);
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+                for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                    int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+                    double bound = metric == null ? 0 : metric.score(
+                            gap(center.getX(), x0, x1), gap(center.getY(), y0, y1), gap(center.getZ(), z0, z1));
+                    out.add(new Section(cx, cz, sy, x0, y0, z0, x1, y1, z1, bound));
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Distance from {@code c} to the nearest point of [lo, hi] on one axis. */
+    private static int gap(int c, int lo, int hi) {
+        return c < lo ? lo - c : c > hi ? c - hi : 0;
+    }
+}
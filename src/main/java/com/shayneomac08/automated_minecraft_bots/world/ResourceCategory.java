@@ -0,0 +1,61 @@
+package com.shayneomac08.automated_minecraft_bots.world;
+
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.function.Predicate;
+
+/**
+ * Block categories bots look for by name. Sparse categories are tracked per position by
+ * {@link ResourceIndex}; STONE is dense (most underground sections are mostly stone), so
+ * queries for it fall through to a palette scan instead of storing every block.
+ */
+public enum ResourceCategory {
+    LOG(false, st -> st.is(BlockTags.LOGS)),
+    ORE(false, st -> st.is(BlockTags.COAL_ORES) || st.is(BlockTags.IRON_ORES) || st.is(BlockTags.COPPER_ORES)
+            || st.is(BlockTags.GOLD_ORES) || st.is(BlockTags.REDSTONE_ORES) || st.is(BlockTags.LAPIS_ORES)
+            || st.is(BlockTags.DIAMOND_ORES) || st.is(BlockTags.EMERALD_ORES)),
+    STONE(true, st -> st.is(Blocks.STONE) || st.is(Blocks.COBBLESTONE) || st.is(Blocks.ANDESITE)
+            || st.is(Blocks.DIORITE) || st.is(Blocks.GRANITE)),
+    CRAFTING_TABLE(false, st -> st.is(Blocks.CRAFTING_TABLE)),
+    FURNACE(false, st -> st.is(Blocks.FURNACE)),
+    CHEST(false, st -> st.getBlock() instanceof ChestBlock);
+
+    private static final ResourceCategory[] VALUES = values();
+
+    private final boolean dense;
+    private final Predicate<BlockState> matches;
+
+    ResourceCategory(boolean dense, Predicate<BlockState> matches) {
+        this.dense = dense;
+        this.matches = matches;
+    }
+
+    /** True if the index does not store positions for this category. */
+    public boolean dense() {
+        return dense;
+    }
+
+    public boolean matches(BlockState state) {
+        return matches.test(state);
+    }
+
+    /** The sparse category a state belongs to, or null if it is not indexed. */
+    public static ResourceCategory ofIndexed(BlockState state) {
+        if (state.isAir()) return null;
+        for (ResourceCategory c : VALUES) {
+            if (!c.dense && c.matches.test(state)) return c;
+        }
+        return null;
+    }
+
+    /** The category whose blocks are exactly {@code block}'s states, or null if none. */
+    public static ResourceCategory ofBlock(Block block) {
+        if (block == Blocks.CRAFTING_TABLE) return CRAFTING_TABLE;
+        if (block == Blocks.FURNACE) return FURNACE;
+        return null;
+    }
+}
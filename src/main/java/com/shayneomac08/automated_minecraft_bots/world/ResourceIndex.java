@@ -0,0 +1,341 @@
+package com.shayneomac08.automated_minecraft_bots.world;
+
+import com.shayneomac08.automated_minecraft_bots.pathfinding.LongIntHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Shared per-level index of where the sparse {@link ResourceCategory} blocks are, bucketed per
+ * chunk, so "nearest crafting table within 24" reads a few short position lists instead of
+ * scanning ~20k blocks for every bot that asks.
+ *
+ * A chunk is indexed once: in the background a few chunks per tick after it loads, or on the
+ * spot the first time a query touches it. Only sections whose palette can hold an indexed block
+ * are read. WorldChangeHandler keeps entries current from block updates and drops a chunk's
+ * entries when it unloads. Queries re-check each candidate's state and drop stale entries, so a
+ * change that slipped past the events (setBlock without neighbour updates) costs nothing worse
+ * than one extra lookup. Dense categories (STONE) are answered by {@link BlockScanner}.
+ *
+ * Server thread only.
+ */
+public final class ResourceIndex {
+
+    private static final Map<ResourceKey<Level>, ResourceIndex> INDEXES = new ConcurrentHashMap<>();
+
+    /** Loaded chunks indexed per server tick in the background; the rest wait or are indexed by a query. */
+    private static final int CHUNKS_PER_TICK = 2;
+
+    private static final ResourceCategory[] CATEGORIES = ResourceCategory.values();
+
+    // Values in queued: the chunk is still loaded / unloaded while it waited
+    private static final int QUEUED_LOADED = 0;
+    private static final int QUEUED_UNLOADED = 1;
+
+    private final ServerLevel level;
+    private final Map<Long, Positions[]> chunks = new HashMap<>();
+    private final LongIntHashMap members = new LongIntHashMap(4096);   // position → category ordinal
+    private final ArrayDeque<Long> pending = new ArrayDeque<>();       // loaded since the index was built
+    private final LongIntHashMap queued = new LongIntHashMap(256);      // chunk keys in pending, each queued once
+
+    private long chunksIndexed;
+    private long staleDropped;
+
+    /** Packed positions of one category in one chunk; order is not kept. */
+    private static final class Positions {
+        long[] items = new long[8];
+        int size;
+
+        void add(long pos) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = pos;
+        }
+
+        void remove(long pos) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == pos) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private ResourceIndex(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static ResourceIndex of(ServerLevel level) {
+        ResourceIndex index = INDEXES.get(level.dimension());
+        if (index == null || index.level != level) {
+            index = new ResourceIndex(level);
+            INDEXES.put(level.dimension(), index);
+        }
+        return index;
+    }
+
+    /** The index for this level if one has been built, without creating it. */
+    public static ResourceIndex existing(ServerLevel level) {
+        ResourceIndex index = INDEXES.get(level.dimension());
+        return index != null && index.level == level ? index : null;
+    }
+
+    public static void discard(ServerLevel level) {
+        INDEXES.remove(level.dimension());
+    }
+
+    public static void discardAll() {
+        INDEXES.clear();
+    }
+
+    /** Background indexing of recently loaded chunks. Called once per server tick. */
+    public static void tick(MinecraftServer server) {
+        for (ResourceIndex index : INDEXES.values()) {
+            int budget = CHUNKS_PER_TICK;
+            while (budget > 0 && !index.pending.isEmpty()) {
+                long key = index.pending.poll();
+                // Skip chunks that unloaded while they waited or that a query already indexed
+                if (index.queued.remove(key) != QUEUED_LOADED || index.chunks.containsKey(key)) continue;
+                index.index(ChunkPos.getX(key), ChunkPos.getZ(key));
+                budget--;
+            }
+        }
+    }
+
+    // ── Queries ────────────────────────────────────────────────────────────────
+    // The box is center ± radius horizontally and center.y - down .. center.y + up vertically,
+    // as in BlockScanner. Distances are squared straight-line (BlockPos.distSqr).
+
+    /** Nearest block of {@code category} in the box whose position passes {@code accept} (may be null). */
+    public BlockPos nearest(ResourceCategory category, BlockPos center, int radius, int down, int up,
+                            Predicate<BlockPos> accept) {
+        List<BlockPos> hits = nearest(category, center, radius, down, up, 1, accept);
+        return hits.isEmpty() ? null : hits.get(0);
+    }
+
+    /** Up to {@code limit} nearest blocks of {@code category} in the box, nearest first. */
+    public List<BlockPos> nearest(ResourceCategory category, BlockPos center, int radius, int down, int up,
+                                  int limit, Predicate<BlockPos> accept) {
+        if (category.dense()) return denseNearest(category, center, radius, down, up, limit, accept);
+
+        int minX = center.getX() - radius, maxX = center.getX() + radius;
+        int minZ = center.getZ() - radius, maxZ = center.getZ() + radius;
+        int minY = center.getY() - down, maxY = center.getY() + up;
+        int ccx = center.getX() >> 4, ccz = center.getZ() >> 4;
+        int rings = Math.max(Math.max(ccx - (minX >> 4), (maxX >> 4) - ccx),
+                             Math.max(ccz - (minZ >> 4), (maxZ >> 4) - ccz));
+
+        long[] bestPos = new long[limit];
+        double[] bestScore = new double[limit];
+        int found = 0;
+        List<Long> stale = null;
+
+        for (int ring = 0; ring <= rings; ring++) {
+            if (found == limit && ringBound(center, ring) >= bestScore[limit - 1]) break;
+            for (int cz = ccz - ring; cz <= ccz + ring; cz++) {
+                if (cz < minZ >> 4 || cz > maxZ >> 4) continue;
+                boolean edgeRow = cz == ccz - ring || cz == ccz + ring;
+                for (int cx = ccx - ring; cx <= ccx + ring; cx += edgeRow ? 1 : Math.max(1, 2 * ring)) {
+                    if (cx < minX >> 4 || cx > maxX >> 4) continue;
+                    Positions bucket = bucket(cx, cz, category);
+                    if (bucket == null) continue;
+                    for (int i = 0; i < bucket.size; i++) {
+                        long p = bucket.items[i];
+                        int x = BlockPos.getX(p), y = BlockPos.getY(p), z = BlockPos.getZ(p);
+                        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) continue;
+                        double dx = x - center.getX(), dy = y - center.getY(), dz = z - center.getZ();
+                        double score = dx * dx + dy * dy + dz * dz;
+                        if (found == limit && score >= bestScore[limit - 1]) continue;
+                        BlockPos pos = BlockPos.of(p);
+                        if (!category.matches(level.getBlockState(pos))) {
+                            if (stale == null) stale = new ArrayList<>();
+                            stale.add(p);
+                            continue;
+                        }
+                        if (accept != null && !accept.test(pos)) continue;
+                        // Insertion into the sorted best list
+                        int at = found < limit ? found++ : limit - 1;
+                        while (at > 0 && bestScore[at - 1] > score) {
+                            bestScore[at] = bestScore[at - 1];
+                            bestPos[at] = bestPos[at - 1];
+                            at--;
+                        }
+                        bestScore[at] = score;
+                        bestPos[at] = p;
+                    }
+                }
+            }
+        }
+
+        if (stale != null) {
+            for (long p : stale) forget(p);
+            staleDropped += stale.size();
+        }
+        List<BlockPos> out = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) out.add(BlockPos.of(bestPos[i]));
+        return out;
+    }
+
+    /** True if the box holds any block of {@code category}. */
+    public boolean any(ResourceCategory category, BlockPos center, int radius, int down, int up) {
+        return nearest(category, center, radius, down, up, null) != null;
+    }
+
+    /** Number of indexed blocks of {@code category} in the box (not re-checked against the world). */
+    public int count(ResourceCategory category, BlockPos center, int radius, int down, int up) {
+        if (category.dense()) return BlockScanner.count(level, center, radius, down, up, category::matches);
+        int minX = center.getX() - radius, maxX = center.getX() + radius;
+        int minZ = center.getZ() - radius, maxZ = center.getZ() + radius;
+        int minY = center.getY() - down, maxY = center.getY() + up;
+        int n = 0;
+        for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+            for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                Positions bucket = bucket(cx, cz, category);
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    long p = bucket.items[i];
+                    int x = BlockPos.getX(p), y = BlockPos.getY(p), z = BlockPos.getZ(p);
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /** "resources: ..." summary for logs and /amb stats. */
+    public String statsLine() {
+        return String.format("resources: %d chunks indexed (%d total), %d positions, %d pending, %d stale dropped",
+            chunks.size(), chunksIndexed, members.size(), pending.size(), staleDropped);
+    }
+
+    // ── World events (WorldChangeHandler) ─────────────────────────────────────
+
+    /** Queues the chunk for background indexing; a chunk already waiting keeps its place. */
+    public void onChunkLoaded(ChunkPos pos) {
+        long key = pos.toLong();
+        if (chunks.containsKey(key)) return;
+        boolean waiting = queued.containsKey(key);
+        queued.put(key, QUEUED_LOADED);
+        if (!waiting) pending.add(key);
+    }
+
+    public void onChunkUnloaded(ChunkPos pos) {
+        if (queued.containsKey(pos.toLong())) queued.put(pos.toLong(), QUEUED_UNLOADED);
+        Positions[] buckets = chunks.remove(pos.toLong());
+        if (buckets == null) return;
+        for (Positions bucket : buckets) {
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size; i++) members.remove(bucket.items[i]);
+        }
+    }
+
+    /** {@code state} is the block's new state. Chunks not yet indexed are read fresh later. */
+    public void onBlockChanged(BlockPos pos, BlockState state) {
+        Positions[] buckets = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (buckets == null) return;
+        long p = pos.asLong();
+        ResourceCategory now = ResourceCategory.ofIndexed(state);
+        int old = members.get(p);
+        if (now != null && old == now.ordinal()) return;
+        if (old != LongIntHashMap.MISSING) {
+            buckets[old].remove(p);
+            members.remove(p);
+        }
+        if (now != null) add(buckets, now, p);
+    }
+
+    // ── Internals ──────────────────────────────────────────────────────────────
+
+    private List<BlockPos> denseNearest(ResourceCategory category, BlockPos center, int radius, int down, int up,
+                                        int limit, Predicate<BlockPos> accept) {
+        if (limit == 1) {
+            BlockPos hit = BlockScanner.findNearest(level, center, radius, down, up, category::matches, accept);
+            return hit == null ? List.of() : List.of(hit);
+        }
+        List<BlockPos> all = new ArrayList<>();
+        BlockScanner.forEach(level, center, radius, down, up, category::matches, (pos, state) -> {
+            if (accept == null || accept.test(pos)) all.add(pos);
+        });
+        all.sort((a, b) -> Double.compare(a.distSqr(center), b.distSqr(center)));
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    /** Bucket of one category in one chunk, indexing the chunk first if needed; null if none or unloaded. */
+    private Positions bucket(int cx, int cz, ResourceCategory category) {
+        Positions[] buckets = chunks.get(ChunkPos.asLong(cx, cz));
+        if (buckets == null) buckets = index(cx, cz);
+        return buckets == null ? null : buckets[category.ordinal()];
+    }
+
+    private Positions[] index(int cx, int cz) {
+        LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+        if (chunk == null) return null;
+        Positions[] buckets = new Positions[CATEGORIES.length];
+        int minSectionY = level.getMinSectionY();
+        for (int i = 0; i < level.getSectionsCount(); i++) {
+            LevelChunkSection section = chunk.getSection(i);
+            if (section.hasOnlyAir()) continue;
+            // Palette check per category, so the block loop only tests what this section can hold
+            int mask = 0;
+            for (ResourceCategory c : CATEGORIES) {
+                if (!c.dense() && section.maybeHas(c::matches)) mask |= 1 << c.ordinal();
+            }
+            if (mask == 0) continue;
+            int baseX = cx << 4, baseY = (minSectionY + i) << 4, baseZ = cz << 4;
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        BlockState state = section.getBlockState(x, y, z);
+                        if (state.isAir()) continue;
+                        for (ResourceCategory c : CATEGORIES) {
+                            if ((mask & 1 << c.ordinal()) == 0 || !c.matches(state)) continue;
+                            add(buckets, c, BlockPos.asLong(baseX + x, baseY + y, baseZ + z));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        chunks.put(ChunkPos.asLong(cx, cz), buckets);
+        chunksIndexed++;
+        return buckets;
+    }
+
+    private void add(Positions[] buckets, ResourceCategory category, long pos) {
+        Positions bucket = buckets[category.ordinal()];
+        if (bucket == null) buckets[category.ordinal()] = bucket = new Positions();
+        bucket.add(pos);
+        members.put(pos, category.ordinal());
+    }
+
+    private void forget(long pos) {
+        int old = members.remove(pos);
+        if (old == LongIntHashMap.MISSING) return;
+        Positions[] buckets = chunks.get(ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4));
+        if (buckets != null && buckets[old] != null) buckets[old].remove(pos);
+    }
+
+    /** Smallest squared horizontal distance from {@code center} to any chunk in Chebyshev ring {@code ring}. */
+    private static double ringBound(BlockPos center, int ring) {
+        if (ring == 0) return 0;
+        int ox = center.getX() & 15, oz = center.getZ() & 15;
+        int gap = Math.min(Math.min(16 * ring - ox, ox + 1 + 16 * (ring - 1)),
+                           Math.min(16 * ring - oz, oz + 1 + 16 * (ring - 1)));
+        return (double) gap * gap;
+    }
+}